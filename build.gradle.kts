@@ -17,17 +17,76 @@ repositories {
 	mavenCentral()
 }
 
+// JMH benchmarks live in src/jmh/java and run against the main classes: ./gradlew jmh
+val jmh: SourceSet by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+// Load tests live in src/loadTest/java and are not part of check: ./gradlew loadTest
+val loadTest: SourceSet by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadTest.implementationConfigurationName].extendsFrom(configurations.testImplementation.get())
+configurations[loadTest.runtimeOnlyConfigurationName].extendsFrom(configurations.testRuntimeOnly.get())
+
+val jmhVersion = "1.37"
+val hdrHistogramVersion = "2.2.2"
+
 dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.8.14")
+	implementation("com.github.ben-manes.caffeine:caffeine")
 	runtimeOnly("com.h2database:h2")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
+	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+	"jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+	"jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+	"loadTestImplementation"("org.hdrhistogram:HdrHistogram:$hdrHistogramVersion")
 }
 
 tasks.test {
 	useJUnitPlatform()
 }
 
+// Runs JMH with the GC profiler so every result reports allocation rate (gc.alloc.rate.norm).
+// Select benchmarks with -Pjmh.includes=<regex>, e.g. ./gradlew jmh -Pjmh.includes=UrlUtils
+tasks.register<JavaExec>("jmh") {
+	group = "benchmark"
+	description = "Runs the JMH benchmarks in src/jmh."
+	dependsOn(tasks.named(jmh.classesTaskName))
+	classpath = jmh.runtimeClasspath
+	mainClass.set("org.openjdk.jmh.Main")
+	val resultFile = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+	val includes = providers.gradleProperty("jmh.includes").orNull
+	args(listOfNotNull(includes) + listOf("-prof", "gc", "-rf", "json", "-rff", resultFile.path))
+	doFirst {
+		resultFile.parentFile.mkdirs()
+	}
+}
 
+// Always reruns; jdk.tracePinnedThreads prints a stack trace whenever a virtual thread blocks
+// while pinned to its carrier thread. Gradle properties load.* configure ZipfianLoadTest, e.g.
+// ./gradlew loadTest --tests '*ZipfianLoadTest' -Pload.clients=128
+tasks.register<Test>("loadTest") {
+	group = "verification"
+	description = "Runs the load tests in src/loadTest."
+	testClassesDirs = loadTest.output.classesDirs
+	classpath = loadTest.runtimeClasspath
+	useJUnitPlatform()
+	jvmArgs("-Djdk.tracePinnedThreads=short")
+	systemProperties(providers.gradlePropertiesPrefixedBy("load.").get())
+	testLogging {
+		showStandardStreams = true
+	}
+	outputs.upToDateWhen { false }
+}
@@ -0,0 +1,106 @@
+package com.example.urlshortener;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic, realistic URL corpora for benchmarks.
+ *
+ * <p>Every corpus is generated from a fixed seed, so runs of different builds hash, normalize
+ * and store exactly the same inputs.</p>
+ */
+public enum UrlCorpus {
+
+  /** Short marketing-style links: host plus one or two path segments. */
+  SHORT {
+    @Override
+    String generate(SplittableRandom random, int index) {
+      return "https://" + pick(random, HOSTS) + "/" + word(random, 4, 8) + index;
+    }
+  },
+
+  /** Deep paths with mixed-case segments, a dot segment and a fragment. */
+  LONG {
+    @Override
+    String generate(SplittableRandom random, int index) {
+      StringBuilder url = new StringBuilder("https://WWW.").append(pick(random, HOSTS));
+      int segments = 6 + random.nextInt(6);
+      for (int i = 0; i < segments; i++) {
+        url.append('/').append(word(random, 5, 14));
+        if (i == 3) {
+          url.append("/./");
+        }
+      }
+      return url.append('/').append(index).append(".html#section-").append(random.nextInt(20)).toString();
+    }
+  },
+
+  /** Tracking links with many query parameters, including percent-encoded values. */
+  QUERY_HEAVY {
+    @Override
+    String generate(SplittableRandom random, int index) {
+      StringBuilder url = new StringBuilder("https://")
+          .append(pick(random, HOSTS))
+          .append("/landing/")
+          .append(index)
+          .append("?utm_source=").append(word(random, 5, 10))
+          .append("&utm_medium=email&utm_campaign=").append(word(random, 8, 16))
+          .append("&ref=https%3A%2F%2F").append(pick(random, HOSTS))
+          .append("%2F").append(word(random, 4, 8));
+      int extra = 4 + random.nextInt(8);
+      for (int i = 0; i < extra; i++) {
+        url.append('&').append(word(random, 2, 6)).append('=').append(word(random, 1, 12));
+      }
+      return url.toString();
+    }
+  },
+
+  /** Internationalized hosts (punycode, as sent by browsers) with Unicode paths. */
+  IDN {
+    @Override
+    String generate(SplittableRandom random, int index) {
+      return "https://" + pick(random, IDN_HOSTS) + "/" + pick(random, UNICODE_SEGMENTS)
+          + "/" + index + "?q=" + pick(random, UNICODE_SEGMENTS);
+    }
+  };
+
+  private static final String[] HOSTS = {
+      "example.com", "shop.example.org", "news.example.net", "blog.example.io", "cdn.example.co.uk"
+  };
+
+  private static final String[] IDN_HOSTS = {
+      "xn--r8jz45g.jp", "xn--mnchen-3ya.de", "xn--80ak6aa92e.com", "xn--fiqs8s.xn--fiqs8s"
+  };
+
+  private static final String[] UNICODE_SEGMENTS = {
+      "パス", "straße", "café", "путь", "%E2%82%AC-price", "日本語"
+  };
+
+  private static final String LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+  abstract String generate(SplittableRandom random, int index);
+
+  /**
+   * Generates {@code count} URLs of this corpus; the result only depends on the arguments.
+   */
+  public String[] urls(int count, long seed) {
+    SplittableRandom random = new SplittableRandom(seed ^ ordinal());
+    String[] urls = new String[count];
+    for (int i = 0; i < count; i++) {
+      urls[i] = generate(random, i);
+    }
+    return urls;
+  }
+
+  private static String pick(SplittableRandom random, String[] values) {
+    return values[random.nextInt(values.length)];
+  }
+
+  private static String word(SplittableRandom random, int minLength, int maxLength) {
+    int length = minLength + random.nextInt(maxLength - minLength + 1);
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = LETTERS.charAt(random.nextInt(LETTERS.length()));
+    }
+    return new String(chars);
+  }
+}
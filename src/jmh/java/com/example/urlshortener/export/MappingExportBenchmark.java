@@ -0,0 +1,127 @@
+package com.example.urlshortener.export;
+
+import com.example.urlshortener.UrlShortenerApplication;
+import com.example.urlshortener.util.Base62Encoder;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Time for one full export of {@code short_urls}, per format and with or without gzip.
+ *
+ * <p>The table is seeded once with {@code rows} mappings in a file-backed H2 database under
+ * {@code build/} and reused by later runs; pass {@code -p rows=10000000} through JMH for the
+ * 10M-row case (the first run spends a few minutes seeding). The output is discarded, so the
+ * score is database read plus encoding cost. The fork runs with a 256 MB heap, well below what
+ * the table would need if it were loaded at once, and the peak heap usage of each iteration is
+ * printed after it.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class MappingExportBenchmark {
+
+  private static final int SEED_BATCH = 10_000;
+
+  @Param({"1000000"})
+  public int rows;
+
+  @Param({"NDJSON", "CSV"})
+  public ExportFormat format;
+
+  @Param({"false", "true"})
+  public boolean gzip;
+
+  private ConfigurableApplicationContext context;
+  private MappingExporter exporter;
+
+  @Setup(Level.Trial)
+  public void startContext() {
+    context = new SpringApplicationBuilder(UrlShortenerApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "spring.datasource.url=jdbc:h2:file:./build/jmh-db/mapping-export-" + rows,
+            "spring.jpa.hibernate.ddl-auto=update",
+            "spring.jpa.show-sql=false",
+            "spring.h2.console.enabled=false",
+            "logging.level.root=WARN",
+            "app.clicks.enabled=false",
+            "app.cache.snapshot-enabled=false",
+            "app.expiry.sweeper-enabled=false")
+        .run();
+    exporter = context.getBean(MappingExporter.class);
+    seed(context.getBean(JdbcTemplate.class));
+  }
+
+  private void seed(JdbcTemplate jdbcTemplate) {
+    Long existing = jdbcTemplate.queryForObject("select count(*) from short_urls", Long.class);
+    Timestamp createdAt = Timestamp.from(Instant.parse("2026-01-01T00:00:00Z"));
+    List<Object[]> batch = new ArrayList<>(SEED_BATCH);
+    for (long i = existing == null ? 0 : existing; i < rows; i++) {
+      batch.add(new Object[] {
+          "https://example.com/items/" + i + "?utm_source=newsletter&utm_medium=email", i,
+          Base62Encoder.encode(i + 1_000_000_000L), createdAt});
+      if (batch.size() == SEED_BATCH || i == rows - 1) {
+        jdbcTemplate.batchUpdate(
+            "insert into short_urls (original_url, original_url_hash, short_code, created_at) values (?, ?, ?, ?)",
+            batch);
+        batch.clear();
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void stopContext() {
+    context.close();
+  }
+
+  @Setup(Level.Iteration)
+  public void resetPeakHeap() {
+    System.gc();
+    heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+  }
+
+  @TearDown(Level.Iteration)
+  public void printPeakHeap() {
+    long peak = heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    System.out.printf("%npeak heap used: %d MB%n", peak >> 20);
+  }
+
+  private static List<MemoryPoolMXBean> heapPools() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .toList();
+  }
+
+  @Benchmark
+  public long export() throws IOException {
+    return exporter.export(OutputStream.nullOutputStream(), format, gzip);
+  }
+}
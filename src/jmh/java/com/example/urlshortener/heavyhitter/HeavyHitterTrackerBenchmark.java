@@ -0,0 +1,97 @@
+package com.example.urlshortener.heavyhitter;
+
+import com.example.urlshortener.cache.ResolveCache;
+import com.example.urlshortener.config.AppProperties;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of heavy-hitter tracking with the default settings.
+ *
+ * <p>{@code record} is what a redirect pays: every core records codes while the background
+ * thread drains them. {@code countAndRank} is what the background thread pays per recorded
+ * redirect: a count-min sketch update and a top-K offer. Codes are drawn from 100k with a strong
+ * skew towards a few, like real traffic. The fixed memory is printed at setup.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeavyHitterTrackerBenchmark {
+
+  private static final int CODES = 100_000;
+  private static final int SAMPLES = 1 << 16;
+
+  private HeavyHitterTracker tracker;
+  private String[] samples;
+
+  @Setup(Level.Trial)
+  public void startTracker() {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getHeavyHitters().setPinCache(false);
+    tracker = new HeavyHitterTracker(appProperties, new ResolveCache(appProperties), null);
+    tracker.start();
+    samples = skewedCodes(42);
+    System.out.printf("%nsketch: %d bytes, record buffers: %d slots%n",
+        tracker.sketch().memoryBytes(), tracker.bufferSlots());
+  }
+
+  @TearDown(Level.Trial)
+  public void stopTracker() {
+    tracker.stop();
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int next;
+
+    String advance(String[] samples) {
+      return samples[next++ & (SAMPLES - 1)];
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Counting {
+    final CountMinSketch sketch = new CountMinSketch(4, 8192);
+    final TopK top = new TopK(100);
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public void record(Cursor cursor) {
+    tracker.record(cursor.advance(samples));
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void countAndRank(Cursor cursor, Counting counting) {
+    String code = cursor.advance(samples);
+    counting.top.offer(code, counting.sketch.add(code));
+  }
+
+  /** Rank {@code i} is drawn with probability falling off steeply with {@code i}. */
+  private static String[] skewedCodes(long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    String[] codes = new String[SAMPLES];
+    for (int i = 0; i < SAMPLES; i++) {
+      int rank = (int) (CODES * Math.pow(random.nextDouble(), 4));
+      codes[i] = "code" + rank;
+    }
+    return codes;
+  }
+}
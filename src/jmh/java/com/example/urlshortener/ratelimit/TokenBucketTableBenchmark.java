@@ -0,0 +1,78 @@
+package com.example.urlshortener.ratelimit;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-request cost of the rate limiter's bucket table with every core taking tokens at once.
+ *
+ * <p>{@code shared} sends all threads to one client's bucket, the worst case for its
+ * compare-and-set; {@code perThread} gives each thread a client of its own, so threads meet only
+ * on the stripes; {@code many} spreads requests over 100k clients, which is mostly the hash
+ * lookup. The refill rate is high enough that requests are admitted, the path that updates the
+ * bucket; {@code limited} runs the same with tiny buckets, so that almost every request is
+ * refused after a read.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class TokenBucketTableBenchmark {
+
+  private static final int MANY_CLIENTS = 100_000;
+
+  @Param({"shared", "perThread", "many"})
+  public String clients;
+
+  @Param({"false", "true"})
+  public boolean limited;
+
+  private TokenBucketTable table;
+  private String[] keys;
+
+  @Setup(Level.Trial)
+  public void createTable() {
+    int stripes = 4 * Runtime.getRuntime().availableProcessors();
+    table = limited
+        ? new TokenBucketTable(stripes, 1, 1, System::nanoTime)
+        : new TokenBucketTable(stripes, 1_000_000, 1e9, System::nanoTime);
+    keys = new String[MANY_CLIENTS];
+    for (int i = 0; i < MANY_CLIENTS; i++) {
+      keys[i] = "ip:10." + (i >> 16) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadKey {
+
+    private static final AtomicInteger NEXT = new AtomicInteger();
+
+    final String key = "key:client-" + NEXT.getAndIncrement();
+  }
+
+  @Benchmark
+  public long tryAcquire(ThreadKey threadKey) {
+    return table.tryAcquire(switch (clients) {
+      case "shared" -> keys[0];
+      case "perThread" -> threadKey.key;
+      default -> keys[ThreadLocalRandom.current().nextInt(MANY_CLIENTS)];
+    });
+  }
+}
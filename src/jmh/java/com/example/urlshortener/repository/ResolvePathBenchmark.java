@@ -0,0 +1,101 @@
+package com.example.urlshortener.repository;
+
+import com.example.urlshortener.UrlCorpus;
+import com.example.urlshortener.UrlShortenerApplication;
+import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.service.UrlShorteningService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Cost of one uncached resolve lookup through the storage layer: the managed-entity query that
+ * {@code resolveUrl} used before, the read-only constructor projection it uses now, and a plain JDBC
+ * query as the lower bound.
+ *
+ * <p>Run with the GC profiler (the default of {@code ./gradlew jmh}) to compare
+ * {@code gc.alloc.rate.norm} per lookup alongside the average latency.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResolvePathBenchmark {
+
+  private static final int SEEDED = 10_000;
+
+  private ConfigurableApplicationContext context;
+  private ShortUrlRepository repository;
+  private JdbcTemplate jdbcTemplate;
+  private String[] seededCodes;
+
+  @Setup(Level.Trial)
+  public void startContext() {
+    context = new SpringApplicationBuilder(UrlShortenerApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "spring.datasource.url=jdbc:h2:mem:resolve-path;DB_CLOSE_DELAY=-1",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false",
+            "spring.h2.console.enabled=false",
+            "logging.level.root=WARN",
+            "app.clicks.enabled=false")
+        .run();
+    repository = context.getBean(ShortUrlRepository.class);
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+    UrlShorteningService service = context.getBean(UrlShorteningService.class);
+    String[] urls = UrlCorpus.QUERY_HEAVY.urls(SEEDED, 42);
+    seededCodes = new String[SEEDED];
+    for (int i = 0; i < SEEDED; i++) {
+      seededCodes[i] = service.shortenUrl(urls[i]).getShortCode();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void stopContext() {
+    context.close();
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int index;
+
+    String next(String[] codes) {
+      index = (index + 1) % codes.length;
+      return codes[index];
+    }
+  }
+
+  @Benchmark
+  public String entity(Cursor cursor) {
+    return repository.findByShortCode(cursor.next(seededCodes)).map(ShortUrl::getOriginalUrl).orElse(null);
+  }
+
+  @Benchmark
+  public String projection(Cursor cursor) {
+    return repository.findLinkTargetByShortCode(cursor.next(seededCodes)).map(LinkTarget::originalUrl).orElse(null);
+  }
+
+  @Benchmark
+  public String jdbc(Cursor cursor) {
+    return jdbcTemplate.queryForObject(
+        "select original_url from short_urls where short_code = ?", String.class, cursor.next(seededCodes));
+  }
+}
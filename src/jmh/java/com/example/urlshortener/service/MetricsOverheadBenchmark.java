@@ -0,0 +1,91 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.UrlCorpus;
+import com.example.urlshortener.UrlShortenerApplication;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Cost of the service timers on the redirect hot path: a cached {@code resolveUrl} with the
+ * {@code urlshortener.*} meters recording, and with them disabled through
+ * {@code management.metrics.enable.urlshortener=false} (no-op meters).
+ *
+ * <p>The cached resolve does no I/O, so the difference between the two runs is the per-call
+ * instrumentation overhead. It runs with four threads to include contention on the histogram.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+  private static final int SEEDED = 1_000;
+
+  @Param({"true", "false"})
+  public boolean metricsEnabled;
+
+  private ConfigurableApplicationContext context;
+  private UrlShorteningService service;
+  private String[] seededCodes;
+
+  @Setup(Level.Trial)
+  public void startContext() {
+    context = new SpringApplicationBuilder(UrlShortenerApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "spring.datasource.url=jdbc:h2:mem:metrics-overhead;DB_CLOSE_DELAY=-1",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false",
+            "spring.h2.console.enabled=false",
+            "logging.level.root=WARN",
+            "app.clicks.enabled=false",
+            "management.metrics.enable.urlshortener=" + metricsEnabled)
+        .run();
+    service = context.getBean(UrlShorteningService.class);
+
+    String[] urls = UrlCorpus.SHORT.urls(SEEDED, 42);
+    seededCodes = new String[SEEDED];
+    for (int i = 0; i < SEEDED; i++) {
+      seededCodes[i] = service.shortenUrl(urls[i]).getShortCode();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void stopContext() {
+    context.close();
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int index;
+
+    int next() {
+      index = (index + 1) % SEEDED;
+      return index;
+    }
+  }
+
+  @Benchmark
+  public String resolveUrl_cached(Cursor cursor) {
+    return service.resolveUrl(seededCodes[cursor.next()]);
+  }
+}
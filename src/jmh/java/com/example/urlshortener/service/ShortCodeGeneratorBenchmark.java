@@ -0,0 +1,53 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.UrlCorpus;
+import com.example.urlshortener.util.UrlUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShortCodeGeneratorBenchmark {
+
+  private static final int SAMPLES = 1024;
+
+  @Param({"SHORT", "LONG", "QUERY_HEAVY", "IDN"})
+  public UrlCorpus corpus;
+
+  @Param({"SHA_256", "XXHASH_64"})
+  public HashAlgorithm algorithm;
+
+  private ShortCodeGenerator generator;
+  private String[] normalizedUrls;
+  private int index;
+
+  @Setup
+  public void setUp() {
+    generator = new ShortCodeGenerator(algorithm);
+    String[] urls = corpus.urls(SAMPLES, 42);
+    normalizedUrls = new String[SAMPLES];
+    for (int i = 0; i < SAMPLES; i++) {
+      normalizedUrls[i] = UrlUtils.normalizeUrl(urls[i]);
+    }
+  }
+
+  @Benchmark
+  public String generateShortCode() {
+    index = (index + 1) & (SAMPLES - 1);
+    return generator.generateShortCode(normalizedUrls[index]);
+  }
+}
@@ -0,0 +1,73 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.UrlShortenerApplication;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Throughput of concurrent {@code shortenUrl} calls for new URLs, with and without group commit
+ * ({@code app.shorten-batching.enabled}).
+ *
+ * <p>The database is a file-backed H2 instance under {@code build/}, so each commit pays for a
+ * log write as it would in production; an in-memory database would hide what batching saves.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class ShortenBatchingBenchmark {
+
+  @Param({"false", "true"})
+  public boolean batching;
+
+  private ConfigurableApplicationContext context;
+  private UrlShorteningService service;
+  private final AtomicLong sequence = new AtomicLong();
+
+  @Setup(Level.Trial)
+  public void startContext() {
+    context = new SpringApplicationBuilder(UrlShortenerApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "spring.datasource.url=jdbc:h2:file:./build/jmh-db/shorten-batching-" + batching,
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false",
+            "spring.h2.console.enabled=false",
+            "spring.datasource.hikari.maximum-pool-size=64",
+            "logging.level.root=WARN",
+            "app.clicks.enabled=false",
+            "app.shorten-batching.enabled=" + batching)
+        .run();
+    service = context.getBean(UrlShorteningService.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void stopContext() {
+    context.close();
+  }
+
+  @Benchmark
+  public String shortenUrl_new() {
+    return service.shortenUrl("https://example.com/items/" + sequence.incrementAndGet()).getShortCode();
+  }
+}
@@ -0,0 +1,100 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.UrlCorpus;
+import com.example.urlshortener.UrlShortenerApplication;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Service-level shorten and resolve paths against an in-memory H2 database.
+ *
+ * <p>The application context is started once per fork without the web tier. The resolve
+ * benchmarks run with and without the resolve cache so the repository cost stays visible.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlShorteningServiceBenchmark {
+
+  private static final int SEEDED = 10_000;
+
+  @Param({"true", "false"})
+  public boolean cacheEnabled;
+
+  private ConfigurableApplicationContext context;
+  private UrlShorteningService service;
+  private String[] seededUrls;
+  private String[] seededCodes;
+  private final AtomicInteger newUrlCounter = new AtomicInteger();
+
+  @Setup(Level.Trial)
+  public void startContext() {
+    context = new SpringApplicationBuilder(UrlShortenerApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false",
+            "spring.h2.console.enabled=false",
+            "logging.level.root=WARN",
+            "app.cache.enabled=" + cacheEnabled)
+        .run();
+    service = context.getBean(UrlShorteningService.class);
+
+    seededUrls = UrlCorpus.QUERY_HEAVY.urls(SEEDED, 42);
+    seededCodes = new String[SEEDED];
+    for (int i = 0; i < SEEDED; i++) {
+      seededCodes[i] = service.shortenUrl(seededUrls[i]).getShortCode();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void stopContext() {
+    context.close();
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int index;
+
+    int next() {
+      index = (index + 1) % SEEDED;
+      return index;
+    }
+  }
+
+  @Benchmark
+  public String resolveUrl(Cursor cursor) {
+    return service.resolveUrl(seededCodes[cursor.next()]);
+  }
+
+  @Benchmark
+  public String shortenUrl_existing(Cursor cursor) {
+    return service.shortenUrl(seededUrls[cursor.next()]).getShortCode();
+  }
+
+  @Benchmark
+  public String shortenUrl_new() {
+    int id = newUrlCounter.incrementAndGet();
+    return service.shortenUrl("https://bench.example.com/new/" + id + "?src=jmh").getShortCode();
+  }
+}
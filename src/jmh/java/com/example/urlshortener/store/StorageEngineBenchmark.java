@@ -0,0 +1,126 @@
+package com.example.urlshortener.store;
+
+import com.example.urlshortener.UrlCorpus;
+import com.example.urlshortener.UrlShortenerApplication;
+import com.example.urlshortener.repository.LinkTarget;
+import com.example.urlshortener.service.UrlShorteningService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Resolve and shorten throughput of the two storage engines ({@code app.storage.engine}):
+ * Spring Data JPA on an in-memory H2 database, and the append-only log with its in-memory
+ * index, writing to a temporary file.
+ *
+ * <ul>
+ *   <li>{@code resolve} looks up a seeded code directly in the {@link ShortUrlStore}, so the
+ *       resolve cache does not hide the storage cost</li>
+ *   <li>{@code shorten} stores a new URL through {@link UrlShorteningService#shortenUrl}, which
+ *       is one insert per call for both engines</li>
+ * </ul>
+ *
+ * <p>The H2 database lives in memory, so the comparison shows the cost of ORM, SQL and the
+ * B-tree rather than of disk I/O; the log writes go to the page cache
+ * ({@code app.storage.sync-on-write=false}). Use {@code -t} to measure with several threads.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageEngineBenchmark {
+
+  private static final int SEEDED = 10_000;
+
+  @Param({"jpa", "log"})
+  public String engine;
+
+  private ConfigurableApplicationContext context;
+  private Path logDirectory;
+  private ShortUrlStore store;
+  private UrlShorteningService service;
+  private String[] seededCodes;
+
+  @Setup(Level.Trial)
+  public void startContext() throws IOException {
+    logDirectory = Files.createTempDirectory("storage-engine-benchmark");
+    context = new SpringApplicationBuilder(UrlShortenerApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "spring.datasource.url=jdbc:h2:mem:storage-engine;DB_CLOSE_DELAY=-1",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false",
+            "spring.h2.console.enabled=false",
+            "logging.level.root=WARN",
+            "app.clicks.enabled=false",
+            "app.cache.enabled=false",
+            "app.storage.engine=" + engine,
+            "app.storage.log-path=" + logDirectory.resolve("short-urls.log"))
+        .run();
+    store = context.getBean(ShortUrlStore.class);
+    service = context.getBean(UrlShorteningService.class);
+
+    String[] urls = UrlCorpus.QUERY_HEAVY.urls(SEEDED, 42);
+    seededCodes = new String[SEEDED];
+    for (int i = 0; i < SEEDED; i++) {
+      seededCodes[i] = service.shortenUrl(urls[i]).getShortCode();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void stopContext() throws IOException {
+    context.close();
+    try (var files = Files.list(logDirectory)) {
+      for (Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(logDirectory);
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int index = ThreadLocalRandom.current().nextInt(SEEDED);
+    long created;
+    final String prefix = "https://example.com/new/" + ThreadLocalRandom.current().nextLong(1L << 40) + "/";
+
+    String nextCode(String[] codes) {
+      index = (index + 1) % codes.length;
+      return codes[index];
+    }
+
+    String nextUrl() {
+      return prefix + created++;
+    }
+  }
+
+  @Benchmark
+  public String resolve(Cursor cursor) {
+    return store.findLinkTargetByShortCode(cursor.nextCode(seededCodes)).map(LinkTarget::originalUrl).orElse(null);
+  }
+
+  @Benchmark
+  public String shorten(Cursor cursor) {
+    return service.shortenUrl(cursor.nextUrl()).getShortCode();
+  }
+}
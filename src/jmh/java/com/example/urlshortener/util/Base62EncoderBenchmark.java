@@ -0,0 +1,68 @@
+package com.example.urlshortener.util;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Base62EncoderBenchmark {
+
+  private static final int SAMPLES = 1024;
+
+  /** Byte length for the BigInteger-based {@code encode(byte[])} path (8 = long, 32 = SHA-256). */
+  @Param({"8", "32"})
+  public int byteLength;
+
+  private long[] values;
+  private byte[][] byteValues;
+  private int index;
+
+  @Setup
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(42);
+    values = new long[SAMPLES];
+    byteValues = new byte[SAMPLES][];
+    for (int i = 0; i < SAMPLES; i++) {
+      values[i] = random.nextLong() & Long.MAX_VALUE;
+      byte[] bytes = new byte[byteLength];
+      for (int j = 0; j < bytes.length; j++) {
+        bytes[j] = (byte) random.nextInt(256);
+      }
+      byteValues[i] = bytes;
+    }
+  }
+
+  @Benchmark
+  public String encodeLong() {
+    return Base62Encoder.encode(values[next()]);
+  }
+
+  @Benchmark
+  public String encodeLongTruncated() {
+    return Base62Encoder.encode(values[next()], 10);
+  }
+
+  @Benchmark
+  public String encodeBytes() {
+    return Base62Encoder.encode(byteValues[next()]);
+  }
+
+  private int next() {
+    return index = (index + 1) & (SAMPLES - 1);
+  }
+}
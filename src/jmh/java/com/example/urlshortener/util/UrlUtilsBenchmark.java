@@ -0,0 +1,62 @@
+package com.example.urlshortener.util;
+
+import com.example.urlshortener.UrlCorpus;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlUtilsBenchmark {
+
+  private static final int SAMPLES = 1024;
+
+  @Param({"SHORT", "LONG", "QUERY_HEAVY", "IDN"})
+  public UrlCorpus corpus;
+
+  private String[] urls;
+  private String[] invalidUrls;
+  private int index;
+
+  @Setup
+  public void setUp() {
+    urls = corpus.urls(SAMPLES, 42);
+    invalidUrls = new String[SAMPLES];
+    for (int i = 0; i < SAMPLES; i++) {
+      // Typical rejects: wrong scheme, or an illegal character in the path
+      invalidUrls[i] = (i % 2 == 0) ? urls[i].replaceFirst("^https", "ftp") : urls[i] + " x";
+    }
+  }
+
+  @Benchmark
+  public String normalizeUrl() {
+    return UrlUtils.normalizeUrl(urls[next()]);
+  }
+
+  @Benchmark
+  public boolean isValidHttpUrl_valid() {
+    return UrlUtils.isValidHttpUrl(urls[next()]);
+  }
+
+  @Benchmark
+  public boolean isValidHttpUrl_invalid() {
+    return UrlUtils.isValidHttpUrl(invalidUrls[next()]);
+  }
+
+  private int next() {
+    return index = (index + 1) & (SAMPLES - 1);
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.urlshortener.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Settings of a {@link ZipfianLoadTest} run, read from {@code load.*} system properties; the
+ * {@code loadTest} task passes Gradle properties of the same names through, e.g.
+ * {@code ./gradlew loadTest -Pload.clients=128 -Pload.rate=20000}.
+ *
+ * @param baseUrl       a running instance to drive instead of starting the application
+ * @param urls          URLs seeded through {@code POST /api/shorten} before the run
+ * @param clients       concurrent clients, each on its own virtual thread
+ * @param shortenRatio  share of requests that shorten a new URL
+ * @param unknownRatio  share of requests that redirect a code that does not exist
+ * @param zipfExponent  skew of code popularity among the other, redirect, requests
+ * @param rate          requests per second over all clients, or 0 to send as fast as answered
+ * @param warmup        time before latencies are recorded
+ * @param duration      time latencies are recorded for
+ * @param seed          seed of every random choice, so that runs are repeatable
+ * @param properties    extra application properties, e.g. {@code app.storage.engine=log}
+ * @param reportDir     where the latency histograms are written
+ */
+record LoadProfile(String baseUrl, int urls, int clients, double shortenRatio, double unknownRatio,
+                   double zipfExponent, double rate, Duration warmup, Duration duration, long seed,
+                   List<String> properties, Path reportDir) {
+
+  LoadProfile {
+    if (urls <= 0 || clients <= 0 || rate < 0) {
+      throw new IllegalArgumentException("URLs and clients must be positive and the rate not negative");
+    }
+    if (shortenRatio < 0 || unknownRatio < 0 || shortenRatio + unknownRatio > 1) {
+      throw new IllegalArgumentException("Shorten and unknown ratios must add up to at most 1");
+    }
+  }
+
+  static LoadProfile fromSystemProperties() {
+    String properties = System.getProperty("load.properties", "");
+    return new LoadProfile(
+        System.getProperty("load.base-url"),
+        Integer.getInteger("load.urls", 10_000),
+        Integer.getInteger("load.clients", 64),
+        doubleProperty("load.shorten-ratio", 0.05),
+        doubleProperty("load.unknown-ratio", 0.05),
+        doubleProperty("load.zipf-exponent", 0.99),
+        doubleProperty("load.rate", 0),
+        Duration.ofSeconds(Long.getLong("load.warmup", 5)),
+        Duration.ofSeconds(Long.getLong("load.duration", 30)),
+        Long.getLong("load.seed", 42),
+        properties.isBlank() ? List.of() : Arrays.stream(properties.split(",")).map(String::trim).toList(),
+        Path.of(System.getProperty("load.report-dir", "build/reports/loadTest")));
+  }
+
+  private static double doubleProperty(String name, double defaultValue) {
+    String value = System.getProperty(name);
+    return value == null ? defaultValue : Double.parseDouble(value);
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.urlshortener.load;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws ranks {@code 0..items-1} with probability proportional to {@code 1 / (rank + 1)^exponent},
+ * the popularity skew of links in practice: a few codes take most of the redirects and a long tail
+ * is rarely visited. An exponent of 0 is uniform.
+ *
+ * <p>The cumulative distribution is computed once, so a draw is one binary search; the table
+ * holds one {@code double} per item.</p>
+ */
+final class ZipfianGenerator {
+
+  private final double[] cumulative;
+
+  ZipfianGenerator(int items, double exponent) {
+    if (items <= 0 || exponent < 0) {
+      throw new IllegalArgumentException("Items must be positive and the exponent not negative");
+    }
+    cumulative = new double[items];
+    double sum = 0;
+    for (int i = 0; i < items; i++) {
+      sum += 1 / Math.pow(i + 1, exponent);
+      cumulative[i] = sum;
+    }
+    for (int i = 0; i < items; i++) {
+      cumulative[i] /= sum;
+    }
+  }
+
+  int next(RandomGenerator random) {
+    int index = Arrays.binarySearch(cumulative, random.nextDouble());
+    // Not found (the usual case) gives -(first greater element) - 1
+    int rank = index >= 0 ? index : -index - 1;
+    return Math.min(rank, cumulative.length - 1);
+  }
+}
@@ -0,0 +1,301 @@
+package com.example.urlshortener.load;
+
+import com.example.urlshortener.UrlShortenerApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives a production-like mix of {@code POST /api/shorten} and {@code GET /u/{code}} over HTTP
+ * and reports throughput and latency percentiles per kind of request, for comparing builds and
+ * configurations. The run is described by a {@link LoadProfile}.
+ *
+ * <p>The application is started on a free port against a fresh in-memory database (or
+ * {@code load.base-url} is driven instead) and seeded with {@code load.urls} links through the
+ * API. Then {@code load.clients} clients send requests for {@code load.warmup} plus
+ * {@code load.duration} seconds: a {@code load.shorten-ratio} share shortens new URLs, a
+ * {@code load.unknown-ratio} share redirects codes that do not exist, and the rest redirect seeded
+ * codes picked with Zipfian popularity. Every choice comes from {@code load.seed}, so two runs send
+ * the same requests.</p>
+ *
+ * <p>By default each client sends its next request when the previous one is answered. With
+ * {@code load.rate} the clients instead send on a fixed schedule and latency is measured from the
+ * time a request was due, so that a stall shows up in the percentiles of every request it delayed
+ * rather than in one slow sample (coordinated omission).</p>
+ *
+ * <p>Latencies are recorded in HdrHistograms; a summary is printed and each histogram's
+ * percentile distribution is written to {@code load.report-dir} as {@code <operation>.hgrm}.</p>
+ */
+class ZipfianLoadTest {
+
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+  private static final String CODE_ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void mixedWorkload_reportsThroughputAndLatencyPercentiles() throws Exception {
+    LoadProfile profile = LoadProfile.fromSystemProperties();
+    System.out.printf("%n%s%n", profile);
+
+    LoadResult result;
+    if (profile.baseUrl() != null) {
+      result = run(profile, profile.baseUrl().replaceAll("/+$", ""));
+    } else {
+      try (ConfigurableApplicationContext context = start(profile)) {
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        result = run(profile, "http://localhost:" + port);
+      }
+    }
+    report(profile, result);
+
+    for (Operation operation : Operation.values()) {
+      assertEquals(0, result.errors().get(operation), operation.label + " requests with an unexpected answer");
+    }
+  }
+
+  private static ConfigurableApplicationContext start(LoadProfile profile) {
+    // Command-line arguments, so that they take precedence over application.properties
+    List<String> args = new ArrayList<>(List.of(
+        "--server.port=0",
+        "--spring.datasource.url=jdbc:h2:mem:zipfian-load;DB_CLOSE_DELAY=-1",
+        "--spring.jpa.hibernate.ddl-auto=create-drop",
+        "--spring.jpa.show-sql=false",
+        "--spring.h2.console.enabled=false",
+        "--logging.level.root=WARN",
+        // All clients share one address, and a warm start would make runs differ
+        "--app.rate-limit.enabled=false",
+        "--app.cache.snapshot-enabled=false"));
+    profile.properties().forEach(property -> args.add("--" + property));
+    return new SpringApplicationBuilder(UrlShortenerApplication.class).run(args.toArray(String[]::new));
+  }
+
+  private LoadResult run(LoadProfile profile, String baseUrl) throws Exception {
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+         HttpClient http = HttpClient.newBuilder()
+             .version(HttpClient.Version.HTTP_1_1)
+             .followRedirects(HttpClient.Redirect.NEVER)
+             .connectTimeout(REQUEST_TIMEOUT)
+             .executor(executor)
+             .build()) {
+      String[] codes = seed(profile, baseUrl, http, executor);
+      // Popularity rank to code, shuffled so that popularity does not follow insertion order
+      SplittableRandom shuffle = new SplittableRandom(profile.seed());
+      for (int i = codes.length - 1; i > 0; i--) {
+        int j = shuffle.nextInt(i + 1);
+        String code = codes[i];
+        codes[i] = codes[j];
+        codes[j] = code;
+      }
+      ZipfianGenerator popularity = new ZipfianGenerator(codes.length, profile.zipfExponent());
+
+      long measureFrom = System.nanoTime() + profile.warmup().toNanos();
+      long measureUntil = measureFrom + profile.duration().toNanos();
+      List<Future<LoadResult>> clients = new ArrayList<>();
+      for (int c = 0; c < profile.clients(); c++) {
+        int client = c;
+        clients.add(executor.submit(() ->
+            drive(profile, baseUrl, http, client, codes, popularity, measureFrom, measureUntil)));
+      }
+
+      LoadResult total = LoadResult.empty();
+      for (Future<LoadResult> client : clients) {
+        total.add(client.get());
+      }
+      return total;
+    }
+  }
+
+  /** Shortens the seed URLs over all clients in parallel; returns their codes in seed order. */
+  private String[] seed(LoadProfile profile, String baseUrl, HttpClient http, ExecutorService executor)
+      throws Exception {
+    String[] codes = new String[profile.urls()];
+    List<Future<?>> seeders = new ArrayList<>();
+    for (int c = 0; c < profile.clients(); c++) {
+      int first = c;
+      seeders.add(executor.submit(() -> {
+        for (int i = first; i < codes.length; i += profile.clients()) {
+          String url = "https://load.example.com/item/" + i + "?seed=" + profile.seed();
+          HttpResponse<String> response = http.send(shortenRequest(baseUrl, url), HttpResponse.BodyHandlers.ofString());
+          if (response.statusCode() != 200) {
+            throw new IllegalStateException("Seeding " + url + " failed with " + response.statusCode());
+          }
+          codes[i] = objectMapper.readTree(response.body()).get("shortCode").asText();
+        }
+        return null;
+      }));
+    }
+    for (Future<?> seeder : seeders) {
+      seeder.get();
+    }
+    return codes;
+  }
+
+  private LoadResult drive(LoadProfile profile, String baseUrl, HttpClient http, int client, String[] codes,
+      ZipfianGenerator popularity, long measureFrom, long measureUntil) throws InterruptedException {
+    SplittableRandom random = new SplittableRandom(profile.seed() * 1_000_003 + client);
+    LoadResult result = LoadResult.empty();
+    long interval = profile.rate() > 0 ? Math.round(profile.clients() * 1e9 / profile.rate()) : 0;
+    // Staggered, so that the clients of a fixed rate do not all send at the same instant
+    long due = System.nanoTime() + (interval > 0 ? random.nextLong(interval) : 0);
+    int shortened = 0;
+
+    while (true) {
+      if (interval > 0) {
+        long wait = due - System.nanoTime();
+        if (wait > 0) {
+          LockSupport.parkNanos(wait);
+        }
+      } else {
+        due = System.nanoTime();
+      }
+      if (due - measureUntil >= 0) {
+        return result;
+      }
+
+      double choice = random.nextDouble();
+      Operation operation;
+      HttpRequest request;
+      if (choice < profile.shortenRatio()) {
+        operation = Operation.SHORTEN;
+        request = shortenRequest(baseUrl,
+            "https://load.example.com/new/" + profile.seed() + "/" + client + "/" + shortened++);
+      } else if (choice < profile.shortenRatio() + profile.unknownRatio()) {
+        operation = Operation.UNKNOWN;
+        request = redirectRequest(baseUrl, unknownCode(random));
+      } else {
+        operation = Operation.REDIRECT;
+        request = redirectRequest(baseUrl, codes[popularity.next(random)]);
+      }
+
+      int status;
+      try {
+        status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+      } catch (IOException ex) {
+        status = -1;
+      }
+      long end = System.nanoTime();
+      if (!operation.expects(status)) {
+        result.errors().merge(operation, 1L, Long::sum);
+      } else if (due - measureFrom >= 0) {
+        result.latencies().get(operation).recordValue(end - due);
+      }
+      due += interval;
+    }
+  }
+
+  private HttpRequest shortenRequest(String baseUrl, String url) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + "/api/shorten"))
+        .timeout(REQUEST_TIMEOUT)
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.createObjectNode().put("url", url).toString()))
+        .build();
+  }
+
+  private static HttpRequest redirectRequest(String baseUrl, String code) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + "/u/" + code)).timeout(REQUEST_TIMEOUT).build();
+  }
+
+  /** Longer than any generated code, so it cannot exist. */
+  private static String unknownCode(SplittableRandom random) {
+    char[] code = new char[12];
+    for (int i = 0; i < code.length; i++) {
+      code[i] = CODE_ALPHABET.charAt(random.nextInt(CODE_ALPHABET.length()));
+    }
+    return new String(code);
+  }
+
+  private static void report(LoadProfile profile, LoadResult result) throws IOException {
+    Files.createDirectories(profile.reportDir());
+    double seconds = profile.duration().toNanos() / 1e9;
+    Histogram all = new Histogram(3);
+
+    System.out.printf("%n%-13s %9s %9s %8s %8s %8s %8s %8s %7s%n",
+        "operation", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+    long errors = 0;
+    for (Operation operation : Operation.values()) {
+      Histogram latencies = result.latencies().get(operation);
+      print(operation.label, latencies, seconds, result.errors().get(operation));
+      all.add(latencies);
+      errors += result.errors().get(operation);
+      try (PrintStream out = new PrintStream(Files.newOutputStream(
+          profile.reportDir().resolve(operation.name().toLowerCase() + ".hgrm")))) {
+        latencies.outputPercentileDistribution(out, 1e6);
+      }
+    }
+    print("all", all, seconds, errors);
+    System.out.printf("Percentile distributions (ms) written to %s%n", profile.reportDir().toAbsolutePath());
+  }
+
+  private static void print(String label, Histogram latencies, double seconds, long errors) {
+    System.out.printf("%-13s %9d %9.0f %8.2f %8.2f %8.2f %8.2f %8.2f %7d%n",
+        label, latencies.getTotalCount(), latencies.getTotalCount() / seconds,
+        latencies.getValueAtPercentile(50) / 1e6, latencies.getValueAtPercentile(90) / 1e6,
+        latencies.getValueAtPercentile(99) / 1e6, latencies.getValueAtPercentile(99.9) / 1e6,
+        latencies.getMaxValue() / 1e6, errors);
+  }
+
+  private enum Operation {
+    REDIRECT("redirect"),
+    UNKNOWN("unknown code"),
+    SHORTEN("shorten");
+
+    private final String label;
+
+    Operation(String label) {
+      this.label = label;
+    }
+
+    boolean expects(int status) {
+      return switch (this) {
+        case REDIRECT -> status / 100 == 3;
+        case UNKNOWN -> status == 404;
+        case SHORTEN -> status == 200;
+      };
+    }
+  }
+
+  /** Latencies in nanoseconds and unexpected answers, per operation. */
+  private record LoadResult(Map<Operation, Histogram> latencies, Map<Operation, Long> errors) {
+
+    static LoadResult empty() {
+      LoadResult result = new LoadResult(new EnumMap<>(Operation.class), new EnumMap<>(Operation.class));
+      for (Operation operation : Operation.values()) {
+        // Auto-resizing, three significant digits
+        result.latencies().put(operation, new Histogram(3));
+        result.errors().put(operation, 0L);
+      }
+      return result;
+    }
+
+    void add(LoadResult other) {
+      for (Operation operation : Operation.values()) {
+        latencies.get(operation).add(other.latencies().get(operation));
+        errors.merge(operation, other.errors().get(operation), Long::sum);
+      }
+    }
+  }
+}
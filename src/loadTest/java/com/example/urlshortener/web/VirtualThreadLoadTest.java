@@ -0,0 +1,217 @@
+package com.example.urlshortener.web;
+
+import com.example.urlshortener.UrlShortenerApplication;
+import com.example.urlshortener.service.UrlShorteningService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives {@code GET /u/{code}} over HTTP with and without {@code spring.threads.virtual.enabled}
+ * while every database connection takes {@link #STORAGE_LATENCY} to do its work.
+ *
+ * <p>The resolve cache is disabled so that every request reaches the repository. With platform
+ * threads at most {@link #TOMCAT_THREADS} requests can wait on storage at a time and the rest
+ * queue in front of Tomcat; with virtual threads the connection pool becomes the limit. The test
+ * prints throughput, latency percentiles and the peak number of concurrent storage calls of both
+ * runs.</p>
+ */
+class VirtualThreadLoadTest {
+
+  private static final int URLS = 1_000;
+  private static final int CLIENTS = 400;
+  private static final int TOMCAT_THREADS = 50;
+  private static final int POOL_SIZE = 200;
+  private static final Duration STORAGE_LATENCY = Duration.ofMillis(20);
+  private static final Duration WARMUP = Duration.ofSeconds(3);
+  private static final Duration MEASUREMENT = Duration.ofSeconds(10);
+
+  @Test
+  void resolve_underSlowStorage_comparesPlatformAndVirtualThreads() throws Exception {
+    LoadResult platform = run(false);
+    LoadResult virtual = run(true);
+
+    System.out.printf("%n%-9s %9s %9s %8s %8s %8s %12s %7s%n",
+        "threads", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "peak storage", "errors");
+    for (LoadResult result : List.of(platform, virtual)) {
+      System.out.printf("%-9s %9d %9.0f %8.1f %8.1f %8.1f %12d %7d%n",
+          result.mode(), result.requests(), result.throughput(), result.p50Millis(),
+          result.p99Millis(), result.maxMillis(), result.peakStorageConcurrency(), result.errors());
+    }
+
+    assertEquals(0, platform.errors());
+    assertEquals(0, virtual.errors());
+    assertTrue(platform.peakStorageConcurrency() <= TOMCAT_THREADS);
+  }
+
+  private LoadResult run(boolean virtualThreads) throws Exception {
+    String mode = virtualThreads ? "virtual" : "platform";
+    SlowStorage storage = new SlowStorage();
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(UrlShortenerApplication.class)
+        .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(storage))
+        .properties(
+            "server.port=0",
+            "spring.threads.virtual.enabled=" + virtualThreads,
+            "server.tomcat.threads.max=" + TOMCAT_THREADS,
+            "spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+            "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false",
+            "spring.h2.console.enabled=false",
+            "logging.level.root=WARN",
+            "app.cache.enabled=false",
+            "app.clicks.enabled=false")
+        .run()) {
+      UrlShorteningService service = context.getBean(UrlShorteningService.class);
+      String[] codes = new String[URLS];
+      for (int i = 0; i < URLS; i++) {
+        codes[i] = service.shortenUrl("https://load.example.com/item/" + i + "?ref=load").getShortCode();
+      }
+      int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+      storage.enable();
+      return drive(mode, port, codes, storage);
+    }
+  }
+
+  private LoadResult drive(String mode, int port, String[] codes, SlowStorage storage) throws Exception {
+    long start = System.nanoTime();
+    long measureFrom = start + WARMUP.toNanos();
+    long measureUntil = measureFrom + MEASUREMENT.toNanos();
+    AtomicInteger errors = new AtomicInteger();
+
+    try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+         HttpClient http = HttpClient.newBuilder()
+             .version(HttpClient.Version.HTTP_1_1)
+             .followRedirects(HttpClient.Redirect.NEVER)
+             .executor(clients)
+             .build()) {
+      List<Future<long[]>> futures = new ArrayList<>();
+      for (int c = 0; c < CLIENTS; c++) {
+        futures.add(clients.submit(() -> {
+          LatencySamples samples = new LatencySamples();
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          long now;
+          while ((now = System.nanoTime()) < measureUntil) {
+            HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/u/" + codes[random.nextInt(codes.length)])).build();
+            try {
+              HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+              long end = System.nanoTime();
+              if (response.statusCode() / 100 != 3) {
+                errors.incrementAndGet();
+              } else if (now >= measureFrom) {
+                samples.add(end - now);
+              }
+            } catch (Exception ex) {
+              errors.incrementAndGet();
+            }
+          }
+          return samples.toArray();
+        }));
+      }
+
+      List<long[]> perClient = new ArrayList<>();
+      for (Future<long[]> future : futures) {
+        perClient.add(future.get(WARMUP.plus(MEASUREMENT).toSeconds() + 60, TimeUnit.SECONDS));
+      }
+      long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+      return new LoadResult(mode, all.length, all.length / (MEASUREMENT.toNanos() / 1e9),
+          percentileMillis(all, 0.50), percentileMillis(all, 0.99), percentileMillis(all, 1.0),
+          storage.peak(), errors.get());
+    }
+  }
+
+  private static double percentileMillis(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return sorted[Math.max(0, index)] / 1e6;
+  }
+
+  private record LoadResult(String mode, long requests, double throughput, double p50Millis,
+                            double p99Millis, double maxMillis, int peakStorageConcurrency, int errors) {
+  }
+
+  private static final class LatencySamples {
+    private long[] values = new long[1024];
+    private int size;
+
+    void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    long[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+  /**
+   * Wraps the application {@link DataSource} so that, once enabled, every connection sleeps for
+   * {@link #STORAGE_LATENCY} after it has been taken from the pool, like a slow storage backend.
+   */
+  private static final class SlowStorage implements BeanPostProcessor {
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private volatile boolean enabled;
+
+    void enable() {
+      enabled = true;
+    }
+
+    int peak() {
+      return peak.get();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+      if (!(bean instanceof DataSource dataSource)) {
+        return bean;
+      }
+      return new DelegatingDataSource(dataSource) {
+        @Override
+        public Connection getConnection() throws SQLException {
+          Connection connection = super.getConnection();
+          if (enabled) {
+            int current = active.incrementAndGet();
+            peak.accumulateAndGet(current, Math::max);
+            try {
+              Thread.sleep(STORAGE_LATENCY);
+            } catch (InterruptedException ex) {
+              Thread.currentThread().interrupt();
+            } finally {
+              active.decrementAndGet();
+            }
+          }
+          return connection;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.urlshortener.bulk;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Command-line import: started with {@code --import=<file>}, the application imports
+ * {@code file} and exits instead of serving requests.
+ *
+ * <p>The format follows the file name ({@code .ndjson} or {@code .jsonl} for NDJSON, CSV otherwise). Progress is
+ * checkpointed to {@code <file>.checkpoint}, so running the same command again after an
+ * interruption continues where it stopped; rejected lines are listed in
+ * {@code <file>.errors.csv}. The exit code is 0 when the import completed, even if some lines
+ * were rejected, and 1 when it failed.</p>
+ */
+@Component
+public class BulkImportRunner implements ApplicationRunner {
+
+  private static final Logger logger = LoggerFactory.getLogger(BulkImportRunner.class);
+
+  static final String OPTION = "import";
+
+  private final BulkImporter bulkImporter;
+  private final ConfigurableApplicationContext context;
+
+  public BulkImportRunner(BulkImporter bulkImporter, ConfigurableApplicationContext context) {
+    this.bulkImporter = bulkImporter;
+    this.context = context;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    List<String> values = args.getOptionValues(OPTION);
+    if (values == null || values.isEmpty()) {
+      return;
+    }
+    ImportJob job = bulkImporter.importFile(Path.of(values.get(0)));
+    logger.info("Import of {} {}: {} lines read, {} imported, {} rejected (see {})", job.getInput(),
+        job.getState(), job.getLinesRead(), job.getImported(), job.getFailed(),
+        job.getErrorReport());
+    int exitCode = job.getState() == ImportJob.State.COMPLETED ? 0 : 1;
+    System.exit(SpringApplication.exit(context, () -> exitCode));
+  }
+}
@@ -0,0 +1,362 @@
+package com.example.urlshortener.bulk;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.export.ExportFormat;
+import com.example.urlshortener.service.BulkShortener;
+import com.example.urlshortener.util.CsvUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imports files of URLs, for migrations that would take days through {@code POST /api/shorten}.
+ *
+ * <p>The input is read line by line in chunks of {@code app.bulk-import.batch-size} lines. Each
+ * chunk is parsed, validated and normalized on a fork/join pool while the previous chunk is
+ * being stored, and {@link BulkShortener} then stores it in one transaction with the same
+ * idempotency rules as the API. After every chunk the number of its last line is saved as a
+ * checkpoint, and rejected lines are appended to a CSV error report ({@code line,error}). A
+ * resumed import skips everything up to the checkpoint; storing is idempotent, so a chunk that
+ * was in flight when the import stopped is simply stored again.</p>
+ *
+ * <p>Uploaded files are kept in {@code app.bulk-import.directory} together with their checkpoint
+ * and error report, and imported one at a time on a background thread. {@link #importFile}
+ * imports a local file on the calling thread and keeps both next to it.</p>
+ */
+@Component
+public class BulkImporter implements DisposableBean {
+
+  private static final Logger logger = LoggerFactory.getLogger(BulkImporter.class);
+
+  private static final Pattern JOB_ID = Pattern.compile("[A-Za-z0-9-]{1,64}");
+  private static final int SEQUENTIAL_THRESHOLD = 256;
+  private static final String COMPLETED_MARKER = "completed";
+
+  private final BulkShortener bulkShortener;
+  private final ObjectMapper objectMapper;
+  private final Path directory;
+  private final int batchSize;
+  private final ForkJoinPool preparePool;
+  private final ExecutorService jobRunner;
+  private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+  public BulkImporter(BulkShortener bulkShortener, ObjectMapper objectMapper, AppProperties appProperties) {
+    AppProperties.BulkImport config = appProperties.getBulkImport();
+    this.bulkShortener = bulkShortener;
+    this.objectMapper = objectMapper;
+    this.directory = Path.of(config.getDirectory());
+    this.batchSize = config.getBatchSize();
+    int parallelism = config.getParallelism() > 0
+        ? config.getParallelism()
+        : Runtime.getRuntime().availableProcessors();
+    this.preparePool = new ForkJoinPool(parallelism);
+    this.jobRunner = Executors.newSingleThreadExecutor(
+        Thread.ofPlatform().name("bulk-import").daemon().factory());
+  }
+
+  @Override
+  public void destroy() {
+    jobRunner.shutdownNow();
+    preparePool.shutdownNow();
+  }
+
+  /**
+   * Saves {@code body} as a new import file and queues it.
+   */
+  public ImportJob submit(InputStream body, ExportFormat format) throws IOException {
+    Files.createDirectories(directory);
+    ImportJob job = newJob(UUID.randomUUID().toString(), format);
+    Path temp = Files.createTempFile(directory, job.getId(), ".upload");
+    try {
+      Files.copy(body, temp, StandardCopyOption.REPLACE_EXISTING);
+      Files.move(temp, job.getInput(), StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    jobs.put(job.getId(), job);
+    jobRunner.execute(() -> run(job));
+    return job;
+  }
+
+  /**
+   * Returns the import {@code id}, including one uploaded before a restart.
+   */
+  public Optional<ImportJob> find(String id) {
+    if (!JOB_ID.matcher(id).matches()) {
+      return Optional.empty();
+    }
+    ImportJob known = jobs.get(id);
+    if (known != null) {
+      return Optional.of(known);
+    }
+    for (ExportFormat format : ExportFormat.values()) {
+      ImportJob job = newJob(id, format);
+      if (Files.exists(job.getInput())) {
+        try {
+          String checkpoint = readCheckpoint(job.getCheckpoint());
+          job.restored(checkpointLine(checkpoint), checkpoint.endsWith(COMPLETED_MARKER));
+        } catch (IOException ex) {
+          job.failed("Unreadable checkpoint: " + ex.getMessage());
+        }
+        ImportJob existing = jobs.putIfAbsent(id, job);
+        return Optional.of(existing != null ? existing : job);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Queues the import {@code id} again, to continue after its checkpoint. Does nothing while it
+   * is still queued or running.
+   */
+  public Optional<ImportJob> resume(String id) {
+    Optional<ImportJob> job = find(id);
+    job.ifPresent(found -> {
+      synchronized (found) {
+        if (found.isActive()) {
+          return;
+        }
+        found.queued();
+      }
+      jobRunner.execute(() -> run(found));
+    });
+    return job;
+  }
+
+  /**
+   * Imports the local {@code file} on the calling thread, resuming from
+   * {@code <file>.checkpoint} if it exists. Files named {@code .ndjson} or {@code .jsonl} are
+   * read as NDJSON, anything else as CSV. Rejected lines go to {@code <file>.errors.csv}.
+   */
+  public ImportJob importFile(Path file) {
+    String fileName = file.getFileName().toString();
+    ExportFormat format = fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl")
+        ? ExportFormat.NDJSON
+        : ExportFormat.CSV;
+    ImportJob job = new ImportJob(fileName, format, file,
+        file.resolveSibling(fileName + ".checkpoint"), file.resolveSibling(fileName + ".errors.csv"));
+    run(job);
+    return job;
+  }
+
+  private ImportJob newJob(String id, ExportFormat format) {
+    return new ImportJob(id, format, directory.resolve(id + "." + format.extension()),
+        directory.resolve(id + ".checkpoint"), directory.resolve(id + ".errors.csv"));
+  }
+
+  /**
+   * One input line: its prepared URL, or the reason it was rejected.
+   */
+  private record Entry(long line, BulkShortener.Prepared prepared, String error) {
+  }
+
+  void run(ImportJob job) {
+    try {
+      String checkpoint = readCheckpoint(job.getCheckpoint());
+      long resumeAfter = checkpointLine(checkpoint);
+      job.started(resumeAfter);
+      if (!checkpoint.endsWith(COMPLETED_MARKER)) {
+        importAfter(job, resumeAfter);
+      }
+      writeCheckpoint(job.getCheckpoint(), job.getCheckpointLine() + " " + COMPLETED_MARKER);
+      job.completed();
+      logger.info("Import {} completed: {} lines imported, {} rejected",
+          job.getId(), job.getImported(), job.getFailed());
+    } catch (Exception ex) {
+      logger.error("Import {} failed after line {}", job.getId(), job.getCheckpointLine(), ex);
+      job.failed(ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+    }
+  }
+
+  private void importAfter(ImportJob job, long resumeAfter) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(job.getInput(), StandardCharsets.UTF_8);
+        Writer errors = openErrorReport(job.getErrorReport())) {
+      String firstLine = reader.readLine();
+      if (firstLine == null) {
+        return;
+      }
+      ImportLineParser parser = ImportLineParser.forFile(job.getFormat(), firstLine, objectMapper);
+      long lineNumber = 1;
+      List<String> lines = new ArrayList<>(batchSize);
+      List<Long> lineNumbers = new ArrayList<>(batchSize);
+      if (!parser.hasHeader() && resumeAfter < 1 && !firstLine.isBlank()) {
+        lines.add(firstLine);
+        lineNumbers.add(1L);
+      }
+
+      // Prepare the next chunk on the pool while the current one is being stored
+      Entry[] pendingEntries = null;
+      ForkJoinTask<Void> pending = null;
+      while (true) {
+        String line;
+        while (lines.size() < batchSize && (line = reader.readLine()) != null) {
+          lineNumber++;
+          if (lineNumber > resumeAfter && !line.isBlank()) {
+            lines.add(line);
+            lineNumbers.add(lineNumber);
+          }
+        }
+        job.readUpTo(lineNumber);
+
+        Entry[] nextEntries = null;
+        ForkJoinTask<Void> next = null;
+        if (!lines.isEmpty()) {
+          nextEntries = new Entry[lines.size()];
+          next = preparePool.submit(new PrepareTask(parser, lines, lineNumbers, nextEntries, 0, lines.size()));
+          lines = new ArrayList<>(batchSize);
+          lineNumbers = new ArrayList<>(batchSize);
+        }
+        if (pending != null) {
+          pending.join();
+          store(job, pendingEntries, errors);
+        }
+        if (next == null) {
+          return;
+        }
+        pending = next;
+        pendingEntries = nextEntries;
+      }
+    }
+  }
+
+  private void store(ImportJob job, Entry[] entries, Writer errors) throws IOException {
+    List<BulkShortener.Prepared> batch = new ArrayList<>(entries.length);
+    for (Entry entry : entries) {
+      if (entry.prepared() != null) {
+        batch.add(entry.prepared());
+      }
+    }
+    Map<String, BulkShortener.Outcome> outcomes = batch.isEmpty() ? Map.of() : bulkShortener.store(batch);
+
+    long imported = 0;
+    long failed = 0;
+    for (Entry entry : entries) {
+      String error = entry.error();
+      if (error == null) {
+        RuntimeException failure = outcomes.get(entry.prepared().normalizedUrl()).failure();
+        error = failure == null ? null : describe(failure);
+      }
+      if (error == null) {
+        imported++;
+      } else {
+        failed++;
+        errors.write(Long.toString(entry.line()));
+        errors.write(',');
+        CsvUtils.writeField(errors, error);
+        errors.write("\r\n");
+      }
+    }
+    errors.flush();
+
+    long lastLine = entries[entries.length - 1].line();
+    writeCheckpoint(job.getCheckpoint(), Long.toString(lastLine));
+    job.stored(imported, failed, lastLine);
+  }
+
+  /**
+   * Parses and prepares a range of a chunk's lines, splitting it in halves down to
+   * {@link #SEQUENTIAL_THRESHOLD} lines.
+   */
+  private final class PrepareTask extends RecursiveAction {
+
+    private final ImportLineParser parser;
+    private final List<String> lines;
+    private final List<Long> lineNumbers;
+    private final Entry[] entries;
+    private final int from;
+    private final int to;
+
+    PrepareTask(ImportLineParser parser, List<String> lines, List<Long> lineNumbers, Entry[] entries,
+        int from, int to) {
+      this.parser = parser;
+      this.lines = lines;
+      this.lineNumbers = lineNumbers;
+      this.entries = entries;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > SEQUENTIAL_THRESHOLD) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new PrepareTask(parser, lines, lineNumbers, entries, from, middle),
+            new PrepareTask(parser, lines, lineNumbers, entries, middle, to));
+        return;
+      }
+      for (int i = from; i < to; i++) {
+        long line = lineNumbers.get(i);
+        try {
+          ImportLineParser.Fields fields = parser.parse(lines.get(i));
+          entries[i] = new Entry(line, bulkShortener.prepare(fields.url(), fields.expiresAt()), null);
+        } catch (RuntimeException ex) {
+          entries[i] = new Entry(line, null, describe(ex));
+        }
+      }
+    }
+  }
+
+  private static String describe(RuntimeException ex) {
+    return ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+  }
+
+  private static Writer openErrorReport(Path file) throws IOException {
+    boolean isNew = !Files.exists(file) || Files.size(file) == 0;
+    Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    if (isNew) {
+      writer.write("line,error\r\n");
+    }
+    return writer;
+  }
+
+  /** Returns the checkpoint ({@code "<line>"} or {@code "<line> completed"}), or {@code "0"}. */
+  private static String readCheckpoint(Path file) throws IOException {
+    try {
+      String checkpoint = Files.readString(file, StandardCharsets.UTF_8).trim();
+      checkpointLine(checkpoint);
+      return checkpoint;
+    } catch (NoSuchFileException ex) {
+      return "0";
+    }
+  }
+
+  private static long checkpointLine(String checkpoint) throws IOException {
+    int space = checkpoint.indexOf(' ');
+    try {
+      return Long.parseLong(space < 0 ? checkpoint : checkpoint.substring(0, space));
+    } catch (NumberFormatException ex) {
+      throw new IOException("Malformed checkpoint: " + checkpoint, ex);
+    }
+  }
+
+  private static void writeCheckpoint(Path file, String checkpoint) throws IOException {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    Files.writeString(temp, checkpoint, StandardCharsets.UTF_8);
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -0,0 +1,148 @@
+package com.example.urlshortener.bulk;
+
+import com.example.urlshortener.export.ExportFormat;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One bulk import: its input file, where its checkpoint and error report are kept, and its
+ * progress. Counters are updated by the import thread and may be read from any thread.
+ */
+public class ImportJob {
+
+  public enum State {
+    QUEUED, RUNNING, COMPLETED, FAILED
+  }
+
+  private final String id;
+  private final ExportFormat format;
+  private final Path input;
+  private final Path checkpoint;
+  private final Path errorReport;
+
+  private final AtomicLong linesRead = new AtomicLong();
+  private final AtomicLong imported = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private volatile long checkpointLine;
+  private volatile State state = State.QUEUED;
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+  private volatile String failure;
+
+  ImportJob(String id, ExportFormat format, Path input, Path checkpoint, Path errorReport) {
+    this.id = id;
+    this.format = format;
+    this.input = input;
+    this.checkpoint = checkpoint;
+    this.errorReport = errorReport;
+  }
+
+  void queued() {
+    state = State.QUEUED;
+    failure = null;
+    finishedAt = null;
+  }
+
+  void started(long resumedAfterLine) {
+    linesRead.set(resumedAfterLine);
+    imported.set(0);
+    failed.set(0);
+    checkpointLine = resumedAfterLine;
+    startedAt = Instant.now();
+    state = State.RUNNING;
+  }
+
+  /** Restores the state of an import found on disk after a restart. */
+  void restored(long lastLine, boolean complete) {
+    linesRead.set(lastLine);
+    checkpointLine = lastLine;
+    if (complete) {
+      state = State.COMPLETED;
+    } else {
+      failure = "Interrupted by a restart; resume to continue after line " + lastLine;
+      state = State.FAILED;
+    }
+  }
+
+  void readUpTo(long line) {
+    linesRead.set(line);
+  }
+
+  void stored(long importedLines, long failedLines, long lastLine) {
+    imported.addAndGet(importedLines);
+    failed.addAndGet(failedLines);
+    checkpointLine = lastLine;
+  }
+
+  void completed() {
+    finishedAt = Instant.now();
+    state = State.COMPLETED;
+  }
+
+  void failed(String message) {
+    failure = message;
+    finishedAt = Instant.now();
+    state = State.FAILED;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public ExportFormat getFormat() {
+    return format;
+  }
+
+  public Path getInput() {
+    return input;
+  }
+
+  public Path getCheckpoint() {
+    return checkpoint;
+  }
+
+  public Path getErrorReport() {
+    return errorReport;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  public boolean isActive() {
+    return state == State.QUEUED || state == State.RUNNING;
+  }
+
+  /** Input lines read so far, including the header and lines skipped up to the checkpoint. */
+  public long getLinesRead() {
+    return linesRead.get();
+  }
+
+  /** Lines of this run that now have a mapping, whether new or already present. */
+  public long getImported() {
+    return imported.get();
+  }
+
+  /** Lines of this run that were rejected; each has an entry in the error report. */
+  public long getFailed() {
+    return failed.get();
+  }
+
+  /** Last input line whose outcome is committed; a resumed import continues after it. */
+  public long getCheckpointLine() {
+    return checkpointLine;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public String getFailure() {
+    return failure;
+  }
+}
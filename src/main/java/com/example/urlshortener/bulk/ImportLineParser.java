@@ -0,0 +1,114 @@
+package com.example.urlshortener.bulk;
+
+import com.example.urlshortener.export.ExportFormat;
+import com.example.urlshortener.util.CsvUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Extracts the URL and optional expiry from one line of an import file. Thread-safe.
+ *
+ * <ul>
+ *   <li>NDJSON: one object per line with {@code url} (or {@code originalUrl}) and an optional
+ *       ISO-8601 {@code expiresAt}, so files written by the export can be imported again</li>
+ *   <li>CSV: if the first line has a {@code url} or {@code original_url} column it is a header,
+ *       and an {@code expires_at} column is read as well; otherwise every line is data and the
+ *       URL is the first field</li>
+ * </ul>
+ */
+final class ImportLineParser {
+
+  record Fields(String url, Instant expiresAt) {
+  }
+
+  private final ObjectMapper objectMapper; // null for CSV
+  private final int urlColumn;
+  private final int expiryColumn;
+  private final boolean header;
+
+  private ImportLineParser(ObjectMapper objectMapper, int urlColumn, int expiryColumn, boolean header) {
+    this.objectMapper = objectMapper;
+    this.urlColumn = urlColumn;
+    this.expiryColumn = expiryColumn;
+    this.header = header;
+  }
+
+  /**
+   * Creates the parser for a file of {@code format} whose first line is {@code firstLine}.
+   */
+  static ImportLineParser forFile(ExportFormat format, String firstLine, ObjectMapper objectMapper) {
+    if (format == ExportFormat.NDJSON) {
+      return new ImportLineParser(objectMapper, -1, -1, false);
+    }
+    List<String> columns;
+    try {
+      columns = CsvUtils.parseLine(firstLine);
+    } catch (IllegalArgumentException ex) {
+      return new ImportLineParser(null, 0, -1, false);
+    }
+    int urlColumn = -1;
+    int expiryColumn = -1;
+    for (int i = 0; i < columns.size(); i++) {
+      switch (columns.get(i).trim().toLowerCase(Locale.ROOT)) {
+        case "url", "original_url", "originalurl" -> urlColumn = urlColumn < 0 ? i : urlColumn;
+        case "expires_at", "expiresat" -> expiryColumn = expiryColumn < 0 ? i : expiryColumn;
+        default -> { }
+      }
+    }
+    return urlColumn < 0
+        ? new ImportLineParser(null, 0, -1, false)
+        : new ImportLineParser(null, urlColumn, expiryColumn, true);
+  }
+
+  /** Whether the first line of the file is a header rather than data. */
+  boolean hasHeader() {
+    return header;
+  }
+
+  /**
+   * @throws IllegalArgumentException if the line is malformed
+   */
+  Fields parse(String line) {
+    return objectMapper != null ? parseJson(line) : parseCsv(line);
+  }
+
+  private Fields parseJson(String line) {
+    JsonNode node;
+    try {
+      node = objectMapper.readTree(line);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalArgumentException("Malformed JSON: " + ex.getOriginalMessage());
+    }
+    if (node == null || !node.isObject()) {
+      throw new IllegalArgumentException("Expected a JSON object");
+    }
+    JsonNode url = node.hasNonNull("url") ? node.get("url") : node.get("originalUrl");
+    if (url == null || !url.isTextual()) {
+      throw new IllegalArgumentException("Missing \"url\"");
+    }
+    JsonNode expiresAt = node.get("expiresAt");
+    return new Fields(url.asText(), expiresAt == null || expiresAt.isNull() ? null : parseInstant(expiresAt.asText()));
+  }
+
+  private Fields parseCsv(String line) {
+    List<String> fields = CsvUtils.parseLine(line);
+    if (urlColumn >= fields.size()) {
+      throw new IllegalArgumentException("Missing URL column");
+    }
+    String expiresAt = expiryColumn >= 0 && expiryColumn < fields.size() ? fields.get(expiryColumn) : "";
+    return new Fields(fields.get(urlColumn), expiresAt.isBlank() ? null : parseInstant(expiresAt.trim()));
+  }
+
+  private static Instant parseInstant(String value) {
+    try {
+      return Instant.parse(value);
+    } catch (DateTimeParseException ex) {
+      throw new IllegalArgumentException("Invalid expiry: " + value);
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package com.example.urlshortener.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import com.example.urlshortener.model.RedirectType;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Compact binary file format for a set of {@link ResolveCache.Entry resolve cache entries}.
+ *
+ * <p>Layout (big-endian): a header of magic {@code "HSNP"}, format version and entry count,
+ * followed by one record per entry:</p>
+ * <ul>
+ *   <li>{@code u8} short code length and the code's ASCII bytes</li>
+ *   <li>{@code u16} URL length and the URL's UTF-8 bytes</li>
+ *   <li>{@code i64} expiry in epoch microseconds, or {@code -1} for never</li>
+ *   <li>{@code i64} creation time in epoch microseconds, or {@code -1} if not known</li>
+ *   <li>{@code u8} redirect type: {@code 0} for the default, otherwise its ordinal plus one</li>
+ * </ul>
+ *
+ * <p>Instants keep the microsecond precision of the database columns, so a warmed entry yields
+ * the same ETag as one loaded from the database.</p>
+ *
+ * <p>Files are written to a temporary sibling and moved into place, so a reader never sees a
+ * partial snapshot. Reading memory-maps the file and decodes it straight from the mapping.</p>
+ */
+final class HotSetSnapshot {
+
+  static final int MAGIC = 0x48534E50; // "HSNP"
+  static final int VERSION = 1;
+
+  private static final long NEVER = -1L;
+  private static final int MAX_URL_BYTES = 0xFFFF;
+
+  private HotSetSnapshot() {
+  }
+
+  /**
+   * Writes {@code entries} to {@code file}, replacing it atomically.
+   *
+   * @return the number of entries written; codes or URLs too long for the format are skipped
+   */
+  static int write(Path file, List<ResolveCache.Entry> entries) throws IOException {
+    Path parent = file.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+    int written = 0;
+    try {
+      byte[][] codes = new byte[entries.size()][];
+      byte[][] urls = new byte[entries.size()][];
+      for (int i = 0; i < entries.size(); i++) {
+        ResolveCache.Entry entry = entries.get(i);
+        byte[] code = entry.shortCode().getBytes(StandardCharsets.US_ASCII);
+        byte[] url = entry.originalUrl().getBytes(StandardCharsets.UTF_8);
+        if (code.length <= 0xFF && url.length <= MAX_URL_BYTES) {
+          codes[i] = code;
+          urls[i] = url;
+          written++;
+        }
+      }
+      try (OutputStream stream = Files.newOutputStream(temp, StandardOpenOption.TRUNCATE_EXISTING);
+          DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(written);
+        for (int i = 0; i < entries.size(); i++) {
+          if (codes[i] == null) {
+            continue;
+          }
+          out.writeByte(codes[i].length);
+          out.write(codes[i]);
+          out.writeShort(urls[i].length);
+          out.write(urls[i]);
+          ResolveCache.Entry entry = entries.get(i);
+          out.writeLong(toMicros(entry.expiresAt()));
+          out.writeLong(toMicros(entry.createdAt()));
+          out.writeByte(entry.redirectType() == null ? 0 : entry.redirectType().ordinal() + 1);
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    return written;
+  }
+
+  /**
+   * Reads the snapshot in {@code file} and passes each entry to {@code consumer}.
+   *
+   * @return the number of entries read
+   * @throws IOException if the file cannot be read or is not a complete snapshot of this version
+   */
+  static int read(Path file, Consumer<ResolveCache.Entry> consumer) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      try {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+          throw new IOException("Not a hot-set snapshot of version " + VERSION + ": " + file);
+        }
+        int count = buffer.getInt();
+        byte[] scratch = new byte[MAX_URL_BYTES];
+        for (int i = 0; i < count; i++) {
+          int codeLength = Byte.toUnsignedInt(buffer.get());
+          buffer.get(scratch, 0, codeLength);
+          String code = new String(scratch, 0, codeLength, StandardCharsets.US_ASCII);
+          int urlLength = Short.toUnsignedInt(buffer.getShort());
+          buffer.get(scratch, 0, urlLength);
+          String url = new String(scratch, 0, urlLength, StandardCharsets.UTF_8);
+          Instant expiresAt = fromMicros(buffer.getLong());
+          Instant createdAt = fromMicros(buffer.getLong());
+          int redirect = Byte.toUnsignedInt(buffer.get());
+          if (redirect > RedirectType.values().length) {
+            throw new IOException("Unknown redirect type " + redirect + " in hot-set snapshot: " + file);
+          }
+          RedirectType redirectType = redirect == 0 ? null : RedirectType.values()[redirect - 1];
+          consumer.accept(new ResolveCache.Entry(code, url, expiresAt, createdAt, redirectType));
+        }
+        return count;
+      } catch (BufferUnderflowException ex) {
+        throw new IOException("Truncated hot-set snapshot: " + file, ex);
+      }
+    }
+  }
+
+  private static long toMicros(Instant instant) {
+    return instant == null ? NEVER : ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+  }
+
+  private static Instant fromMicros(long micros) {
+    return micros == NEVER ? null : Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+  }
+}
@@ -0,0 +1,211 @@
+package com.example.urlshortener.cache;
+
+import com.example.urlshortener.config.AppProperties;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Persists the hottest resolve cache entries and loads them again on the next start, so a
+ * freshly deployed node does not send its first minutes of redirects to the database.
+ *
+ * <p>Once all singletons exist, and so before the web server accepts requests, the snapshot at
+ * {@code app.cache.snapshot-path} is memory-mapped and its unexpired entries are put into the
+ * {@link ResolveCache}. A background thread then writes the {@code app.cache.snapshot-max-entries}
+ * hottest entries every {@code app.cache.snapshot-interval}, and once more on shutdown. A
+ * missing or unreadable snapshot means a cold start, never a failed one.</p>
+ *
+ * <p>Meters:</p>
+ * <ul>
+ *   <li>{@code urlshortener.cache.warmup.duration} and {@code urlshortener.cache.warmup.entries}:
+ *       time spent loading the snapshot and the number of entries loaded</li>
+ *   <li>{@code urlshortener.cache.first.minute.hit.ratio}: resolve cache hit ratio over the first
+ *       minute after startup, tagged {@code start=warm} or {@code start=cold}, so warm and cold
+ *       starts can be compared across deploys</li>
+ * </ul>
+ */
+@Component
+public class HotSetSnapshotter implements SmartInitializingSingleton, SmartLifecycle {
+
+  private static final Logger logger = LoggerFactory.getLogger(HotSetSnapshotter.class);
+
+  static final Duration FIRST_MINUTE = Duration.ofMinutes(1);
+
+  private final ResolveCache resolveCache;
+  private final MeterRegistry meterRegistry;
+  private final boolean snapshotEnabled;
+  private final Path snapshotPath;
+  private final long snapshotIntervalNanos;
+  private final int maxEntries;
+
+  private volatile long warmupNanos;
+  private volatile int warmedEntries;
+  private volatile double firstMinuteHitRatio = Double.NaN;
+
+  private volatile boolean running;
+  private Thread thread;
+
+  public HotSetSnapshotter(ResolveCache resolveCache, MeterRegistry meterRegistry, AppProperties appProperties) {
+    AppProperties.Cache config = appProperties.getCache();
+    this.resolveCache = resolveCache;
+    this.meterRegistry = meterRegistry;
+    this.snapshotEnabled = config.isSnapshotEnabled() && resolveCache.isEnabled();
+    this.snapshotPath = Path.of(config.getSnapshotPath());
+    this.snapshotIntervalNanos = config.getSnapshotInterval().toNanos();
+    this.maxEntries = config.getSnapshotMaxEntries();
+
+    TimeGauge.builder("urlshortener.cache.warmup.duration", this, TimeUnit.NANOSECONDS, s -> s.warmupNanos)
+        .description("Time spent loading the hot-set snapshot at startup")
+        .register(meterRegistry);
+    Gauge.builder("urlshortener.cache.warmup.entries", this, s -> s.warmedEntries)
+        .description("Resolve cache entries loaded from the hot-set snapshot at startup")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    if (snapshotEnabled) {
+      warm();
+    }
+    Gauge.builder("urlshortener.cache.first.minute.hit.ratio", this, s -> s.firstMinuteHitRatio)
+        .description("Resolve cache hit ratio during the first minute after startup")
+        .tag("start", warmedEntries > 0 ? "warm" : "cold")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Loads the snapshot into the resolve cache.
+   *
+   * @return the number of entries put into the cache
+   */
+  int warm() {
+    long start = System.nanoTime();
+    Instant now = Instant.now();
+    int[] loaded = new int[1];
+    try {
+      HotSetSnapshot.read(snapshotPath, entry -> {
+        if (entry.expiresAt() == null || entry.expiresAt().isAfter(now)) {
+          resolveCache.put(entry.shortCode(), entry.target());
+          loaded[0]++;
+        }
+      });
+    } catch (NoSuchFileException ex) {
+      logger.info("No hot-set snapshot at {}, starting with a cold resolve cache", snapshotPath);
+    } catch (IOException ex) {
+      logger.warn("Could not load hot-set snapshot {}", snapshotPath, ex);
+    }
+    warmupNanos = System.nanoTime() - start;
+    warmedEntries = loaded[0];
+    if (loaded[0] > 0) {
+      logger.info("Warmed resolve cache with {} mappings in {} ms",
+          loaded[0], TimeUnit.NANOSECONDS.toMillis(warmupNanos));
+    }
+    return loaded[0];
+  }
+
+  /**
+   * Writes the hottest resolve cache entries to the snapshot file.
+   *
+   * @return the number of entries written
+   */
+  int writeSnapshot() {
+    List<ResolveCache.Entry> hottest = resolveCache.hottest(maxEntries);
+    try {
+      return HotSetSnapshot.write(snapshotPath, hottest);
+    } catch (IOException ex) {
+      logger.warn("Could not write hot-set snapshot {}", snapshotPath, ex);
+      return 0;
+    }
+  }
+
+  @Override
+  public void start() {
+    if (!resolveCache.isEnabled() || running) {
+      return;
+    }
+    running = true;
+    CacheStats baseline = resolveCache.stats();
+    long startedAt = System.nanoTime();
+    thread = Thread.ofPlatform().name("cache-snapshotter").daemon().start(() -> run(baseline, startedAt));
+  }
+
+  @Override
+  public void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Starts before and stops after the embedded web server, so the final snapshot includes the
+   * traffic of a graceful shutdown.
+   */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  private void run(CacheStats baseline, long startedAt) {
+    long firstMinuteEnd = startedAt + FIRST_MINUTE.toNanos();
+    long nextSnapshot = startedAt + snapshotIntervalNanos;
+    boolean firstMinutePending = true;
+    while (running) {
+      long now = System.nanoTime();
+      if (firstMinutePending && now - firstMinuteEnd >= 0) {
+        CacheStats firstMinute = resolveCache.stats().minus(baseline);
+        firstMinuteHitRatio = firstMinute.requestCount() == 0 ? Double.NaN : firstMinute.hitRate();
+        firstMinutePending = false;
+      }
+      if (snapshotEnabled && now - nextSnapshot >= 0) {
+        writeSnapshot();
+        nextSnapshot = now + snapshotIntervalNanos;
+      }
+      long wakeUp = snapshotEnabled ? nextSnapshot : now + snapshotIntervalNanos;
+      if (firstMinutePending && firstMinuteEnd - wakeUp < 0) {
+        wakeUp = firstMinuteEnd;
+      }
+      LockSupport.parkNanos(this, wakeUp - now);
+    }
+    if (snapshotEnabled) {
+      writeSnapshot();
+    }
+  }
+
+  public long warmupNanos() {
+    return warmupNanos;
+  }
+
+  public int warmedEntries() {
+    return warmedEntries;
+  }
+
+  public double firstMinuteHitRatio() {
+    return firstMinuteHitRatio;
+  }
+}
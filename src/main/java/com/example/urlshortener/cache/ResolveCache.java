@@ -0,0 +1,268 @@
+package com.example.urlshortener.cache;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.model.RedirectType;
+import com.example.urlshortener.repository.LinkTarget;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, in-process read-through cache for short code resolution.
+ *
+ * <p>Two Caffeine caches are kept:</p>
+ * <ul>
+ *   <li>a size-bounded cache of known {@code shortCode -> }{@link LinkTarget} mappings, evicted
+ *       by Caffeine's W-TinyLFU policy (frequency and recency)</li>
+ *   <li>a small negative cache of codes known to be missing, expiring after a short TTL so that
+ *       probing of random codes does not reach the database on every request</li>
+ * </ul>
+ *
+ * <p>Known mappings always take precedence over the negative cache, so a code that is created
+ * while it is still remembered as missing resolves as soon as it has been {@link #put put}.
+ * A mapping cached with an expiry is dropped on the first lookup after that instant, so an
+ * expired link is never served from memory even before the sweeper deletes it.
+ * When {@code app.cache.enabled=false} every lookup misses and writes are ignored.</p>
+ *
+ * <p>A small set of mappings can also be {@link #pin pinned}, normally the heavy hitters of
+ * {@link com.example.urlshortener.heavyhitter.HeavyHitterTracker}. Pinned mappings answer
+ * lookups that miss the size-bounded cache, so the hottest codes keep resolving from memory
+ * whatever the eviction policy decides; they are counted as {@link #pinnedHitCount pinned hits}
+ * on top of the miss.</p>
+ */
+@Component
+public class ResolveCache {
+
+  private static final long NEVER = Long.MAX_VALUE;
+
+  /**
+   * A cached mapping as exported by {@link #hottest}.
+   *
+   * @param expiresAt    when the link expires, or {@code null} if it never does
+   * @param createdAt    when the mapping was created, or {@code null} if not known
+   * @param redirectType the link's own redirect type, or {@code null} for the default
+   */
+  public record Entry(String shortCode, String originalUrl, Instant expiresAt, Instant createdAt,
+      RedirectType redirectType) {
+
+    public LinkTarget target() {
+      return new LinkTarget(originalUrl, expiresAt, createdAt, redirectType);
+    }
+  }
+
+  /** Cached target; {@code expiresAtMillis} is {@link #NEVER} for links without expiry. */
+  private record Target(LinkTarget link, long expiresAtMillis) {}
+
+  private final boolean enabled;
+  private final Cache<String, Target> mappings;
+  private final Cache<String, Boolean> missingCodes;
+  private final LongAdder pinnedHits = new LongAdder();
+  // Replaced as a whole by pin() and invalidate(), under the cache's monitor
+  private volatile Map<String, Target> pinned = Map.of();
+
+  public ResolveCache(AppProperties appProperties) {
+    AppProperties.Cache config = appProperties.getCache();
+    this.enabled = config.isEnabled();
+    this.mappings = Caffeine.newBuilder()
+        .maximumSize(config.getMaximumSize())
+        .recordStats()
+        .build();
+    this.missingCodes = Caffeine.newBuilder()
+        .maximumSize(config.getNegativeMaximumSize())
+        .expireAfterWrite(config.getNegativeTtl())
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Returns the cached original URL for {@code shortCode}, or {@code null} on a miss.
+   */
+  public String get(String shortCode) {
+    LinkTarget target = getTarget(shortCode);
+    return target == null ? null : target.originalUrl();
+  }
+
+  /**
+   * Returns the cached target of {@code shortCode}, or {@code null} on a miss.
+   */
+  public LinkTarget getTarget(String shortCode) {
+    if (!enabled) {
+      return null;
+    }
+    Target target = mappings.getIfPresent(shortCode);
+    if (target == null) {
+      target = pinned.get(shortCode);
+      if (target == null || isExpired(target, System.currentTimeMillis())) {
+        return null;
+      }
+      pinnedHits.increment();
+      return target.link();
+    }
+    if (isExpired(target, System.currentTimeMillis())) {
+      mappings.invalidate(shortCode);
+      return null;
+    }
+    return target.link();
+  }
+
+  /**
+   * Returns the cached or pinned target of {@code shortCode} without counting a hit or a miss
+   * or affecting eviction, or {@code null}.
+   */
+  public LinkTarget peek(String shortCode) {
+    if (!enabled) {
+      return null;
+    }
+    Target target = mappings.policy().getIfPresentQuietly(shortCode);
+    if (target == null) {
+      target = pinned.get(shortCode);
+    }
+    return target == null || isExpired(target, System.currentTimeMillis()) ? null : target.link();
+  }
+
+  /**
+   * Replaces the pinned mappings with {@code targets}.
+   */
+  public synchronized void pin(Map<String, LinkTarget> targets) {
+    if (!enabled) {
+      return;
+    }
+    Map<String, Target> next = new HashMap<>(targets.size() * 2);
+    targets.forEach((shortCode, link) -> next.put(shortCode, target(link)));
+    pinned = Map.copyOf(next);
+  }
+
+  /**
+   * Returns {@code true} if {@code shortCode} was recently looked up and found to be unknown.
+   */
+  public boolean isKnownMissing(String shortCode) {
+    if (!enabled) {
+      return false;
+    }
+    return missingCodes.getIfPresent(shortCode) != null;
+  }
+
+  /**
+   * Caches a known mapping that never expires and clears any negative entry for the same code.
+   */
+  public void put(String shortCode, String originalUrl) {
+    put(shortCode, originalUrl, null);
+  }
+
+  /**
+   * Caches a known mapping until {@code expiresAt} ({@code null} for never) and clears any
+   * negative entry for the same code.
+   */
+  public void put(String shortCode, String originalUrl, Instant expiresAt) {
+    put(shortCode, new LinkTarget(originalUrl, expiresAt, null, null));
+  }
+
+  /**
+   * Caches the target of {@code shortCode} until it expires and clears any negative entry for
+   * the same code.
+   */
+  public void put(String shortCode, LinkTarget target) {
+    if (!enabled) {
+      return;
+    }
+    mappings.put(shortCode, target(target));
+    missingCodes.invalidate(shortCode);
+  }
+
+  /**
+   * Returns up to {@code limit} cached mappings, most frequently used first, as ranked by the
+   * cache's eviction policy. Expired entries are skipped.
+   */
+  public List<Entry> hottest(int limit) {
+    if (!enabled) {
+      return List.of();
+    }
+    long now = System.currentTimeMillis();
+    Map<String, Target> hottest = mappings.policy().eviction()
+        .map(eviction -> eviction.hottest(limit))
+        .orElse(Map.of());
+    List<Entry> entries = new ArrayList<>(hottest.size());
+    hottest.forEach((shortCode, target) -> {
+      if (!isExpired(target, now)) {
+        LinkTarget link = target.link();
+        entries.add(new Entry(shortCode, link.originalUrl(), link.expiresAt(), link.createdAt(),
+            link.redirectType()));
+      }
+    });
+    return entries;
+  }
+
+  /**
+   * Remembers {@code shortCode} as unknown for the configured negative TTL.
+   */
+  public void putMissing(String shortCode) {
+    if (!enabled) {
+      return;
+    }
+    missingCodes.put(shortCode, Boolean.TRUE);
+  }
+
+  /**
+   * Removes the positive, pinned and negative entries for {@code shortCode}.
+   */
+  public void invalidate(String shortCode) {
+    mappings.invalidate(shortCode);
+    missingCodes.invalidate(shortCode);
+    if (pinned.containsKey(shortCode)) {
+      unpin(shortCode);
+    }
+  }
+
+  private synchronized void unpin(String shortCode) {
+    Map<String, Target> next = new HashMap<>(pinned);
+    next.remove(shortCode);
+    pinned = Map.copyOf(next);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public long estimatedSize() {
+    return mappings.estimatedSize();
+  }
+
+  public long estimatedMissingSize() {
+    return missingCodes.estimatedSize();
+  }
+
+  public int pinnedSize() {
+    return pinned.size();
+  }
+
+  /** Lookups that missed the size-bounded cache and were answered by a pinned mapping. */
+  public long pinnedHitCount() {
+    return pinnedHits.sum();
+  }
+
+  /** Hit, miss and eviction counters of the mapping cache. */
+  public CacheStats stats() {
+    return mappings.stats();
+  }
+
+  /** Hit, miss and eviction counters of the negative cache. */
+  public CacheStats missingStats() {
+    return missingCodes.stats();
+  }
+
+  private static Target target(LinkTarget link) {
+    Instant expiresAt = link.expiresAt();
+    return new Target(link, expiresAt == null ? NEVER : expiresAt.toEpochMilli());
+  }
+
+  private static boolean isExpired(Target target, long nowMillis) {
+    return target.expiresAtMillis() != NEVER && target.expiresAtMillis() <= nowMillis;
+  }
+}
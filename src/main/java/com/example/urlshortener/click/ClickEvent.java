@@ -0,0 +1,11 @@
+package com.example.urlshortener.click;
+
+/**
+ * A single redirect, as published by {@link ClickTracker}.
+ *
+ * @param shortCode       the resolved short code
+ * @param clickedAtMillis epoch millis of the redirect
+ * @param referrer        the {@code Referer} header, truncated; {@code null} if absent
+ * @param userAgentHash   XXH64 of the {@code User-Agent} header; {@code 0} if absent
+ */
+public record ClickEvent(String shortCode, long clickedAtMillis, String referrer, long userAgentHash) {}
@@ -0,0 +1,147 @@
+package com.example.urlshortener.click;
+
+import com.example.urlshortener.config.AppProperties;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background writer that drains {@link ClickTracker} and stores clicks with JDBC batch inserts.
+ *
+ * <p>A single platform thread takes up to {@code app.clicks.batch-size} events at a time and
+ * writes them with one {@code batchUpdate}. When fewer than a full batch were queued it sleeps for
+ * {@code app.clicks.flush-interval} or until producers wake it. On shutdown the remaining events
+ * are flushed before the data source is closed. A failed batch is logged and counted; its events
+ * are not retried.</p>
+ */
+@Component
+public class ClickEventWriter implements SmartLifecycle {
+
+  private static final Logger logger = LoggerFactory.getLogger(ClickEventWriter.class);
+
+  static final String INSERT_SQL =
+      "insert into click_events (short_code, clicked_at, referrer, user_agent_hash) values (?, ?, ?, ?)";
+
+  private final ClickTracker clickTracker;
+  private final JdbcTemplate jdbcTemplate;
+  private final int batchSize;
+  private final long flushIntervalNanos;
+  private final List<ClickEvent> batch;
+
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  private volatile boolean running;
+  private Thread thread;
+
+  public ClickEventWriter(ClickTracker clickTracker, JdbcTemplate jdbcTemplate, AppProperties appProperties) {
+    AppProperties.Clicks config = appProperties.getClicks();
+    this.clickTracker = clickTracker;
+    this.jdbcTemplate = jdbcTemplate;
+    this.batchSize = config.getBatchSize();
+    this.flushIntervalNanos = config.getFlushInterval().toNanos();
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("app.clicks.batch-size must be positive");
+    }
+    this.batch = new ArrayList<>(batchSize);
+  }
+
+  @Override
+  public void start() {
+    if (!clickTracker.isEnabled() || running) {
+      return;
+    }
+    running = true;
+    thread = Thread.ofPlatform().name("click-writer").daemon().unstarted(this::run);
+    clickTracker.attachWriter(thread);
+    thread.start();
+  }
+
+  @Override
+  public void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    clickTracker.attachWriter(null);
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Starts before and stops after the embedded web server, so clicks of in-flight redirects
+   * are still written during a graceful shutdown.
+   */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  private void run() {
+    while (running) {
+      if (flush() < batchSize) {
+        LockSupport.parkNanos(this, flushIntervalNanos);
+      }
+    }
+    while (flush() > 0) {
+      // drain what was published before shutdown
+    }
+  }
+
+  /**
+   * Writes at most one batch of queued events.
+   *
+   * @return the number of events taken from the buffer
+   */
+  int flush() {
+    batch.clear();
+    int count = clickTracker.drainTo(batch, batchSize);
+    if (count == 0) {
+      return 0;
+    }
+    try {
+      jdbcTemplate.batchUpdate(INSERT_SQL, batch, count, (ps, event) -> {
+        ps.setString(1, event.shortCode());
+        ps.setTimestamp(2, new Timestamp(event.clickedAtMillis()));
+        ps.setString(3, event.referrer());
+        if (event.userAgentHash() == 0L) {
+          ps.setNull(4, Types.BIGINT);
+        } else {
+          ps.setLong(4, event.userAgentHash());
+        }
+      });
+      written.addAndGet(count);
+    } catch (DataAccessException ex) {
+      failed.addAndGet(count);
+      logger.warn("Failed to write {} click events", count, ex);
+    }
+    return count;
+  }
+
+  public long writtenCount() {
+    return written.get();
+  }
+
+  public long failedCount() {
+    return failed.get();
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.urlshortener.click;
+
+/**
+ * What {@link ClickTracker} does with a click when the event buffer is full.
+ */
+public enum ClickOverflowPolicy {
+
+  /**
+   * Discard the event and count it as dropped. The redirect never waits.
+   */
+  DROP,
+
+  /**
+   * Wait up to {@code app.clicks.block-timeout} for the writer to make room, then drop.
+   */
+  BLOCK
+}
@@ -0,0 +1,150 @@
+package com.example.urlshortener.click;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.util.BoundedRingBuffer;
+import com.example.urlshortener.util.ScratchPool;
+import com.example.urlshortener.util.Utf8Buffer;
+import com.example.urlshortener.util.XxHash64;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishing side of the click pipeline.
+ *
+ * <p>{@link #record} builds a {@link ClickEvent} and offers it to a bounded lock-free
+ * {@link BoundedRingBuffer}; it never touches the database. {@link ClickEventWriter} drains the
+ * buffer in batches on its own thread. When the buffer is full the configured
+ * {@link ClickOverflowPolicy} decides whether the event is dropped right away or the caller
+ * waits briefly for room.</p>
+ */
+@Component
+public class ClickTracker {
+
+  static final int MAX_REFERRER_LENGTH = 2048;
+
+  private static final long BLOCK_PARK_NANOS = 100_000; // 0.1 ms between retries
+  private static final ScratchPool<Utf8Buffer> UTF8_BUFFERS = new ScratchPool<>(Utf8Buffer::new, 64);
+
+  private final boolean enabled;
+  private final ClickOverflowPolicy overflowPolicy;
+  private final long blockTimeoutNanos;
+  private final int batchSize;
+  private final BoundedRingBuffer<ClickEvent> buffer;
+
+  private final LongAdder published = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+
+  private volatile Thread writerThread;
+
+  public ClickTracker(AppProperties appProperties) {
+    AppProperties.Clicks config = appProperties.getClicks();
+    this.enabled = config.isEnabled();
+    this.overflowPolicy = config.getOverflowPolicy();
+    this.blockTimeoutNanos = config.getBlockTimeout().toNanos();
+    this.batchSize = config.getBatchSize();
+    this.buffer = new BoundedRingBuffer<>(config.getBufferCapacity());
+  }
+
+  /**
+   * Publishes a click for {@code shortCode}. Returns without waiting unless the buffer is full
+   * and the policy is {@link ClickOverflowPolicy#BLOCK}.
+   *
+   * @param referrer  raw {@code Referer} header, may be {@code null}
+   * @param userAgent raw {@code User-Agent} header, may be {@code null}
+   */
+  public void record(String shortCode, String referrer, String userAgent) {
+    if (!enabled) {
+      return;
+    }
+    ClickEvent event = new ClickEvent(
+        shortCode, System.currentTimeMillis(), truncate(referrer), hashUserAgent(userAgent));
+    if (buffer.offer(event) || (overflowPolicy == ClickOverflowPolicy.BLOCK && offerBlocking(event))) {
+      published.increment();
+      if (buffer.size() >= batchSize) {
+        wakeWriter();
+      }
+    } else {
+      dropped.increment();
+    }
+  }
+
+  private boolean offerBlocking(ClickEvent event) {
+    long deadline = System.nanoTime() + blockTimeoutNanos;
+    do {
+      wakeWriter();
+      LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+      if (buffer.offer(event)) {
+        return true;
+      }
+    } while (System.nanoTime() - deadline < 0);
+    return false;
+  }
+
+  private void wakeWriter() {
+    Thread thread = writerThread;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /**
+   * Registers the thread that drains the buffer so producers can wake it early.
+   */
+  void attachWriter(Thread thread) {
+    this.writerThread = thread;
+  }
+
+  /**
+   * Moves up to {@code maxEvents} queued events into {@code target}.
+   */
+  int drainTo(Collection<ClickEvent> target, int maxEvents) {
+    return buffer.drainTo(target, maxEvents);
+  }
+
+  private static String truncate(String referrer) {
+    if (referrer == null || referrer.length() <= MAX_REFERRER_LENGTH) {
+      return referrer;
+    }
+    return referrer.substring(0, MAX_REFERRER_LENGTH);
+  }
+
+  private static long hashUserAgent(String userAgent) {
+    if (userAgent == null || userAgent.isEmpty()) {
+      return 0L;
+    }
+    Utf8Buffer utf8 = UTF8_BUFFERS.acquire();
+    try {
+      int length = utf8.encode(userAgent);
+      return XxHash64.hash(utf8.array(), 0, length);
+    } finally {
+      UTF8_BUFFERS.release(utf8);
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public ClickOverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  public int capacity() {
+    return buffer.capacity();
+  }
+
+  /** Approximate number of events waiting to be written. */
+  public int queueDepth() {
+    return buffer.size();
+  }
+
+  public long publishedCount() {
+    return published.sum();
+  }
+
+  public long droppedCount() {
+    return dropped.sum();
+  }
+}
@@ -1,5 +1,13 @@
 package com.example.urlshortener.config;
 
+import com.example.urlshortener.click.ClickOverflowPolicy;
+import com.example.urlshortener.model.RedirectType;
+import com.example.urlshortener.service.CodeGenerationStrategy;
+import com.example.urlshortener.service.HashAlgorithm;
+import com.example.urlshortener.store.StorageEngine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -9,6 +17,30 @@ public class AppProperties {
 
   private String baseUrl;
 
+  private final Cache cache = new Cache();
+
+  private final CodeGeneration codeGeneration = new CodeGeneration();
+
+  private final Clicks clicks = new Clicks();
+
+  private final ShortenBatching shortenBatching = new ShortenBatching();
+
+  private final Expiry expiry = new Expiry();
+
+  private final BulkImport bulkImport = new BulkImport();
+
+  private final Sharding sharding = new Sharding();
+
+  private final ReadReplicas readReplicas = new ReadReplicas();
+
+  private final Storage storage = new Storage();
+
+  private final Redirect redirect = new Redirect();
+
+  private final RateLimit rateLimit = new RateLimit();
+
+  private final HeavyHitters heavyHitters = new HeavyHitters();
+
   public String getBaseUrl() {
     return baseUrl;
   }
@@ -16,6 +48,939 @@ public class AppProperties {
   public void setBaseUrl(String baseUrl) {
     this.baseUrl = baseUrl;
   }
-}
 
+  public Cache getCache() {
+    return cache;
+  }
+
+  public CodeGeneration getCodeGeneration() {
+    return codeGeneration;
+  }
+
+  public Clicks getClicks() {
+    return clicks;
+  }
+
+  public ShortenBatching getShortenBatching() {
+    return shortenBatching;
+  }
+
+  public Expiry getExpiry() {
+    return expiry;
+  }
+
+  public BulkImport getBulkImport() {
+    return bulkImport;
+  }
+
+  public Sharding getSharding() {
+    return sharding;
+  }
+
+  public ReadReplicas getReadReplicas() {
+    return readReplicas;
+  }
+
+  public Storage getStorage() {
+    return storage;
+  }
+
+  public Redirect getRedirect() {
+    return redirect;
+  }
+
+  public RateLimit getRateLimit() {
+    return rateLimit;
+  }
+
+  public HeavyHitters getHeavyHitters() {
+    return heavyHitters;
+  }
+
+  /**
+   * Settings for the in-process resolve cache ({@code app.cache.*}).
+   */
+  public static class Cache {
+
+    /** Whether resolved mappings are cached in front of the repository. */
+    private boolean enabled = true;
+
+    /** Maximum number of code to URL mappings kept in memory. */
+    private long maximumSize = 100_000;
+
+    /** Maximum number of unknown codes remembered by the negative cache. */
+    private long negativeMaximumSize = 10_000;
+
+    /** How long an unknown code is answered from the negative cache. */
+    private Duration negativeTtl = Duration.ofSeconds(10);
+
+    /** Whether the hottest mappings are written to disk and loaded again on startup. */
+    private boolean snapshotEnabled = true;
+
+    /** File the hot-set snapshot is written to. */
+    private String snapshotPath = "./data/hot-set.snapshot";
+
+    /** Time between two snapshots; a final one is written on shutdown. */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+
+    /** Maximum number of mappings in a snapshot, hottest first. */
+    private int snapshotMaxEntries = 10_000;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+      return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+      this.maximumSize = maximumSize;
+    }
+
+    public long getNegativeMaximumSize() {
+      return negativeMaximumSize;
+    }
+
+    public void setNegativeMaximumSize(long negativeMaximumSize) {
+      this.negativeMaximumSize = negativeMaximumSize;
+    }
+
+    public Duration getNegativeTtl() {
+      return negativeTtl;
+    }
+
+    public void setNegativeTtl(Duration negativeTtl) {
+      this.negativeTtl = negativeTtl;
+    }
+
+    public boolean isSnapshotEnabled() {
+      return snapshotEnabled;
+    }
+
+    public void setSnapshotEnabled(boolean snapshotEnabled) {
+      this.snapshotEnabled = snapshotEnabled;
+    }
+
+    public String getSnapshotPath() {
+      return snapshotPath;
+    }
+
+    public void setSnapshotPath(String snapshotPath) {
+      this.snapshotPath = snapshotPath;
+    }
+
+    public Duration getSnapshotInterval() {
+      return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(Duration snapshotInterval) {
+      this.snapshotInterval = snapshotInterval;
+    }
+
+    public int getSnapshotMaxEntries() {
+      return snapshotMaxEntries;
+    }
+
+    public void setSnapshotMaxEntries(int snapshotMaxEntries) {
+      this.snapshotMaxEntries = snapshotMaxEntries;
+    }
+  }
+
+  /**
+   * Settings for short code generation ({@code app.code-generation.*}).
+   */
+  public static class CodeGeneration {
+
+    /** Whether new codes are derived from a URL hash or from a database-backed sequence. */
+    private CodeGenerationStrategy strategy = CodeGenerationStrategy.HASH;
+
+    /** Number of sequence ids a node reserves per database round trip. */
+    private long blockSize = 1000;
+
+    /** Hash applied to the normalized URL by the hash strategy. */
+    private HashAlgorithm hashAlgorithm = HashAlgorithm.SHA_256;
+
+    /**
+     * Whether the hash strategy picks the code length from keyspace occupancy and the measured
+     * collision rate instead of always using 10 characters.
+     */
+    private boolean adaptiveLength = false;
+
+    /** Shortest code the adaptive length may choose. */
+    private int minLength = 6;
+
+    /** Collision probability per insert above which the adaptive length moves to longer codes. */
+    private double targetCollisionRate = 0.01;
+
+    public CodeGenerationStrategy getStrategy() {
+      return strategy;
+    }
+
+    public void setStrategy(CodeGenerationStrategy strategy) {
+      this.strategy = strategy;
+    }
+
+    public long getBlockSize() {
+      return blockSize;
+    }
+
+    public void setBlockSize(long blockSize) {
+      this.blockSize = blockSize;
+    }
+
+    public HashAlgorithm getHashAlgorithm() {
+      return hashAlgorithm;
+    }
+
+    public void setHashAlgorithm(HashAlgorithm hashAlgorithm) {
+      this.hashAlgorithm = hashAlgorithm;
+    }
+
+    public boolean isAdaptiveLength() {
+      return adaptiveLength;
+    }
+
+    public void setAdaptiveLength(boolean adaptiveLength) {
+      this.adaptiveLength = adaptiveLength;
+    }
+
+    public int getMinLength() {
+      return minLength;
+    }
+
+    public void setMinLength(int minLength) {
+      this.minLength = minLength;
+    }
+
+    public double getTargetCollisionRate() {
+      return targetCollisionRate;
+    }
+
+    public void setTargetCollisionRate(double targetCollisionRate) {
+      this.targetCollisionRate = targetCollisionRate;
+    }
+  }
+
+  /**
+   * Settings for asynchronous click tracking ({@code app.clicks.*}).
+   */
+  public static class Clicks {
+
+    /** Whether redirects publish click events. */
+    private boolean enabled = true;
+
+    /** Number of events the in-memory buffer holds (rounded up to a power of two). */
+    private int bufferCapacity = 8192;
+
+    /** Maximum number of events written per JDBC batch. */
+    private int batchSize = 500;
+
+    /** How long the writer waits for a full batch before flushing a partial one. */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /** What to do with a click when the buffer is full. */
+    private ClickOverflowPolicy overflowPolicy = ClickOverflowPolicy.DROP;
+
+    /** With the BLOCK policy, how long a redirect waits for room before dropping the event. */
+    private Duration blockTimeout = Duration.ofMillis(50);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getBufferCapacity() {
+      return bufferCapacity;
+    }
+
+    public void setBufferCapacity(int bufferCapacity) {
+      this.bufferCapacity = bufferCapacity;
+    }
+
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    public Duration getFlushInterval() {
+      return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+      this.flushInterval = flushInterval;
+    }
+
+    public ClickOverflowPolicy getOverflowPolicy() {
+      return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(ClickOverflowPolicy overflowPolicy) {
+      this.overflowPolicy = overflowPolicy;
+    }
+
+    public Duration getBlockTimeout() {
+      return blockTimeout;
+    }
+
+    public void setBlockTimeout(Duration blockTimeout) {
+      this.blockTimeout = blockTimeout;
+    }
+  }
+
+  /**
+   * Settings for group-committing concurrent shorten calls ({@code app.shorten-batching.*}).
+   */
+  public static class ShortenBatching {
+
+    /** Whether new mappings are stored in batches instead of one transaction per call. */
+    private boolean enabled = false;
+
+    /** Maximum number of shorten calls stored in one transaction. */
+    private int maxBatchSize = 64;
+
+    /** Longest time the first call of a batch waits for more calls to join it. */
+    private Duration maxDelay = Duration.ofMillis(2);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getMaxBatchSize() {
+      return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+      this.maxBatchSize = maxBatchSize;
+    }
+
+    public Duration getMaxDelay() {
+      return maxDelay;
+    }
+
+    public void setMaxDelay(Duration maxDelay) {
+      this.maxDelay = maxDelay;
+    }
+  }
+
+  /**
+   * Settings for deleting expired links ({@code app.expiry.*}).
+   */
+  public static class Expiry {
+
+    /** Whether the background sweeper deletes expired links. */
+    private boolean sweeperEnabled = true;
+
+    /** Time between two sweeps. */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+
+    /** Maximum number of links deleted per statement batch and transaction. */
+    private int batchSize = 500;
+
+    /** Pause between two delete batches of the same sweep, so other writers get the table. */
+    private Duration batchPause = Duration.ofMillis(10);
+
+    public boolean isSweeperEnabled() {
+      return sweeperEnabled;
+    }
+
+    public void setSweeperEnabled(boolean sweeperEnabled) {
+      this.sweeperEnabled = sweeperEnabled;
+    }
+
+    public Duration getSweepInterval() {
+      return sweepInterval;
+    }
+
+    public void setSweepInterval(Duration sweepInterval) {
+      this.sweepInterval = sweepInterval;
+    }
+
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    public Duration getBatchPause() {
+      return batchPause;
+    }
+
+    public void setBatchPause(Duration batchPause) {
+      this.batchPause = batchPause;
+    }
+  }
+
+  /**
+   * Settings for bulk URL imports ({@code app.bulk-import.*}).
+   */
+  public static class BulkImport {
+
+    /** Directory that uploaded import files, checkpoints and error reports are kept in. */
+    private String directory = "./data/imports";
+
+    /** Number of input lines normalized together and stored in one transaction. */
+    private int batchSize = 5000;
+
+    /** Threads that parse and normalize lines; 0 uses one per available processor. */
+    private int parallelism = 0;
+
+    public String getDirectory() {
+      return directory;
+    }
+
+    public void setDirectory(String directory) {
+      this.directory = directory;
+    }
+
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    public int getParallelism() {
+      return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+      this.parallelism = parallelism;
+    }
+  }
+
+  /**
+   * Settings for spreading mappings over several databases ({@code app.sharding.*}).
+   */
+  public static class Sharding {
+
+    /** Whether mappings are stored on {@link #shards} instead of {@code spring.datasource}. */
+    private boolean enabled = false;
+
+    /** The shards; the first one is the default shard that also holds the unsharded tables. */
+    private List<Shard> shards = new ArrayList<>();
+
+    /** Points per shard on the consistent-hash ring; more points spread codes more evenly. */
+    private int virtualNodes = 128;
 
+    /** Maximum number of connections in the pool of each shard. */
+    private int maximumPoolSize = 10;
+
+    /** Whether rows are moved to the shards that own them after startup, after adding a shard. */
+    private boolean rebalanceOnStartup = false;
+
+    /** Number of rows read per query while rebalancing; each row is moved on its own. */
+    private int rebalanceBatchSize = 500;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public List<Shard> getShards() {
+      return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+      this.shards = shards;
+    }
+
+    public int getVirtualNodes() {
+      return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+      this.virtualNodes = virtualNodes;
+    }
+
+    public int getMaximumPoolSize() {
+      return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+      this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public boolean isRebalanceOnStartup() {
+      return rebalanceOnStartup;
+    }
+
+    public void setRebalanceOnStartup(boolean rebalanceOnStartup) {
+      this.rebalanceOnStartup = rebalanceOnStartup;
+    }
+
+    public int getRebalanceBatchSize() {
+      return rebalanceBatchSize;
+    }
+
+    public void setRebalanceBatchSize(int rebalanceBatchSize) {
+      this.rebalanceBatchSize = rebalanceBatchSize;
+    }
+  }
+
+  /**
+   * One database of {@code app.sharding.shards}.
+   */
+  public static class Shard {
+
+    /** Name of the shard; it decides the shard's place on the hash ring, so never rename one. */
+    private String name;
+
+    /** JDBC URL of the shard's database. */
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public String getUrl() {
+      return url;
+    }
+
+    public void setUrl(String url) {
+      this.url = url;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public void setUsername(String username) {
+      this.username = username;
+    }
+
+    public String getPassword() {
+      return password;
+    }
+
+    public void setPassword(String password) {
+      this.password = password;
+    }
+  }
+
+  /**
+   * Settings for sending resolves to read replicas of {@code spring.datasource}
+   * ({@code app.read-replicas.*}).
+   */
+  public static class ReadReplicas {
+
+    /** Whether read-only lookups go to {@link #replicas} instead of the primary. */
+    private boolean enabled = false;
+
+    /** The replicas, used round robin while healthy. */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** Maximum number of connections in the pool of each replica. */
+    private int maximumPoolSize = 10;
+
+    /** How often every replica is checked. */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /** How long a replica may take to hand out a valid connection before it counts as down. */
+    private Duration healthCheckTimeout = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public List<Replica> getReplicas() {
+      return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+      this.replicas = replicas;
+    }
+
+    public int getMaximumPoolSize() {
+      return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+      this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public Duration getHealthCheckInterval() {
+      return healthCheckInterval;
+    }
+
+    public void setHealthCheckInterval(Duration healthCheckInterval) {
+      this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public Duration getHealthCheckTimeout() {
+      return healthCheckTimeout;
+    }
+
+    public void setHealthCheckTimeout(Duration healthCheckTimeout) {
+      this.healthCheckTimeout = healthCheckTimeout;
+    }
+  }
+
+  /**
+   * One database of {@code app.read-replicas.replicas}.
+   */
+  public static class Replica {
+
+    /** Name of the replica, used in logs and {@code GET /api/admin/replicas}. */
+    private String name;
+
+    /** JDBC URL of the replica's database. */
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public String getUrl() {
+      return url;
+    }
+
+    public void setUrl(String url) {
+      this.url = url;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public void setUsername(String username) {
+      this.username = username;
+    }
+
+    public String getPassword() {
+      return password;
+    }
+
+    public void setPassword(String password) {
+      this.password = password;
+    }
+  }
+
+  /**
+   * Settings for the storage engine of the mappings ({@code app.storage.*}).
+   */
+  public static class Storage {
+
+    /** Where mappings are stored: {@code jpa} (spring.datasource) or {@code log} ({@link #logPath}). */
+    private StorageEngine engine = StorageEngine.JPA;
+
+    /** File of the log engine. */
+    private String logPath = "./data/short-urls.log";
+
+    /** Whether every write to the log is forced to the device before it returns. */
+    private boolean syncOnWrite = false;
+
+    /** How often the log engine checks whether its file needs compacting. */
+    private Duration compactionInterval = Duration.ofMinutes(1);
+
+    /** Share of the log file that must be reclaimable before it is compacted. */
+    private double compactionGarbageRatio = 0.5;
+
+    public StorageEngine getEngine() {
+      return engine;
+    }
+
+    public void setEngine(StorageEngine engine) {
+      this.engine = engine;
+    }
+
+    public String getLogPath() {
+      return logPath;
+    }
+
+    public void setLogPath(String logPath) {
+      this.logPath = logPath;
+    }
+
+    public boolean isSyncOnWrite() {
+      return syncOnWrite;
+    }
+
+    public void setSyncOnWrite(boolean syncOnWrite) {
+      this.syncOnWrite = syncOnWrite;
+    }
+
+    public Duration getCompactionInterval() {
+      return compactionInterval;
+    }
+
+    public void setCompactionInterval(Duration compactionInterval) {
+      this.compactionInterval = compactionInterval;
+    }
+
+    public double getCompactionGarbageRatio() {
+      return compactionGarbageRatio;
+    }
+
+    public void setCompactionGarbageRatio(double compactionGarbageRatio) {
+      this.compactionGarbageRatio = compactionGarbageRatio;
+    }
+  }
+
+  /**
+   * Settings for the responses of {@code GET /u/{code}} ({@code app.redirect.*}).
+   */
+  public static class Redirect {
+
+    /** Status of links created without a redirect type of their own. */
+    private RedirectType type = RedirectType.PERMANENT;
+
+    /** How long browsers may reuse a redirect ({@code Cache-Control: max-age}). */
+    private Duration maxAge = Duration.ofHours(1);
+
+    /** How long shared caches such as a CDN may reuse a redirect ({@code s-maxage}). */
+    private Duration sharedMaxAge = Duration.ofDays(1);
+
+    /** Whether redirects carry {@code ETag} and {@code Last-Modified} and answer conditional requests with 304. */
+    private boolean conditional = true;
+
+    public RedirectType getType() {
+      return type;
+    }
+
+    public void setType(RedirectType type) {
+      this.type = type;
+    }
+
+    public Duration getMaxAge() {
+      return maxAge;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+      this.maxAge = maxAge;
+    }
+
+    public Duration getSharedMaxAge() {
+      return sharedMaxAge;
+    }
+
+    public void setSharedMaxAge(Duration sharedMaxAge) {
+      this.sharedMaxAge = sharedMaxAge;
+    }
+
+    public boolean isConditional() {
+      return conditional;
+    }
+
+    public void setConditional(boolean conditional) {
+      this.conditional = conditional;
+    }
+  }
+
+  /**
+   * Settings for the per-client rate limit of {@code POST /api/shorten} ({@code app.rate-limit.*}).
+   */
+  public static class RateLimit {
+
+    /** Whether shorten requests are rate limited. */
+    private boolean enabled = true;
+
+    /** Requests a client may make in one burst; the size of its token bucket. */
+    private long capacity = 50;
+
+    /** Sustained requests per second per client; the refill rate of its bucket. */
+    private double refillPerSecond = 10;
+
+    /** Request header whose value identifies a client instead of its address. */
+    private String apiKeyHeader = "X-API-Key";
+
+    /** API keys that get a budget of their own; other keys are limited by address. */
+    private List<String> apiKeys = new ArrayList<>();
+
+    /** Number of independent stripes of the bucket table; 0 for four per processor. */
+    private int stripes = 0;
+
+    /** How often the buckets of clients that went quiet are dropped. */
+    private Duration evictionInterval = Duration.ofMinutes(1);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public long getCapacity() {
+      return capacity;
+    }
+
+    public void setCapacity(long capacity) {
+      this.capacity = capacity;
+    }
+
+    public double getRefillPerSecond() {
+      return refillPerSecond;
+    }
+
+    public void setRefillPerSecond(double refillPerSecond) {
+      this.refillPerSecond = refillPerSecond;
+    }
+
+    public String getApiKeyHeader() {
+      return apiKeyHeader;
+    }
+
+    public void setApiKeyHeader(String apiKeyHeader) {
+      this.apiKeyHeader = apiKeyHeader;
+    }
+
+    public List<String> getApiKeys() {
+      return apiKeys;
+    }
+
+    public void setApiKeys(List<String> apiKeys) {
+      this.apiKeys = apiKeys;
+    }
+
+    public int getStripes() {
+      return stripes;
+    }
+
+    public void setStripes(int stripes) {
+      this.stripes = stripes;
+    }
+
+    public Duration getEvictionInterval() {
+      return evictionInterval;
+    }
+
+    public void setEvictionInterval(Duration evictionInterval) {
+      this.evictionInterval = evictionInterval;
+    }
+  }
+
+  /**
+   * Settings for the detection of frequently redirected codes ({@code app.heavy-hitters.*}).
+   */
+  public static class HeavyHitters {
+
+    /** Whether redirects are counted to find the hottest codes. */
+    private boolean enabled = true;
+
+    /** Number of hottest codes tracked and reported. */
+    private int topK = 100;
+
+    /** Counters per row of the count-min sketch, rounded up to a power of two. */
+    private int sketchWidth = 8192;
+
+    /** Rows (hash functions) of the count-min sketch. */
+    private int sketchDepth = 4;
+
+    /** Time after which a redirect counts half as much; counts decay by halving. */
+    private Duration halfLife = Duration.ofMinutes(1);
+
+    /** How often the hottest codes are published and the resolve cache pins are updated. */
+    private Duration refreshInterval = Duration.ofSeconds(1);
+
+    /** Slots of each per-thread-stripe buffer of recorded redirects, rounded up to a power of two. */
+    private int bufferSize = 256;
+
+    /** Whether the hottest codes are pinned in (and if missing, prefetched into) the resolve cache. */
+    private boolean pinCache = true;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getTopK() {
+      return topK;
+    }
+
+    public void setTopK(int topK) {
+      this.topK = topK;
+    }
+
+    public int getSketchWidth() {
+      return sketchWidth;
+    }
+
+    public void setSketchWidth(int sketchWidth) {
+      this.sketchWidth = sketchWidth;
+    }
+
+    public int getSketchDepth() {
+      return sketchDepth;
+    }
+
+    public void setSketchDepth(int sketchDepth) {
+      this.sketchDepth = sketchDepth;
+    }
+
+    public Duration getHalfLife() {
+      return halfLife;
+    }
+
+    public void setHalfLife(Duration halfLife) {
+      this.halfLife = halfLife;
+    }
+
+    public Duration getRefreshInterval() {
+      return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+      this.refreshInterval = refreshInterval;
+    }
+
+    public int getBufferSize() {
+      return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+      this.bufferSize = bufferSize;
+    }
+
+    public boolean isPinCache() {
+      return pinCache;
+    }
+
+    public void setPinCache(boolean pinCache) {
+      this.pinCache = pinCache;
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.example.urlshortener.exception;
+
+/**
+ * Thrown when a requested link expiry is in the past, after {@code ShortUrl.MAX_EXPIRES_AT} or
+ * specified more than once.
+ */
+public class InvalidExpiryException extends RuntimeException {
+
+  public InvalidExpiryException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.urlshortener.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a client has used up its request budget; {@link #getRetryAfter()} tells when the
+ * next request will be admitted.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+  private final Duration retryAfter;
+
+  public RateLimitExceededException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
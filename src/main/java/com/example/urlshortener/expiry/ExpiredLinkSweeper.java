@@ -0,0 +1,180 @@
+package com.example.urlshortener.expiry;
+
+import com.example.urlshortener.cache.ResolveCache;
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.shard.ShardRouter;
+import com.example.urlshortener.shard.UrlIndex;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Background thread that deletes expired links from {@code short_urls}.
+ *
+ * <p>Every {@code app.expiry.sweep-interval} it walks the {@code expires_at} index from the
+ * oldest expiry up to now and deletes at most {@code app.expiry.batch-size} rows per
+ * transaction, pausing {@code app.expiry.batch-pause} between batches, so a large backlog of
+ * expired links never holds locks for long. The delete re-checks {@code expires_at}, so a link
+ * whose expiry was extended after it was selected survives. Each deleted code is also dropped
+ * from the {@link ResolveCache}. With sharded storage every shard is swept in turn, and the
+ * {@link UrlIndex} entries of deleted links are released.</p>
+ *
+ * <p>Expired links already stop resolving before they are swept: the resolve path compares the
+ * expiry it reads with the URL. The sweeper only keeps the table and its indexes small.</p>
+ */
+@Component
+public class ExpiredLinkSweeper implements SmartLifecycle {
+
+  private static final Logger logger = LoggerFactory.getLogger(ExpiredLinkSweeper.class);
+
+  static final String SELECT_SQL =
+      "select id, short_code from short_urls where expires_at <= ? order by expires_at limit ?";
+  static final String SELECT_SHARDED_SQL = "select id, short_code, original_url_hash from short_urls"
+      + " where expires_at <= ? order by expires_at limit ?";
+  static final String DELETE_SQL = "delete from short_urls where id = ? and expires_at <= ?";
+
+  private record ExpiredLink(long id, String shortCode, Long fingerprint) {}
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ResolveCache resolveCache;
+  private final ShardRouter shardRouter;
+  private final UrlIndex urlIndex;
+  private final boolean enabled;
+  private final long sweepIntervalNanos;
+  private final int batchSize;
+  private final long batchPauseNanos;
+
+  private final AtomicLong deleted = new AtomicLong();
+
+  private volatile boolean running;
+  private Thread thread;
+
+  public ExpiredLinkSweeper(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+      ResolveCache resolveCache, AppProperties appProperties, ShardRouter shardRouter,
+      UrlIndex urlIndex) {
+    AppProperties.Expiry config = appProperties.getExpiry();
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.resolveCache = resolveCache;
+    this.shardRouter = shardRouter;
+    this.urlIndex = urlIndex;
+    this.enabled = config.isSweeperEnabled();
+    this.sweepIntervalNanos = config.getSweepInterval().toNanos();
+    this.batchSize = config.getBatchSize();
+    this.batchPauseNanos = config.getBatchPause().toNanos();
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("app.expiry.batch-size must be positive");
+    }
+  }
+
+  @Override
+  public void start() {
+    if (!enabled || running) {
+      return;
+    }
+    running = true;
+    thread = Thread.ofPlatform().name("link-sweeper").daemon().start(this::run);
+  }
+
+  @Override
+  public void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    while (running) {
+      try {
+        sweep(Instant.now());
+      } catch (DataAccessException ex) {
+        logger.warn("Failed to delete expired links", ex);
+      }
+      LockSupport.parkNanos(this, sweepIntervalNanos);
+    }
+  }
+
+  /**
+   * Deletes the links that expired at or before {@code now}, one bounded batch at a time.
+   *
+   * @return the number of links deleted
+   */
+  public int sweep(Instant now) {
+    OffsetDateTime cutoff = OffsetDateTime.ofInstant(now, ZoneOffset.UTC);
+    int total = 0;
+    for (String shard : shardRouter.shards()) {
+      total += shardRouter.onShard(shard, () -> sweepShard(cutoff));
+    }
+    if (total > 0) {
+      deleted.addAndGet(total);
+      logger.debug("Deleted {} expired links", total);
+    }
+    return total;
+  }
+
+  private int sweepShard(OffsetDateTime cutoff) {
+    boolean sharded = shardRouter.isSharded();
+    int total = 0;
+    while (true) {
+      List<ExpiredLink> batch = sharded
+          ? jdbcTemplate.query(SELECT_SHARDED_SQL, (rs, rowNum) -> new ExpiredLink(rs.getLong("id"),
+              rs.getString("short_code"), rs.getObject("original_url_hash", Long.class)), cutoff, batchSize)
+          : jdbcTemplate.query(SELECT_SQL,
+              (rs, rowNum) -> new ExpiredLink(rs.getLong("id"), rs.getString("short_code"), null),
+              cutoff, batchSize);
+      if (batch.isEmpty()) {
+        break;
+      }
+      int[] counts = transactionTemplate.execute(status ->
+          jdbcTemplate.batchUpdate(DELETE_SQL, batch, batch.size(), (ps, link) -> {
+            ps.setLong(1, link.id());
+            ps.setObject(2, cutoff);
+          })[0]);
+      for (int i = 0; i < batch.size(); i++) {
+        if (counts[i] != 0) {
+          ExpiredLink link = batch.get(i);
+          resolveCache.invalidate(link.shortCode());
+          if (sharded && link.fingerprint() != null) {
+            urlIndex.release(link.fingerprint(), link.shortCode());
+          }
+          total++;
+        }
+      }
+      // A stopping sweeper leaves the rest for the next start
+      if (batch.size() < batchSize || (thread != null && !running)) {
+        break;
+      }
+      LockSupport.parkNanos(this, batchPauseNanos);
+    }
+    return total;
+  }
+
+  public long deletedCount() {
+    return deleted.get();
+  }
+}
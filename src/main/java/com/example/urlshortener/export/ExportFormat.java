@@ -0,0 +1,38 @@
+package com.example.urlshortener.export;
+
+/**
+ * Output formats of {@link MappingExporter}.
+ */
+public enum ExportFormat {
+
+  /** One JSON object per line. */
+  NDJSON("application/x-ndjson", "ndjson"),
+
+  /** RFC 4180 CSV with a header row. */
+  CSV("text/csv", "csv");
+
+  private final String contentType;
+  private final String extension;
+
+  ExportFormat(String contentType, String extension) {
+    this.contentType = contentType;
+    this.extension = extension;
+  }
+
+  public String contentType() {
+    return contentType;
+  }
+
+  public String extension() {
+    return extension;
+  }
+
+  /**
+   * Picks the format from a file name such as {@code backup.csv} or {@code backup.ndjson.gz};
+   * anything that is not CSV is exported as NDJSON.
+   */
+  public static ExportFormat forFileName(String fileName) {
+    String name = fileName.endsWith(".gz") ? fileName.substring(0, fileName.length() - 3) : fileName;
+    return name.endsWith(".csv") ? CSV : NDJSON;
+  }
+}
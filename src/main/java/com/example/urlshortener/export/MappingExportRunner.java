@@ -0,0 +1,60 @@
+package com.example.urlshortener.export;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Command-line export: started with {@code --export=<file>}, the application writes all
+ * mappings to {@code file} and exits instead of serving requests.
+ *
+ * <p>The format follows the file name ({@code .csv} for CSV, NDJSON otherwise) and a trailing
+ * {@code .gz} compresses the output. Add {@code --spring.main.web-application-type=none} to skip
+ * starting the web server.</p>
+ */
+@Component
+public class MappingExportRunner implements ApplicationRunner {
+
+  private static final Logger logger = LoggerFactory.getLogger(MappingExportRunner.class);
+
+  static final String OPTION = "export";
+
+  private final MappingExporter exporter;
+  private final ConfigurableApplicationContext context;
+
+  public MappingExportRunner(MappingExporter exporter, ConfigurableApplicationContext context) {
+    this.exporter = exporter;
+    this.context = context;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) throws Exception {
+    List<String> values = args.getOptionValues(OPTION);
+    if (values == null || values.isEmpty()) {
+      return;
+    }
+    Path file = Path.of(values.get(0));
+    String fileName = file.getFileName().toString();
+    ExportFormat format = ExportFormat.forFileName(fileName);
+    boolean gzip = fileName.endsWith(".gz");
+
+    long start = System.nanoTime();
+    long exported;
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+      exported = exporter.export(out, format, gzip);
+    }
+    logger.info("Exported {} mappings to {} in {} ms", exported, file,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    System.exit(SpringApplication.exit(context));
+  }
+}
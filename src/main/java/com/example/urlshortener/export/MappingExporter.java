@@ -0,0 +1,201 @@
+package com.example.urlshortener.export;
+
+import com.example.urlshortener.model.RedirectType;
+import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.shard.ShardRouter;
+import com.example.urlshortener.store.log.LogShortUrlStore;
+import com.example.urlshortener.util.CsvUtils;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streams every row of {@code short_urls} to an {@link OutputStream} as NDJSON or CSV.
+ *
+ * <p>Rows are read in id order, {@link #PAGE_SIZE} at a time, each page continuing after the
+ * last id of the previous one ({@code id > ? order by id limit ?}), so every query is an index
+ * range scan and no page needs an offset. Rows go from a forward-only result set straight to a
+ * buffered writer; memory use does not grow with the table.</p>
+ *
+ * <p>The export is not a point-in-time snapshot: rows inserted while it runs are included if
+ * their id is beyond the current page, and rows deleted in the meantime may be missing.</p>
+ *
+ * <p>With sharded storage the shards are exported one after the other, each in id order; ids
+ * are only unique within a shard. With the log storage engine the mappings come from the
+ * {@link LogShortUrlStore}'s index instead, also in id order.</p>
+ *
+ * <p>Fields: {@code id}, {@code shortCode}, {@code originalUrl}, {@code createdAt},
+ * {@code expiresAt} (ISO-8601; {@code null} in NDJSON and empty in CSV for links that never
+ * expire) and {@code redirectType} (the link's own {@link RedirectType} name; {@code null} in
+ * NDJSON and empty in CSV for links that use {@code app.redirect.type}).</p>
+ */
+@Component
+public class MappingExporter {
+
+  static final int PAGE_SIZE = 1000;
+
+  private static final String PAGE_QUERY =
+      "select id, short_code, original_url, created_at, expires_at, redirect_type from short_urls"
+          + " where id > ? order by id limit ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ShardRouter shardRouter;
+  private final LogShortUrlStore logStore; // null unless app.storage.engine=log
+
+  public MappingExporter(JdbcTemplate jdbcTemplate, ShardRouter shardRouter,
+      Optional<LogShortUrlStore> logStore) {
+    JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+    cursor.setFetchSize(PAGE_SIZE);
+    this.jdbcTemplate = cursor;
+    this.shardRouter = shardRouter;
+    this.logStore = logStore.orElse(null);
+  }
+
+  /**
+   * Writes all mappings to {@code out}, gzip-compressed if {@code gzip} is set. The stream is
+   * flushed but not closed.
+   *
+   * @return the number of mappings written
+   */
+  public long export(OutputStream out, ExportFormat format, boolean gzip) throws IOException {
+    GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 64 * 1024) : null;
+    Writer writer = new BufferedWriter(
+        new OutputStreamWriter(gzip ? compressed : out, StandardCharsets.UTF_8), 64 * 1024);
+    if (format == ExportFormat.CSV) {
+      writer.write("id,short_code,original_url,created_at,expires_at,redirect_type\r\n");
+    }
+
+    long written = 0;
+    try {
+      if (logStore != null) {
+        written = logStore.forEachInIdOrder(mapping -> writeMapping(writer, format, mapping));
+      } else {
+        for (String shard : shardRouter.shards()) {
+          written += shardRouter.onShard(shard, () -> exportShard(writer, format));
+        }
+      }
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+
+    writer.flush();
+    if (compressed != null) {
+      compressed.finish();
+    }
+    out.flush();
+    return written;
+  }
+
+  private long exportShard(Writer writer, ExportFormat format) {
+    long[] lastId = {0};
+    long written = 0;
+    while (true) {
+      long[] pageRows = {0};
+      jdbcTemplate.query(PAGE_QUERY, (RowCallbackHandler) rs -> {
+        lastId[0] = rs.getLong(1);
+        writeRow(writer, format, rs, lastId[0]);
+        pageRows[0]++;
+      }, lastId[0], PAGE_SIZE);
+      written += pageRows[0];
+      if (pageRows[0] < PAGE_SIZE) {
+        return written;
+      }
+    }
+  }
+
+  private static void writeRow(Writer writer, ExportFormat format, ResultSet rs, long id) throws SQLException {
+    write(writer, format, id, rs.getString(2), rs.getString(3),
+        isoString(rs.getTimestamp(4)), isoString(rs.getTimestamp(5)), rs.getString(6));
+  }
+
+  private static void writeMapping(Writer writer, ExportFormat format, ShortUrl mapping) {
+    write(writer, format, mapping.getId(), mapping.getShortCode(), mapping.getOriginalUrl(),
+        isoString(mapping.getCreatedAt()), isoString(mapping.getExpiresAt()),
+        mapping.getRedirectType() == null ? null : mapping.getRedirectType().name());
+  }
+
+  private static void write(Writer writer, ExportFormat format, long id, String shortCode,
+      String originalUrl, String createdAt, String expiresAt, String redirectType) {
+    try {
+      if (format == ExportFormat.CSV) {
+        writer.write(Long.toString(id));
+        writer.write(',');
+        CsvUtils.writeField(writer, shortCode);
+        writer.write(',');
+        CsvUtils.writeField(writer, originalUrl);
+        writer.write(',');
+        writer.write(createdAt == null ? "" : createdAt);
+        writer.write(',');
+        writer.write(expiresAt == null ? "" : expiresAt);
+        writer.write(',');
+        writer.write(redirectType == null ? "" : redirectType);
+        writer.write("\r\n");
+      } else {
+        writer.write("{\"id\":");
+        writer.write(Long.toString(id));
+        writer.write(",\"shortCode\":");
+        writeJsonString(writer, shortCode);
+        writer.write(",\"originalUrl\":");
+        writeJsonString(writer, originalUrl);
+        writer.write(",\"createdAt\":");
+        writeJsonString(writer, createdAt);
+        writer.write(",\"expiresAt\":");
+        writeJsonString(writer, expiresAt);
+        writer.write(",\"redirectType\":");
+        writeJsonString(writer, redirectType);
+        writer.write("}\n");
+      }
+    } catch (IOException ex) {
+      // RowCallbackHandler and Consumer cannot throw IOException; unwrapped again in export()
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static String isoString(Timestamp timestamp) {
+    return timestamp == null ? null : timestamp.toInstant().toString();
+  }
+
+  private static String isoString(Instant instant) {
+    return instant == null ? null : instant.toString();
+  }
+
+  static void writeJsonString(Writer writer, String value) throws IOException {
+    if (value == null) {
+      writer.write("null");
+      return;
+    }
+    writer.write('"');
+    int start = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c != '"' && c != '\\' && c >= 0x20) {
+        continue;
+      }
+      writer.write(value, start, i - start);
+      switch (c) {
+        case '"' -> writer.write("\\\"");
+        case '\\' -> writer.write("\\\\");
+        case '\n' -> writer.write("\\n");
+        case '\r' -> writer.write("\\r");
+        case '\t' -> writer.write("\\t");
+        default -> writer.write(String.format("\\u%04x", (int) c));
+      }
+      start = i + 1;
+    }
+    writer.write(value, start, value.length() - start);
+    writer.write('"');
+  }
+}
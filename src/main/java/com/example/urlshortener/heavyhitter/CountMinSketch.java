@@ -0,0 +1,112 @@
+package com.example.urlshortener.heavyhitter;
+
+import com.example.urlshortener.util.XxHash64;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-memory frequency estimates for an unbounded set of keys.
+ *
+ * <p>{@code depth} rows of {@code width} counters; a key increments one counter per row, chosen
+ * by independent hashes, and its estimate is the smallest of them. Collisions only ever add, so
+ * an estimate is never below the true count, and with {@code n} additions it exceeds it by more
+ * than {@code e·n/width} with probability at most {@code e^-depth}. Updates are conservative: only
+ * the counters at the current minimum are raised, which leaves the others, and the
+ * overestimates of colliding keys, lower.</p>
+ *
+ * <p>{@link #halve} divides every counter by two, so that counts decay exponentially and the
+ * sketch follows current rather than all-time frequencies. Not thread-safe.</p>
+ */
+public final class CountMinSketch {
+
+  private static final int MAX_WIDTH = 1 << 30;
+
+  private final int depth;
+  private final int width;
+  private final int mask;
+  private final int[] counters;
+
+  /**
+   * @param depth number of rows, i.e. hash functions
+   * @param width counters per row, rounded up to a power of two
+   */
+  public CountMinSketch(int depth, int width) {
+    if (depth <= 0 || width <= 0 || width > MAX_WIDTH) {
+      throw new IllegalArgumentException("Depth must be positive and width between 1 and " + MAX_WIDTH);
+    }
+    this.depth = depth;
+    this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+    this.mask = this.width - 1;
+    this.counters = new int[Math.multiplyExact(depth, this.width)];
+  }
+
+  /**
+   * Counts one occurrence of {@code key}.
+   *
+   * @return the estimated count of {@code key} including this one
+   */
+  public int add(String key) {
+    long hash = hash(key);
+    int estimate = estimate(hash);
+    if (estimate == Integer.MAX_VALUE) {
+      return estimate;
+    }
+    int next = estimate + 1;
+    for (int row = 0; row < depth; row++) {
+      int index = index(hash, row);
+      if (counters[index] < next) {
+        counters[index] = next;
+      }
+    }
+    return next;
+  }
+
+  /** Returns the estimated count of {@code key}; never less than the true (decayed) count. */
+  public int estimate(String key) {
+    return estimate(hash(key));
+  }
+
+  /** Halves every count. */
+  public void halve() {
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] >>>= 1;
+    }
+  }
+
+  public int depth() {
+    return depth;
+  }
+
+  public int width() {
+    return width;
+  }
+
+  /** Size of the counter table. */
+  public long memoryBytes() {
+    return (long) Integer.BYTES * counters.length;
+  }
+
+  private int estimate(long hash) {
+    int min = Integer.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      min = Math.min(min, counters[index(hash, row)]);
+    }
+    return min;
+  }
+
+  /** Row {@code row}'s counter, by double hashing of the two halves of {@code hash}. */
+  private int index(long hash, int row) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32) | 1;
+    return row * width + ((h1 + row * h2) & mask);
+  }
+
+  /**
+   * XXH64 of the key's UTF-8 bytes. {@link String#hashCode} is only 32 bits and trivially
+   * colliding ("Aa" and "BB"), which would put such keys on the same counter in every row.
+   */
+  private static long hash(String key) {
+    byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+    return XxHash64.hash(bytes, 0, bytes.length);
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.urlshortener.heavyhitter;
+
+import java.util.Comparator;
+
+/**
+ * A frequently resolved short code.
+ *
+ * @param estimatedCount redirects counted for the code, halved every
+ *                       {@code app.heavy-hitters.half-life}; an upper bound
+ */
+public record HeavyHitter(String shortCode, long estimatedCount) {
+
+  static final Comparator<HeavyHitter> BY_COUNT_DESCENDING =
+      Comparator.comparingLong(HeavyHitter::estimatedCount).reversed().thenComparing(HeavyHitter::shortCode);
+}
@@ -0,0 +1,283 @@
+package com.example.urlshortener.heavyhitter;
+
+import com.example.urlshortener.cache.ResolveCache;
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.exception.UrlNotFoundException;
+import com.example.urlshortener.repository.LinkTarget;
+import com.example.urlshortener.service.UrlShorteningService;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Finds the short codes that currently get the most redirects, in fixed memory.
+ *
+ * <p>{@link #record} is on the redirect path and only writes the code into a small ring buffer
+ * picked by the calling thread: one uncontended increment and one store, no allocation and no
+ * lock. A background thread drains the buffers every few milliseconds into a
+ * {@link CountMinSketch} and a {@link TopK} of the {@code app.heavy-hitters.top-k} codes with
+ * the highest estimates. If a burst overruns a buffer before it is drained, the oldest codes in
+ * it are dropped (and counted as such): the counts become a sample, but the cost per redirect
+ * stays the same.</p>
+ *
+ * <p>Both the sketch and the top-K are halved every {@code app.heavy-hitters.half-life}, so the
+ * ranking follows current traffic. Every {@code app.heavy-hitters.refresh-interval} the ranking is
+ * published for {@link #hottest} and, with {@code app.heavy-hitters.pin-cache}, the hottest codes
+ * are {@link ResolveCache#pin pinned} in the resolve cache; one that is not cached is prefetched
+ * by resolving it.</p>
+ */
+@Component
+public class HeavyHitterTracker implements SmartLifecycle {
+
+  private static final Logger logger = LoggerFactory.getLogger(HeavyHitterTracker.class);
+
+  private static final long DRAIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  /** Beyond this many missed half-lives every count is zero anyway. */
+  private static final int MAX_HALVINGS = 32;
+
+  private final boolean enabled;
+  private final boolean pinCache;
+  private final int topK;
+  private final long halfLifeNanos;
+  private final long refreshIntervalNanos;
+  private final ResolveCache resolveCache;
+  private final UrlShorteningService urlShorteningService;
+  private final RecordBuffer[] buffers;
+
+  // Owned by the draining thread
+  private final CountMinSketch sketch;
+  private final TopK top;
+  private long lastHalvingNanos;
+
+  // Written by the draining thread only
+  private volatile long counted;
+  private volatile long dropped;
+  private volatile long prefetched;
+  private volatile List<HeavyHitter> hottest = List.of();
+
+  private volatile boolean running;
+  private Thread thread;
+
+  public HeavyHitterTracker(AppProperties appProperties, ResolveCache resolveCache,
+      UrlShorteningService urlShorteningService) {
+    AppProperties.HeavyHitters config = appProperties.getHeavyHitters();
+    this.enabled = config.isEnabled();
+    this.pinCache = config.isPinCache();
+    this.topK = config.getTopK();
+    this.halfLifeNanos = config.getHalfLife().toNanos();
+    this.refreshIntervalNanos = config.getRefreshInterval().toNanos();
+    this.resolveCache = resolveCache;
+    this.urlShorteningService = urlShorteningService;
+    this.sketch = new CountMinSketch(config.getSketchDepth(), config.getSketchWidth());
+    this.top = new TopK(topK);
+    if (config.getBufferSize() <= 0 || halfLifeNanos <= 0) {
+      throw new IllegalArgumentException("app.heavy-hitters.buffer-size and half-life must be positive");
+    }
+    int bufferSize = ceilingPowerOfTwo(config.getBufferSize());
+    this.buffers = new RecordBuffer[ceilingPowerOfTwo(2 * Runtime.getRuntime().availableProcessors())];
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i] = new RecordBuffer(bufferSize);
+    }
+    this.lastHalvingNanos = System.nanoTime();
+  }
+
+  /**
+   * Counts a redirect of {@code shortCode}.
+   */
+  public void record(String shortCode) {
+    if (!enabled) {
+      return;
+    }
+    // Picked by the high bits of the thread id times the golden ratio
+    long mixed = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+    RecordBuffer buffer = buffers[(int) (mixed >>> 32) & (buffers.length - 1)];
+    long sequence = buffer.tail.getAndIncrement();
+    buffer.slots.setRelease((int) sequence & buffer.mask, shortCode);
+  }
+
+  /**
+   * Returns up to {@code limit} of the hottest codes as of the last refresh, hottest first.
+   */
+  public List<HeavyHitter> hottest(int limit) {
+    List<HeavyHitter> current = hottest;
+    return current.size() > limit ? current.subList(0, limit) : current;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int topK() {
+    return topK;
+  }
+
+  /** Redirects counted into the sketch. */
+  public long countedCount() {
+    return counted;
+  }
+
+  /** Redirects recorded but overwritten before they were drained. */
+  public long droppedCount() {
+    return dropped;
+  }
+
+  /** Hot codes loaded into the resolve cache because they were not in it. */
+  public long prefetchedCount() {
+    return prefetched;
+  }
+
+  public CountMinSketch sketch() {
+    return sketch;
+  }
+
+  /** Total slots of the record buffers, each holding one reference. */
+  public int bufferSlots() {
+    return buffers.length * buffers[0].slots.length();
+  }
+
+  @Override
+  public void start() {
+    if (!enabled || running) {
+      return;
+    }
+    running = true;
+    thread = Thread.ofPlatform().name("heavy-hitters").daemon().start(this::run);
+  }
+
+  @Override
+  public void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    long nextRefresh = System.nanoTime() + refreshIntervalNanos;
+    while (running) {
+      LockSupport.parkNanos(this, DRAIN_INTERVAL_NANOS);
+      if (!running) {
+        return;
+      }
+      try {
+        long now = System.nanoTime();
+        if (now - nextRefresh >= 0) {
+          refresh(now);
+          nextRefresh = now + refreshIntervalNanos;
+        } else {
+          drain();
+        }
+      } catch (RuntimeException ex) {
+        logger.warn("Failed to update the heavy hitters", ex);
+      }
+    }
+  }
+
+  /**
+   * Drains the record buffers, halves the counts for every half-life passed since the last
+   * halving, publishes the ranking and pins it in the resolve cache.
+   */
+  void refresh(long nowNanos) {
+    drain();
+    int halvings = 0;
+    while (nowNanos - lastHalvingNanos >= halfLifeNanos && halvings < MAX_HALVINGS) {
+      sketch.halve();
+      top.halve();
+      lastHalvingNanos += halfLifeNanos;
+      halvings++;
+    }
+    if (halvings == MAX_HALVINGS) {
+      lastHalvingNanos = nowNanos;
+    }
+    hottest = top.sorted(topK);
+    if (pinCache && resolveCache.isEnabled()) {
+      pin(hottest);
+    }
+  }
+
+  /** Counts every recorded code not yet counted. */
+  void drain() {
+    long drained = 0;
+    long lost = 0;
+    for (RecordBuffer buffer : buffers) {
+      long tail = buffer.tail.get();
+      long head = buffer.head;
+      int capacity = buffer.slots.length();
+      if (tail - head > capacity) {
+        // Overwritten by later records
+        lost += tail - head - capacity;
+        head = tail - capacity;
+      }
+      for (; head < tail; head++) {
+        String shortCode = buffer.slots.getAndSet((int) head & buffer.mask, null);
+        if (shortCode == null) {
+          // Slot claimed but not written yet; whatever lands there is counted a lap later
+          lost++;
+          continue;
+        }
+        top.offer(shortCode, sketch.add(shortCode));
+        drained++;
+      }
+      buffer.head = tail;
+    }
+    counted += drained;
+    dropped += lost;
+  }
+
+  private void pin(List<HeavyHitter> hitters) {
+    Map<String, LinkTarget> targets = new HashMap<>(hitters.size() * 2);
+    for (HeavyHitter hitter : hitters) {
+      LinkTarget target = resolveCache.peek(hitter.shortCode());
+      if (target == null) {
+        try {
+          // Evicted, or expired from the cache; resolving also puts it back there
+          target = urlShorteningService.resolve(hitter.shortCode());
+          prefetched++;
+        } catch (UrlNotFoundException ex) {
+          continue;
+        }
+      }
+      targets.put(hitter.shortCode(), target);
+    }
+    resolveCache.pin(targets);
+  }
+
+  private static int ceilingPowerOfTwo(int value) {
+    return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+  }
+
+  /**
+   * Ring of recorded codes; writers claim slots by incrementing {@code tail}, and the draining
+   * thread follows with {@code head}.
+   */
+  private static final class RecordBuffer {
+    final AtomicLong tail = new AtomicLong();
+    final AtomicReferenceArray<String> slots;
+    final int mask;
+    long head;
+
+    RecordBuffer(int size) {
+      this.slots = new AtomicReferenceArray<>(size);
+      this.mask = size - 1;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.example.urlshortener.heavyhitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code k} keys with the highest estimated counts offered so far.
+ *
+ * <p>Fed with the estimate of each key as it is counted: a key already held gets its new
+ * estimate, and a new key replaces the smallest one held if its estimate is larger. The smallest
+ * entry is remembered and only searched for again after it changed, so an offer is usually
+ * constant time and at worst {@code O(k)}. Not thread-safe.</p>
+ */
+final class TopK {
+
+  private final int k;
+  private final Map<String, Long> counts;
+  private String minKey;
+  private long minCount;
+  private boolean minStale;
+
+  TopK(int k) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("k must be positive");
+    }
+    this.k = k;
+    this.counts = new HashMap<>(k * 2);
+  }
+
+  void offer(String key, long count) {
+    if (counts.containsKey(key)) {
+      counts.put(key, count);
+      if (key.equals(minKey)) {
+        minStale = true;
+      }
+      return;
+    }
+    if (counts.size() < k) {
+      counts.put(key, count);
+      if (!minStale && (minKey == null || count < minCount)) {
+        minKey = key;
+        minCount = count;
+      }
+      return;
+    }
+    if (minStale) {
+      findMin();
+    }
+    if (count > minCount) {
+      counts.remove(minKey);
+      counts.put(key, count);
+      findMin();
+    }
+  }
+
+  /** Halves every count, in step with {@link CountMinSketch#halve}; keys down to zero are dropped. */
+  void halve() {
+    counts.replaceAll((key, count) -> count >>> 1);
+    counts.values().removeIf(count -> count == 0);
+    minStale = true;
+  }
+
+  /** Up to {@code limit} keys, highest count first. */
+  List<HeavyHitter> sorted(int limit) {
+    List<HeavyHitter> sorted = new ArrayList<>(counts.size());
+    counts.forEach((key, count) -> sorted.add(new HeavyHitter(key, count)));
+    sorted.sort(HeavyHitter.BY_COUNT_DESCENDING);
+    return sorted.size() > limit ? List.copyOf(sorted.subList(0, limit)) : List.copyOf(sorted);
+  }
+
+  int size() {
+    return counts.size();
+  }
+
+  private void findMin() {
+    minKey = null;
+    minCount = Long.MAX_VALUE;
+    for (Map.Entry<String, Long> entry : counts.entrySet()) {
+      if (entry.getValue() < minCount) {
+        minKey = entry.getKey();
+        minCount = entry.getValue();
+      }
+    }
+    minStale = false;
+  }
+}
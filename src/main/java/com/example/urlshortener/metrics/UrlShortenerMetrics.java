@@ -0,0 +1,84 @@
+package com.example.urlshortener.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer meters of the shorten and resolve paths, exported at {@code /actuator/prometheus}.
+ *
+ * <p>All meters are registered once up front, so recording is a {@code System.nanoTime()} pair and
+ * a histogram update without any registry lookup or tag allocation per call:</p>
+ * <ul>
+ *   <li>{@code urlshortener.shorten} and {@code urlshortener.resolve}: latency timers with p50,
+ *       p95 and p99 and a percentile histogram for aggregation across instances</li>
+ *   <li>{@code urlshortener.shorten.attempts}: insert attempts per stored URL, i.e. 1 plus the
+ *       collision retries of the deterministic code loop</li>
+ *   <li>{@code urlshortener.errors}: rejected calls, tagged {@code type=invalid_url} or
+ *       {@code type=not_found}</li>
+ * </ul>
+ *
+ * <p>Repository query timings come from Spring Data's {@code spring.data.repository.invocations}
+ * timer. Meters can be switched off with {@code management.metrics.enable.urlshortener=false},
+ * which leaves no-op meters in place.</p>
+ */
+@Component
+public class UrlShortenerMetrics {
+
+  private final Timer shortenTimer;
+  private final Timer resolveTimer;
+  private final DistributionSummary shortenAttempts;
+  private final Counter invalidUrls;
+  private final Counter notFound;
+
+  public UrlShortenerMetrics(MeterRegistry registry) {
+    this.shortenTimer = latencyTimer("urlshortener.shorten", "Latency of shortenUrl", registry);
+    this.resolveTimer = latencyTimer("urlshortener.resolve", "Latency of resolveUrl", registry);
+    this.shortenAttempts = DistributionSummary.builder("urlshortener.shorten.attempts")
+        .description("Insert attempts per stored URL")
+        .serviceLevelObjectives(1, 2, 3, 5, 10)
+        .register(registry);
+    this.invalidUrls = Counter.builder("urlshortener.errors")
+        .description("Shorten and resolve calls rejected by the service")
+        .tag("type", "invalid_url")
+        .register(registry);
+    this.notFound = Counter.builder("urlshortener.errors")
+        .description("Shorten and resolve calls rejected by the service")
+        .tag("type", "not_found")
+        .register(registry);
+  }
+
+  private static Timer latencyTimer(String name, String description, MeterRegistry registry) {
+    return Timer.builder(name)
+        .description(description)
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofNanos(500))
+        .maximumExpectedValue(Duration.ofSeconds(5))
+        .register(registry);
+  }
+
+  public void recordShorten(long elapsedNanos) {
+    shortenTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordResolve(long elapsedNanos) {
+    resolveTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordShortenAttempts(int attempts) {
+    shortenAttempts.record(attempts);
+  }
+
+  public void invalidUrl() {
+    invalidUrls.increment();
+  }
+
+  public void notFound() {
+    notFound.increment();
+  }
+}
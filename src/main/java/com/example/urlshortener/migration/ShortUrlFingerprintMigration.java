@@ -0,0 +1,109 @@
+package com.example.urlshortener.migration;
+
+import com.example.urlshortener.util.UrlFingerprint;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings {@code short_urls} tables created before the {@code original_url_hash} fingerprint
+ * column existed up to date.
+ *
+ * <p>Runs once at startup, after Hibernate has added the column and before the web server
+ * accepts requests:</p>
+ * <ul>
+ *   <li>drops the old {@code uk_short_urls_original_url} unique constraint on the wide
+ *       {@code original_url} column, which {@code ddl-auto=update} never removes by itself</li>
+ *   <li>backfills missing fingerprints in id order, {@link #BATCH_SIZE} rows per batch, probing
+ *       further fingerprints for the rare row whose primary fingerprint is already taken</li>
+ *   <li>marks the column {@code NOT NULL} once every row has a fingerprint</li>
+ * </ul>
+ * On an up-to-date schema every step is a no-op.
+ */
+@Component
+public class ShortUrlFingerprintMigration implements SmartInitializingSingleton {
+
+  private static final Logger logger = LoggerFactory.getLogger(ShortUrlFingerprintMigration.class);
+
+  static final int BATCH_SIZE = 1000;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ShortUrlFingerprintMigration(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    migrate();
+  }
+
+  /**
+   * Applies the migration; safe to run repeatedly.
+   *
+   * @return the number of rows that received a fingerprint
+   */
+  public long migrate() {
+    jdbcTemplate.execute("alter table short_urls drop constraint if exists uk_short_urls_original_url");
+
+    long backfilled = 0;
+    long lastId = 0;
+    while (true) {
+      List<LegacyRow> rows = jdbcTemplate.query(
+          "select id, original_url from short_urls where original_url_hash is null and id > ? order by id limit ?",
+          (rs, rowNum) -> new LegacyRow(rs.getLong("id"), rs.getString("original_url")),
+          lastId, BATCH_SIZE);
+      if (rows.isEmpty()) {
+        break;
+      }
+      backfill(rows);
+      backfilled += rows.size();
+      lastId = rows.get(rows.size() - 1).id();
+    }
+
+    Long missing = jdbcTemplate.queryForObject(
+        "select count(*) from short_urls where original_url_hash is null", Long.class);
+    if (missing != null && missing == 0) {
+      jdbcTemplate.execute("alter table short_urls alter column original_url_hash set not null");
+    }
+    if (backfilled > 0) {
+      logger.info("Backfilled original_url_hash for {} short_urls rows", backfilled);
+    }
+    return backfilled;
+  }
+
+  private void backfill(List<LegacyRow> rows) {
+    try {
+      jdbcTemplate.batchUpdate("update short_urls set original_url_hash = ? where id = ?", rows, rows.size(),
+          (ps, row) -> {
+            ps.setLong(1, UrlFingerprint.of(row.originalUrl(), 0));
+            ps.setLong(2, row.id());
+          });
+    } catch (DataIntegrityViolationException ex) {
+      // A fingerprint is taken (collision or duplicate URL); redo the batch one row at a time
+      for (LegacyRow row : rows) {
+        backfillWithProbing(row);
+      }
+    }
+  }
+
+  private void backfillWithProbing(LegacyRow row) {
+    for (int probe = 0; probe < UrlFingerprint.MAX_PROBES; probe++) {
+      try {
+        jdbcTemplate.update(
+            "update short_urls set original_url_hash = ? where id = ? and original_url_hash is null",
+            UrlFingerprint.of(row.originalUrl(), probe), row.id());
+        return;
+      } catch (DataIntegrityViolationException ex) {
+        // fingerprint taken; try the next probe
+      }
+    }
+    throw new IllegalStateException("No free fingerprint for short_urls row " + row.id());
+  }
+
+  private record LegacyRow(long id, String originalUrl) {}
+}
@@ -0,0 +1,91 @@
+package com.example.urlshortener.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * One recorded redirect. Rows are inserted in JDBC batches by
+ * {@code ClickEventWriter}; the entity defines the {@code click_events} table.
+ */
+@Entity
+@Table(
+    name = "click_events",
+    indexes = {
+      @Index(name = "ix_click_events_short_code", columnList = "short_code")
+    })
+public class Click {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "short_code", nullable = false, length = 10)
+  private String shortCode;
+
+  @Column(name = "clicked_at", nullable = false)
+  private Instant clickedAt;
+
+  @Column(name = "referrer", length = 2048)
+  private String referrer;
+
+  @Column(name = "user_agent_hash")
+  private Long userAgentHash;
+
+  public Click() {
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getShortCode() {
+    return shortCode;
+  }
+
+  public void setShortCode(String shortCode) {
+    this.shortCode = shortCode;
+  }
+
+  public Instant getClickedAt() {
+    return clickedAt;
+  }
+
+  public void setClickedAt(Instant clickedAt) {
+    this.clickedAt = clickedAt;
+  }
+
+  public String getReferrer() {
+    return referrer;
+  }
+
+  public void setReferrer(String referrer) {
+    this.referrer = referrer;
+  }
+
+  public Long getUserAgentHash() {
+    return userAgentHash;
+  }
+
+  public void setUserAgentHash(Long userAgentHash) {
+    this.userAgentHash = userAgentHash;
+  }
+
+  @Override
+  public String toString() {
+    return "Click{" +
+        "id=" + id +
+        ", shortCode='" + shortCode + '\'' +
+        ", clickedAt=" + clickedAt +
+        '}';
+  }
+}
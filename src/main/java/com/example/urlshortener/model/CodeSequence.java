@@ -0,0 +1,54 @@
+package com.example.urlshortener.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Database-backed counter from which nodes reserve blocks of ids (hi/lo allocation).
+ * {@code nextValue} is the first id that has not been handed out to any node yet.
+ */
+@Entity
+@Table(name = "code_sequences")
+public class CodeSequence {
+
+  @Id
+  @Column(name = "name", nullable = false, length = 64)
+  private String name;
+
+  @Column(name = "next_value", nullable = false)
+  private long nextValue;
+
+  public CodeSequence() {
+  }
+
+  public CodeSequence(String name, long nextValue) {
+    this.name = name;
+    this.nextValue = nextValue;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public long getNextValue() {
+    return nextValue;
+  }
+
+  public void setNextValue(long nextValue) {
+    this.nextValue = nextValue;
+  }
+
+  @Override
+  public String toString() {
+    return "CodeSequence{" +
+        "name='" + name + '\'' +
+        ", nextValue=" + nextValue +
+        '}';
+  }
+}
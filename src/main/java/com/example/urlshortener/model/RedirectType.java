@@ -0,0 +1,34 @@
+package com.example.urlshortener.model;
+
+/**
+ * The HTTP status a short link redirects with. Set per link on {@link ShortUrl}, falling back to
+ * {@code app.redirect.type} for links without one.
+ */
+public enum RedirectType {
+
+  /**
+   * {@code 301 Moved Permanently}. Browsers and shared caches may keep serving the redirect for as
+   * long as {@code Cache-Control} allows, without coming back to origin.
+   */
+  PERMANENT(301),
+
+  /**
+   * {@code 302 Found}. A temporary redirect; clients may change a {@code POST} to {@code GET}.
+   */
+  FOUND(302),
+
+  /**
+   * {@code 307 Temporary Redirect}. Like {@link #FOUND}, but the method and body are preserved.
+   */
+  TEMPORARY(307);
+
+  private final int status;
+
+  RedirectType(int status) {
+    this.status = status;
+  }
+
+  public int status() {
+    return status;
+  }
+}
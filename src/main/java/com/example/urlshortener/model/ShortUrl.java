@@ -2,40 +2,78 @@ package com.example.urlshortener.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import java.time.Instant;
-
+import java.time.temporal.ChronoUnit;
+
+/**
+ * A short code to original URL mapping.
+ *
+ * <p>Uniqueness of {@code original_url} is enforced through the fixed-width
+ * {@code original_url_hash} fingerprint (see {@code UrlFingerprint}) rather than an index on the
+ * 2048-character column itself.</p>
+ *
+ * <p>A mapping with an {@code expiresAt} stops resolving at that instant and is later deleted by
+ * {@code ExpiredLinkSweeper}; mappings without one never expire.</p>
+ *
+ * <p>{@code redirectType} is {@code null} for links that redirect with the configured default
+ * ({@code app.redirect.type}).</p>
+ */
 @Entity
 @Table(
     name = "short_urls",
     uniqueConstraints = {
       @UniqueConstraint(
-          name = "uk_short_urls_original_url",
-          columnNames = "original_url"),
+          name = "uk_short_urls_original_url_hash",
+          columnNames = "original_url_hash"),
       @UniqueConstraint(
           name = "uk_short_urls_short_code",
           columnNames = "short_code")
-    })
+    },
+    indexes = @Index(name = "idx_short_urls_expires_at", columnList = "expires_at"))
 public class ShortUrl {
 
+  /** Length of the {@code original_url} column. */
+  public static final int MAX_URL_LENGTH = 2048;
+
+  /**
+   * Latest {@code expires_at} a link may have: the end of year 9999, which every supported
+   * database column and the epoch-microsecond log and snapshot formats can hold.
+   */
+  public static final Instant MAX_EXPIRES_AT = Instant.parse("9999-12-31T23:59:59Z");
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
-  @Column(name = "original_url", nullable = false, length = 2048)
+  @Column(name = "original_url", nullable = false, length = MAX_URL_LENGTH)
   private String originalUrl;
 
+  // Nullable only so that rows created before the column existed can be backfilled
+  @Column(name = "original_url_hash")
+  private Long originalUrlHash;
+
   @Column(name = "short_code", nullable = false, length = 10)
   private String shortCode;
 
   @Column(name = "created_at", nullable = false, updatable = false)
   private Instant createdAt;
 
+  @Column(name = "expires_at")
+  private Instant expiresAt;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "redirect_type", length = 16)
+  private RedirectType redirectType;
+
   public ShortUrl() {
   }
 
@@ -49,7 +87,8 @@ public class ShortUrl {
   @PrePersist
   private void prePersist() {
     if (this.createdAt == null) {
-      this.createdAt = Instant.now();
+      // The precision of the column, so the creation time (and the redirect's ETag) reads back unchanged
+      this.createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
     }
   }
 
@@ -69,6 +108,14 @@ public class ShortUrl {
     this.originalUrl = originalUrl;
   }
 
+  public Long getOriginalUrlHash() {
+    return originalUrlHash;
+  }
+
+  public void setOriginalUrlHash(Long originalUrlHash) {
+    this.originalUrlHash = originalUrlHash;
+  }
+
   public String getShortCode() {
     return shortCode;
   }
@@ -85,6 +132,22 @@ public class ShortUrl {
     this.createdAt = createdAt;
   }
 
+  public Instant getExpiresAt() {
+    return expiresAt;
+  }
+
+  public void setExpiresAt(Instant expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+
+  public RedirectType getRedirectType() {
+    return redirectType;
+  }
+
+  public void setRedirectType(RedirectType redirectType) {
+    this.redirectType = redirectType;
+  }
+
   @Override
   public String toString() {
     return "ShortUrl{" +
@@ -92,6 +155,8 @@ public class ShortUrl {
         ", originalUrl='" + originalUrl + '\'' +
         ", shortCode='" + shortCode + '\'' +
         ", createdAt=" + createdAt +
+        ", expiresAt=" + expiresAt +
+        ", redirectType=" + redirectType +
         '}';
   }
 }
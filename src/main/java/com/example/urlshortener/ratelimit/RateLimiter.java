@@ -0,0 +1,134 @@
+package com.example.urlshortener.ratelimit;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-client admission control for {@code POST /api/shorten}.
+ *
+ * <p>A client is the value of the {@code app.rate-limit.api-key-header} request header if it is
+ * one of {@code app.rate-limit.api-keys}, and otherwise its remote address (behind a proxy,
+ * configure {@code server.forward-headers-strategy} so that this is the client's address).
+ * Each client gets a token bucket of {@code app.rate-limit.capacity} tokens, refilled at
+ * {@code app.rate-limit.refill-per-second}, in a {@link TokenBucketTable}. A background thread
+ * drops the buckets of idle clients every {@code app.rate-limit.eviction-interval}.</p>
+ *
+ * <p>API keys are not authenticated here; they only separate the budgets of clients that share
+ * an address. Unlisted keys are ignored, so a client cannot get a fresh bucket by sending a new
+ * key with every request.</p>
+ */
+@Component
+public class RateLimiter implements SmartLifecycle {
+
+  private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+  private final boolean enabled;
+  private final String apiKeyHeader;
+  private final Set<String> apiKeys;
+  private final TokenBucketTable buckets;
+  private final long evictionIntervalNanos;
+  private final Counter rejected;
+
+  private volatile boolean running;
+  private Thread thread;
+
+  public RateLimiter(AppProperties appProperties, MeterRegistry registry) {
+    AppProperties.RateLimit config = appProperties.getRateLimit();
+    int stripes = config.getStripes() > 0 ? config.getStripes() : 4 * Runtime.getRuntime().availableProcessors();
+    this.enabled = config.isEnabled();
+    this.apiKeyHeader = config.getApiKeyHeader();
+    this.apiKeys = Set.copyOf(config.getApiKeys());
+    this.buckets = new TokenBucketTable(stripes, config.getCapacity(), config.getRefillPerSecond(), System::nanoTime);
+    this.evictionIntervalNanos = config.getEvictionInterval().toNanos();
+    this.rejected = Counter.builder("urlshortener.rate.limit.rejected")
+        .description("Shorten requests rejected by the rate limiter")
+        .register(registry);
+    Gauge.builder("urlshortener.rate.limit.clients", buckets, TokenBucketTable::size)
+        .description("Clients currently holding a token bucket")
+        .register(registry);
+  }
+
+  /**
+   * Takes a token for the client of {@code request}.
+   *
+   * @throws RateLimitExceededException if the client has no token left
+   */
+  public void acquire(HttpServletRequest request) {
+    if (!enabled) {
+      return;
+    }
+    String apiKey = request.getHeader(apiKeyHeader);
+    String client = clientKey(apiKey != null && apiKeys.contains(apiKey) ? apiKey : null, request.getRemoteAddr());
+    long waitNanos = buckets.tryAcquire(client);
+    if (waitNanos > 0) {
+      rejected.increment();
+      throw new RateLimitExceededException("Too many requests; retry later", Duration.ofNanos(waitNanos));
+    }
+  }
+
+  /** API keys and addresses are kept apart, so a key cannot take over an address's budget. */
+  static String clientKey(String apiKey, String remoteAddress) {
+    return apiKey != null && !apiKey.isBlank() ? "key:" + apiKey : "ip:" + remoteAddress;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public long clientCount() {
+    return buckets.size();
+  }
+
+  @Override
+  public void start() {
+    if (!enabled || running) {
+      return;
+    }
+    running = true;
+    thread = Thread.ofPlatform().name("rate-limit-evictor").daemon().start(this::run);
+  }
+
+  @Override
+  public void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    while (running) {
+      LockSupport.parkNanos(this, evictionIntervalNanos);
+      if (!running) {
+        return;
+      }
+      int evicted = buckets.evictIdle();
+      if (evicted > 0) {
+        logger.debug("Evicted {} idle rate limit buckets", evicted);
+      }
+    }
+  }
+}
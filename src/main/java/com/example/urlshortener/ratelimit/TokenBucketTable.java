@@ -0,0 +1,127 @@
+package com.example.urlshortener.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * One token bucket per client key, refilled continuously at a fixed rate up to a fixed
+ * capacity.
+ *
+ * <p>A bucket is a single {@code long}: the time at which it will be full again (the
+ * "theoretical arrival time" of the generic cell rate algorithm, which admits exactly what a
+ * token bucket does). Taking a token moves that time one refill interval later with a
+ * compare-and-set, and is refused if the bucket would then be more than {@code capacity}
+ * intervals from full. There is no lock on the path: buckets live in a fixed number of
+ * {@link ConcurrentHashMap} stripes chosen by key hash, so lookups are lock-free, inserts of new
+ * clients contend only within their stripe, and requests of one client contend only on that
+ * client's bucket.</p>
+ *
+ * <p>A bucket that is full again holds no information, since a missing bucket means a full one.
+ * {@link #evictIdle} removes such buckets one stripe at a time. It marks a bucket evicted with
+ * the same compare-and-set before removing it, so a concurrent request either takes its token
+ * first (and the bucket stays) or sees the mark and starts a new bucket.</p>
+ */
+public final class TokenBucketTable {
+
+  private static final long EVICTED = Long.MIN_VALUE;
+
+  private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+  private final long intervalNanos;
+  private final long burstNanos;
+  private final LongSupplier nanoClock;
+  private final Function<String, AtomicLong> newBucket;
+
+  /**
+   * @param stripes         number of stripes
+   * @param capacity        tokens a full bucket holds, i.e. the largest burst admitted at once
+   * @param tokensPerSecond refill rate
+   * @param nanoClock       monotonic time source, normally {@link System#nanoTime}
+   */
+  @SuppressWarnings("unchecked")
+  public TokenBucketTable(int stripes, long capacity, double tokensPerSecond, LongSupplier nanoClock) {
+    if (capacity <= 0 || tokensPerSecond <= 0) {
+      throw new IllegalArgumentException("Capacity and refill rate must be positive");
+    }
+    this.stripes = new ConcurrentHashMap[Math.max(1, stripes)];
+    for (int i = 0; i < this.stripes.length; i++) {
+      this.stripes[i] = new ConcurrentHashMap<>();
+    }
+    this.intervalNanos = Math.max(1, Math.round(1_000_000_000d / tokensPerSecond));
+    this.burstNanos = Math.multiplyExact(capacity, intervalNanos);
+    this.nanoClock = nanoClock;
+    // A new bucket is full; created once per stripe miss rather than per call
+    this.newBucket = key -> new AtomicLong(nanoClock.getAsLong());
+  }
+
+  /**
+   * Takes a token from the bucket of {@code key}.
+   *
+   * @return {@code 0} if a token was taken, otherwise how many nanoseconds until one is available
+   */
+  public long tryAcquire(String key) {
+    ConcurrentHashMap<String, AtomicLong> stripe = stripeOf(key);
+    long now = nanoClock.getAsLong();
+    while (true) {
+      AtomicLong bucket = stripe.get(key);
+      if (bucket == null) {
+        bucket = stripe.computeIfAbsent(key, newBucket);
+      }
+      long fullAt = bucket.get();
+      if (fullAt == EVICTED) {
+        stripe.remove(key, bucket);
+        continue;
+      }
+      // Compare differences only: nanoTime values may wrap
+      long next = (fullAt - now < 0 ? now : fullAt) + intervalNanos;
+      long excess = next - now - burstNanos;
+      if (excess > 0) {
+        return excess;
+      }
+      if (bucket.compareAndSet(fullAt, next)) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * Removes the buckets that are full again, so clients that went quiet do not hold memory.
+   *
+   * @return the number of buckets removed
+   */
+  public int evictIdle() {
+    int evicted = 0;
+    for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+      long now = nanoClock.getAsLong();
+      for (var entry : stripe.entrySet()) {
+        AtomicLong bucket = entry.getValue();
+        long fullAt = bucket.get();
+        if (fullAt != EVICTED && fullAt - now <= 0 && bucket.compareAndSet(fullAt, EVICTED)) {
+          stripe.remove(entry.getKey(), bucket);
+          evicted++;
+        }
+      }
+    }
+    return evicted;
+  }
+
+  /** Number of clients currently holding a bucket. */
+  public long size() {
+    long size = 0;
+    for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  int stripeCount() {
+    return stripes.length;
+  }
+
+  private ConcurrentHashMap<String, AtomicLong> stripeOf(String key) {
+    // Picked by the high bits of a mixed hash: the map inside the stripe indexes by the low ones
+    long mixed = Integer.toUnsignedLong(key.hashCode() * 0x9E3779B9);
+    return stripes[(int) ((mixed * stripes.length) >>> 32)];
+  }
+}
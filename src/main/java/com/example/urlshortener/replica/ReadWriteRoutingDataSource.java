@@ -0,0 +1,37 @@
+package com.example.urlshortener.replica;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections of the replica that {@link ReplicaRouter#read} bound to the current
+ * thread, or of the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+  private final Map<String, DataSource> replicas;
+
+  public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+    this.replicas = Map.copyOf(replicas);
+    setTargetDataSources(new HashMap<>(replicas));
+    setDefaultTargetDataSource(primary);
+    setLenientFallback(false);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return ReplicaRouter.currentReplica();
+  }
+
+  /** The data source of {@code replica}, for work that must bypass the routing. */
+  public DataSource replica(String replica) {
+    DataSource dataSource = replicas.get(replica);
+    if (dataSource == null) {
+      throw new IllegalArgumentException("Unknown replica: " + replica);
+    }
+    return dataSource;
+  }
+}
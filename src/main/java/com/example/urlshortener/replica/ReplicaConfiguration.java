@@ -0,0 +1,85 @@
+package com.example.urlshortener.replica;
+
+import com.example.urlshortener.config.AppProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Wires read replicas when {@code app.read-replicas.enabled=true}: the {@code spring.datasource}
+ * pool becomes the primary of a {@link ReadWriteRoutingDataSource}, next to one pool per entry of
+ * {@code app.read-replicas.replicas}. Otherwise the {@link ReplicaRouter} has no replicas and
+ * every read goes to {@code spring.datasource}.
+ *
+ * <p>Replicas of sharded storage are not supported: with {@code app.sharding.enabled} as well,
+ * both configurations define the {@code dataSource} bean and the context fails to start.</p>
+ */
+@Configuration(proxyBeanMethods = false)
+public class ReplicaConfiguration {
+
+  @Bean
+  public ReplicaRouter replicaRouter(AppProperties appProperties) {
+    AppProperties.ReadReplicas config = appProperties.getReadReplicas();
+    if (!config.isEnabled()) {
+      return ReplicaRouter.none();
+    }
+    return new ReplicaRouter(config.getReplicas().stream().map(AppProperties.Replica::getName).toList());
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "app.read-replicas", name = "enabled", havingValue = "true")
+  public ReadWriteRoutingDataSource dataSource(AppProperties appProperties,
+      DataSourceProperties dataSourceProperties, Environment environment) {
+    AppProperties.ReadReplicas config = appProperties.getReadReplicas();
+    if (config.getReplicas().isEmpty()) {
+      throw new IllegalStateException("app.read-replicas.replicas needs at least one replica");
+    }
+    HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .build();
+    // The primary keeps the spring.datasource.hikari.* settings of the single-database setup
+    Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+    primary.setPoolName("primary");
+
+    Set<String> names = new HashSet<>();
+    Map<String, DataSource> replicas = new LinkedHashMap<>();
+    for (AppProperties.Replica replica : config.getReplicas()) {
+      if (replica.getName() == null || !names.add(replica.getName())) {
+        throw new IllegalStateException("Replica names must be present and unique: " + replica.getName());
+      }
+      HikariDataSource dataSource = DataSourceBuilder.create()
+          .type(HikariDataSource.class)
+          .url(replica.getUrl())
+          .username(replica.getUsername())
+          .password(replica.getPassword())
+          .build();
+      dataSource.setPoolName("replica-" + replica.getName());
+      dataSource.setMaximumPoolSize(config.getMaximumPoolSize());
+      dataSource.setReadOnly(true);
+      // A replica that is down must not hold resolves for the full default of 30 seconds
+      dataSource.setConnectionTimeout(config.getHealthCheckTimeout().toMillis());
+      replicas.put(replica.getName(), dataSource);
+    }
+    return new ReadWriteRoutingDataSource(primary, replicas);
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "app.read-replicas", name = "enabled", havingValue = "true")
+  public ReplicaHealthChecker replicaHealthChecker(ReplicaRouter replicaRouter,
+      ReadWriteRoutingDataSource dataSource, AppProperties appProperties) {
+    AppProperties.ReadReplicas config = appProperties.getReadReplicas();
+    return new ReplicaHealthChecker(replicaRouter, dataSource,
+        config.getHealthCheckInterval(), config.getHealthCheckTimeout());
+  }
+}
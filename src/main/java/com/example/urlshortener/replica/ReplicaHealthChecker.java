@@ -0,0 +1,83 @@
+package com.example.urlshortener.replica;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Background thread that checks every {@code app.read-replicas.health-check-interval} whether
+ * each read replica hands out a valid connection within
+ * {@code app.read-replicas.health-check-timeout}, and marks it up or down in the
+ * {@link ReplicaRouter}.
+ */
+public class ReplicaHealthChecker implements SmartLifecycle {
+
+  private final ReplicaRouter replicaRouter;
+  private final ReadWriteRoutingDataSource dataSource;
+  private final long intervalNanos;
+  private final int timeoutSeconds;
+
+  private volatile boolean running;
+  private Thread thread;
+
+  public ReplicaHealthChecker(ReplicaRouter replicaRouter, ReadWriteRoutingDataSource dataSource,
+      Duration interval, Duration timeout) {
+    this.replicaRouter = replicaRouter;
+    this.dataSource = dataSource;
+    this.intervalNanos = interval.toNanos();
+    this.timeoutSeconds = (int) Math.max(1, timeout.toSeconds());
+  }
+
+  @Override
+  public void start() {
+    if (running) {
+      return;
+    }
+    running = true;
+    thread = Thread.ofPlatform().name("replica-health").daemon().start(this::run);
+  }
+
+  @Override
+  public void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    while (running) {
+      checkAll();
+      LockSupport.parkNanos(this, intervalNanos);
+    }
+  }
+
+  /** Checks every replica once. */
+  public void checkAll() {
+    for (String replica : replicaRouter.replicas()) {
+      try (Connection connection = dataSource.replica(replica).getConnection()) {
+        if (connection.isValid(timeoutSeconds)) {
+          replicaRouter.markUp(replica);
+        } else {
+          replicaRouter.markDown(replica, new SQLException("Connection is not valid"));
+        }
+      } catch (SQLException | RuntimeException ex) {
+        replicaRouter.markDown(replica, ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package com.example.urlshortener.replica;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+/**
+ * Sends read-only work to the read replicas, round robin over the healthy ones, and everything
+ * else to the primary.
+ *
+ * <p>{@link #read} binds a replica to the current thread for the duration of the work; the
+ * {@link ReadWriteRoutingDataSource} hands out connections of that replica, so repository calls
+ * and transactions started inside the work go to it. Outside of {@code read} every connection
+ * comes from the primary. The work must not join a transaction started outside it.</p>
+ *
+ * <p>Replicas lag behind the primary. A result the caller does not accept as confirmed, such as
+ * "no such code" for a link that was created a moment ago, is read again from the primary, so
+ * reads never miss the caller's own writes. A replica that cannot hand out a connection is
+ * marked down and the read is repeated on the primary; {@link ReplicaHealthChecker} marks it up
+ * again once it answers. With no healthy replica all reads go to the primary.</p>
+ */
+public class ReplicaRouter {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+
+  private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+  private final List<String> replicas;
+  private final Map<String, Boolean> healthy = new ConcurrentHashMap<>();
+  private final AtomicInteger next = new AtomicInteger();
+  private final LongAdder replicaReads = new LongAdder();
+  private final LongAdder primaryReads = new LongAdder();
+  private final LongAdder confirmations = new LongAdder();
+  private final LongAdder failovers = new LongAdder();
+
+  public ReplicaRouter(List<String> replicas) {
+    this.replicas = List.copyOf(replicas);
+    this.replicas.forEach(replica -> healthy.put(replica, true));
+  }
+
+  /** A router without replicas, for when they are disabled. */
+  public static ReplicaRouter none() {
+    return new ReplicaRouter(List.of());
+  }
+
+  /** The replica bound to the current thread, or {@code null} for the primary. */
+  static String currentReplica() {
+    return CURRENT.get();
+  }
+
+  public boolean isEnabled() {
+    return !replicas.isEmpty();
+  }
+
+  public List<String> replicas() {
+    return replicas;
+  }
+
+  /**
+   * Runs read-only {@code work} on a healthy replica, or on the primary if there is none.
+   */
+  public <T> T read(Supplier<T> work) {
+    return read(work, result -> true);
+  }
+
+  /**
+   * Runs read-only {@code work} on a healthy replica, and again on the primary if the replica's
+   * result does not pass {@code confirmed} (it may lag behind) or the replica is unreachable.
+   */
+  public <T> T read(Supplier<T> work, Predicate<? super T> confirmed) {
+    String replica = nextHealthy();
+    if (replica == null) {
+      primaryReads.increment();
+      return work.get();
+    }
+    CURRENT.set(replica);
+    T result;
+    try {
+      result = work.get();
+    } catch (DataAccessResourceFailureException | CannotCreateTransactionException ex) {
+      CURRENT.remove();
+      markDown(replica, ex);
+      failovers.increment();
+      primaryReads.increment();
+      return work.get();
+    } finally {
+      CURRENT.remove();
+    }
+    replicaReads.increment();
+    if (confirmed.test(result)) {
+      return result;
+    }
+    confirmations.increment();
+    primaryReads.increment();
+    return work.get();
+  }
+
+  private String nextHealthy() {
+    int size = replicas.size();
+    if (size == 0) {
+      return null;
+    }
+    int start = Math.floorMod(next.getAndIncrement(), size);
+    for (int i = 0; i < size; i++) {
+      String replica = replicas.get((start + i) % size);
+      if (healthy.get(replica)) {
+        return replica;
+      }
+    }
+    return null;
+  }
+
+  public boolean isHealthy(String replica) {
+    return healthy.getOrDefault(replica, false);
+  }
+
+  void markDown(String replica, Exception cause) {
+    if (healthy.put(replica, false)) {
+      logger.warn("Read replica {} is down, reading from the primary: {}", replica, cause.toString());
+    }
+  }
+
+  void markUp(String replica) {
+    if (!healthy.put(replica, true)) {
+      logger.info("Read replica {} is back", replica);
+    }
+  }
+
+  /** Reads answered by a replica. */
+  public long replicaReadCount() {
+    return replicaReads.sum();
+  }
+
+  /** Reads answered by the primary, including confirmations and failovers. */
+  public long primaryReadCount() {
+    return primaryReads.sum();
+  }
+
+  /** Replica results that were read again from the primary because they were not confirmed. */
+  public long confirmationCount() {
+    return confirmations.sum();
+  }
+
+  /** Reads repeated on the primary because their replica failed. */
+  public long failoverCount() {
+    return failovers.sum();
+  }
+}
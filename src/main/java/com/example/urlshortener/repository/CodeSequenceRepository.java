@@ -0,0 +1,19 @@
+package com.example.urlshortener.repository;
+
+import com.example.urlshortener.model.CodeSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CodeSequenceRepository extends JpaRepository<CodeSequence, String> {
+
+  /**
+   * Atomically moves the counter forward by {@code blockSize}.
+   *
+   * @return the number of updated rows (0 if the counter does not exist yet)
+   */
+  @Modifying
+  @Query("update CodeSequence s set s.nextValue = s.nextValue + :blockSize where s.name = :name")
+  int advance(@Param("name") String name, @Param("blockSize") long blockSize);
+}
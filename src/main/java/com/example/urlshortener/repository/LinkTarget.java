@@ -0,0 +1,20 @@
+package com.example.urlshortener.repository;
+
+import com.example.urlshortener.model.RedirectType;
+import java.time.Instant;
+
+/**
+ * What the redirect path needs to know about a short code: where it points, until when, and how
+ * to redirect to it.
+ *
+ * @param originalUrl  the normalized target URL
+ * @param expiresAt    when the link stops resolving, or {@code null} if it never expires
+ * @param createdAt    when the mapping was created; the source of the redirect's validators
+ * @param redirectType the link's own redirect status, or {@code null} for the configured default
+ */
+public record LinkTarget(String originalUrl, Instant expiresAt, Instant createdAt, RedirectType redirectType) {
+
+  public boolean isExpired(Instant now) {
+    return expiresAt != null && !expiresAt.isAfter(now);
+  }
+}
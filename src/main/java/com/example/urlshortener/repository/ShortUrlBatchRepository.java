@@ -0,0 +1,19 @@
+package com.example.urlshortener.repository;
+
+import com.example.urlshortener.model.ShortUrl;
+import java.util.List;
+
+/**
+ * Batch write operations of {@link ShortUrlRepository} that bypass the persistence context.
+ */
+public interface ShortUrlBatchRepository {
+
+  /**
+   * Inserts all {@code mappings} with a single JDBC batch and fills in their generated ids and
+   * creation times. Runs in the caller's transaction; a unique-constraint violation of any row
+   * fails the whole call with a {@link org.springframework.dao.DuplicateKeyException}.
+   *
+   * @return {@code mappings}, with ids set
+   */
+  List<ShortUrl> insertAll(List<ShortUrl> mappings);
+}
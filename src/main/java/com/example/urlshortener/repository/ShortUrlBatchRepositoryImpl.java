@@ -0,0 +1,65 @@
+package com.example.urlshortener.repository;
+
+import com.example.urlshortener.model.ShortUrl;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JDBC implementation of {@link ShortUrlBatchRepository}, picked up by Spring Data as a
+ * repository fragment.
+ */
+class ShortUrlBatchRepositoryImpl implements ShortUrlBatchRepository {
+
+  static final String INSERT_SQL =
+      "insert into short_urls (original_url, original_url_hash, short_code, created_at, expires_at, redirect_type)"
+          + " values (?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  ShortUrlBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public List<ShortUrl> insertAll(List<ShortUrl> mappings) {
+    if (mappings.isEmpty()) {
+      return mappings;
+    }
+    Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    return jdbcTemplate.execute((ConnectionCallback<List<ShortUrl>>) connection -> {
+      try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[] { "id" })) {
+        for (ShortUrl mapping : mappings) {
+          if (mapping.getCreatedAt() == null) {
+            mapping.setCreatedAt(now);
+          }
+          ps.setString(1, mapping.getOriginalUrl());
+          ps.setLong(2, mapping.getOriginalUrlHash());
+          ps.setString(3, mapping.getShortCode());
+          ps.setObject(4, OffsetDateTime.ofInstant(mapping.getCreatedAt(), ZoneOffset.UTC));
+          if (mapping.getExpiresAt() == null) {
+            ps.setNull(5, Types.TIMESTAMP_WITH_TIMEZONE);
+          } else {
+            ps.setObject(5, OffsetDateTime.ofInstant(mapping.getExpiresAt(), ZoneOffset.UTC));
+          }
+          ps.setString(6, mapping.getRedirectType() == null ? null : mapping.getRedirectType().name());
+          ps.addBatch();
+        }
+        ps.executeBatch();
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+          for (int i = 0; i < mappings.size() && keys.next(); i++) {
+            mappings.get(i).setId(keys.getLong(1));
+          }
+        }
+      }
+      return mappings;
+    });
+  }
+}
@@ -1,12 +1,68 @@
 package com.example.urlshortener.repository;
 
 import com.example.urlshortener.model.ShortUrl;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ShortUrlRepository extends JpaRepository<ShortUrl, Long> {
-  Optional<ShortUrl> findByOriginalUrl(String originalUrl);
+public interface ShortUrlRepository extends JpaRepository<ShortUrl, Long>, ShortUrlBatchRepository {
+  Optional<ShortUrl> findByOriginalUrlHash(long originalUrlHash);
+  List<ShortUrl> findAllByOriginalUrlHashIn(Collection<Long> originalUrlHashes);
   Optional<ShortUrl> findByShortCode(String shortCode);
-}
 
+  /**
+   * Returns only what the redirect path needs for {@code shortCode}: the original URL, expiry,
+   * creation time and redirect type.
+   *
+   * <p>The constructor projection is not registered in the persistence context, so no entity is
+   * instantiated or snapshotted for dirty checking. The read-only transaction also switches the
+   * session to manual flushing.</p>
+   */
+  @Transactional(readOnly = true)
+  @Query("select new com.example.urlshortener.repository.LinkTarget(s.originalUrl, s.expiresAt,"
+      + " s.createdAt, s.redirectType)"
+      + " from ShortUrl s where s.shortCode = :shortCode")
+  Optional<LinkTarget> findLinkTargetByShortCode(@Param("shortCode") String shortCode);
+
+  /**
+   * Moves the expiry of mapping {@code id} to {@code expiresAt} if it currently expires earlier.
+   *
+   * @return 1 if the expiry was extended, 0 if the mapping is gone, never expires, or already
+   *     expires at or after {@code expiresAt}
+   */
+  @Transactional
+  @Modifying
+  @Query("update ShortUrl s set s.expiresAt = :expiresAt"
+      + " where s.id = :id and s.expiresAt is not null and s.expiresAt < :expiresAt")
+  int extendExpiry(@Param("id") long id, @Param("expiresAt") Instant expiresAt);
+
+  /**
+   * Removes the expiry of mapping {@code id}.
+   *
+   * @return 1 if the mapping had an expiry, 0 if it is gone or already permanent
+   */
+  @Transactional
+  @Modifying
+  @Query("update ShortUrl s set s.expiresAt = null where s.id = :id and s.expiresAt is not null")
+  int makePermanent(@Param("id") long id);
 
+  /**
+   * Returns those of {@code shortCodes} that are already in use.
+   */
+  @Transactional(readOnly = true)
+  @Query("select s.shortCode from ShortUrl s where s.shortCode in :shortCodes")
+  List<String> findTakenShortCodes(@Param("shortCodes") Collection<String> shortCodes);
+
+  /**
+   * Returns one {@code [length, count]} row per short code length in use.
+   */
+  @Transactional(readOnly = true)
+  @Query("select length(s.shortCode), count(s) from ShortUrl s group by length(s.shortCode)")
+  List<Object[]> countByCodeLength();
+}
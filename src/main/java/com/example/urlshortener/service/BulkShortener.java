@@ -0,0 +1,226 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.exception.InvalidExpiryException;
+import com.example.urlshortener.exception.InvalidUrlException;
+import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.shard.ShardRouter;
+import com.example.urlshortener.store.ShortUrlStore;
+import com.example.urlshortener.util.UrlFingerprint;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Stores large numbers of URLs with the same rules as {@link UrlShorteningService#shortenUrl},
+ * for bulk imports.
+ *
+ * <p>The work is split in two phases:</p>
+ * <ul>
+ *   <li>{@link #prepare} validates and normalizes one URL and derives its fingerprint and first
+ *       candidate code; it is pure CPU work and safe to call from many threads at once</li>
+ *   <li>{@link #store} stores a batch of prepared URLs in one transaction: duplicates within the
+ *       batch are merged, URLs that already have a mapping keep it, candidate codes are checked
+ *       against each other and against the table with one query per round, and the new mappings
+ *       are written with a single JDBC batch</li>
+ * </ul>
+ *
+ * <p>Whatever the batch path cannot settle on its own (an existing mapping whose expiry must be
+ * extended, a fingerprint taken by a different URL, a constraint violation caused by a
+ * concurrent writer) goes through {@link UrlShorteningService#shortenUrl} one URL at a time, so
+ * an import returns exactly the codes the API would. With sharded storage every URL takes that
+ * path.</p>
+ */
+@Component
+public class BulkShortener {
+
+  static final int MAX_CODE_ATTEMPTS = 10;
+
+  /**
+   * A validated, normalized URL ready to be stored. {@code candidateCode} is the first code to
+   * try, or {@code null} when codes are allocated from the sequence at store time.
+   */
+  public record Prepared(String normalizedUrl, Instant expiresAt, long fingerprint, String candidateCode) {
+
+    Prepared withExpiresAt(Instant expiresAt) {
+      return new Prepared(normalizedUrl, expiresAt, fingerprint, candidateCode);
+    }
+  }
+
+  /**
+   * The result of storing one URL: its mapping, or the exception that prevented it.
+   */
+  public record Outcome(ShortUrl mapping, RuntimeException failure) {
+  }
+
+  private final ShortUrlStore shortUrlStore;
+  private final UrlShorteningServiceImpl shorteningService;
+  private final CodeLengthPolicy codeLengthPolicy;
+  private final CodeGenerationStrategy codeGenerationStrategy;
+  private final TransactionTemplate batchTransaction;
+  private final ShardRouter shardRouter;
+
+  public BulkShortener(ShortUrlStore shortUrlStore, UrlShorteningServiceImpl shorteningService,
+      CodeLengthPolicy codeLengthPolicy, AppProperties appProperties,
+      PlatformTransactionManager transactionManager, ShardRouter shardRouter) {
+    this.shortUrlStore = shortUrlStore;
+    this.shorteningService = shorteningService;
+    this.codeLengthPolicy = codeLengthPolicy;
+    this.codeGenerationStrategy = appProperties.getCodeGeneration().getStrategy();
+    this.batchTransaction = new TransactionTemplate(transactionManager);
+    this.shardRouter = shardRouter;
+  }
+
+  /**
+   * Validates and normalizes {@code originalUrl}.
+   *
+   * @throws InvalidUrlException if the URL is blank, cannot be normalized or is too long
+   * @throws InvalidExpiryException if {@code expiresAt} is not in the future or too far in it
+   */
+  public Prepared prepare(String originalUrl, Instant expiresAt) {
+    if (originalUrl == null || originalUrl.isBlank()) {
+      throw new InvalidUrlException("Original URL must not be null or blank");
+    }
+    UrlShorteningServiceImpl.checkExpiry(expiresAt);
+    String normalizedUrl = UrlShorteningServiceImpl.normalize(originalUrl);
+    String candidateCode = codeGenerationStrategy == CodeGenerationStrategy.HASH
+        ? shorteningService.candidateCode(normalizedUrl, 0)
+        : null;
+    return new Prepared(normalizedUrl, expiresAt, UrlFingerprint.of(normalizedUrl, 0), candidateCode);
+  }
+
+  /**
+   * Stores {@code batch}. Entries for the same URL are stored once, with the latest of their
+   * expiries. Must not be called concurrently by callers whose batches share URLs.
+   *
+   * @return the outcome per normalized URL
+   */
+  public Map<String, Outcome> store(List<Prepared> batch) {
+    Map<String, Prepared> byUrl = new LinkedHashMap<>();
+    for (Prepared prepared : batch) {
+      byUrl.merge(prepared.normalizedUrl(), prepared,
+          (first, next) -> first.withExpiresAt(UrlShorteningServiceImpl.laterExpiry(first.expiresAt(), next.expiresAt())));
+    }
+
+    Map<String, Outcome> outcomes = new HashMap<>(byUrl.size() * 2);
+    List<Prepared> individually = new ArrayList<>();
+    List<ShortUrl> inserted = new ArrayList<>();
+    if (shardRouter.isSharded()) {
+      // Rows of one batch land on different shards and are claimed in the URL index one by one
+      individually.addAll(byUrl.values());
+    } else {
+      try {
+        batchTransaction.executeWithoutResult(status -> {
+          Map<Long, Prepared> newByFingerprint = new HashMap<>(byUrl.size() * 2);
+          for (Prepared prepared : byUrl.values()) {
+            if (newByFingerprint.putIfAbsent(prepared.fingerprint(), prepared) != null) {
+              individually.add(prepared);
+            }
+          }
+          for (ShortUrl existing : shortUrlStore.findAllByOriginalUrlHashIn(newByFingerprint.keySet())) {
+            Prepared prepared = newByFingerprint.remove(existing.getOriginalUrlHash());
+            if (existing.getOriginalUrl().equals(prepared.normalizedUrl())
+                && !UrlShorteningServiceImpl.extendsExpiry(existing, prepared.expiresAt())) {
+              outcomes.put(prepared.normalizedUrl(), new Outcome(existing, null));
+            } else {
+              individually.add(prepared);
+            }
+          }
+          inserted.addAll(shortUrlStore.insertAll(assignCodes(newByFingerprint.values(), individually)));
+        });
+        inserted.forEach(created -> codeLengthPolicy.recordInsert(created.getShortCode()));
+      } catch (DataIntegrityViolationException ex) {
+        // A concurrent writer took a URL or code after the checks; settle every URL on its own
+        outcomes.clear();
+        inserted.clear();
+        individually.clear();
+        individually.addAll(byUrl.values());
+      }
+    }
+
+    for (ShortUrl created : inserted) {
+      outcomes.put(created.getOriginalUrl(), new Outcome(created, null));
+    }
+    for (Prepared prepared : individually) {
+      try {
+        outcomes.put(prepared.normalizedUrl(),
+            new Outcome(shorteningService.shortenUrl(prepared.normalizedUrl(), prepared.expiresAt()), null));
+      } catch (RuntimeException ex) {
+        outcomes.put(prepared.normalizedUrl(), new Outcome(null, ex));
+      }
+    }
+    return outcomes;
+  }
+
+  /**
+   * Picks a free code for every entry. Codes that clash within the batch are moved to the URL's
+   * next candidate right away; the remaining proposals are checked against the table in one
+   * query, and the taken ones try their next candidate in the following round. Entries that run
+   * out of candidates are added to {@code individually}.
+   */
+  private List<ShortUrl> assignCodes(Collection<Prepared> entries, List<Prepared> individually) {
+    Map<String, Prepared> assigned = new LinkedHashMap<>(entries.size() * 2);
+    Map<Prepared, Integer> attempts = new HashMap<>();
+    Set<String> taken = new HashSet<>();
+    List<Prepared> unassigned = new ArrayList<>(entries);
+    while (!unassigned.isEmpty()) {
+      Map<String, Prepared> proposals = new HashMap<>(unassigned.size() * 2);
+      for (Prepared prepared : unassigned) {
+        int attempt = attempts.getOrDefault(prepared, 0);
+        String code = attempt == 0 && prepared.candidateCode() != null
+            ? prepared.candidateCode()
+            : shorteningService.candidateCode(prepared.normalizedUrl(), attempt);
+        while (taken.contains(code) || assigned.containsKey(code) || proposals.containsKey(code)) {
+          codeLengthPolicy.recordCollision(code);
+          if (++attempt >= MAX_CODE_ATTEMPTS) {
+            break;
+          }
+          code = shorteningService.candidateCode(prepared.normalizedUrl(), attempt);
+        }
+        if (attempt >= MAX_CODE_ATTEMPTS) {
+          individually.add(prepared);
+          continue;
+        }
+        attempts.put(prepared, attempt);
+        proposals.put(code, prepared);
+      }
+
+      unassigned.clear();
+      if (!proposals.isEmpty()) {
+        for (String code : shortUrlStore.findTakenShortCodes(proposals.keySet())) {
+          Prepared prepared = proposals.remove(code);
+          codeLengthPolicy.recordCollision(code);
+          taken.add(code);
+          attempts.merge(prepared, 1, Integer::sum);
+          if (attempts.get(prepared) >= MAX_CODE_ATTEMPTS) {
+            individually.add(prepared);
+          } else {
+            unassigned.add(prepared);
+          }
+        }
+      }
+      assigned.putAll(proposals);
+    }
+
+    List<ShortUrl> newMappings = new ArrayList<>(assigned.size());
+    assigned.forEach((code, prepared) -> {
+      ShortUrl newMapping = new ShortUrl();
+      newMapping.setOriginalUrl(prepared.normalizedUrl());
+      newMapping.setOriginalUrlHash(prepared.fingerprint());
+      newMapping.setShortCode(code);
+      newMapping.setExpiresAt(prepared.expiresAt());
+      newMappings.add(newMapping);
+    });
+    return newMappings;
+  }
+}
@@ -0,0 +1,20 @@
+package com.example.urlshortener.service;
+
+/**
+ * How {@link UrlShorteningServiceImpl} picks the short code for a new mapping.
+ */
+public enum CodeGenerationStrategy {
+
+  /**
+   * Deterministic hash of the normalized URL, with deterministic retries on collision.
+   * A taken code is detected by the unique constraint when the mapping is inserted.
+   */
+  HASH,
+
+  /**
+   * Base62-encoded id taken from a block of ids reserved in the database
+   * (see {@link SequenceCodeAllocator}). Codes are unique by construction, so inserts
+   * do not collide except with codes created by the hash strategy.
+   */
+  SEQUENCE
+}
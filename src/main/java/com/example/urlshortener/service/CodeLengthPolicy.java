@@ -0,0 +1,205 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.shard.ShardRouter;
+import com.example.urlshortener.store.ShortUrlStore;
+import com.example.urlshortener.util.Base62Encoder;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chooses the length of new hash-based short codes from keyspace occupancy and the measured
+ * collision rate ({@code app.code-generation.adaptive-length}).
+ *
+ * <p>A new code of length {@code L} collides with probability {@code n(L) / 62^L}, where
+ * {@code n(L)} is the number of stored codes of that length. Codes start at
+ * {@code min-length} and move to the next length as soon as either</p>
+ * <ul>
+ *   <li>the expected collision probability of the current length exceeds
+ *       {@code target-collision-rate}, or</li>
+ *   <li>the collision rate measured over the last {@link #WINDOW} attempts exceeds it (which
+ *       catches hashes that spread worse than uniformly)</li>
+ * </ul>
+ * The length never shrinks while the application runs; at startup it is recomputed from the
+ * stored code counts. Codes of different lengths never collide, and existing codes are stored
+ * as they are, so they keep resolving whatever length new codes use.
+ *
+ * <p>Code counts per length and the attempt counters are kept for every strategy, so the
+ * occupancy report is also available when the adaptive length is off.</p>
+ */
+@Component
+public class CodeLengthPolicy implements SmartInitializingSingleton {
+
+  /** Number of insert attempts over which the measured collision rate is evaluated. */
+  static final int WINDOW = 200;
+
+  /** Longest code length tracked; Base62 of a {@code long} has at most 11 characters. */
+  static final int MAX_TRACKED_LENGTH = 11;
+
+  private final ShortUrlStore shortUrlStore;
+  private final ShardRouter shardRouter;
+  private final boolean adaptive;
+  private final int minLength;
+  private final double targetCollisionRate;
+
+  private final AtomicLongArray codesByLength = new AtomicLongArray(MAX_TRACKED_LENGTH + 1);
+  private final LongAdder inserts = new LongAdder();
+  private final LongAdder collisions = new LongAdder();
+  private int windowAttempts; // guarded by this
+  private int windowCollisions; // guarded by this
+  private volatile int currentLength;
+
+  public CodeLengthPolicy(AppProperties appProperties, ShortUrlStore shortUrlStore,
+      ShardRouter shardRouter) {
+    AppProperties.CodeGeneration config = appProperties.getCodeGeneration();
+    this.shortUrlStore = shortUrlStore;
+    this.shardRouter = shardRouter;
+    this.adaptive = config.isAdaptiveLength();
+    this.minLength = Math.clamp(config.getMinLength(), 1, Base62Encoder.MAX_FIXED_LENGTH);
+    this.targetCollisionRate = config.getTargetCollisionRate();
+    this.currentLength = minLength;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    reload();
+  }
+
+  /**
+   * Reloads the number of stored codes per length, summed over all shards, and recomputes the
+   * current length from it.
+   */
+  public synchronized void reload() {
+    for (int length = 0; length <= MAX_TRACKED_LENGTH; length++) {
+      codesByLength.set(length, 0);
+    }
+    for (String shard : shardRouter.shards()) {
+      shardRouter.onShard(shard, shortUrlStore::countByCodeLength)
+          .forEach((length, count) -> codesByLength.addAndGet(slot(length), count));
+    }
+    currentLength = lengthForOccupancy(minLength);
+  }
+
+  /**
+   * Returns {@code true} if new hash codes should use {@link #currentLength()} characters.
+   */
+  public boolean isAdaptive() {
+    return adaptive;
+  }
+
+  /**
+   * Returns the length for new hash-based codes.
+   */
+  public int currentLength() {
+    return currentLength;
+  }
+
+  /**
+   * Records that {@code code} was stored.
+   */
+  public void recordInsert(String code) {
+    inserts.increment();
+    long stored = codesByLength.incrementAndGet(slot(code.length()));
+    if (!adaptive) {
+      return;
+    }
+    boolean windowFull = windowFull(false);
+    int length = currentLength;
+    if (windowFull || code.length() == length && stored > occupancyLimit(length)) {
+      adjust();
+    }
+  }
+
+  /**
+   * Records that {@code code} was already taken by a different URL.
+   */
+  public void recordCollision(String code) {
+    collisions.increment();
+    if (adaptive && windowFull(true)) {
+      adjust();
+    }
+  }
+
+  public long codesAtLength(int length) {
+    return length >= 1 && length <= MAX_TRACKED_LENGTH ? codesByLength.get(length) : 0;
+  }
+
+  /**
+   * Probability that a new, uniformly distributed code of {@code length} characters is taken.
+   */
+  public double expectedCollisionRate(int length) {
+    if (length > Base62Encoder.MAX_FIXED_LENGTH) {
+      return 0;
+    }
+    return Math.min(1.0, (double) codesAtLength(length) / Base62Encoder.keyspaceSize(length));
+  }
+
+  /**
+   * Share of insert attempts since startup that hit a taken code.
+   */
+  public double measuredCollisionRate() {
+    long taken = collisions.sum();
+    long attempts = inserts.sum() + taken;
+    return attempts == 0 ? 0 : (double) taken / attempts;
+  }
+
+  public long insertCount() {
+    return inserts.sum();
+  }
+
+  public long collisionCount() {
+    return collisions.sum();
+  }
+
+  public int minLength() {
+    return minLength;
+  }
+
+  public double targetCollisionRate() {
+    return targetCollisionRate;
+  }
+
+  private synchronized boolean windowFull(boolean collision) {
+    windowAttempts++;
+    if (collision) {
+      windowCollisions++;
+    }
+    return windowAttempts >= WINDOW;
+  }
+
+  private synchronized void adjust() {
+    int length = lengthForOccupancy(currentLength);
+    if (windowAttempts >= WINDOW) {
+      if ((double) windowCollisions / windowAttempts > targetCollisionRate && length == currentLength) {
+        length = Math.min(length + 1, Base62Encoder.MAX_FIXED_LENGTH);
+      }
+      windowAttempts = 0;
+      windowCollisions = 0;
+    }
+    if (length != currentLength) {
+      // Attempts at the old length say nothing about the new one
+      windowAttempts = 0;
+      windowCollisions = 0;
+      currentLength = length;
+    }
+  }
+
+  /** Smallest length from {@code from} up whose expected collision rate is within the target. */
+  private int lengthForOccupancy(int from) {
+    int length = from;
+    while (length < Base62Encoder.MAX_FIXED_LENGTH && codesByLength.get(length) > occupancyLimit(length)) {
+      length++;
+    }
+    return length;
+  }
+
+  private long occupancyLimit(int length) {
+    return (long) (targetCollisionRate * Base62Encoder.keyspaceSize(length));
+  }
+
+  private static int slot(int length) {
+    return Math.min(length, MAX_TRACKED_LENGTH);
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.util.ScratchPool;
+import com.example.urlshortener.util.XxHash64;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Built-in {@link HashStrategy} implementations, selectable through
+ * {@code app.code-generation.hash-algorithm}.
+ */
+public enum HashAlgorithm implements HashStrategy {
+
+  /**
+   * First 8 bytes (big-endian) of the SHA-256 digest. This is the original code scheme; codes
+   * produced with it are stable across releases.
+   *
+   * <p>{@link MessageDigest} instances are costly to look up and not thread-safe, so digests and
+   * output buffers are reused through a {@link ScratchPool}.</p>
+   */
+  SHA_256 {
+    private final ScratchPool<Sha256State> states = new ScratchPool<>(Sha256State::new, 64);
+
+    @Override
+    public long hash(byte[] input, int offset, int length) {
+      Sha256State sha = states.acquire();
+      try {
+        sha.digest.update(input, offset, length);
+        sha.digest.digest(sha.output, 0, sha.output.length);
+        long value = 0L;
+        for (int i = 0; i < 8; i++) {
+          value = (value << 8) | (sha.output[i] & 0xFFL);
+        }
+        return value;
+      } catch (DigestException e) {
+        sha.digest.reset();
+        throw new IllegalStateException("SHA-256 digest failed", e);
+      } finally {
+        states.release(sha);
+      }
+    }
+  },
+
+  /**
+   * 64-bit xxHash (XXH64, seed 0). Much cheaper than SHA-256 and good enough for short codes,
+   * but produces different codes, so switching algorithms changes the codes of new mappings.
+   */
+  XXHASH_64 {
+    @Override
+    public long hash(byte[] input, int offset, int length) {
+      return XxHash64.hash(input, offset, length);
+    }
+  };
+
+  private static final class Sha256State {
+    private final MessageDigest digest;
+    private final byte[] output = new byte[32];
+
+    private Sha256State() {
+      try {
+        this.digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-256 MessageDigest not available", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.urlshortener.service;
+
+/**
+ * Hash function used by {@link ShortCodeGenerator} to turn the UTF-8 bytes of a normalized URL
+ * into a 64-bit value. Implementations must be deterministic and thread-safe.
+ */
+@FunctionalInterface
+public interface HashStrategy {
+
+  /**
+   * Hash {@code length} bytes of {@code input} starting at {@code offset}.
+   *
+   * @return 64-bit hash value (may be negative; callers mask the sign bit as needed)
+   */
+  long hash(byte[] input, int offset, int length);
+}
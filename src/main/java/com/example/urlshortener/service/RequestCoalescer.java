@@ -0,0 +1,50 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.model.RedirectType;
+import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.repository.LinkTarget;
+import com.example.urlshortener.util.SingleFlight;
+import java.time.Instant;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-flight groups for the storage work of {@link UrlShorteningService}.
+ *
+ * <p>Concurrent cache-miss resolves of the same short code share one database lookup, and
+ * concurrent shortens of the same normalized URL and expiry (typically client retries) share
+ * one insert-or-get. The counters tell how many calls did the work and how many were coalesced.</p>
+ */
+@Component
+public class RequestCoalescer {
+
+  private final SingleFlight<String, LinkTarget> resolves = new SingleFlight<>();
+  private final SingleFlight<ShortenKey, ShortUrl> shortens = new SingleFlight<>();
+
+  private record ShortenKey(String normalizedUrl, Instant expiresAt, RedirectType redirectType) {}
+
+  /**
+   * Runs {@code lookup} for {@code shortCode} unless a lookup for it is already in flight.
+   * The lookup returns the link's target, or {@code null} if the code is unknown.
+   */
+  public LinkTarget resolve(String shortCode, Supplier<LinkTarget> lookup) {
+    return resolves.execute(shortCode, lookup);
+  }
+
+  /**
+   * Runs {@code store} for {@code normalizedUrl}, {@code expiresAt} and {@code redirectType}
+   * unless a store for the same request is already in flight.
+   */
+  public ShortUrl shorten(String normalizedUrl, Instant expiresAt, RedirectType redirectType,
+      Supplier<ShortUrl> store) {
+    return shortens.execute(new ShortenKey(normalizedUrl, expiresAt, redirectType), store);
+  }
+
+  public SingleFlight<String, LinkTarget> resolves() {
+    return resolves;
+  }
+
+  public SingleFlight<?, ShortUrl> shortens() {
+    return shortens;
+  }
+}
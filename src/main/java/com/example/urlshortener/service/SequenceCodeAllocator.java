@@ -0,0 +1,99 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.model.CodeSequence;
+import com.example.urlshortener.repository.CodeSequenceRepository;
+import com.example.urlshortener.util.Base62Encoder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hands out collision-free short codes from blocks of ids reserved in the database.
+ *
+ * <p>Each node reserves {@code app.code-generation.block-size} ids at a time by advancing the
+ * {@link CodeSequence} row in its own transaction, then serves ids from memory until the block is
+ * exhausted. Ids are encoded with {@link Base62Encoder#encode(long)}. Ids of a block that is not
+ * used up before shutdown are skipped, never reused.</p>
+ */
+@Component
+public class SequenceCodeAllocator {
+
+  static final String SEQUENCE_NAME = "short_code";
+
+  private final CodeSequenceRepository codeSequenceRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final long blockSize;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private long nextId;   // guarded by lock
+  private long blockEnd; // guarded by lock, exclusive
+
+  public SequenceCodeAllocator(CodeSequenceRepository codeSequenceRepository,
+      PlatformTransactionManager transactionManager,
+      AppProperties appProperties) {
+    this.codeSequenceRepository = codeSequenceRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.blockSize = appProperties.getCodeGeneration().getBlockSize();
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("app.code-generation.block-size must be positive");
+    }
+  }
+
+  /**
+   * Returns the next Base62 short code, reserving a new block first if needed.
+   */
+  public String nextCode() {
+    return Base62Encoder.encode(nextId());
+  }
+
+  /**
+   * Returns the next id of the current block, reserving a new block first if needed.
+   */
+  public long nextId() {
+    lock.lock();
+    try {
+      if (nextId >= blockEnd) {
+        long end = reserveBlock();
+        nextId = end - blockSize;
+        blockEnd = end;
+      }
+      return nextId++;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private long reserveBlock() {
+    try {
+      return advanceCounter();
+    } catch (DataIntegrityViolationException ex) {
+      // Another node created the counter row at the same time; it exists now
+      return advanceCounter();
+    }
+  }
+
+  /**
+   * Advances the counter by one block and returns its new value, i.e. the exclusive end of the
+   * block reserved for this node.
+   */
+  private long advanceCounter() {
+    Long end = transactionTemplate.execute(status -> {
+      if (codeSequenceRepository.advance(SEQUENCE_NAME, blockSize) == 0) {
+        return codeSequenceRepository.saveAndFlush(new CodeSequence(SEQUENCE_NAME, blockSize))
+            .getNextValue();
+      }
+      return codeSequenceRepository.findById(SEQUENCE_NAME)
+          .map(CodeSequence::getNextValue)
+          .orElseThrow(() -> new IllegalStateException("Code sequence disappeared"));
+    });
+    if (end == null) {
+      throw new IllegalStateException("Unable to reserve a block of short code ids");
+    }
+    return end;
+  }
+}
@@ -1,35 +1,59 @@
 package com.example.urlshortener.service;
 
+import com.example.urlshortener.config.AppProperties;
 import com.example.urlshortener.util.Base62Encoder;
+import com.example.urlshortener.util.ScratchPool;
+import com.example.urlshortener.util.Utf8Buffer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-
 /**
  * Generates deterministic short codes from a normalized URL string.
  *
  * <p>Input must be a <b>normalized</b> URL (e.g., produced by {@code UrlUtils.normalizeUrl}).
- * For the same normalized URL, this generator will always produce the same code.
- * Collisions are possible and intentionally not handled here; they should be managed
+ * For the same normalized URL and {@link HashStrategy}, this generator will always produce the
+ * same code. Collisions are possible and intentionally not handled here; they should be managed
  * by higher layers.</p>
+ *
+ * <p>The generator does not allocate per call apart from the returned code: the UTF-8 bytes of
+ * the input are written into a reusable {@link Utf8Buffer} (see {@link ScratchPool}) and hashed
+ * in place.</p>
  */
 @Component
 public class ShortCodeGenerator {
 
   private static final int MAX_LENGTH = 10; // must be ≤ 10
 
+  private static final ScratchPool<Utf8Buffer> UTF8_BUFFERS = new ScratchPool<>(Utf8Buffer::new, 64);
+
+  private final HashStrategy hashStrategy;
+
+  /**
+   * Creates a generator using {@link HashAlgorithm#SHA_256}.
+   */
+  public ShortCodeGenerator() {
+    this(HashAlgorithm.SHA_256);
+  }
+
+  public ShortCodeGenerator(HashStrategy hashStrategy) {
+    this.hashStrategy = hashStrategy;
+  }
+
+  @Autowired
+  public ShortCodeGenerator(AppProperties appProperties) {
+    this(appProperties.getCodeGeneration().getHashAlgorithm());
+  }
+
   /**
    * Generate a deterministic short code for a normalized URL.
    *
    * <p>Behavior:</p>
    * <ul>
    *   <li>Validates that {@code normalizedUrl} is non-null and non-blank</li>
-   *   <li>Computes SHA-256 hash of the input</li>
-   *   <li>Uses the first 8 bytes to form a non-negative {@code long}</li>
-   *   <li>Encodes the value using Base62</li>
-   *   <li>Truncates the result to at most {@link #MAX_LENGTH} characters</li>
+   *   <li>Hashes the UTF-8 bytes of the input with the configured {@link HashStrategy}
+   *       (for SHA-256, the first 8 bytes of the digest form the value)</li>
+   *   <li>Clears the sign bit to obtain a non-negative {@code long}</li>
+   *   <li>Encodes the value using Base62, keeping at most {@link #MAX_LENGTH} characters</li>
    * </ul>
    *
    * @param normalizedUrl a normalized URL string (must not be null/blank)
@@ -37,33 +61,38 @@ public class ShortCodeGenerator {
    * @throws IllegalArgumentException if {@code normalizedUrl} is null or blank
    */
   public String generateShortCode(String normalizedUrl) {
-    if (normalizedUrl == null || normalizedUrl.isBlank()) {
-      throw new IllegalArgumentException("normalizedUrl must not be null or blank");
-    }
+    return Base62Encoder.encode(hash(normalizedUrl), MAX_LENGTH);
+  }
 
-    byte[] hash = sha256(normalizedUrl);
-    long value = firstEightBytesAsPositiveLong(hash);
-    String base62 = Base62Encoder.encode(value);
-    return base62.length() > MAX_LENGTH ? base62.substring(0, MAX_LENGTH) : base62;
+  /**
+   * Generate a deterministic short code of exactly {@code length} characters.
+   *
+   * <p>The hash is reduced modulo {@code 62^length}, so codes are spread evenly over the
+   * keyspace of that length. Codes of different lengths never equal each other, which lets
+   * {@link CodeLengthPolicy} move new codes to a longer, emptier keyspace.</p>
+   *
+   * @param normalizedUrl a normalized URL string (must not be null/blank)
+   * @param length code length, from 1 to {@link Base62Encoder#MAX_FIXED_LENGTH}
+   * @return fixed-width Base62 short code
+   * @throws IllegalArgumentException if {@code normalizedUrl} is null or blank, or {@code length}
+   *     is out of range
+   */
+  public String generateShortCode(String normalizedUrl, int length) {
+    return Base62Encoder.encodeFixed(hash(normalizedUrl), length);
   }
 
-  private static byte[] sha256(String input) {
-    try {
-      MessageDigest digest = MessageDigest.getInstance("SHA-256");
-      return digest.digest(input.getBytes(StandardCharsets.UTF_8));
-    } catch (NoSuchAlgorithmException e) {
-      throw new IllegalStateException("SHA-256 MessageDigest not available", e);
+  private long hash(String normalizedUrl) {
+    if (normalizedUrl == null || normalizedUrl.isBlank()) {
+      throw new IllegalArgumentException("normalizedUrl must not be null or blank");
     }
-  }
 
-  private static long firstEightBytesAsPositiveLong(byte[] bytes) {
-    long value = 0L;
-    for (int i = 0; i < 8; i++) {
-      value = (value << 8) | (bytes[i] & 0xFFL);
+    Utf8Buffer buffer = UTF8_BUFFERS.acquire();
+    try {
+      int length = buffer.encode(normalizedUrl);
+      // Ensure non-negative for Base62 long encoder
+      return hashStrategy.hash(buffer.array(), 0, length) & Long.MAX_VALUE;
+    } finally {
+      UTF8_BUFFERS.release(buffer);
     }
-    // Ensure non-negative for Base62 long encoder
-    return value & Long.MAX_VALUE;
   }
 }
-
-
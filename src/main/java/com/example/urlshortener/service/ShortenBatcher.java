@@ -0,0 +1,137 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.model.ShortUrl;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit stage for {@link UrlShorteningServiceImpl}: concurrent shorten calls are queued
+ * and handed to a {@link BatchWriter} together, so that one transaction stores many mappings.
+ *
+ * <p>A single thread takes the first pending call, then keeps collecting until either
+ * {@code maxBatchSize} calls are gathered or {@code maxDelay} has passed since the first one.
+ * The writer must complete every {@link Pending#result()}; calls it leaves open, or all calls
+ * of a batch whose writer throws, complete exceptionally.</p>
+ */
+final class ShortenBatcher implements AutoCloseable {
+
+  /**
+   * Stores one batch of pending calls and completes their futures.
+   */
+  @FunctionalInterface
+  interface BatchWriter {
+    void write(List<Pending> batch);
+  }
+
+  /**
+   * One waiting {@code shortenUrl} call.
+   */
+  record Pending(String normalizedUrl, Instant expiresAt, CompletableFuture<ShortUrl> result) {}
+
+  private static final long IDLE_POLL_MILLIS = 100;
+
+  private final int maxBatchSize;
+  private final long maxDelayNanos;
+  private final BatchWriter writer;
+  private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+  private final Thread thread;
+
+  private volatile boolean running = true;
+
+  ShortenBatcher(int maxBatchSize, Duration maxDelay, BatchWriter writer) {
+    if (maxBatchSize <= 0) {
+      throw new IllegalArgumentException("app.shorten-batching.max-batch-size must be positive");
+    }
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelayNanos = maxDelay.toNanos();
+    this.writer = writer;
+    this.thread = Thread.ofPlatform().name("shorten-batcher").daemon().start(this::run);
+  }
+
+  /**
+   * Queues {@code normalizedUrl}, to expire at {@code expiresAt} ({@code null} for never), for
+   * the next batch.
+   */
+  CompletableFuture<ShortUrl> submit(String normalizedUrl, Instant expiresAt) {
+    Pending pending = new Pending(normalizedUrl, expiresAt, new CompletableFuture<>());
+    if (!running) {
+      pending.result().completeExceptionally(new IllegalStateException("Shorten batcher is closed"));
+      return pending.result();
+    }
+    queue.add(pending);
+    if (!running && queue.remove(pending)) {
+      // close() raced with this call; the thread may already be gone
+      pending.result().completeExceptionally(new IllegalStateException("Shorten batcher is closed"));
+    }
+    return pending.result();
+  }
+
+  private void run() {
+    List<Pending> batch = new ArrayList<>(maxBatchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        collect(batch, System.nanoTime() + maxDelayNanos);
+      } catch (InterruptedException ex) {
+        // Only close() stops this thread; a stray interrupt just ends the current wait
+      }
+      if (!batch.isEmpty()) {
+        write(batch);
+        batch.clear();
+      }
+    }
+  }
+
+  private void collect(List<Pending> batch, long deadline) throws InterruptedException {
+    while (batch.size() < maxBatchSize) {
+      queue.drainTo(batch, maxBatchSize - batch.size());
+      long remaining = deadline - System.nanoTime();
+      if (batch.size() >= maxBatchSize || remaining <= 0) {
+        return;
+      }
+      Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+    }
+  }
+
+  private void write(List<Pending> batch) {
+    try {
+      writer.write(batch);
+    } catch (RuntimeException ex) {
+      batch.forEach(pending -> pending.result().completeExceptionally(ex));
+    }
+    for (Pending pending : batch) {
+      if (!pending.result().isDone()) {
+        pending.result().completeExceptionally(
+            new IllegalStateException("Batch writer did not complete " + pending.normalizedUrl()));
+      }
+    }
+  }
+
+  /**
+   * Stops accepting calls, writes everything already queued and stops the thread. The thread is
+   * not interrupted, since an interrupt can abort JDBC I/O in the middle of a batch.
+   */
+  @Override
+  public void close() {
+    running = false;
+    try {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -1,6 +1,9 @@
 package com.example.urlshortener.service;
 
+import com.example.urlshortener.model.RedirectType;
 import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.repository.LinkTarget;
+import java.time.Instant;
 
 /**
  * Core service interface for URL shortening operations.
@@ -22,18 +25,63 @@ public interface UrlShorteningService {
 	 * @param originalUrl the raw original URL to shorten (not yet normalized)
 	 * @return the persisted {@link ShortUrl} entity representing the mapping
 	 */
-	ShortUrl shortenUrl(String originalUrl);
+	default ShortUrl shortenUrl(String originalUrl) {
+		return shortenUrl(originalUrl, null);
+	}
+
+	/**
+	 * Shortens the provided raw original URL string into a link that stops resolving at
+	 * {@code expiresAt}.
+	 * <p>
+	 * There is one mapping per URL, so a URL that is already shortened keeps its code; its expiry
+	 * is only ever extended, to the latest requested instant, and removed entirely when a
+	 * permanent link is requested.
+	 *
+	 * @param originalUrl the raw original URL to shorten (not yet normalized)
+	 * @param expiresAt when the link expires, or {@code null} for a permanent link
+	 * @return the persisted {@link ShortUrl} entity representing the mapping
+	 */
+	default ShortUrl shortenUrl(String originalUrl, Instant expiresAt) {
+		return shortenUrl(originalUrl, expiresAt, null);
+	}
+
+	/**
+	 * Shortens the provided raw original URL string into a link that expires at {@code expiresAt}
+	 * and redirects with {@code redirectType}.
+	 * <p>
+	 * The redirect type is set when the mapping is created; a URL that is already shortened keeps
+	 * the type it was created with.
+	 *
+	 * @param originalUrl the raw original URL to shorten (not yet normalized)
+	 * @param expiresAt when the link expires, or {@code null} for a permanent link
+	 * @param redirectType how the link redirects, or {@code null} for the configured default
+	 * @return the persisted {@link ShortUrl} entity representing the mapping
+	 */
+	ShortUrl shortenUrl(String originalUrl, Instant expiresAt, RedirectType redirectType);
 
 	/**
 	 * Resolves the given short code to the original URL string.
 	 * <p>
 	 * Implementations may throw appropriate runtime exceptions when the input is invalid
-	 * or when the short code does not correspond to a known mapping.
+	 * or when the short code does not correspond to a known, unexpired mapping.
 	 *
 	 * @param shortCode the short code to resolve
 	 * @return the original URL string if found
 	 */
-	String resolveUrl(String shortCode);
+	default String resolveUrl(String shortCode) {
+		return resolve(shortCode).originalUrl();
+	}
+
+	/**
+	 * Resolves the given short code to everything the redirect needs: the original URL, the
+	 * link's expiry, creation time and redirect type.
+	 * <p>
+	 * Fails like {@link #resolveUrl} for unknown or expired codes.
+	 *
+	 * @param shortCode the short code to resolve
+	 * @return the link's target if found
+	 */
+	LinkTarget resolve(String shortCode);
 }
 
 
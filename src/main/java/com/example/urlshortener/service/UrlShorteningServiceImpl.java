@@ -1,77 +1,605 @@
 package com.example.urlshortener.service;
 
+import com.example.urlshortener.cache.ResolveCache;
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.exception.InvalidExpiryException;
 import com.example.urlshortener.exception.InvalidUrlException;
 import com.example.urlshortener.exception.UrlNotFoundException;
+import com.example.urlshortener.metrics.UrlShortenerMetrics;
+import com.example.urlshortener.model.RedirectType;
 import com.example.urlshortener.model.ShortUrl;
-import com.example.urlshortener.repository.ShortUrlRepository;
+import com.example.urlshortener.repository.LinkTarget;
+import com.example.urlshortener.replica.ReplicaRouter;
+import com.example.urlshortener.shard.ShardRouter;
+import com.example.urlshortener.shard.UrlIndex;
+import com.example.urlshortener.store.ShortUrlStore;
+import com.example.urlshortener.util.UrlFingerprint;
 import com.example.urlshortener.util.UrlUtils;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
-public class UrlShorteningServiceImpl implements UrlShorteningService {
+public class UrlShorteningServiceImpl implements UrlShorteningService, DisposableBean {
 
-  private final ShortUrlRepository shortUrlRepository;
+  private static final int MAX_PENDING_RETRIES = 20;
+  private static final long PENDING_RETRY_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final ShortUrlStore shortUrlStore;
   private final ShortCodeGenerator shortCodeGenerator;
+  private final SequenceCodeAllocator sequenceCodeAllocator;
+  private final ResolveCache resolveCache;
+  private final RequestCoalescer requestCoalescer;
+  private final UrlShortenerMetrics metrics;
+  private final CodeLengthPolicy codeLengthPolicy;
+  private final CodeGenerationStrategy codeGenerationStrategy;
+  private final TransactionTemplate batchTransaction;
+  private final ShortenBatcher shortenBatcher; // null unless app.shorten-batching.enabled
+  private final ShardRouter shardRouter;
+  private final UrlIndex urlIndex;
+  private final ReplicaRouter replicaRouter;
 
-  public UrlShorteningServiceImpl(ShortUrlRepository shortUrlRepository,
-      ShortCodeGenerator shortCodeGenerator) {
-    this.shortUrlRepository = shortUrlRepository;
+  public UrlShorteningServiceImpl(ShortUrlStore shortUrlStore,
+      ShortCodeGenerator shortCodeGenerator,
+      SequenceCodeAllocator sequenceCodeAllocator,
+      ResolveCache resolveCache,
+      AppProperties appProperties,
+      PlatformTransactionManager transactionManager,
+      RequestCoalescer requestCoalescer,
+      UrlShortenerMetrics metrics,
+      CodeLengthPolicy codeLengthPolicy,
+      ShardRouter shardRouter,
+      UrlIndex urlIndex,
+      ReplicaRouter replicaRouter) {
+    this.shortUrlStore = shortUrlStore;
     this.shortCodeGenerator = shortCodeGenerator;
+    this.sequenceCodeAllocator = sequenceCodeAllocator;
+    this.resolveCache = resolveCache;
+    this.requestCoalescer = requestCoalescer;
+    this.metrics = metrics;
+    this.codeLengthPolicy = codeLengthPolicy;
+    this.shardRouter = shardRouter;
+    this.urlIndex = urlIndex;
+    this.replicaRouter = replicaRouter;
+    this.codeGenerationStrategy = appProperties.getCodeGeneration().getStrategy();
+    this.batchTransaction = new TransactionTemplate(transactionManager);
+    AppProperties.ShortenBatching batching = appProperties.getShortenBatching();
+    if (batching.isEnabled() && shardRouter.isSharded()) {
+      // A batch would have to be split per shard and claimed in the URL index row by row
+      throw new IllegalStateException("app.shorten-batching cannot be combined with app.sharding");
+    }
+    this.shortenBatcher = batching.isEnabled()
+        ? new ShortenBatcher(batching.getMaxBatchSize(), batching.getMaxDelay(), this::storeBatch)
+        : null;
+  }
+
+  @Override
+  public void destroy() {
+    if (shortenBatcher != null) {
+      shortenBatcher.close();
+    }
   }
 
   @Override
-  public ShortUrl shortenUrl(String originalUrl) {
+  public ShortUrl shortenUrl(String originalUrl, Instant expiresAt, RedirectType redirectType) {
+    long start = System.nanoTime();
+    try {
+      return shorten(originalUrl, expiresAt, redirectType);
+    } catch (InvalidUrlException ex) {
+      metrics.invalidUrl();
+      throw ex;
+    } finally {
+      metrics.recordShorten(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public LinkTarget resolve(String shortCode) {
+    long start = System.nanoTime();
+    try {
+      return resolveTarget(shortCode);
+    } catch (UrlNotFoundException ex) {
+      metrics.notFound();
+      throw ex;
+    } finally {
+      metrics.recordResolve(System.nanoTime() - start);
+    }
+  }
+
+  private ShortUrl shorten(String originalUrl, Instant expiresAt, RedirectType redirectType) {
     if (originalUrl == null || originalUrl.isBlank()) {
       throw new InvalidUrlException("Original URL must not be null or blank");
     }
+    checkExpiry(expiresAt);
+
+    String normalizedUrl = normalize(originalUrl);
+
+    // Insert-or-get: a new URL costs one INSERT, an existing one is found through the conflict.
+    // Identical calls in flight at the same time share one store. Links with their own redirect
+    // type are rare and skip group commit.
+    ShortUrl mapping = requestCoalescer.shorten(normalizedUrl, expiresAt, redirectType,
+        () -> shortenBatcher != null && redirectType == null
+            ? awaitBatched(normalizedUrl, expiresAt)
+            : insertOrGet(normalizedUrl, expiresAt, redirectType));
+
+    // Warm the resolve path so a freshly created link is served from memory
+    resolveCache.put(mapping.getShortCode(), new LinkTarget(mapping.getOriginalUrl(), mapping.getExpiresAt(),
+        mapping.getCreatedAt(), mapping.getRedirectType()));
+    return mapping;
+  }
+
+  private LinkTarget resolveTarget(String shortCode) {
+    if (shortCode == null || shortCode.isBlank()) {
+      throw new UrlNotFoundException("Short code must not be null or blank");
+    }
+
+    LinkTarget cached = resolveCache.getTarget(shortCode);
+    if (cached != null) {
+      return cached;
+    }
+    if (resolveCache.isKnownMissing(shortCode)) {
+      throw new UrlNotFoundException("Unknown short code: " + shortCode);
+    }
+
+    // Concurrent misses for the same code share one lookup
+    LinkTarget target = requestCoalescer.resolve(shortCode, () -> lookup(shortCode));
+    if (target == null) {
+      throw new UrlNotFoundException("Unknown short code: " + shortCode);
+    }
+    return target;
+  }
+
+  /**
+   * Loads the target of {@code shortCode} from storage and records the outcome in the
+   * resolve cache. Returns {@code null} for an unknown code, and for an expired one that the
+   * sweeper has not deleted yet; the expiry comes with the same query. Only the shard that owns
+   * the code is asked, unless a rebalance is moving rows.
+   *
+   * <p>With read replicas the lookup goes to a replica first. A replica that has not caught up
+   * reports a link created a moment ago as unknown, or one whose expiry was just extended as
+   * expired, so those answers are confirmed on the primary.</p>
+   */
+  private LinkTarget lookup(String shortCode) {
+    Instant now = Instant.now();
+    LinkTarget target = replicaRouter.read(
+        () -> shardRouter.find(shardRouter.shardOfCode(shortCode),
+                () -> shortUrlStore.findLinkTargetByShortCode(shortCode))
+            .map(ShardRouter.Located::value)
+            .orElse(null),
+        found -> found != null && !found.isExpired(now));
+    if (target == null || target.isExpired(now)) {
+      resolveCache.putMissing(shortCode);
+      return null;
+    }
+    resolveCache.put(shortCode, target);
+    return target;
+  }
+
+  /**
+   * Stores a mapping for {@code normalizedUrl} optimistically and lets the unique constraints on
+   * {@code original_url_hash} and {@code short_code} detect conflicts, instead of checking for
+   * them up front.
+   *
+   * <p>After a constraint violation the row holding the URL's fingerprint is looked up:</p>
+   * <ul>
+   *   <li>same URL: the mapping exists (created earlier or by a concurrent request) and is returned,
+   *       with its expiry extended to {@code expiresAt} if that is later</li>
+   *   <li>different URL: a fingerprint collision; retry with the same code and the next probe</li>
+   *   <li>no row, but the candidate code is taken: retry with the next candidate code</li>
+   *   <li>neither row visible: a concurrent insert has not committed yet; back off briefly and
+   *       retry the same candidate</li>
+   * </ul>
+   */
+  private ShortUrl insertOrGet(String normalizedUrl, Instant expiresAt, RedirectType redirectType) {
+    if (shardRouter.isSharded()) {
+      return insertOrGetSharded(normalizedUrl, expiresAt, redirectType);
+    }
+    final int maxAttempts = 10;
+    int attemptIndex = 0;
+    int probe = 0;
+    int pendingRetries = 0;
+    int attempts = 0;
+    String candidateCode = candidateCode(normalizedUrl, attemptIndex);
+    while (true) {
+      attempts++;
+      long fingerprint = UrlFingerprint.of(normalizedUrl, probe);
+      ShortUrl newMapping = new ShortUrl();
+      newMapping.setOriginalUrl(normalizedUrl);
+      newMapping.setOriginalUrlHash(fingerprint);
+      newMapping.setShortCode(candidateCode);
+      newMapping.setExpiresAt(expiresAt);
+      newMapping.setRedirectType(redirectType);
+      try {
+        ShortUrl created = shortUrlStore.insert(newMapping);
+        codeLengthPolicy.recordInsert(candidateCode);
+        metrics.recordShortenAttempts(attempts);
+        return created;
+      } catch (DuplicateKeyException ex) {
+        Optional<ShortUrl> holder = shortUrlStore.findByOriginalUrlHash(fingerprint);
+        if (holder.isPresent()) {
+          if (normalizedUrl.equals(holder.get().getOriginalUrl())) {
+            if (applyExpiry(holder.get(), expiresAt)) {
+              metrics.recordShortenAttempts(attempts);
+              return holder.get();
+            }
+            // The row was deleted by the sweeper or changed concurrently; look again
+            if (++pendingRetries >= MAX_PENDING_RETRIES) {
+              throw new IllegalStateException("Expiry of the existing mapping kept changing", ex);
+            }
+            continue;
+          }
+          // Fingerprint collision with a different URL
+          if (++probe >= UrlFingerprint.MAX_PROBES) {
+            throw new IllegalStateException(
+                "No free URL fingerprint after " + UrlFingerprint.MAX_PROBES + " probes", ex);
+          }
+        } else {
+          Optional<ShortUrl> codeHolder = shortUrlStore.findByShortCode(candidateCode);
+          if (codeHolder.isPresent() && normalizedUrl.equals(codeHolder.get().getOriginalUrl())) {
+            // This URL was stored under a later fingerprint probe while another URL held this
+            // one; that holder has since been removed, so reuse the existing mapping
+            if (applyExpiry(codeHolder.get(), expiresAt)) {
+              metrics.recordShortenAttempts(attempts);
+              return codeHolder.get();
+            }
+            if (++pendingRetries >= MAX_PENDING_RETRIES) {
+              throw new IllegalStateException("Expiry of the existing mapping kept changing", ex);
+            }
+          } else if (codeHolder.isPresent()) {
+            // The candidate code belongs to a different URL
+            codeLengthPolicy.recordCollision(candidateCode);
+            if (++attemptIndex >= maxAttempts) {
+              throw new IllegalStateException(
+                  "Unable to generate a unique short code after deterministic retries", ex);
+            }
+            candidateCode = candidateCode(normalizedUrl, attemptIndex);
+          } else {
+            // The conflicting row is not committed yet; wait until it becomes visible
+            if (++pendingRetries >= MAX_PENDING_RETRIES) {
+              throw new IllegalStateException("Conflicting insert did not become visible", ex);
+            }
+            LockSupport.parkNanos(PENDING_RETRY_BACKOFF_NANOS * pendingRetries);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * {@link #insertOrGet} for sharded storage, where the unique constraints of one shard no longer
+   * make a URL unique across all of them; the {@link UrlIndex} does instead.
+   *
+   * <p>A URL whose fingerprint is indexed has its mapping returned (an entry whose mapping is
+   * gone was swept and is released). Otherwise the mapping is stored on the shard that owns the
+   * candidate code, with the same conflict handling as {@link #insertOrGet}, and then claimed in
+   * the index. During a rebalance the candidate code is first looked up on every shard, since
+   * rows that have not moved yet are outside the owner's unique constraint. A request that loses the claim to a concurrent one for the same URL deletes its
+   * own mapping and returns the winner's.</p>
+   */
+  private ShortUrl insertOrGetSharded(String normalizedUrl, Instant expiresAt, RedirectType redirectType) {
+    final int maxAttempts = 10;
+    int attemptIndex = 0;
+    int probe = 0;
+    int pendingRetries = 0;
+    int attempts = 0;
+    String candidateCode = candidateCode(normalizedUrl, attemptIndex);
+    while (true) {
+      attempts++;
+      long fingerprint = UrlFingerprint.of(normalizedUrl, probe);
+      Optional<String> indexed = urlIndex.find(fingerprint);
+      if (indexed.isPresent()) {
+        String code = indexed.get();
+        Optional<ShardRouter.Located<ShortUrl>> holder = shardRouter.find(
+            shardRouter.shardOfCode(code), () -> shortUrlStore.findByShortCode(code));
+        if (holder.isEmpty() || !Long.valueOf(fingerprint).equals(holder.get().value().getOriginalUrlHash())) {
+          urlIndex.release(fingerprint, code);
+        } else if (normalizedUrl.equals(holder.get().value().getOriginalUrl())) {
+          ShortUrl existing = holder.get().value();
+          if (shardRouter.onShard(holder.get().shard(), () -> applyExpiry(existing, expiresAt))) {
+            metrics.recordShortenAttempts(attempts);
+            return existing;
+          }
+        } else {
+          // Fingerprint collision with a different URL
+          if (++probe >= UrlFingerprint.MAX_PROBES) {
+            throw new IllegalStateException(
+                "No free URL fingerprint after " + UrlFingerprint.MAX_PROBES + " probes");
+          }
+          continue;
+        }
+        // The index or the mapping changed underneath; look again
+        if (++pendingRetries >= MAX_PENDING_RETRIES) {
+          throw new IllegalStateException("Indexed mapping kept changing");
+        }
+        continue;
+      }
+
+      String shard = shardRouter.shardOfCode(candidateCode);
+      if (shardRouter.isRebalancing()) {
+        // The unique constraint only covers the owner; a row that has not been moved yet can
+        // still hold the code on another shard
+        String code = candidateCode;
+        Optional<ShardRouter.Located<ShortUrl>> codeHolder =
+            shardRouter.find(shard, () -> shortUrlStore.findByShortCode(code));
+        if (codeHolder.isPresent() && normalizedUrl.equals(codeHolder.get().value().getOriginalUrl())) {
+          ShortUrl existing = codeHolder.get().value();
+          if (shardRouter.onShard(codeHolder.get().shard(), () -> applyExpiry(existing, expiresAt))) {
+            metrics.recordShortenAttempts(attempts);
+            return existing;
+          }
+          if (++pendingRetries >= MAX_PENDING_RETRIES) {
+            throw new IllegalStateException("Expiry of the existing mapping kept changing");
+          }
+          continue;
+        }
+        if (codeHolder.isPresent()) {
+          codeLengthPolicy.recordCollision(candidateCode);
+          if (++attemptIndex >= maxAttempts) {
+            throw new IllegalStateException(
+                "Unable to generate a unique short code after deterministic retries");
+          }
+          candidateCode = candidateCode(normalizedUrl, attemptIndex);
+          continue;
+        }
+      }
+      ShortUrl newMapping = new ShortUrl();
+      newMapping.setOriginalUrl(normalizedUrl);
+      newMapping.setOriginalUrlHash(fingerprint);
+      newMapping.setShortCode(candidateCode);
+      newMapping.setExpiresAt(expiresAt);
+      newMapping.setRedirectType(redirectType);
+      ShortUrl stored;
+      boolean created;
+      try {
+        stored = shardRouter.onShard(shard, () -> shortUrlStore.insert(newMapping));
+        created = true;
+      } catch (DuplicateKeyException ex) {
+        Optional<ShortUrl> holder = shardRouter.onShard(shard,
+            () -> shortUrlStore.findByOriginalUrlHash(fingerprint));
+        String code = candidateCode;
+        if (holder.isPresent()) {
+          if (!normalizedUrl.equals(holder.get().getOriginalUrl())) {
+            if (++probe >= UrlFingerprint.MAX_PROBES) {
+              throw new IllegalStateException(
+                  "No free URL fingerprint after " + UrlFingerprint.MAX_PROBES + " probes", ex);
+            }
+            continue;
+          }
+          // A mapping of this URL that is not indexed yet: a concurrent request's, or one left
+          // by a request that failed before claiming it
+          stored = holder.get();
+          created = false;
+        } else {
+          Optional<ShortUrl> codeHolder = shardRouter.onShard(shard, () -> shortUrlStore.findByShortCode(code));
+          if (codeHolder.isPresent() && normalizedUrl.equals(codeHolder.get().getOriginalUrl())) {
+            // Stored under a later fingerprint probe whose earlier holder has since been removed
+            ShortUrl existing = codeHolder.get();
+            if (shardRouter.onShard(shard, () -> applyExpiry(existing, expiresAt))) {
+              metrics.recordShortenAttempts(attempts);
+              return existing;
+            }
+            if (++pendingRetries >= MAX_PENDING_RETRIES) {
+              throw new IllegalStateException("Expiry of the existing mapping kept changing", ex);
+            }
+            continue;
+          }
+          if (codeHolder.isEmpty()) {
+            if (++pendingRetries >= MAX_PENDING_RETRIES) {
+              throw new IllegalStateException("Conflicting insert did not become visible", ex);
+            }
+            LockSupport.parkNanos(PENDING_RETRY_BACKOFF_NANOS * pendingRetries);
+            continue;
+          }
+          codeLengthPolicy.recordCollision(candidateCode);
+          if (++attemptIndex >= maxAttempts) {
+            throw new IllegalStateException(
+                "Unable to generate a unique short code after deterministic retries", ex);
+          }
+          candidateCode = candidateCode(normalizedUrl, attemptIndex);
+          continue;
+        }
+      }
+
+      if (urlIndex.claim(fingerprint, stored.getShortCode())) {
+        if (created) {
+          codeLengthPolicy.recordInsert(stored.getShortCode());
+          metrics.recordShortenAttempts(attempts);
+          return stored;
+        }
+        // Adopted an existing mapping; the next round applies the expiry to it
+        continue;
+      }
+      // Another request indexed this URL first; its mapping wins
+      ShortUrl loser = stored;
+      if (!loser.getShortCode().equals(urlIndex.find(fingerprint).orElse(null))) {
+        shardRouter.runOnShard(shard, () -> shortUrlStore.deleteById(loser.getId()));
+      }
+      if (++pendingRetries >= MAX_PENDING_RETRIES) {
+        throw new IllegalStateException("URL index entry kept changing");
+      }
+    }
+  }
 
+  /**
+   * Makes {@code existing} live at least until {@code requested} ({@code null} for permanent).
+   *
+   * @return {@code true} if {@code existing} now reflects the stored expiry, {@code false} if the
+   *     row changed underneath and the caller should retry
+   */
+  private boolean applyExpiry(ShortUrl existing, Instant requested) {
+    if (!extendsExpiry(existing, requested)) {
+      return true;
+    }
+    int updated = requested == null
+        ? shortUrlStore.makePermanent(existing.getId())
+        : shortUrlStore.extendExpiry(existing.getId(), requested);
+    if (updated == 0) {
+      return false;
+    }
+    existing.setExpiresAt(requested);
+    return true;
+  }
+
+  /**
+   * Normalizes {@code originalUrl} and checks that it fits the {@code original_url} column.
+   *
+   * @throws InvalidUrlException if the URL cannot be normalized or is too long to store
+   */
+  static String normalize(String originalUrl) {
     final String normalizedUrl;
     try {
       normalizedUrl = UrlUtils.normalizeUrl(originalUrl);
     } catch (IllegalArgumentException ex) {
       throw new InvalidUrlException("Invalid URL: " + ex.getMessage(), ex);
     }
+    if (normalizedUrl.length() > ShortUrl.MAX_URL_LENGTH) {
+      throw new InvalidUrlException("URL must not be longer than " + ShortUrl.MAX_URL_LENGTH + " characters");
+    }
+    return normalizedUrl;
+  }
 
-    // Idempotency: if mapping for this URL already exists, return it
-    return shortUrlRepository.findByOriginalUrl(normalizedUrl)
-        .orElseGet(() -> {
-          final int maxAttempts = 10;
-          for (int attemptIndex = 0; attemptIndex < maxAttempts; attemptIndex++) {
-            String seed = candidateSeedForAttempt(normalizedUrl, attemptIndex);
-            String candidateCode = shortCodeGenerator.generateShortCode(seed);
-
-            // Check if this code is already taken
-            var existingByCode = shortUrlRepository.findByShortCode(candidateCode);
-            if (existingByCode.isEmpty()) {
-              // Found a free code: create and persist the new mapping
-              ShortUrl newMapping = new ShortUrl();
-              newMapping.setOriginalUrl(normalizedUrl);
-              newMapping.setShortCode(candidateCode);
-              return shortUrlRepository.save(newMapping);
-            }
+  /**
+   * Checks that {@code expiresAt}, if set, is in the future and not after
+   * {@link ShortUrl#MAX_EXPIRES_AT}.
+   *
+   * @throws InvalidExpiryException if it is not
+   */
+  static void checkExpiry(Instant expiresAt) {
+    if (expiresAt == null) {
+      return;
+    }
+    if (!expiresAt.isAfter(Instant.now())) {
+      throw new InvalidExpiryException("Expiry must be in the future: " + expiresAt);
+    }
+    if (expiresAt.isAfter(ShortUrl.MAX_EXPIRES_AT)) {
+      throw new InvalidExpiryException("Expiry must not be after " + ShortUrl.MAX_EXPIRES_AT + ": " + expiresAt);
+    }
+  }
 
-            // If the code maps to the same original URL, return existing (idempotency safeguard)
-            ShortUrl existing = existingByCode.get();
-            if (normalizedUrl.equals(existing.getOriginalUrl())) {
-              return existing;
-            }
+  static boolean extendsExpiry(ShortUrl existing, Instant requested) {
+    Instant current = existing.getExpiresAt();
+    return current != null && (requested == null || requested.isAfter(current));
+  }
 
-            // Otherwise, it's a collision with a different URL; continue deterministically
-          }
+  /** The later of two expiries, where {@code null} (never) is later than any instant. */
+  static Instant laterExpiry(Instant a, Instant b) {
+    return a == null || b == null ? null : (a.isAfter(b) ? a : b);
+  }
+
+  private ShortUrl awaitBatched(String normalizedUrl, Instant expiresAt) {
+    try {
+      return shortenBatcher.submit(normalizedUrl, expiresAt).join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Stores a batch collected by {@link ShortenBatcher} in one transaction: one query finds the
+   * URLs that already have a mapping, and one JDBC batch inserts the others. If the batch hits a
+   * constraint violation (a taken code, or a concurrent insert of the same URL), it is rolled
+   * back and each URL goes through {@link #insertOrGet} on its own, as do URLs whose primary
+   * fingerprint belongs to a different URL and existing mappings whose expiry must be extended.
+   * Calls for the same URL with different expiries are stored with the latest one.
+   */
+  private void storeBatch(List<ShortenBatcher.Pending> batch) {
+    Map<String, List<ShortenBatcher.Pending>> waitingByUrl = new LinkedHashMap<>();
+    Map<String, Instant> expiryByUrl = new HashMap<>();
+    for (ShortenBatcher.Pending pending : batch) {
+      String url = pending.normalizedUrl();
+      List<ShortenBatcher.Pending> waiting = waitingByUrl.computeIfAbsent(url, key -> new ArrayList<>());
+      expiryByUrl.put(url, waiting.isEmpty()
+          ? pending.expiresAt()
+          : laterExpiry(expiryByUrl.get(url), pending.expiresAt()));
+      waiting.add(pending);
+    }
 
-          throw new IllegalStateException(
-              "Unable to generate a unique short code after deterministic retries");
+    Map<String, ShortUrl> stored = new HashMap<>();
+    List<String> individually = new ArrayList<>();
+    List<ShortUrl> inserted = new ArrayList<>();
+    try {
+      batchTransaction.executeWithoutResult(status -> {
+        Map<Long, String> newUrlsByFingerprint = new HashMap<>();
+        for (String url : waitingByUrl.keySet()) {
+          if (newUrlsByFingerprint.putIfAbsent(UrlFingerprint.of(url, 0), url) != null) {
+            individually.add(url);
+          }
+        }
+        for (ShortUrl existing : shortUrlStore.findAllByOriginalUrlHashIn(newUrlsByFingerprint.keySet())) {
+          String url = newUrlsByFingerprint.remove(existing.getOriginalUrlHash());
+          if (existing.getOriginalUrl().equals(url) && !extendsExpiry(existing, expiryByUrl.get(url))) {
+            stored.put(url, existing);
+          } else {
+            individually.add(url);
+          }
+        }
+        List<ShortUrl> newMappings = new ArrayList<>(newUrlsByFingerprint.size());
+        newUrlsByFingerprint.forEach((fingerprint, url) -> {
+          ShortUrl newMapping = new ShortUrl();
+          newMapping.setOriginalUrl(url);
+          newMapping.setOriginalUrlHash(fingerprint);
+          newMapping.setShortCode(candidateCode(url, 0));
+          newMapping.setExpiresAt(expiryByUrl.get(url));
+          newMappings.add(newMapping);
         });
+        inserted.addAll(shortUrlStore.insertAll(newMappings));
+        for (ShortUrl created : inserted) {
+          stored.put(created.getOriginalUrl(), created);
+        }
+      });
+      inserted.forEach(created -> codeLengthPolicy.recordInsert(created.getShortCode()));
+    } catch (DataIntegrityViolationException ex) {
+      stored.clear();
+      inserted.clear();
+      individually.clear();
+      individually.addAll(waitingByUrl.keySet());
+    }
+
+    stored.forEach((url, mapping) -> {
+      metrics.recordShortenAttempts(1);
+      waitingByUrl.get(url).forEach(pending -> pending.result().complete(mapping));
+    });
+    for (String url : individually) {
+      List<ShortenBatcher.Pending> waiting = waitingByUrl.get(url);
+      try {
+        ShortUrl mapping = insertOrGet(url, expiryByUrl.get(url), null);
+        waiting.forEach(pending -> pending.result().complete(mapping));
+      } catch (RuntimeException ex) {
+        waiting.forEach(pending -> pending.result().completeExceptionally(ex));
+      }
+    }
   }
 
-  @Override
-  public String resolveUrl(String shortCode) {
-    if (shortCode == null || shortCode.isBlank()) {
-      throw new UrlNotFoundException("Short code must not be null or blank");
+  /**
+   * Returns the short code to try for the given attempt: a deterministic hash of the URL (with a
+   * stable suffix after collisions), at the length chosen by {@link CodeLengthPolicy} when the
+   * adaptive length is on, or the next sequence code.
+   */
+  String candidateCode(String normalizedUrl, int attemptIndex) {
+    if (codeGenerationStrategy == CodeGenerationStrategy.SEQUENCE) {
+      return sequenceCodeAllocator.nextCode();
     }
-    return shortUrlRepository.findByShortCode(shortCode)
-        .map(ShortUrl::getOriginalUrl)
-        .orElseThrow(() -> new UrlNotFoundException("Unknown short code: " + shortCode));
+    String seed = candidateSeedForAttempt(normalizedUrl, attemptIndex);
+    if (codeLengthPolicy.isAdaptive()) {
+      return shortCodeGenerator.generateShortCode(seed, codeLengthPolicy.currentLength());
+    }
+    return shortCodeGenerator.generateShortCode(seed);
   }
 
   /**
@@ -85,5 +613,3 @@ public class UrlShorteningServiceImpl implements UrlShorteningService {
     return normalizedUrl + "#" + attemptIndex;
   }
 }
-
-
@@ -0,0 +1,286 @@
+package com.example.urlshortener.shard;
+
+import com.example.urlshortener.config.AppProperties;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves mappings and URL index entries to the shards that own them, after shards were added.
+ *
+ * <p>Each shard's {@code short_urls} is walked by id and its {@code short_url_index} by
+ * fingerprint, {@code app.sharding.rebalance-batch-size} rows per query. A row owned by another
+ * shard is copied there and then deleted, so it is always on at least one shard; a copy that
+ * already exists on the owner (from a move that was interrupted) is not copied twice. While the
+ * rebalance runs, {@link ShardRouter#find} also looks on the other shards, so codes whose rows
+ * have not moved yet keep resolving. A row that conflicts with one on its owner stays where it
+ * is and fails the run, which keeps that fallback on. Mappings without a URL index entry, such as those stored
+ * before sharding was enabled, are indexed on the way. A run is started by {@link #start()}, from
+ * {@code POST /api/admin/shards/rebalance} or after startup with
+ * {@code app.sharding.rebalance-on-startup}.</p>
+ */
+@Component
+public class ShardRebalancer implements SmartInitializingSingleton, DisposableBean {
+
+  private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+
+  static final String SELECT_MAPPINGS_SQL = "select id, original_url, original_url_hash, short_code,"
+      + " created_at, expires_at, redirect_type from short_urls where id > ? order by id limit ?";
+  static final String INSERT_MAPPING_SQL = "insert into short_urls"
+      + " (original_url, original_url_hash, short_code, created_at, expires_at, redirect_type)"
+      + " values (?, ?, ?, ?, ?, ?)";
+  static final String DELETE_MAPPING_SQL = "delete from short_urls where id = ?";
+  static final String SELECT_FIRST_ENTRIES_SQL = "select original_url_hash, short_code"
+      + " from short_url_index order by original_url_hash limit ?";
+  static final String SELECT_ENTRIES_SQL = "select original_url_hash, short_code"
+      + " from short_url_index where original_url_hash > ? order by original_url_hash limit ?";
+  static final String DELETE_ENTRY_SQL = "delete from short_url_index where original_url_hash = ?";
+
+  private record Mapping(long id, String originalUrl, Long originalUrlHash, String shortCode,
+      OffsetDateTime createdAt, OffsetDateTime expiresAt, String redirectType) {}
+
+  private record Entry(long originalUrlHash, String shortCode) {}
+
+  private static final RowMapper<Mapping> MAPPING_ROW = (rs, rowNum) -> new Mapping(
+      rs.getLong("id"),
+      rs.getString("original_url"),
+      rs.getObject("original_url_hash", Long.class),
+      rs.getString("short_code"),
+      rs.getObject("created_at", OffsetDateTime.class),
+      rs.getObject("expires_at", OffsetDateTime.class),
+      rs.getString("redirect_type"));
+
+  private static final RowMapper<Entry> ENTRY_ROW = (rs, rowNum) ->
+      new Entry(rs.getLong("original_url_hash"), rs.getString("short_code"));
+
+  private final ShardRouter shardRouter;
+  private final JdbcTemplate jdbcTemplate;
+  private final int batchSize;
+  private final boolean rebalanceOnStartup;
+
+  private final AtomicLong moved = new AtomicLong();
+  private final AtomicLong conflicts = new AtomicLong();
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+  private volatile String failure;
+  private volatile boolean stopping;
+  private Thread thread;
+
+  public ShardRebalancer(ShardRouter shardRouter, JdbcTemplate jdbcTemplate,
+      AppProperties appProperties) {
+    AppProperties.Sharding config = appProperties.getSharding();
+    this.shardRouter = shardRouter;
+    this.jdbcTemplate = jdbcTemplate;
+    this.batchSize = config.getRebalanceBatchSize();
+    this.rebalanceOnStartup = config.isRebalanceOnStartup();
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("app.sharding.rebalance-batch-size must be positive");
+    }
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    if (rebalanceOnStartup) {
+      start();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    Thread running;
+    synchronized (this) {
+      stopping = true;
+      running = thread;
+    }
+    if (running != null) {
+      try {
+        running.join(TimeUnit.SECONDS.toMillis(10));
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Starts a rebalance in the background.
+   *
+   * @return {@code false} if storage is not sharded or a rebalance is already running
+   */
+  public synchronized boolean start() {
+    if (!shardRouter.isSharded() || isRunning() || stopping) {
+      return false;
+    }
+    shardRouter.setRebalancing(true);
+    thread = Thread.ofPlatform().name("shard-rebalancer").daemon().start(() -> {
+      try {
+        rebalance();
+      } catch (RuntimeException ex) {
+        logger.error("Rebalancing shards failed", ex);
+      }
+    });
+    return true;
+  }
+
+  public synchronized boolean isRunning() {
+    return thread != null && thread.isAlive();
+  }
+
+  /**
+   * Moves every misplaced row to its owner shard.
+   *
+   * @return the number of rows moved
+   */
+  public long rebalance() {
+    startedAt = Instant.now();
+    finishedAt = null;
+    failure = null;
+    moved.set(0);
+    conflicts.set(0);
+    shardRouter.setRebalancing(true);
+    try {
+      for (String shard : shardRouter.shards()) {
+        moveMappings(shard);
+        moveIndexEntries(shard);
+      }
+      logger.info("Moved {} rows to their owner shards, {} left in place after conflicts",
+          moved.get(), conflicts.get());
+      if (conflicts.get() > 0) {
+        // Rows left in place are only reachable through the fallback to the other shards
+        failure = conflicts.get() + " mappings could not be moved to their owner shards";
+      }
+      return moved.get();
+    } catch (RuntimeException ex) {
+      failure = ex.getMessage();
+      throw ex;
+    } finally {
+      // An interrupted or conflicting run leaves rows behind, so keep looking for them on every
+      // shard
+      shardRouter.setRebalancing(stopping || failure != null);
+      finishedAt = Instant.now();
+    }
+  }
+
+  private void moveMappings(String shard) {
+    long lastId = 0;
+    while (!stopping) {
+      long after = lastId;
+      List<Mapping> batch = shardRouter.onShard(shard,
+          () -> jdbcTemplate.query(SELECT_MAPPINGS_SQL, MAPPING_ROW, after, batchSize));
+      for (Mapping mapping : batch) {
+        String owner = shardRouter.shardOfCode(mapping.shortCode());
+        if (!owner.equals(shard)) {
+          moveMapping(mapping, shard, owner);
+        }
+        if (mapping.originalUrlHash() != null) {
+          index(mapping);
+        }
+      }
+      if (batch.size() < batchSize) {
+        break;
+      }
+      lastId = batch.get(batch.size() - 1).id();
+    }
+  }
+
+  private void moveMapping(Mapping mapping, String from, String to) {
+    try {
+      shardRouter.runOnShard(to, () -> jdbcTemplate.update(INSERT_MAPPING_SQL,
+          mapping.originalUrl(), mapping.originalUrlHash(), mapping.shortCode(),
+          mapping.createdAt(), mapping.expiresAt(), mapping.redirectType()));
+    } catch (DuplicateKeyException ex) {
+      List<String> present = shardRouter.onShard(to, () -> jdbcTemplate.queryForList(
+          "select original_url from short_urls where short_code = ?", String.class, mapping.shortCode()));
+      if (!present.contains(mapping.originalUrl())) {
+        // The fingerprint is taken on the owner by a mapping of another code; keep both reachable
+        logger.warn("Not moving short code {} from shard {} to {}: conflicting mapping",
+            mapping.shortCode(), from, to);
+        conflicts.incrementAndGet();
+        return;
+      }
+    }
+    shardRouter.runOnShard(from, () -> jdbcTemplate.update(DELETE_MAPPING_SQL, mapping.id()));
+    moved.incrementAndGet();
+  }
+
+  private void index(Mapping mapping) {
+    try {
+      shardRouter.runOnShard(shardRouter.shardOfFingerprint(mapping.originalUrlHash()),
+          () -> jdbcTemplate.update(UrlIndex.CLAIM_SQL, mapping.originalUrlHash(), mapping.shortCode()));
+    } catch (DuplicateKeyException ex) {
+      // Indexed already
+    }
+  }
+
+  private void moveIndexEntries(String shard) {
+    Long lastHash = null;
+    while (!stopping) {
+      Long after = lastHash;
+      List<Entry> batch = shardRouter.onShard(shard, () -> after == null
+          ? jdbcTemplate.query(SELECT_FIRST_ENTRIES_SQL, ENTRY_ROW, batchSize)
+          : jdbcTemplate.query(SELECT_ENTRIES_SQL, ENTRY_ROW, after, batchSize));
+      for (Entry entry : batch) {
+        String owner = shardRouter.shardOfFingerprint(entry.originalUrlHash());
+        if (!owner.equals(shard)) {
+          try {
+            shardRouter.runOnShard(owner, () -> jdbcTemplate.update(UrlIndex.CLAIM_SQL,
+                entry.originalUrlHash(), entry.shortCode()));
+          } catch (DuplicateKeyException ex) {
+            // Already moved, or claimed on the owner since; the owner's entry wins
+          }
+          shardRouter.runOnShard(shard,
+              () -> jdbcTemplate.update(DELETE_ENTRY_SQL, entry.originalUrlHash()));
+          moved.incrementAndGet();
+        }
+      }
+      if (batch.size() < batchSize) {
+        break;
+      }
+      lastHash = batch.get(batch.size() - 1).originalUrlHash();
+    }
+  }
+
+  /** Number of mappings stored on {@code shard}. */
+  public long countMappings(String shard) {
+    return shardRouter.onShard(shard,
+        () -> jdbcTemplate.queryForObject("select count(*) from short_urls", Long.class));
+  }
+
+  /** Number of URL index entries stored on {@code shard}. */
+  public long countIndexEntries(String shard) {
+    if (!shardRouter.isSharded()) {
+      return 0; // the index is only created for sharded storage
+    }
+    return shardRouter.onShard(shard,
+        () -> jdbcTemplate.queryForObject("select count(*) from short_url_index", Long.class));
+  }
+
+  public long movedCount() {
+    return moved.get();
+  }
+
+  public long conflictCount() {
+    return conflicts.get();
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public String getFailure() {
+    return failure;
+  }
+}
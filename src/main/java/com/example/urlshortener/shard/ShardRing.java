@@ -0,0 +1,64 @@
+package com.example.urlshortener.shard;
+
+import com.example.urlshortener.util.XxHash64;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Consistent-hash ring over a set of shard names.
+ *
+ * <p>Each shard is placed on the ring at {@code virtualNodes} points derived from its name, and a
+ * key belongs to the shard owning the first point at or after the key's hash, wrapping around.
+ * Keys are hashed with {@link XxHash64}. Adding a shard therefore only moves the keys that now
+ * fall just before one of its points, about {@code 1/N} of all keys, and all of them move to the
+ * new shard; the placement of every other key is unchanged.</p>
+ */
+public final class ShardRing {
+
+  private final long[] points;
+  private final String[] owners;
+
+  public ShardRing(List<String> shards, int virtualNodes) {
+    if (shards.isEmpty()) {
+      throw new IllegalArgumentException("At least one shard is required");
+    }
+    if (virtualNodes < 1) {
+      throw new IllegalArgumentException("virtualNodes must be positive: " + virtualNodes);
+    }
+    int size = shards.size() * virtualNodes;
+    long[][] placed = new long[size][];
+    int index = 0;
+    for (int shard = 0; shard < shards.size(); shard++) {
+      for (int node = 0; node < virtualNodes; node++) {
+        placed[index++] = new long[] {hash(shards.get(shard) + "#" + node), shard};
+      }
+    }
+    Arrays.sort(placed, (a, b) -> Long.compare(a[0], b[0]));
+    this.points = new long[size];
+    this.owners = new String[size];
+    for (int i = 0; i < size; i++) {
+      points[i] = placed[i][0];
+      owners[i] = shards.get((int) placed[i][1]);
+    }
+  }
+
+  /** The shard that owns {@code key}. */
+  public String shardFor(String key) {
+    return shardForHash(hash(key));
+  }
+
+  /** The shard that owns a key whose 64-bit hash is {@code hash}. */
+  public String shardForHash(long hash) {
+    int index = Arrays.binarySearch(points, hash);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    return owners[index == points.length ? 0 : index];
+  }
+
+  private static long hash(String key) {
+    byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+    return XxHash64.hash(bytes, 0, bytes.length);
+  }
+}
@@ -0,0 +1,142 @@
+package com.example.urlshortener.shard;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard holds a short code or a URL index entry, and runs storage work on it.
+ *
+ * <p>{@link #onShard} binds a shard to the current thread for the duration of the work; the
+ * {@link ShardRoutingDataSource} hands out connections of that shard, so repository calls,
+ * {@code JdbcTemplate} queries and transactions started inside the work all go to it. Outside
+ * of {@code onShard} the default (first) shard is used, which also holds the tables that are
+ * not sharded. The work must not join a transaction started outside it, because that
+ * transaction already has a connection.</p>
+ *
+ * <p>Mappings are placed by their short code, so a resolve touches exactly one shard. Entries
+ * of the URL index, which map a URL fingerprint to its short code, are placed by the
+ * fingerprint. While a rebalance moves rows to their new shards, {@link #find} also looks on the
+ * other shards when the owner does not have the row yet.</p>
+ */
+public class ShardRouter {
+
+  /** Name of the only shard when sharding is disabled. */
+  public static final String DEFAULT_SHARD = "default";
+
+  private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+  private final List<String> shards;
+  private final ShardRing ring;
+  private volatile boolean rebalancing;
+
+  public ShardRouter(List<String> shards, int virtualNodes, boolean rebalancing) {
+    this.shards = List.copyOf(shards);
+    this.ring = new ShardRing(this.shards, virtualNodes);
+    this.rebalancing = rebalancing;
+  }
+
+  /** A router with a single shard, for when sharding is disabled. */
+  public static ShardRouter single() {
+    return new ShardRouter(List.of(DEFAULT_SHARD), 1, false);
+  }
+
+  /** The shard bound to the current thread, or {@code null} for the default shard. */
+  static String currentShard() {
+    return CURRENT.get();
+  }
+
+  public boolean isSharded() {
+    return shards.size() > 1;
+  }
+
+  public List<String> shards() {
+    return shards;
+  }
+
+  /** The shard that holds the mapping of {@code shortCode}. */
+  public String shardOfCode(String shortCode) {
+    return isSharded() ? ring.shardFor(shortCode) : shards.get(0);
+  }
+
+  /** The shard that holds the URL index entry for {@code fingerprint}. */
+  public String shardOfFingerprint(long fingerprint) {
+    if (!isSharded()) {
+      return shards.get(0);
+    }
+    // Fingerprints are hashes already, but of a different function; mix once more so index
+    // entries are spread independently of the codes they point to
+    return ring.shardForHash(mix(fingerprint));
+  }
+
+  public boolean isRebalancing() {
+    return rebalancing;
+  }
+
+  void setRebalancing(boolean rebalancing) {
+    this.rebalancing = rebalancing;
+  }
+
+  /**
+   * Runs {@code work} with {@code shard} bound to the current thread.
+   */
+  public <T> T onShard(String shard, Supplier<T> work) {
+    if (!isSharded()) {
+      return work.get();
+    }
+    String previous = CURRENT.get();
+    CURRENT.set(shard);
+    try {
+      return work.get();
+    } finally {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+
+  /**
+   * Runs {@code work} with {@code shard} bound to the current thread.
+   */
+  public void runOnShard(String shard, Runnable work) {
+    onShard(shard, () -> {
+      work.run();
+      return null;
+    });
+  }
+
+  /**
+   * Looks a row up on {@code owner}. During a rebalance, a row that has not been moved to its
+   * owner yet is looked for on the other shards as well.
+   *
+   * @return the shard the row was found on, with the row
+   */
+  public <T> Optional<Located<T>> find(String owner, Supplier<Optional<T>> lookup) {
+    Optional<T> found = onShard(owner, lookup);
+    if (found.isPresent() || !rebalancing) {
+      return found.map(value -> new Located<>(owner, value));
+    }
+    for (String shard : shards) {
+      if (!shard.equals(owner)) {
+        Optional<T> moved = onShard(shard, lookup);
+        if (moved.isPresent()) {
+          return Optional.of(new Located<>(shard, moved.get()));
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  // Finalizer of SplitMix64
+  private static long mix(long value) {
+    value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+    value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+    return value ^ (value >>> 31);
+  }
+
+  /** A row and the shard it was found on. */
+  public record Located<T>(String shard, T value) {
+  }
+}
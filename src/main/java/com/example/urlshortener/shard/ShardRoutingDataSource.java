@@ -0,0 +1,37 @@
+package com.example.urlshortener.shard;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections of the shard that {@link ShardRouter#onShard} bound to the current
+ * thread, or of the default shard when none is bound.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+  private final Map<String, DataSource> shards;
+
+  public ShardRoutingDataSource(Map<String, DataSource> shards, String defaultShard) {
+    this.shards = Map.copyOf(shards);
+    setTargetDataSources(new HashMap<>(shards));
+    setDefaultTargetDataSource(shards.get(defaultShard));
+    setLenientFallback(false);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return ShardRouter.currentShard();
+  }
+
+  /** The data source of {@code shard}, for work that must bypass the routing. */
+  public DataSource shard(String shard) {
+    DataSource dataSource = shards.get(shard);
+    if (dataSource == null) {
+      throw new IllegalArgumentException("Unknown shard: " + shard);
+    }
+    return dataSource;
+  }
+}
@@ -0,0 +1,50 @@
+package com.example.urlshortener.shard;
+
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * DDL of the tables that live on every shard.
+ *
+ * <p>Hibernate only manages the schema of the default shard, which also holds the tables that
+ * are not sharded ({@code click_events}, {@code code_sequences}). The other shards get
+ * {@code short_urls} from here, matching the {@code ShortUrl} entity. {@code short_url_index} is
+ * not an entity and is created here on every shard.</p>
+ */
+final class ShardSchema {
+
+  private static final String[] SHORT_URLS = {
+    """
+    create table if not exists short_urls (
+      id bigint generated by default as identity primary key,
+      original_url varchar(2048) not null,
+      original_url_hash bigint,
+      short_code varchar(10) not null,
+      created_at timestamp(6) with time zone not null,
+      expires_at timestamp(6) with time zone,
+      redirect_type varchar(16),
+      constraint uk_short_urls_original_url_hash unique (original_url_hash),
+      constraint uk_short_urls_short_code unique (short_code))
+    """,
+    "create index if not exists idx_short_urls_expires_at on short_urls (expires_at)"
+  };
+
+  private static final String SHORT_URL_INDEX = """
+      create table if not exists short_url_index (
+        original_url_hash bigint primary key,
+        short_code varchar(10) not null)
+      """;
+
+  private ShardSchema() {
+  }
+
+  static void create(DataSource dataSource, boolean defaultShard) {
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    if (!defaultShard) {
+      for (String ddl : SHORT_URLS) {
+        jdbcTemplate.execute(ddl);
+      }
+    }
+    jdbcTemplate.execute(SHORT_URL_INDEX);
+  }
+}
@@ -0,0 +1,62 @@
+package com.example.urlshortener.shard;
+
+import com.example.urlshortener.config.AppProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires sharded storage when {@code app.sharding.enabled=true}: one connection pool per entry of
+ * {@code app.sharding.shards} behind a {@link ShardRoutingDataSource}, which replaces the
+ * {@code spring.datasource} one. Otherwise the {@link ShardRouter} has the single shard
+ * {@value ShardRouter#DEFAULT_SHARD} and routes nothing.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ShardingConfiguration {
+
+  @Bean
+  public ShardRouter shardRouter(AppProperties appProperties) {
+    AppProperties.Sharding sharding = appProperties.getSharding();
+    if (!sharding.isEnabled()) {
+      return ShardRouter.single();
+    }
+    List<String> names = sharding.getShards().stream().map(AppProperties.Shard::getName).toList();
+    return new ShardRouter(names, sharding.getVirtualNodes(), sharding.isRebalanceOnStartup());
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+  public ShardRoutingDataSource dataSource(AppProperties appProperties) {
+    AppProperties.Sharding sharding = appProperties.getSharding();
+    if (sharding.getShards().size() < 2) {
+      throw new IllegalStateException("app.sharding.shards needs at least two shards");
+    }
+    Set<String> names = new HashSet<>();
+    Map<String, DataSource> shards = new LinkedHashMap<>();
+    for (AppProperties.Shard shard : sharding.getShards()) {
+      if (shard.getName() == null || !names.add(shard.getName())) {
+        throw new IllegalStateException("Shard names must be present and unique: " + shard.getName());
+      }
+      HikariDataSource dataSource = DataSourceBuilder.create()
+          .type(HikariDataSource.class)
+          .url(shard.getUrl())
+          .username(shard.getUsername())
+          .password(shard.getPassword())
+          .build();
+      dataSource.setPoolName("shard-" + shard.getName());
+      dataSource.setMaximumPoolSize(sharding.getMaximumPoolSize());
+      // Before Hibernate starts, so that every shard has its tables once the context is up
+      ShardSchema.create(dataSource, shards.isEmpty());
+      shards.put(shard.getName(), dataSource);
+    }
+    return new ShardRoutingDataSource(shards, shards.keySet().iterator().next());
+  }
+}
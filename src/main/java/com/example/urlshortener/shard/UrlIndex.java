@@ -0,0 +1,73 @@
+package com.example.urlshortener.shard;
+
+import java.util.List;
+import java.util.Optional;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps URL fingerprints to short codes across shards, so that shortening a URL again finds its
+ * mapping without asking every shard.
+ *
+ * <p>Mappings are placed by short code, but a shorten request only knows the URL. Each entry of
+ * {@code short_url_index} lives on the shard that owns its fingerprint
+ * ({@link ShardRouter#shardOfFingerprint}), and its primary key makes the fingerprint unique
+ * across all shards, as the unique {@code original_url_hash} constraint does for a single
+ * database. An entry is claimed only after its mapping has been stored, so an entry whose
+ * mapping is missing is stale (the mapping expired and was swept) and may be released.</p>
+ *
+ * <p>Without sharding the unique constraint of {@code short_urls} is enough and the index is
+ * not used.</p>
+ */
+@Component
+public class UrlIndex {
+
+  static final String FIND_SQL = "select short_code from short_url_index where original_url_hash = ?";
+  static final String CLAIM_SQL = "insert into short_url_index (original_url_hash, short_code) values (?, ?)";
+  static final String RELEASE_SQL = "delete from short_url_index where original_url_hash = ? and short_code = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ShardRouter shardRouter;
+
+  public UrlIndex(JdbcTemplate jdbcTemplate, ShardRouter shardRouter) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.shardRouter = shardRouter;
+  }
+
+  /** The short code indexed for {@code fingerprint}, if any. */
+  public Optional<String> find(long fingerprint) {
+    return shardRouter.find(shardRouter.shardOfFingerprint(fingerprint),
+            () -> jdbcTemplate.queryForList(FIND_SQL, String.class, fingerprint).stream().findFirst())
+        .map(ShardRouter.Located::value);
+  }
+
+  /**
+   * Indexes {@code shortCode} for {@code fingerprint}.
+   *
+   * @return {@code false} if the fingerprint is already indexed
+   */
+  public boolean claim(long fingerprint, String shortCode) {
+    try {
+      shardRouter.runOnShard(shardRouter.shardOfFingerprint(fingerprint),
+          () -> jdbcTemplate.update(CLAIM_SQL, fingerprint, shortCode));
+      return true;
+    } catch (DuplicateKeyException ex) {
+      return false;
+    }
+  }
+
+  /** Removes the entry of {@code fingerprint} if it still points to {@code shortCode}. */
+  public void release(long fingerprint, String shortCode) {
+    for (String shard : shardsToSearch(fingerprint)) {
+      shardRouter.runOnShard(shard, () -> jdbcTemplate.update(RELEASE_SQL, fingerprint, shortCode));
+    }
+  }
+
+  private Iterable<String> shardsToSearch(long fingerprint) {
+    // An entry that has not been moved by a running rebalance is still on its old shard
+    return shardRouter.isRebalancing()
+        ? shardRouter.shards()
+        : List.of(shardRouter.shardOfFingerprint(fingerprint));
+  }
+}
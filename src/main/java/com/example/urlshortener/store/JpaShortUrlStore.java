@@ -0,0 +1,109 @@
+package com.example.urlshortener.store;
+
+import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.repository.LinkTarget;
+import com.example.urlshortener.repository.ShortUrlRepository;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+/**
+ * {@link ShortUrlStore} backed by {@link ShortUrlRepository}; the default engine. Works with
+ * sharding and read replicas, which route the repository's connections.
+ */
+public class JpaShortUrlStore implements ShortUrlStore {
+
+  /** SQL state of a unique constraint violation. */
+  private static final String UNIQUE_VIOLATION = "23505";
+
+  private final ShortUrlRepository shortUrlRepository;
+
+  public JpaShortUrlStore(ShortUrlRepository shortUrlRepository) {
+    this.shortUrlRepository = shortUrlRepository;
+  }
+
+  @Override
+  public ShortUrl insert(ShortUrl mapping) {
+    try {
+      return shortUrlRepository.save(mapping);
+    } catch (DataIntegrityViolationException ex) {
+      throw asDuplicateKey(ex);
+    }
+  }
+
+  @Override
+  public List<ShortUrl> insertAll(List<ShortUrl> mappings) {
+    return shortUrlRepository.insertAll(mappings);
+  }
+
+  @Override
+  public Optional<ShortUrl> findByShortCode(String shortCode) {
+    return shortUrlRepository.findByShortCode(shortCode);
+  }
+
+  @Override
+  public Optional<ShortUrl> findByOriginalUrlHash(long originalUrlHash) {
+    return shortUrlRepository.findByOriginalUrlHash(originalUrlHash);
+  }
+
+  @Override
+  public List<ShortUrl> findAllByOriginalUrlHashIn(Collection<Long> originalUrlHashes) {
+    return shortUrlRepository.findAllByOriginalUrlHashIn(originalUrlHashes);
+  }
+
+  @Override
+  public Optional<LinkTarget> findLinkTargetByShortCode(String shortCode) {
+    return shortUrlRepository.findLinkTargetByShortCode(shortCode);
+  }
+
+  @Override
+  public List<String> findTakenShortCodes(Collection<String> shortCodes) {
+    return shortUrlRepository.findTakenShortCodes(shortCodes);
+  }
+
+  @Override
+  public int extendExpiry(long id, Instant expiresAt) {
+    return shortUrlRepository.extendExpiry(id, expiresAt);
+  }
+
+  @Override
+  public int makePermanent(long id) {
+    return shortUrlRepository.makePermanent(id);
+  }
+
+  @Override
+  public void deleteById(long id) {
+    shortUrlRepository.deleteById(id);
+  }
+
+  @Override
+  public Map<Integer, Long> countByCodeLength() {
+    Map<Integer, Long> counts = new TreeMap<>();
+    for (Object[] row : shortUrlRepository.countByCodeLength()) {
+      counts.merge(((Number) row[0]).intValue(), ((Number) row[1]).longValue(), Long::sum);
+    }
+    return counts;
+  }
+
+  /**
+   * JPA reports any constraint violation as a {@link DataIntegrityViolationException}; unique
+   * ones become a {@link DuplicateKeyException}, like they are from {@code JdbcTemplate}.
+   */
+  private static DataIntegrityViolationException asDuplicateKey(DataIntegrityViolationException ex) {
+    if (ex instanceof DuplicateKeyException) {
+      return ex;
+    }
+    for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+        return new DuplicateKeyException(ex.getMessage(), ex);
+      }
+    }
+    return ex;
+  }
+}
@@ -0,0 +1,77 @@
+package com.example.urlshortener.store;
+
+import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.repository.LinkTarget;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Storage of short code to original URL mappings, selected with {@code app.storage.engine}.
+ *
+ * <p>Both the short code and the URL fingerprint ({@code originalUrlHash}) are unique. Writes
+ * that would break either fail with a {@link org.springframework.dao.DuplicateKeyException},
+ * which the shortening service relies on to detect existing mappings and taken codes. Other
+ * failed writes, such as a URL longer than the column, are not reported as duplicates.</p>
+ *
+ * @see JpaShortUrlStore
+ * @see com.example.urlshortener.store.log.LogShortUrlStore
+ */
+public interface ShortUrlStore {
+
+  /**
+   * Stores the new mapping {@code mapping} and fills in its id, and its creation time if unset.
+   *
+   * @return the stored mapping
+   * @throws org.springframework.dao.DuplicateKeyException if the code or fingerprint is taken
+   */
+  ShortUrl insert(ShortUrl mapping);
+
+  /**
+   * Stores all {@code mappings} at once; if any of them conflicts, none is stored.
+   *
+   * @return {@code mappings}, with ids set
+   * @throws org.springframework.dao.DuplicateKeyException if any code or fingerprint is taken
+   */
+  List<ShortUrl> insertAll(List<ShortUrl> mappings);
+
+  Optional<ShortUrl> findByShortCode(String shortCode);
+
+  Optional<ShortUrl> findByOriginalUrlHash(long originalUrlHash);
+
+  List<ShortUrl> findAllByOriginalUrlHashIn(Collection<Long> originalUrlHashes);
+
+  /**
+   * Returns only the original URL and expiry for {@code shortCode}, for the redirect path.
+   */
+  Optional<LinkTarget> findLinkTargetByShortCode(String shortCode);
+
+  /**
+   * Returns those of {@code shortCodes} that are already in use.
+   */
+  List<String> findTakenShortCodes(Collection<String> shortCodes);
+
+  /**
+   * Moves the expiry of mapping {@code id} to {@code expiresAt} if it currently expires earlier.
+   *
+   * @return 1 if the expiry was extended, 0 if the mapping is gone, never expires, or already
+   *     expires at or after {@code expiresAt}
+   */
+  int extendExpiry(long id, Instant expiresAt);
+
+  /**
+   * Removes the expiry of mapping {@code id}.
+   *
+   * @return 1 if the mapping had an expiry, 0 if it is gone or already permanent
+   */
+  int makePermanent(long id);
+
+  void deleteById(long id);
+
+  /**
+   * Returns the number of stored codes per code length.
+   */
+  Map<Integer, Long> countByCodeLength();
+}
@@ -0,0 +1,46 @@
+package com.example.urlshortener.store;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.repository.ShortUrlRepository;
+import com.example.urlshortener.store.log.LogCompactor;
+import com.example.urlshortener.store.log.LogShortUrlStore;
+import java.nio.file.Path;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the {@link ShortUrlStore} chosen by {@code app.storage.engine}: {@link JpaShortUrlStore}
+ * by default, or a {@link LogShortUrlStore} with its {@link LogCompactor} for {@code log}.
+ *
+ * <p>The log engine keeps all mappings in one local file, so it cannot be combined with
+ * {@code app.sharding} or {@code app.read-replicas}, which route database connections.</p>
+ */
+@Configuration(proxyBeanMethods = false)
+public class StorageConfiguration {
+
+  @Bean
+  @ConditionalOnProperty(prefix = "app.storage", name = "engine", havingValue = "jpa", matchIfMissing = true)
+  public JpaShortUrlStore jpaShortUrlStore(ShortUrlRepository shortUrlRepository) {
+    return new JpaShortUrlStore(shortUrlRepository);
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "app.storage", name = "engine", havingValue = "log")
+  public LogShortUrlStore logShortUrlStore(AppProperties appProperties) {
+    if (appProperties.getSharding().isEnabled() || appProperties.getReadReplicas().isEnabled()) {
+      throw new IllegalStateException(
+          "app.storage.engine=log cannot be combined with app.sharding or app.read-replicas");
+    }
+    AppProperties.Storage storage = appProperties.getStorage();
+    return new LogShortUrlStore(Path.of(storage.getLogPath()), storage.isSyncOnWrite());
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "app.storage", name = "engine", havingValue = "log")
+  public LogCompactor logCompactor(LogShortUrlStore logShortUrlStore, AppProperties appProperties) {
+    AppProperties.Storage storage = appProperties.getStorage();
+    return new LogCompactor(logShortUrlStore, storage.getCompactionInterval(),
+        storage.getCompactionGarbageRatio());
+  }
+}
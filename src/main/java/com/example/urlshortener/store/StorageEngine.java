@@ -0,0 +1,13 @@
+package com.example.urlshortener.store;
+
+/**
+ * Implementation of {@link ShortUrlStore} to use ({@code app.storage.engine}).
+ */
+public enum StorageEngine {
+
+  /** Spring Data JPA on {@code spring.datasource}, table {@code short_urls}. */
+  JPA,
+
+  /** An append-only log file with an in-memory index ({@code app.storage.log-path}). */
+  LOG
+}
@@ -0,0 +1,83 @@
+package com.example.urlshortener.store.log;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Background thread that checks every {@code app.storage.compaction-interval} how much of the
+ * mapping log is garbage, and compacts it once that share reaches
+ * {@code app.storage.compaction-garbage-ratio}.
+ */
+public class LogCompactor implements SmartLifecycle {
+
+  private static final Logger logger = LoggerFactory.getLogger(LogCompactor.class);
+
+  private final LogShortUrlStore store;
+  private final long intervalNanos;
+  private final double garbageRatio;
+
+  private volatile boolean running;
+  private Thread thread;
+
+  public LogCompactor(LogShortUrlStore store, Duration interval, double garbageRatio) {
+    this.store = store;
+    this.intervalNanos = interval.toNanos();
+    this.garbageRatio = garbageRatio;
+  }
+
+  @Override
+  public void start() {
+    if (running) {
+      return;
+    }
+    running = true;
+    thread = Thread.ofPlatform().name("log-compactor").daemon().start(this::run);
+  }
+
+  @Override
+  public void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    while (running) {
+      LockSupport.parkNanos(this, intervalNanos);
+      if (!running) {
+        return;
+      }
+      try {
+        compactIfNeeded();
+      } catch (RuntimeException ex) {
+        logger.warn("Mapping log compaction failed; retrying in the next interval", ex);
+      }
+    }
+  }
+
+  /**
+   * Compacts the log if its garbage ratio has reached the threshold.
+   *
+   * @return {@code true} if the log was compacted
+   */
+  public boolean compactIfNeeded() {
+    return store.garbageRatio(Instant.now()) >= garbageRatio && store.compact();
+  }
+}
@@ -0,0 +1,270 @@
+package com.example.urlshortener.store.log;
+
+import com.example.urlshortener.model.RedirectType;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of the mapping log written by {@link LogShortUrlStore}.
+ *
+ * <p>The file starts with a header of magic {@code "USLG"}, format version and the first id
+ * not yet handed out when the file was written ({@code i64}), followed by records (all
+ * big-endian):</p>
+ * <ul>
+ *   <li>{@code i32} body length and {@code i32} CRC-32C of the body</li>
+ *   <li>body: {@code u8} record type and its payload</li>
+ * </ul>
+ *
+ * <p>Payloads:</p>
+ * <ul>
+ *   <li>{@link #PUT}: {@code i64} id, {@code i64} URL fingerprint, {@code i64} creation and
+ *       expiry time in epoch microseconds (expiry {@code -1} for never), {@code u8} redirect type
+ *       ({@code 0} for the default, otherwise its ordinal plus one), {@code u8} short code
+ *       length and the code's ASCII bytes, {@code u16} URL length and the URL's UTF-8 bytes. The
+ *       URL comes last, so it ends where the record ends.</li>
+ *   <li>{@link #EXPIRY}: {@code i64} id and the new expiry</li>
+ *   <li>{@link #DELETE}: {@code i64} id</li>
+ * </ul>
+ *
+ * <p>A record whose length or checksum does not match was torn by a crash during the append;
+ * the log is valid up to the record before it.</p>
+ */
+final class LogFormat {
+
+  static final int MAGIC = 0x55534C47; // "USLG"
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 16;
+
+  static final byte PUT = 1;
+  static final byte EXPIRY = 2;
+  static final byte DELETE = 3;
+
+  static final int MAX_CODE_BYTES = 0xFF;
+  static final int MAX_URL_BYTES = 0xFFFF;
+
+  /** Length and checksum in front of every body. */
+  static final int RECORD_HEADER_BYTES = 8;
+
+  private static final long NEVER = -1L;
+  private static final int PUT_FIXED_BYTES = 1 + 8 + 8 + 8 + 8 + 1 + 1 + 2;
+  private static final int MAX_BODY_BYTES = PUT_FIXED_BYTES + MAX_CODE_BYTES + MAX_URL_BYTES;
+  private static final int READ_BUFFER_BYTES = 1 << 20;
+
+  private LogFormat() {
+  }
+
+  /**
+   * A record read back from the log. {@code shortCode}, {@code fingerprint}, {@code createdAt},
+   * {@code redirectType} and {@code urlLength} are only set for {@link #PUT}; {@code expiresAt}
+   * for {@link #PUT} and {@link #EXPIRY}.
+   */
+  record Record(byte type, long offset, int length, long id, long fingerprint, Instant createdAt,
+      Instant expiresAt, RedirectType redirectType, String shortCode, int urlLength) {
+  }
+
+  /** Receives the records of {@link #replay} in log order. */
+  @FunctionalInterface
+  interface RecordConsumer {
+    void accept(Record record) throws IOException;
+  }
+
+  static ByteBuffer header(long nextId) {
+    return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putLong(nextId).flip();
+  }
+
+  /** Writes a {@link #PUT} record to {@code out} and returns its length. */
+  static int put(ByteBuffer out, long id, long fingerprint, Instant createdAt, Instant expiresAt,
+      RedirectType redirectType, byte[] shortCode, byte[] url) {
+    int bodyLength = PUT_FIXED_BYTES + shortCode.length + url.length;
+    int start = out.position();
+    out.position(start + RECORD_HEADER_BYTES);
+    out.put(PUT)
+        .putLong(id)
+        .putLong(fingerprint)
+        .putLong(toMicros(createdAt))
+        .putLong(toMicros(expiresAt))
+        .put((byte) (redirectType == null ? 0 : redirectType.ordinal() + 1))
+        .put((byte) shortCode.length)
+        .put(shortCode)
+        .putShort((short) url.length)
+        .put(url);
+    return seal(out, start, bodyLength);
+  }
+
+  /** Writes an {@link #EXPIRY} record to {@code out} and returns its length. */
+  static int expiry(ByteBuffer out, long id, Instant expiresAt) {
+    int start = out.position();
+    out.position(start + RECORD_HEADER_BYTES);
+    out.put(EXPIRY).putLong(id).putLong(toMicros(expiresAt));
+    return seal(out, start, 1 + 8 + 8);
+  }
+
+  /** Writes a {@link #DELETE} record to {@code out} and returns its length. */
+  static int delete(ByteBuffer out, long id) {
+    int start = out.position();
+    out.position(start + RECORD_HEADER_BYTES);
+    out.put(DELETE).putLong(id);
+    return seal(out, start, 1 + 8);
+  }
+
+  static int putLength(int codeBytes, int urlBytes) {
+    return RECORD_HEADER_BYTES + PUT_FIXED_BYTES + codeBytes + urlBytes;
+  }
+
+  static int expiryLength() {
+    return RECORD_HEADER_BYTES + 1 + 8 + 8;
+  }
+
+  static int deleteLength() {
+    return RECORD_HEADER_BYTES + 1 + 8;
+  }
+
+  /** Instants are stored with microsecond precision, like {@code timestamp(6)} columns. */
+  static Instant truncate(Instant instant) {
+    return instant == null ? null : instant.truncatedTo(ChronoUnit.MICROS);
+  }
+
+  private static int seal(ByteBuffer out, int start, int bodyLength) {
+    CRC32C crc = new CRC32C();
+    crc.update(out.slice(start + RECORD_HEADER_BYTES, bodyLength));
+    out.putInt(start, bodyLength);
+    out.putInt(start + 4, (int) crc.getValue());
+    return RECORD_HEADER_BYTES + bodyLength;
+  }
+
+  /**
+   * Reads the header of the log in {@code channel}.
+   *
+   * @return the next id recorded in the header
+   * @throws IOException if the file is not a mapping log of this version
+   */
+  static long readHeader(FileChannel channel) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    int read = 0;
+    while (header.hasRemaining() && read >= 0) {
+      read = channel.read(header, header.position());
+    }
+    if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+      throw new IOException("Not a mapping log of version " + VERSION);
+    }
+    return header.getLong(8);
+  }
+
+  /**
+   * Passes every intact record after the header to {@code consumer}, stopping at the end of the
+   * file or at the first torn record.
+   *
+   * @return the offset just past the last intact record
+   */
+  static long replay(FileChannel channel, RecordConsumer consumer) throws IOException {
+    long size = channel.size();
+    ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES).limit(0);
+    long offset = HEADER_BYTES;
+    CRC32C crc = new CRC32C();
+    while (offset < size) {
+      int needed = RECORD_HEADER_BYTES;
+      if (buffer.remaining() < needed) {
+        refill(channel, buffer, offset);
+        if (buffer.remaining() < needed) {
+          return offset;
+        }
+      }
+      int bodyLength = buffer.getInt(buffer.position());
+      int checksum = buffer.getInt(buffer.position() + 4);
+      if (bodyLength < 1 || bodyLength > MAX_BODY_BYTES) {
+        return offset;
+      }
+      needed = RECORD_HEADER_BYTES + bodyLength;
+      if (buffer.remaining() < needed) {
+        refill(channel, buffer, offset);
+        if (buffer.remaining() < needed) {
+          return offset;
+        }
+      }
+      ByteBuffer body = buffer.slice(buffer.position() + RECORD_HEADER_BYTES, bodyLength);
+      crc.reset();
+      crc.update(body.duplicate());
+      if ((int) crc.getValue() != checksum) {
+        return offset;
+      }
+      Record record = decode(body, offset, needed);
+      if (record == null) {
+        return offset;
+      }
+      consumer.accept(record);
+      buffer.position(buffer.position() + needed);
+      offset += needed;
+    }
+    return offset;
+  }
+
+  /**
+   * Moves the unread bytes, which start at file offset {@code offset}, to the front of
+   * {@code buffer} and fills the rest from the file.
+   */
+  private static void refill(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+    buffer.compact();
+    long filled = offset + buffer.position();
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, filled);
+      if (read < 0) {
+        break;
+      }
+      filled += read;
+    }
+    buffer.flip();
+  }
+
+  /** Returns {@code null} for a body that does not match its type's layout. */
+  private static Record decode(ByteBuffer body, long offset, int length) {
+    try {
+      return decodeBody(body, offset, length);
+    } catch (BufferUnderflowException ex) {
+      return null;
+    }
+  }
+
+  private static Record decodeBody(ByteBuffer body, long offset, int length) {
+    byte type = body.get();
+    long id = body.getLong();
+    return switch (type) {
+      case PUT -> {
+        long fingerprint = body.getLong();
+        Instant createdAt = fromMicros(body.getLong());
+        Instant expiresAt = fromMicros(body.getLong());
+        int redirect = Byte.toUnsignedInt(body.get());
+        if (redirect > RedirectType.values().length) {
+          yield null;
+        }
+        int codeLength = Byte.toUnsignedInt(body.get());
+        byte[] code = new byte[codeLength];
+        body.get(code);
+        int urlLength = Short.toUnsignedInt(body.getShort());
+        if (body.remaining() != urlLength) {
+          yield null;
+        }
+        yield new Record(PUT, offset, length, id, fingerprint, createdAt, expiresAt,
+            redirect == 0 ? null : RedirectType.values()[redirect - 1], new String(code, StandardCharsets.US_ASCII), urlLength);
+      }
+      case EXPIRY -> body.remaining() != 8
+          ? null
+          : new Record(EXPIRY, offset, length, id, 0, null, fromMicros(body.getLong()), null, null, 0);
+      case DELETE -> body.hasRemaining() ? null : new Record(DELETE, offset, length, id, 0, null, null, null, null, 0);
+      default -> null;
+    };
+  }
+
+  private static long toMicros(Instant instant) {
+    return instant == null ? NEVER : ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+  }
+
+  private static Instant fromMicros(long micros) {
+    return micros == NEVER ? null : Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+  }
+}
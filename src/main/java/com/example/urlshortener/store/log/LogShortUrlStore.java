@@ -0,0 +1,649 @@
+package com.example.urlshortener.store.log;
+
+import com.example.urlshortener.model.RedirectType;
+import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.repository.LinkTarget;
+import com.example.urlshortener.store.ShortUrlStore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+/**
+ * {@link ShortUrlStore} that appends every change to a checksummed log file
+ * ({@link LogFormat}) and keeps an in-memory hash index over it
+ * ({@code app.storage.engine=log}).
+ *
+ * <p>The index maps each short code to the id, fingerprint, timestamps and file position of its
+ * mapping, plus fingerprint to code and id to code; only the URL stays on disk and is read with
+ * one positional read per lookup. Opening the store replays the log to rebuild the index. A log
+ * whose last record was torn by a crash is truncated after the last intact one.</p>
+ *
+ * <p>Writes are serialized by one lock and go to the end of the file; changes of expiry and
+ * deletions are appended as records of their own. {@link #compact} rewrites the live, unexpired
+ * mappings into a new file while writes continue, copies over what was appended in the
+ * meantime, and swaps the files; it doubles as the expiry sweeper, since expired mappings are
+ * not copied. {@link LogCompactor} runs it once enough of the file is garbage.</p>
+ *
+ * <p>Appends reach the operating system before the write returns; with {@code syncOnWrite}
+ * they are also forced to the device.</p>
+ */
+public class LogShortUrlStore implements ShortUrlStore, AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(LogShortUrlStore.class);
+
+  /**
+   * A mapping in the index. The URL is the last {@code urlLength} bytes of the {@link LogFormat#PUT}
+   * record at {@code offset}.
+   */
+  record Entry(long id, String shortCode, long fingerprint, Instant createdAt, Instant expiresAt,
+      RedirectType redirectType, long offset, int length, int urlLength) {
+
+    long urlOffset() {
+      return offset + length - urlLength;
+    }
+
+    boolean isExpired(Instant now) {
+      return expiresAt != null && !now.isBefore(expiresAt);
+    }
+
+    Entry withExpiresAt(Instant expiresAt) {
+      return new Entry(id, shortCode, fingerprint, createdAt, expiresAt, redirectType, offset, length, urlLength);
+    }
+
+    Entry at(long offset, int length) {
+      return new Entry(id, shortCode, fingerprint, createdAt, expiresAt, redirectType, offset, length, urlLength);
+    }
+  }
+
+  private final Path path;
+  private final boolean syncOnWrite;
+
+  private final ConcurrentHashMap<String, Entry> byCode = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, String> codeByFingerprint = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, String> codeById = new ConcurrentHashMap<>();
+
+  /** Serializes appends and index changes. */
+  private final ReentrantLock appendLock = new ReentrantLock();
+  /** Readers hold it shared while they use file offsets; the compaction swap holds it exclusively. */
+  private final ReentrantReadWriteLock fileLock = new ReentrantReadWriteLock();
+  private final ReentrantLock compactionLock = new ReentrantLock();
+
+  private FileChannel channel; // replaced by compact() under both locks
+  private long end; // guarded by appendLock
+  private final AtomicLong nextId = new AtomicLong(1);
+  private final AtomicLong garbageBytes = new AtomicLong();
+  private final AtomicLong compactions = new AtomicLong();
+
+  /**
+   * Opens the log at {@code path}, creating it if it does not exist, and replays it.
+   *
+   * @throws UncheckedIOException if the file cannot be opened or is not a mapping log
+   */
+  public LogShortUrlStore(Path path, boolean syncOnWrite) {
+    this.path = path;
+    this.syncOnWrite = syncOnWrite;
+    try {
+      Path parent = path.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      // Left behind by a compaction that did not finish; the log itself is intact
+      Files.deleteIfExists(compactionPath());
+      channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      if (channel.size() == 0) {
+        writeFully(channel, LogFormat.header(1), 0);
+        channel.force(true);
+      }
+      replay();
+    } catch (IOException ex) {
+      closeQuietly(channel);
+      throw new UncheckedIOException("Cannot open mapping log " + path, ex);
+    }
+  }
+
+  private void replay() throws IOException {
+    long start = System.nanoTime();
+    long headerNextId = LogFormat.readHeader(channel);
+    long size = channel.size();
+    long[] maxId = {0};
+    long intact = LogFormat.replay(channel, record -> {
+      maxId[0] = Math.max(maxId[0], record.id());
+      switch (record.type()) {
+        case LogFormat.PUT -> {
+          Entry entry = new Entry(record.id(), record.shortCode(), record.fingerprint(),
+              record.createdAt(), record.expiresAt(), record.redirectType(), record.offset(), record.length(),
+              record.urlLength());
+          Entry replaced = byCode.get(entry.shortCode());
+          if (replaced != null) {
+            unindex(replaced);
+            garbageBytes.addAndGet(replaced.length());
+          }
+          index(entry);
+        }
+        case LogFormat.EXPIRY -> {
+          String code = codeById.get(record.id());
+          if (code != null) {
+            byCode.computeIfPresent(code, (key, entry) -> entry.withExpiresAt(record.expiresAt()));
+          }
+          garbageBytes.addAndGet(record.length());
+        }
+        case LogFormat.DELETE -> {
+          String code = codeById.get(record.id());
+          if (code != null) {
+            garbageBytes.addAndGet(unindex(byCode.get(code)).length());
+          }
+          garbageBytes.addAndGet(record.length());
+        }
+        default -> throw new IllegalStateException("Unknown record type " + record.type());
+      }
+    });
+    if (intact < size) {
+      logger.warn("Mapping log {} has a torn record at offset {}; discarding the last {} bytes",
+          path, intact, size - intact);
+      channel.truncate(intact);
+      channel.force(true);
+    }
+    end = intact;
+    nextId.set(Math.max(headerNextId, maxId[0] + 1));
+    logger.info("Replayed mapping log {}: {} mappings, {} bytes in {} ms", path, byCode.size(), end,
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  @Override
+  public ShortUrl insert(ShortUrl mapping) {
+    return insertAll(List.of(mapping)).get(0);
+  }
+
+  @Override
+  public List<ShortUrl> insertAll(List<ShortUrl> mappings) {
+    if (mappings.isEmpty()) {
+      return mappings;
+    }
+    byte[][] codes = new byte[mappings.size()][];
+    byte[][] urls = new byte[mappings.size()][];
+    int bytes = 0;
+    for (int i = 0; i < mappings.size(); i++) {
+      ShortUrl mapping = mappings.get(i);
+      if (mapping.getOriginalUrlHash() == null) {
+        throw new IllegalArgumentException("Mapping has no URL fingerprint: " + mapping.getShortCode());
+      }
+      if (mapping.getOriginalUrl().length() > ShortUrl.MAX_URL_LENGTH) {
+        throw new DataIntegrityViolationException("original_url is longer than " + ShortUrl.MAX_URL_LENGTH);
+      }
+      codes[i] = mapping.getShortCode().getBytes(StandardCharsets.US_ASCII);
+      urls[i] = mapping.getOriginalUrl().getBytes(StandardCharsets.UTF_8);
+      if (codes[i].length > LogFormat.MAX_CODE_BYTES || urls[i].length > LogFormat.MAX_URL_BYTES) {
+        throw new DataIntegrityViolationException("Mapping too long for the log: " + mapping.getShortCode());
+      }
+      bytes += LogFormat.putLength(codes[i].length, urls[i].length);
+    }
+
+    Instant now = LogFormat.truncate(Instant.now());
+    appendLock.lock();
+    try {
+      Set<String> batchCodes = new HashSet<>();
+      Set<Long> batchFingerprints = new HashSet<>();
+      for (ShortUrl mapping : mappings) {
+        if (codeByFingerprint.containsKey(mapping.getOriginalUrlHash())
+            || !batchFingerprints.add(mapping.getOriginalUrlHash())) {
+          throw new DuplicateKeyException("Duplicate original_url_hash " + mapping.getOriginalUrlHash());
+        }
+        if (byCode.containsKey(mapping.getShortCode()) || !batchCodes.add(mapping.getShortCode())) {
+          throw new DuplicateKeyException("Duplicate short_code " + mapping.getShortCode());
+        }
+      }
+
+      ByteBuffer buffer = ByteBuffer.allocate(bytes);
+      List<Entry> entries = new ArrayList<>(mappings.size());
+      long offset = end;
+      for (int i = 0; i < mappings.size(); i++) {
+        ShortUrl mapping = mappings.get(i);
+        long id = nextId.getAndIncrement();
+        Instant createdAt = mapping.getCreatedAt() == null ? now : LogFormat.truncate(mapping.getCreatedAt());
+        Instant expiresAt = LogFormat.truncate(mapping.getExpiresAt());
+        int length = LogFormat.put(buffer, id, mapping.getOriginalUrlHash(), createdAt, expiresAt,
+            mapping.getRedirectType(), codes[i], urls[i]);
+        entries.add(new Entry(id, mapping.getShortCode(), mapping.getOriginalUrlHash(), createdAt,
+            expiresAt, mapping.getRedirectType(), offset, length, urls[i].length));
+        offset += length;
+      }
+      append(buffer.flip());
+      for (int i = 0; i < mappings.size(); i++) {
+        Entry entry = entries.get(i);
+        index(entry);
+        ShortUrl mapping = mappings.get(i);
+        mapping.setId(entry.id());
+        mapping.setCreatedAt(entry.createdAt());
+        mapping.setExpiresAt(entry.expiresAt());
+      }
+      return mappings;
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<ShortUrl> findByShortCode(String shortCode) {
+    fileLock.readLock().lock();
+    try {
+      Entry entry = byCode.get(shortCode);
+      return entry == null ? Optional.empty() : Optional.of(toShortUrl(entry, readUrl(entry)));
+    } finally {
+      fileLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Optional<ShortUrl> findByOriginalUrlHash(long originalUrlHash) {
+    String code = codeByFingerprint.get(originalUrlHash);
+    return code == null ? Optional.empty() : findByShortCode(code);
+  }
+
+  @Override
+  public List<ShortUrl> findAllByOriginalUrlHashIn(Collection<Long> originalUrlHashes) {
+    List<ShortUrl> found = new ArrayList<>();
+    for (Long fingerprint : originalUrlHashes) {
+      findByOriginalUrlHash(fingerprint).ifPresent(found::add);
+    }
+    return found;
+  }
+
+  @Override
+  public Optional<LinkTarget> findLinkTargetByShortCode(String shortCode) {
+    fileLock.readLock().lock();
+    try {
+      Entry entry = byCode.get(shortCode);
+      return entry == null ? Optional.empty() : Optional.of(
+          new LinkTarget(readUrl(entry), entry.expiresAt(), entry.createdAt(), entry.redirectType()));
+    } finally {
+      fileLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<String> findTakenShortCodes(Collection<String> shortCodes) {
+    List<String> taken = new ArrayList<>();
+    for (String code : shortCodes) {
+      if (byCode.containsKey(code)) {
+        taken.add(code);
+      }
+    }
+    return taken;
+  }
+
+  @Override
+  public int extendExpiry(long id, Instant expiresAt) {
+    Instant truncated = LogFormat.truncate(expiresAt);
+    return changeExpiry(id, current -> current != null && current.isBefore(truncated), truncated);
+  }
+
+  @Override
+  public int makePermanent(long id) {
+    return changeExpiry(id, current -> current != null, null);
+  }
+
+  private int changeExpiry(long id, Predicate<Instant> applies, Instant expiresAt) {
+    appendLock.lock();
+    try {
+      String code = codeById.get(id);
+      Entry entry = code == null ? null : byCode.get(code);
+      if (entry == null || !applies.test(entry.expiresAt())) {
+        return 0;
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(LogFormat.expiryLength());
+      int length = LogFormat.expiry(buffer, id, expiresAt);
+      append(buffer.flip());
+      // Folded into the mapping's PUT record by the next compaction
+      garbageBytes.addAndGet(length);
+      byCode.put(code, entry.withExpiresAt(expiresAt));
+      return 1;
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  @Override
+  public void deleteById(long id) {
+    appendLock.lock();
+    try {
+      String code = codeById.get(id);
+      if (code == null) {
+        return;
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(LogFormat.deleteLength());
+      int length = LogFormat.delete(buffer, id);
+      append(buffer.flip());
+      garbageBytes.addAndGet(length + unindex(byCode.get(code)).length());
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  @Override
+  public Map<Integer, Long> countByCodeLength() {
+    Map<Integer, Long> counts = new TreeMap<>();
+    for (String code : byCode.keySet()) {
+      counts.merge(code.length(), 1L, Long::sum);
+    }
+    return counts;
+  }
+
+  /**
+   * Passes every mapping to {@code consumer} in id order. Mappings deleted while this runs are
+   * skipped; mappings created while it runs are not included.
+   */
+  public long forEachInIdOrder(Consumer<ShortUrl> consumer) {
+    List<Entry> entries = new ArrayList<>(byCode.values());
+    entries.sort(Comparator.comparingLong(Entry::id));
+    long visited = 0;
+    for (Entry snapshot : entries) {
+      ShortUrl mapping;
+      fileLock.readLock().lock();
+      try {
+        Entry entry = byCode.get(snapshot.shortCode());
+        if (entry == null || entry.id() != snapshot.id()) {
+          continue;
+        }
+        mapping = toShortUrl(entry, readUrl(entry));
+      } finally {
+        fileLock.readLock().unlock();
+      }
+      consumer.accept(mapping);
+      visited++;
+    }
+    return visited;
+  }
+
+  public long mappingCount() {
+    return byCode.size();
+  }
+
+  public long sizeBytes() {
+    appendLock.lock();
+    try {
+      return end;
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  public long compactionCount() {
+    return compactions.get();
+  }
+
+  /**
+   * Share of the log that the next compaction would reclaim: superseded records, and the
+   * records of mappings expired at {@code now}.
+   */
+  public double garbageRatio(Instant now) {
+    long size = sizeBytes() - LogFormat.HEADER_BYTES;
+    if (size <= 0) {
+      return 0;
+    }
+    long garbage = garbageBytes.get();
+    for (Entry entry : byCode.values()) {
+      if (entry.isExpired(now)) {
+        garbage += entry.length();
+      }
+    }
+    return Math.min(1.0, (double) garbage / size);
+  }
+
+  /**
+   * Rewrites the log without superseded records and expired mappings. Writes and reads continue
+   * while the live mappings are copied; both wait only for the final swap, which copies what
+   * was appended during the rewrite.
+   *
+   * @return {@code false} if a compaction was already running
+   */
+  public boolean compact() {
+    if (!compactionLock.tryLock()) {
+      return false;
+    }
+    try {
+      doCompact();
+      return true;
+    } catch (IOException ex) {
+      throw new DataAccessResourceFailureException("Compaction of mapping log " + path + " failed", ex);
+    } finally {
+      compactionLock.unlock();
+    }
+  }
+
+  private void doCompact() throws IOException {
+    long start = System.nanoTime();
+    Instant now = Instant.now();
+    long snapshotEnd;
+    long snapshotGarbage;
+    List<Entry> live;
+    appendLock.lock();
+    try {
+      snapshotEnd = end;
+      snapshotGarbage = garbageBytes.get();
+      live = new ArrayList<>(byCode.values());
+    } finally {
+      appendLock.unlock();
+    }
+    live.sort(Comparator.comparingLong(Entry::id));
+
+    // Offsets below snapshotEnd do not move until the swap, which only this thread performs
+    Path target = compactionPath();
+    // Where each rewritten record went; a record can grow when it is rewritten from an older version
+    Map<Long, Entry> rewritten = new HashMap<>(live.size() * 2);
+    int dropped = 0;
+    try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+      long position = LogFormat.HEADER_BYTES;
+      out.position(position);
+      for (Entry entry : live) {
+        if (entry.isExpired(now)) {
+          dropped++;
+          continue;
+        }
+        byte[] code = entry.shortCode().getBytes(StandardCharsets.US_ASCII);
+        byte[] url = readUrlBytes(entry);
+        if (buffer.remaining() < LogFormat.putLength(code.length, url.length)) {
+          position += drain(out, buffer);
+        }
+        long offset = position + buffer.position();
+        int length = LogFormat.put(buffer, entry.id(), entry.fingerprint(), entry.createdAt(), entry.expiresAt(),
+            entry.redirectType(), code, url);
+        rewritten.put(entry.id(), entry.at(offset, length));
+      }
+      position += drain(out, buffer);
+
+      appendLock.lock();
+      fileLock.writeLock().lock();
+      try {
+        // Records appended since the snapshot keep their order behind the rewritten ones
+        long tailStart = position;
+        long tailLength = end - snapshotEnd;
+        for (long copied = 0; copied < tailLength; ) {
+          copied += channel.transferTo(snapshotEnd + copied, tailLength - copied, out);
+        }
+        position += tailLength;
+
+        List<Entry> relocated = new ArrayList<>(byCode.size());
+        List<Entry> expired = new ArrayList<>();
+        for (Entry entry : byCode.values()) {
+          Entry placed = rewritten.get(entry.id());
+          if (entry.offset() >= snapshotEnd) {
+            relocated.add(entry.at(entry.offset() - snapshotEnd + tailStart, entry.length()));
+          } else if (placed != null) {
+            relocated.add(entry.at(placed.offset(), placed.length()));
+          } else if (entry.isExpired(now)) {
+            expired.add(entry);
+          } else {
+            // Dropped as expired, then given a later expiry during the rewrite
+            byte[] code = entry.shortCode().getBytes(StandardCharsets.US_ASCII);
+            byte[] url = readUrlBytes(entry);
+            int length = LogFormat.put(buffer, entry.id(), entry.fingerprint(), entry.createdAt(),
+                entry.expiresAt(), entry.redirectType(), code, url);
+            relocated.add(entry.at(position, length));
+            position += drain(out, buffer);
+          }
+        }
+        writeFully(out, LogFormat.header(nextId.get()), 0);
+        out.force(true);
+        out.close();
+
+        Files.move(target, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        FileChannel compacted = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        closeQuietly(channel);
+        channel = compacted;
+        long before = end;
+        end = position;
+        expired.forEach(this::unindex);
+        relocated.forEach(entry -> byCode.put(entry.shortCode(), entry));
+        garbageBytes.addAndGet(-snapshotGarbage);
+        compactions.incrementAndGet();
+        logger.info("Compacted mapping log {} from {} to {} bytes ({} mappings, {} expired dropped) in {} ms",
+            path, before, end, byCode.size(), dropped, (System.nanoTime() - start) / 1_000_000);
+      } finally {
+        fileLock.writeLock().unlock();
+        appendLock.unlock();
+      }
+    } finally {
+      Files.deleteIfExists(target);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    appendLock.lock();
+    fileLock.writeLock().lock();
+    try {
+      if (channel.isOpen()) {
+        channel.force(true);
+        channel.close();
+      }
+    } finally {
+      fileLock.writeLock().unlock();
+      appendLock.unlock();
+    }
+  }
+
+  private void index(Entry entry) {
+    byCode.put(entry.shortCode(), entry);
+    codeByFingerprint.put(entry.fingerprint(), entry.shortCode());
+    codeById.put(entry.id(), entry.shortCode());
+  }
+
+  private Entry unindex(Entry entry) {
+    byCode.remove(entry.shortCode(), entry);
+    codeByFingerprint.remove(entry.fingerprint(), entry.shortCode());
+    codeById.remove(entry.id(), entry.shortCode());
+    return entry;
+  }
+
+  /** Appends {@code records} at the end of the log. Caller holds {@link #appendLock}. */
+  private void append(ByteBuffer records) {
+    long start = end;
+    try {
+      end += writeFully(channel, records, start);
+      if (syncOnWrite) {
+        channel.force(false);
+      }
+    } catch (IOException ex) {
+      // Cut off a partial write so that the next append does not land behind a torn record
+      try {
+        channel.truncate(start);
+      } catch (IOException suppressed) {
+        ex.addSuppressed(suppressed);
+      }
+      end = start;
+      throw new DataAccessResourceFailureException("Cannot append to mapping log " + path, ex);
+    }
+  }
+
+  /** Caller holds {@link #fileLock} or {@link #compactionLock}. */
+  private String readUrl(Entry entry) {
+    return new String(readUrlBytes(entry), StandardCharsets.UTF_8);
+  }
+
+  private byte[] readUrlBytes(Entry entry) {
+    ByteBuffer url = ByteBuffer.allocate(entry.urlLength());
+    long position = entry.urlOffset();
+    try {
+      while (url.hasRemaining()) {
+        int read = channel.read(url, position + url.position());
+        if (read < 0) {
+          throw new IOException("Mapping log ends inside the record at offset " + entry.offset());
+        }
+      }
+    } catch (IOException ex) {
+      throw new DataAccessResourceFailureException("Cannot read mapping log " + path, ex);
+    }
+    return url.array();
+  }
+
+  private static ShortUrl toShortUrl(Entry entry, String originalUrl) {
+    ShortUrl mapping = new ShortUrl(entry.id(), originalUrl, entry.shortCode(), entry.createdAt());
+    mapping.setOriginalUrlHash(entry.fingerprint());
+    mapping.setExpiresAt(entry.expiresAt());
+    mapping.setRedirectType(entry.redirectType());
+    return mapping;
+  }
+
+  private Path compactionPath() {
+    return path.resolveSibling(path.getFileName() + ".compact");
+  }
+
+  /** Writes what {@code buffer} holds to the end of {@code out} and clears it. */
+  private static long drain(FileChannel out, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    long written = 0;
+    while (buffer.hasRemaining()) {
+      written += out.write(buffer);
+    }
+    buffer.clear();
+    return written;
+  }
+
+  private static long writeFully(FileChannel out, ByteBuffer buffer, long position) throws IOException {
+    long written = 0;
+    while (buffer.hasRemaining()) {
+      written += out.write(buffer, position + written);
+    }
+    return written;
+  }
+
+  private static void closeQuietly(FileChannel channel) {
+    if (channel == null) {
+      return;
+    }
+    try {
+      channel.close();
+    } catch (IOException ex) {
+      logger.warn("Cannot close mapping log channel", ex);
+    }
+  }
+}
@@ -13,6 +13,9 @@ public final class Base62Encoder {
 
   private static final BigInteger SIXTY_TWO = BigInteger.valueOf(62);
 
+  /** Longest fixed-width code whose keyspace ({@code 62^10}) still fits in a {@code long}. */
+  public static final int MAX_FIXED_LENGTH = 10;
+
   private Base62Encoder() {
   }
 
@@ -31,9 +34,28 @@ public final class Base62Encoder {
    * @throws IllegalArgumentException if {@code value} is negative
    */
   public static String encode(long value) {
+    return encode(value, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Encode a non-negative {@code long} value to Base62 and keep at most the first
+   * {@code maxLength} (most significant) characters.
+   *
+   * <p>Equivalent to {@code encode(value).substring(0, maxLength)} when the encoding is
+   * longer than {@code maxLength}, but builds only the final string.</p>
+   *
+   * @param value     non-negative value to encode
+   * @param maxLength maximum number of characters to return (must be positive)
+   * @return Base62 string representation, truncated to {@code maxLength} characters
+   * @throws IllegalArgumentException if {@code value} is negative or {@code maxLength} is not positive
+   */
+  public static String encode(long value, int maxLength) {
     if (value < 0) {
       throw new IllegalArgumentException("value must be non-negative");
     }
+    if (maxLength <= 0) {
+      throw new IllegalArgumentException("maxLength must be positive");
+    }
     if (value == 0) {
       return "0";
     }
@@ -46,7 +68,52 @@ public final class Base62Encoder {
       current = current / 62;
       buffer[--index] = ALPHABET[remainder];
     }
-    return new String(buffer, index, buffer.length - index);
+    return new String(buffer, index, Math.min(buffer.length - index, maxLength));
+  }
+
+  /**
+   * Encode the lowest {@code length} Base62 digits of a non-negative {@code long}, left-padded
+   * with {@code '0'} to exactly {@code length} characters.
+   *
+   * <p>This is {@code value mod 62^length} in fixed-width form, so uniformly distributed input
+   * values give uniformly distributed codes over the whole {@code 62^length} keyspace, unlike
+   * {@link #encode(long, int)}, which keeps the (skewed) most significant digits.</p>
+   *
+   * @param value  non-negative value to encode
+   * @param length number of characters to return, from 1 to {@link #MAX_FIXED_LENGTH}
+   * @return Base62 string of exactly {@code length} characters
+   * @throws IllegalArgumentException if {@code value} is negative or {@code length} is out of range
+   */
+  public static String encodeFixed(long value, int length) {
+    if (value < 0) {
+      throw new IllegalArgumentException("value must be non-negative");
+    }
+    if (length <= 0 || length > MAX_FIXED_LENGTH) {
+      throw new IllegalArgumentException("length must be between 1 and " + MAX_FIXED_LENGTH);
+    }
+    char[] buffer = new char[length];
+    long current = value;
+    for (int index = length - 1; index >= 0; index--) {
+      buffer[index] = ALPHABET[(int) (current % 62)];
+      current = current / 62;
+    }
+    return new String(buffer);
+  }
+
+  /**
+   * Number of distinct codes of the given length, i.e. {@code 62^length}.
+   *
+   * @param length code length, from 1 to {@link #MAX_FIXED_LENGTH}
+   */
+  public static long keyspaceSize(int length) {
+    if (length <= 0 || length > MAX_FIXED_LENGTH) {
+      throw new IllegalArgumentException("length must be between 1 and " + MAX_FIXED_LENGTH);
+    }
+    long size = 1;
+    for (int i = 0; i < length; i++) {
+      size *= 62;
+    }
+    return size;
   }
 
   /**
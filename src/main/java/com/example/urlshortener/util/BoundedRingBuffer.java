@@ -0,0 +1,123 @@
+package com.example.urlshortener.util;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer/multi-consumer queue backed by a ring of slots.
+ *
+ * <p>Each slot carries a sequence number that tells producers and consumers whose turn it is
+ * (D. Vyukov's bounded MPMC queue), so {@link #offer} and {@link #poll} only need one CAS on
+ * the shared tail or head position and never block. {@link #offer} fails immediately when the
+ * ring is full; what to do then is up to the caller.</p>
+ *
+ * <p>The capacity is rounded up to the next power of two, and is at least two: with a single
+ * slot the sequence numbers of a full and an empty ring would be indistinguishable.</p>
+ *
+ * @param <E> element type
+ */
+public final class BoundedRingBuffer<E> {
+
+  private final int mask;
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail = new AtomicLong(); // next position to publish
+  private final AtomicLong head = new AtomicLong(); // next position to consume
+
+  public BoundedRingBuffer(int capacity) {
+    if (capacity <= 0 || capacity > (1 << 30)) {
+      throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+    }
+    int size = Math.max(2, Integer.highestOneBit(capacity));
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.mask = size - 1;
+    this.elements = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Appends {@code element} if there is room.
+   *
+   * @return {@code false} if the ring is full
+   */
+  public boolean offer(E element) {
+    if (element == null) {
+      throw new NullPointerException("element");
+    }
+    long position = tail.get();
+    while (true) {
+      int index = (int) (position & mask);
+      long distance = sequences.get(index) - position;
+      if (distance == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          elements.lazySet(index, element);
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (distance < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Removes and returns the oldest element, or {@code null} if the ring is empty.
+   */
+  public E poll() {
+    long position = head.get();
+    while (true) {
+      int index = (int) (position & mask);
+      long distance = sequences.get(index) - (position + 1);
+      if (distance == 0) {
+        if (head.compareAndSet(position, position + 1)) {
+          E element = elements.get(index);
+          elements.lazySet(index, null);
+          sequences.set(index, position + mask + 1);
+          return element;
+        }
+        position = head.get();
+      } else if (distance < 0) {
+        return null;
+      } else {
+        position = head.get();
+      }
+    }
+  }
+
+  /**
+   * Moves up to {@code maxElements} elements into {@code target}.
+   *
+   * @return the number of elements moved
+   */
+  public int drainTo(Collection<? super E> target, int maxElements) {
+    int drained = 0;
+    E element;
+    while (drained < maxElements && (element = poll()) != null) {
+      target.add(element);
+      drained++;
+    }
+    return drained;
+  }
+
+  /**
+   * Approximate number of elements currently queued.
+   */
+  public int size() {
+    long size = tail.get() - head.get();
+    return (int) Math.max(0, Math.min(size, capacity()));
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+}
@@ -0,0 +1,81 @@
+package com.example.urlshortener.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 CSV support for the export and import of mappings.
+ *
+ * <p>Fields that contain a comma, a double quote or a line break are written in double quotes,
+ * with inner quotes doubled. Parsing works on single lines, so quoted fields must not span line
+ * breaks; URLs never contain one.</p>
+ */
+public final class CsvUtils {
+
+  private CsvUtils() {
+  }
+
+  /**
+   * Writes {@code value} as one CSV field, quoting it if needed.
+   */
+  public static void writeField(Writer writer, String value) throws IOException {
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+    }
+    if (!quote) {
+      writer.write(value);
+      return;
+    }
+    writer.write('"');
+    writer.write(value.replace("\"", "\"\""));
+    writer.write('"');
+  }
+
+  /**
+   * Splits one CSV line into its fields.
+   *
+   * @throws IllegalArgumentException if a quoted field is not closed, or is followed by
+   *     anything but a comma
+   */
+  public static List<String> parseLine(String line) {
+    List<String> fields = new ArrayList<>();
+    int i = 0;
+    int length = line.length();
+    while (true) {
+      if (i < length && line.charAt(i) == '"') {
+        StringBuilder field = new StringBuilder();
+        i++;
+        while (true) {
+          if (i >= length) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+          }
+          char c = line.charAt(i++);
+          if (c != '"') {
+            field.append(c);
+          } else if (i < length && line.charAt(i) == '"') {
+            field.append('"');
+            i++;
+          } else {
+            break;
+          }
+        }
+        fields.add(field.toString());
+        if (i < length && line.charAt(i) != ',') {
+          throw new IllegalArgumentException("Unexpected character after quoted field at column " + (i + 1));
+        }
+      } else {
+        int end = line.indexOf(',', i);
+        fields.add(line.substring(i, end < 0 ? length : end));
+        i = end < 0 ? length : end;
+      }
+      if (i >= length) {
+        return fields;
+      }
+      i++; // skip the comma
+    }
+  }
+}
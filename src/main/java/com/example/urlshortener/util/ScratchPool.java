@@ -0,0 +1,67 @@
+package com.example.urlshortener.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Reusable per-thread scratch objects (buffers, digests) that also work well on virtual threads.
+ *
+ * <p>Platform threads keep their instance in a {@link ThreadLocal}. Virtual threads are usually
+ * created per request, so a {@code ThreadLocal} would build a fresh instance for every request
+ * and never reuse it; they borrow an instance from a small lock-free pool instead and return it
+ * with {@link #release}. When the pool is empty a new instance is created, and when it is full a
+ * released instance is dropped, so callers never block.</p>
+ *
+ * <p>An acquired instance must not be used re-entrantly by the same thread.</p>
+ *
+ * @param <T> scratch object type
+ */
+public final class ScratchPool<T> {
+
+  private final Supplier<T> factory;
+  private final ThreadLocal<T> threadLocal;
+  private final AtomicReferenceArray<T> pool;
+
+  public ScratchPool(Supplier<T> factory, int poolSize) {
+    this.factory = factory;
+    this.threadLocal = ThreadLocal.withInitial(factory);
+    this.pool = new AtomicReferenceArray<>(Math.max(1, poolSize));
+  }
+
+  /**
+   * Returns a scratch instance owned by the caller until {@link #release} is called.
+   */
+  public T acquire() {
+    Thread thread = Thread.currentThread();
+    if (!thread.isVirtual()) {
+      return threadLocal.get();
+    }
+    int size = pool.length();
+    int start = (int) (thread.threadId() % size);
+    for (int i = 0; i < size; i++) {
+      int slot = (start + i) % size;
+      T value = pool.get(slot);
+      if (value != null && pool.compareAndSet(slot, value, null)) {
+        return value;
+      }
+    }
+    return factory.get();
+  }
+
+  /**
+   * Hands back an instance obtained from {@link #acquire}.
+   */
+  public void release(T value) {
+    Thread thread = Thread.currentThread();
+    if (!thread.isVirtual()) {
+      return;
+    }
+    int size = pool.length();
+    int start = (int) (thread.threadId() % size);
+    for (int i = 0; i < size; i++) {
+      if (pool.compareAndSet((start + i) % size, null, value)) {
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.example.urlshortener.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one execution.
+ *
+ * <p>The first caller for a key (the leader) runs the supplied work; callers that arrive while it
+ * is still running wait for and share its result, or its exception. Nothing is remembered after
+ * the leader finishes, so this is not a cache: the next call for the key runs the work again.</p>
+ *
+ * <p>The work must not call back into the same {@code SingleFlight} with the same key.</p>
+ *
+ * @param <K> key type
+ * @param <V> result type; {@code null} results are allowed
+ */
+public final class SingleFlight<K, V> {
+
+  private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder executed = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  /**
+   * Runs {@code work} for {@code key}, or waits for the call already running for it.
+   *
+   * @throws RuntimeException the exception thrown by the leader's work
+   */
+  public V execute(K key, Supplier<V> work) {
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+    if (running != null) {
+      coalesced.increment();
+      return await(running);
+    }
+
+    executed.increment();
+    try {
+      V value = work.get();
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException | Error ex) {
+      flight.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlight.remove(key, flight);
+    }
+  }
+
+  /** Number of calls that ran their work. */
+  public long executedCount() {
+    return executed.sum();
+  }
+
+  /** Number of calls that shared the result of a call already in flight. */
+  public long coalescedCount() {
+    return coalesced.sum();
+  }
+
+  /** Number of keys with a call currently running. */
+  public int inFlightCount() {
+    return inFlight.size();
+  }
+
+  private static <V> V await(CompletableFuture<V> flight) {
+    try {
+      return flight.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (ex.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw ex;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.urlshortener.util;
+
+/**
+ * Fixed-width 64-bit fingerprint of a normalized URL, stored in {@code short_urls.original_url_hash}.
+ *
+ * <p>The fingerprint is XXH64 of the UTF-8 bytes of the URL, seeded with a probe number. Probe 0
+ * is the fingerprint of almost every URL; should two different URLs ever share a fingerprint, the
+ * second one is stored under probe 1, and so on, so that the fingerprint column can stay unique.
+ * Lookups therefore walk the probes in order and compare the stored URL string.</p>
+ */
+public final class UrlFingerprint {
+
+  /** Number of probes tried before giving up; collisions beyond probe 0 are already rare. */
+  public static final int MAX_PROBES = 8;
+
+  private static final ScratchPool<Utf8Buffer> UTF8_BUFFERS = new ScratchPool<>(Utf8Buffer::new, 64);
+
+  private UrlFingerprint() {
+  }
+
+  /**
+   * Returns the fingerprint of {@code normalizedUrl} for the given probe.
+   *
+   * @param normalizedUrl a normalized URL (see {@link UrlUtils#normalizeUrl})
+   * @param probe         0 for the primary fingerprint, higher values after collisions
+   */
+  public static long of(String normalizedUrl, int probe) {
+    if (probe < 0 || probe >= MAX_PROBES) {
+      throw new IllegalArgumentException("probe must be between 0 and " + (MAX_PROBES - 1));
+    }
+    Utf8Buffer buffer = UTF8_BUFFERS.acquire();
+    try {
+      int length = buffer.encode(normalizedUrl);
+      return XxHash64.hash(buffer.array(), 0, length, probe);
+    } finally {
+      UTF8_BUFFERS.release(buffer);
+    }
+  }
+}
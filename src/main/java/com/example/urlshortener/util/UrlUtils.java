@@ -2,6 +2,7 @@ package com.example.urlshortener.util;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 
 /**
@@ -13,6 +14,13 @@ import java.util.Locale;
  * normalized string form with lower-cased scheme and host.
  * </p>
  *
+ * <p>The canonical form is the one produced by parsing the input with {@link URI}, rebuilding it
+ * from its decoded components and calling {@link URI#normalize()}. Instead of doing that, the
+ * input is scanned once with the same RFC 2396 character classes {@link URI} uses, and the
+ * output is written during the same pass. URLs with an IPv6 literal host ({@code [...]}) are
+ * rare enough that they are still delegated to {@link URI}. Rejected input is parsed with
+ * {@link URI} once more to report the same error message as before.</p>
+ *
  * <p><b>Exceptions:</b></p>
  * <ul>
  *   <li>Throws {@link IllegalArgumentException} when the provided URL is null, empty,
@@ -21,6 +29,27 @@ import java.util.Locale;
  */
 public final class UrlUtils {
 
+  // Character classes from RFC 2396, as used by java.net.URI. Characters below 64 are
+  // represented in the low mask, characters 64..127 in the high mask.
+  private static final long L_DIGIT = lowMask('0', '9');
+  private static final long H_ALPHA = highMask('A', 'Z') | highMask('a', 'z');
+  private static final long L_ALPHANUM = L_DIGIT;
+  private static final long H_ALPHANUM = H_ALPHA;
+  private static final long L_MARK = lowMask("-_.!~*'()");
+  private static final long H_MARK = highMask("-_.!~*'()");
+  private static final long L_UNRESERVED = L_ALPHANUM | L_MARK;
+  private static final long H_UNRESERVED = H_ALPHANUM | H_MARK;
+  private static final long L_RESERVED = lowMask(";/?:@&=+$,[]");
+  private static final long H_RESERVED = highMask(";/?:@&=+$,[]");
+  private static final long L_USERINFO = L_UNRESERVED | lowMask(";:&=+$,");
+  private static final long H_USERINFO = H_UNRESERVED | highMask(";:&=+$,");
+  private static final long L_PATH = L_UNRESERVED | lowMask(":@&=+$,;/");
+  private static final long H_PATH = H_UNRESERVED | highMask(":@&=+$,;/");
+  private static final long L_URIC = L_RESERVED | L_UNRESERVED;
+  private static final long H_URIC = H_RESERVED | H_UNRESERVED;
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
   private UrlUtils() {
   }
 
@@ -30,11 +59,14 @@ public final class UrlUtils {
    * <p>Behavior:</p>
    * <ul>
    *   <li>Trims the input</li>
-   *   <li>Parses via {@link URI}</li>
+   *   <li>Validates the syntax with the rules of {@link URI}</li>
    *   <li>Requires non-null scheme and host</li>
    *   <li>Only allows {@code http} or {@code https} schemes (case-insensitive)</li>
    *   <li>Lower-cases the scheme and host</li>
-   *   <li>Returns the canonical {@link URI#toString()} representation</li>
+   *   <li>Decodes percent-escapes in user info, path, query and fragment and re-escapes only
+   *       the characters that are not legal in that component</li>
+   *   <li>Drops an empty port and leading zeros of the port</li>
+   *   <li>Removes {@code .} and {@code ..} segments and redundant slashes from the path</li>
    * </ul>
    *
    * @param url the input URL string
@@ -43,30 +75,429 @@ public final class UrlUtils {
    *                                  missing scheme/host, or uses a disallowed scheme
    */
   public static String normalizeUrl(String url) {
+    return normalize(url, true, true);
+  }
+
+  /**
+   * Validates whether a given URL string is a valid HTTP(S) URL that would be accepted
+   * by {@link #normalizeUrl(String)}.
+   *
+   * <p>Only scans the input: no output is built and no exception is created for invalid
+   * input (except for IPv6 literal hosts, which are validated through {@link URI}).</p>
+   *
+   * @param url the input URL string
+   * @return {@code true} if valid and allowed; {@code false} otherwise
+   */
+  public static boolean isValidHttpUrl(String url) {
+    return normalize(url, false, false) != null;
+  }
+
+  /**
+   * Scans {@code url} once, appending the canonical form to a builder as components are
+   * validated.
+   *
+   * @param throwOnError throw {@link IllegalArgumentException} instead of returning {@code null}
+   * @param build        build and return the canonical string; otherwise return {@code url}
+   *                     (or {@code null}) after validation only
+   */
+  private static String normalize(String url, boolean throwOnError, boolean build) {
     if (url == null) {
-      throw new IllegalArgumentException("URL must not be null");
+      return reject(throwOnError, "URL must not be null");
+    }
+    String s = url.trim();
+    if (s.isEmpty()) {
+      return reject(throwOnError, "URL must not be empty");
+    }
+    int n = s.length();
+
+    // scheme: "http:" or "https:" (ASCII, case-insensitive)
+    int p;
+    boolean https;
+    if (n > 4 && (s.charAt(0) | 0x20) == 'h' && (s.charAt(1) | 0x20) == 't'
+        && (s.charAt(2) | 0x20) == 't' && (s.charAt(3) | 0x20) == 'p') {
+      if (s.charAt(4) == ':') {
+        https = false;
+        p = 5;
+      } else if (n > 5 && (s.charAt(4) | 0x20) == 's' && s.charAt(5) == ':') {
+        https = true;
+        p = 6;
+      } else {
+        return rejectInvalid(s, throwOnError);
+      }
+    } else {
+      return rejectInvalid(s, throwOnError);
+    }
+
+    // Only "//authority" yields a host; opaque and path-only forms do not
+    if (p + 1 >= n || s.charAt(p) != '/' || s.charAt(p + 1) != '/') {
+      return rejectInvalid(s, throwOnError);
     }
-    String trimmed = url.trim();
-    if (trimmed.isEmpty()) {
-      throw new IllegalArgumentException("URL must not be empty");
+    p += 2;
+
+    int authorityEnd = p;
+    while (authorityEnd < n) {
+      char c = s.charAt(authorityEnd);
+      if (c == '/' || c == '?' || c == '#') {
+        break;
+      }
+      if (c == '[' || c == ']') {
+        return normalizeWithUri(s, throwOnError);
+      }
+      authorityEnd++;
+    }
+    if (authorityEnd == p) {
+      return rejectInvalid(s, throwOnError);
+    }
+
+    StringBuilder out = build ? new StringBuilder(n + 16) : null;
+    if (out != null) {
+      out.append(https ? "https://" : "http://");
     }
 
+    // user info: everything before the first '@' of the authority
+    int hostStart = p;
+    int at = s.indexOf('@', p);
+    if (at >= 0 && at < authorityEnd) {
+      if (!scanComponent(s, p, at, L_USERINFO, H_USERINFO, out)) {
+        return rejectInvalid(s, throwOnError);
+      }
+      if (out != null) {
+        out.append('@');
+      }
+      hostStart = at + 1;
+    }
+
+    // host: IPv4 address or hostname, followed by nothing or ":port"
+    int hostEnd = scanIPv4Address(s, hostStart, authorityEnd);
+    if (hostEnd < 0) {
+      hostEnd = scanHostname(s, hostStart, authorityEnd);
+      if (hostEnd < 0) {
+        return rejectInvalid(s, throwOnError);
+      }
+    }
+    if (out != null) {
+      for (int i = hostStart; i < hostEnd; i++) {
+        char c = s.charAt(i);
+        out.append((c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c);
+      }
+    }
+
+    // port: digits only, may be empty; leading zeros are dropped
+    if (hostEnd < authorityEnd) {
+      long port = 0;
+      for (int i = hostEnd + 1; i < authorityEnd; i++) {
+        char c = s.charAt(i);
+        if (c < '0' || c > '9') {
+          return rejectInvalid(s, throwOnError);
+        }
+        port = port * 10 + (c - '0');
+        if (port > Integer.MAX_VALUE) {
+          return rejectInvalid(s, throwOnError);
+        }
+      }
+      if (out != null && hostEnd + 1 < authorityEnd) {
+        out.append(':').append(port);
+      }
+    }
+
+    // path
+    int pathEnd = authorityEnd;
+    while (pathEnd < n) {
+      char c = s.charAt(pathEnd);
+      if (c == '?' || c == '#') {
+        break;
+      }
+      pathEnd++;
+    }
+    int pathStart = (out != null) ? out.length() : 0;
+    if (!scanComponent(s, authorityEnd, pathEnd, L_PATH, H_PATH, out)) {
+      return rejectInvalid(s, throwOnError);
+    }
+    if (out != null) {
+      removeDotSegments(out, pathStart);
+    }
+
+    // query
+    p = pathEnd;
+    if (p < n && s.charAt(p) == '?') {
+      int queryEnd = s.indexOf('#', p + 1);
+      if (queryEnd < 0) {
+        queryEnd = n;
+      }
+      if (out != null) {
+        out.append('?');
+      }
+      if (!scanComponent(s, p + 1, queryEnd, L_URIC, H_URIC, out)) {
+        return rejectInvalid(s, throwOnError);
+      }
+      p = queryEnd;
+    }
+
+    // fragment: the rest ('#' itself is not legal inside it)
+    if (p < n) {
+      if (out != null) {
+        out.append('#');
+      }
+      if (!scanComponent(s, p + 1, n, L_URIC, H_URIC, out)) {
+        return rejectInvalid(s, throwOnError);
+      }
+    }
+
+    return (out != null) ? out.toString() : s;
+  }
+
+  /**
+   * Validates {@code s[from, to)} against a component character class and, if {@code out} is
+   * not null, appends the canonical form: percent-escapes are decoded (as UTF-8) and the decoded
+   * characters are escaped again only if they are not legal in the component.
+   *
+   * @return {@code false} if the component contains an illegal character or malformed escape
+   */
+  private static boolean scanComponent(String s, int from, int to, long lowMask, long highMask,
+      StringBuilder out) {
+    int i = from;
+    while (i < to) {
+      char c = s.charAt(i);
+      if (c == '%') {
+        int runEnd = i;
+        while (runEnd < to && s.charAt(runEnd) == '%') {
+          if (runEnd + 3 > to) {
+            return false;
+          }
+          if (hexValue(s.charAt(runEnd + 1)) < 0 || hexValue(s.charAt(runEnd + 2)) < 0) {
+            return false;
+          }
+          runEnd += 3;
+        }
+        if (out != null) {
+          appendDecoded(s, i, runEnd, lowMask, highMask, out);
+        }
+        i = runEnd;
+        continue;
+      }
+      if (c < 0x80) {
+        if (!match(c, lowMask, highMask)) {
+          return false;
+        }
+      } else if (c == 0x80 || Character.isSpaceChar(c) || Character.isISOControl(c)) {
+        return false;
+      }
+      if (out != null) {
+        out.append(c);
+      }
+      i++;
+    }
+    return true;
+  }
+
+  /**
+   * Decodes a run of consecutive {@code %XX} escapes as UTF-8 (malformed input is replaced with
+   * U+FFFD) and appends the result, escaping characters not legal in the component.
+   */
+  private static void appendDecoded(String s, int from, int to, long lowMask, long highMask,
+      StringBuilder out) {
+    int count = (to - from) / 3;
+    byte[] bytes = new byte[count];
+    for (int k = 0, i = from; k < count; k++, i += 3) {
+      bytes[k] = (byte) ((hexValue(s.charAt(i + 1)) << 4) | hexValue(s.charAt(i + 2)));
+    }
+    String decoded = new String(bytes, StandardCharsets.UTF_8);
+    for (int i = 0; i < decoded.length(); i++) {
+      char c = decoded.charAt(i);
+      if (c < 0x80) {
+        if (match(c, lowMask, highMask)) {
+          out.append(c);
+        } else {
+          appendEscape(out, c);
+        }
+      } else if (Character.isSpaceChar(c) || Character.isISOControl(c)) {
+        // Space and control characters are always BMP, non-surrogate chars
+        if (c < 0x800) {
+          appendEscape(out, 0xC0 | (c >> 6));
+          appendEscape(out, 0x80 | (c & 0x3F));
+        } else {
+          appendEscape(out, 0xE0 | (c >> 12));
+          appendEscape(out, 0x80 | ((c >> 6) & 0x3F));
+          appendEscape(out, 0x80 | (c & 0x3F));
+        }
+      } else {
+        out.append(c);
+      }
+    }
+  }
+
+  /**
+   * Removes {@code .} and {@code ..} segments and redundant slashes from the path starting at
+   * {@code start} in {@code out}, with the semantics of {@link URI#normalize()}: a {@code ..}
+   * without a preceding segment to remove is kept, and a segment keeps its trailing slash.
+   */
+  private static void removeDotSegments(StringBuilder out, int start) {
+    int end = out.length();
+    if (start == end || !needsNormalization(out, start, end)) {
+      return;
+    }
+    String path = out.substring(start, end);
+    int n = path.length();
+    int[] segmentStarts = new int[n];
+    int[] segmentEnds = new int[n];
+    int kept = 0;
+    int i = 0;
+    while (i < n) {
+      while (i < n && path.charAt(i) == '/') {
+        i++;
+      }
+      if (i == n) {
+        break;
+      }
+      int segmentStart = i;
+      while (i < n && path.charAt(i) != '/') {
+        i++;
+      }
+      int length = i - segmentStart;
+      boolean dot = length == 1 && path.charAt(segmentStart) == '.';
+      boolean dotDot = length == 2 && path.charAt(segmentStart) == '.'
+          && path.charAt(segmentStart + 1) == '.';
+      if (dot) {
+        continue;
+      }
+      if (dotDot && kept > 0 && !isDotDot(path, segmentStarts[kept - 1], segmentEnds[kept - 1])) {
+        kept--;
+        continue;
+      }
+      segmentStarts[kept] = segmentStart;
+      segmentEnds[kept] = i;
+      kept++;
+    }
+
+    out.setLength(start);
+    out.append('/');
+    for (int k = 0; k < kept; k++) {
+      out.append(path, segmentStarts[k], segmentEnds[k]);
+      if (segmentEnds[k] < n) {
+        out.append('/');
+      }
+    }
+  }
+
+  /** Whether the path contains an empty (besides a trailing one), "." or ".." segment. */
+  private static boolean needsNormalization(StringBuilder path, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (path.charAt(i) != '/') {
+        continue;
+      }
+      int next = i + 1;
+      if (next < end && path.charAt(next) == '/') {
+        return true;
+      }
+      if (next < end && path.charAt(next) == '.') {
+        int after = next + 1;
+        if (after == end || path.charAt(after) == '/') {
+          return true;
+        }
+        if (path.charAt(after) == '.' && (after + 1 == end || path.charAt(after + 1) == '/')) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean isDotDot(String path, int start, int end) {
+    return end - start == 2 && path.charAt(start) == '.' && path.charAt(start + 1) == '.';
+  }
+
+  /**
+   * Scans a dotted-quad IPv4 address in {@code s[start, end)}.
+   *
+   * @return the end index of the address, or -1 if the host is not an IPv4 address
+   */
+  private static int scanIPv4Address(String s, int start, int end) {
+    int p = start;
+    for (int octet = 0; octet < 4; octet++) {
+      if (octet > 0) {
+        if (p >= end || s.charAt(p) != '.') {
+          return -1;
+        }
+        p++;
+      }
+      int digitsStart = p;
+      int value = 0;
+      while (p < end && s.charAt(p) >= '0' && s.charAt(p) <= '9') {
+        value = Math.min(value * 10 + (s.charAt(p) - '0'), 256);
+        p++;
+      }
+      if (p == digitsStart || value > 255) {
+        return -1;
+      }
+    }
+    if (p < end && s.charAt(p) != ':') {
+      // more digits/dots or another character: not an IPv4 address
+      return -1;
+    }
+    return p;
+  }
+
+  /**
+   * Scans a hostname in {@code s[start, end)}: dot-separated labels of letters, digits and
+   * inner hyphens, optionally with a trailing dot. If there is more than one label, the last
+   * label must start with a letter.
+   *
+   * @return the end index of the hostname (end of input or a ':'), or -1 if invalid
+   */
+  private static int scanHostname(String s, int start, int end) {
+    int p = start;
+    int lastLabel = -1;
+    while (p < end) {
+      char c = s.charAt(p);
+      if (!isAsciiAlphanumeric(c)) {
+        break;
+      }
+      lastLabel = p;
+      p++;
+      while (p < end && (isAsciiAlphanumeric(s.charAt(p)) || s.charAt(p) == '-')) {
+        p++;
+      }
+      if (s.charAt(p - 1) == '-') {
+        return -1;
+      }
+      if (p < end && s.charAt(p) == '.') {
+        p++;
+      } else {
+        break;
+      }
+    }
+    if (lastLabel < 0 || (p < end && s.charAt(p) != ':')) {
+      return -1;
+    }
+    if (lastLabel > start && !isAsciiLetter(s.charAt(lastLabel))) {
+      return -1;
+    }
+    return p;
+  }
+
+  /**
+   * Normalizes via {@link URI}; used for IPv6 literal hosts.
+   */
+  private static String normalizeWithUri(String trimmed, boolean throwOnError) {
     final URI parsedUri;
     try {
       parsedUri = new URI(trimmed);
     } catch (URISyntaxException e) {
-      throw new IllegalArgumentException("Invalid URL syntax", e);
+      if (throwOnError) {
+        throw new IllegalArgumentException("Invalid URL syntax", e);
+      }
+      return null;
     }
 
     String scheme = parsedUri.getScheme();
     String host = parsedUri.getHost();
     if (scheme == null || host == null) {
-      throw new IllegalArgumentException("URL must include scheme and host");
+      return reject(throwOnError, "URL must include scheme and host");
     }
 
     String lowerScheme = scheme.toLowerCase(Locale.ROOT);
     if (!"http".equals(lowerScheme) && !"https".equals(lowerScheme)) {
-      throw new IllegalArgumentException("Only http and https schemes are allowed");
+      return reject(throwOnError, "Only http and https schemes are allowed");
     }
     String lowerHost = host.toLowerCase(Locale.ROOT);
 
@@ -80,25 +511,107 @@ public final class UrlUtils {
       URI normalized = new URI(lowerScheme, userInfo, lowerHost, port, path, query, fragment).normalize();
       return normalized.toString();
     } catch (URISyntaxException e) {
-      throw new IllegalArgumentException("Invalid URL after normalization", e);
+      if (throwOnError) {
+        throw new IllegalArgumentException("Invalid URL after normalization", e);
+      }
+      return null;
     }
   }
 
   /**
-   * Validates whether a given URL string is a valid HTTP(S) URL that would be accepted
-   * by {@link #normalizeUrl(String)}.
-   *
-   * @param url the input URL string
-   * @return {@code true} if valid and allowed; {@code false} otherwise
+   * Rejects a trimmed URL that the scan found invalid. When throwing, the URL is run through
+   * {@link #normalizeWithUri} so the message (and cause) is the one the {@link URI}-based
+   * normalizer reported; this only costs a second parse for rejected input.
    */
-  public static boolean isValidHttpUrl(String url) {
-    try {
-      normalizeUrl(url);
-      return true;
-    } catch (IllegalArgumentException ex) {
+  private static String rejectInvalid(String trimmed, boolean throwOnError) {
+    if (!throwOnError) {
+      return null;
+    }
+    normalizeWithUri(trimmed, true);
+    // Not reached as long as the scan rejects exactly what URI rejects
+    throw new IllegalArgumentException("Invalid URL syntax");
+  }
+
+  private static String reject(boolean throwOnError, String message) {
+    if (throwOnError) {
+      throw new IllegalArgumentException(message);
+    }
+    return null;
+  }
+
+  private static void appendEscape(StringBuilder out, int b) {
+    out.append('%').append(HEX_DIGITS[(b >> 4) & 0x0F]).append(HEX_DIGITS[b & 0x0F]);
+  }
+
+  private static int hexValue(char c) {
+    if (c >= '0' && c <= '9') {
+      return c - '0';
+    }
+    if (c >= 'a' && c <= 'f') {
+      return c - 'a' + 10;
+    }
+    if (c >= 'A' && c <= 'F') {
+      return c - 'A' + 10;
+    }
+    return -1;
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static boolean isAsciiAlphanumeric(char c) {
+    return isAsciiLetter(c) || (c >= '0' && c <= '9');
+  }
+
+  private static boolean match(char c, long lowMask, long highMask) {
+    if (c == 0) {
       return false;
     }
+    if (c < 64) {
+      return ((1L << c) & lowMask) != 0;
+    }
+    if (c < 128) {
+      return ((1L << (c - 64)) & highMask) != 0;
+    }
+    return false;
   }
-}
 
+  private static long lowMask(char first, char last) {
+    long mask = 0;
+    for (int c = Math.max(first, 0); c <= Math.min(last, 63); c++) {
+      mask |= 1L << c;
+    }
+    return mask;
+  }
 
+  private static long highMask(char first, char last) {
+    long mask = 0;
+    for (int c = Math.max(first, 64); c <= Math.min(last, 127); c++) {
+      mask |= 1L << (c - 64);
+    }
+    return mask;
+  }
+
+  private static long lowMask(String chars) {
+    long mask = 0;
+    for (int i = 0; i < chars.length(); i++) {
+      char c = chars.charAt(i);
+      if (c < 64) {
+        mask |= 1L << c;
+      }
+    }
+    return mask;
+  }
+
+  private static long highMask(String chars) {
+    long mask = 0;
+    for (int i = 0; i < chars.length(); i++) {
+      char c = chars.charAt(i);
+      if (c >= 64 && c < 128) {
+        mask |= 1L << (c - 64);
+      }
+    }
+    return mask;
+  }
+}
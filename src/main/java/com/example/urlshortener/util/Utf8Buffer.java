@@ -0,0 +1,93 @@
+package com.example.urlshortener.util;
+
+/**
+ * Reusable, growable byte buffer that UTF-8 encodes character sequences without allocating
+ * a new array per call. Instances are not thread-safe; they are meant to be held per thread
+ * (e.g., through a {@link ScratchPool}).
+ *
+ * <p>The produced bytes are identical to {@code String.getBytes(StandardCharsets.UTF_8)},
+ * including the replacement of unpaired surrogates with {@code '?'}.</p>
+ */
+public final class Utf8Buffer {
+
+  private byte[] bytes;
+  private int length;
+
+  public Utf8Buffer() {
+    this(256);
+  }
+
+  public Utf8Buffer(int initialCapacity) {
+    this.bytes = new byte[Math.max(16, initialCapacity)];
+  }
+
+  /**
+   * Replaces the buffer content with the UTF-8 encoding of {@code input}.
+   *
+   * @param input characters to encode (must not be null)
+   * @return number of encoded bytes, also available through {@link #length()}
+   */
+  public int encode(CharSequence input) {
+    length = 0;
+    return append(input);
+  }
+
+  /**
+   * Appends the UTF-8 encoding of {@code input} to the current content.
+   *
+   * @param input characters to encode (must not be null)
+   * @return total number of bytes in the buffer
+   */
+  public int append(CharSequence input) {
+    int n = input.length();
+    // Worst case is 3 bytes per UTF-16 code unit
+    ensureCapacity(length + n * 3);
+    byte[] out = bytes;
+    int p = length;
+    for (int i = 0; i < n; i++) {
+      char c = input.charAt(i);
+      if (c < 0x80) {
+        out[p++] = (byte) c;
+      } else if (c < 0x800) {
+        out[p++] = (byte) (0xC0 | (c >> 6));
+        out[p++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        char low;
+        if (Character.isHighSurrogate(c) && i + 1 < n
+            && Character.isLowSurrogate(low = input.charAt(i + 1))) {
+          int cp = Character.toCodePoint(c, low);
+          out[p++] = (byte) (0xF0 | (cp >> 18));
+          out[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+          out[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+          out[p++] = (byte) (0x80 | (cp & 0x3F));
+          i++;
+        } else {
+          out[p++] = (byte) '?';
+        }
+      } else {
+        out[p++] = (byte) (0xE0 | (c >> 12));
+        out[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        out[p++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    length = p;
+    return p;
+  }
+
+  /** Backing array; only the first {@link #length()} bytes are valid. */
+  public byte[] array() {
+    return bytes;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  private void ensureCapacity(int required) {
+    if (required > bytes.length) {
+      byte[] grown = new byte[Math.max(required, bytes.length * 2)];
+      System.arraycopy(bytes, 0, grown, 0, length);
+      bytes = grown;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.example.urlshortener.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Allocation-free implementation of the 64-bit xxHash (XXH64) algorithm.
+ *
+ * <p>xxHash is a fast, non-cryptographic hash with good distribution. It is suitable for
+ * short codes and fingerprints, but not where an adversary must be prevented from producing
+ * collisions. This class is a static utility and not intended to be instantiated.</p>
+ */
+public final class XxHash64 {
+
+  private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long PRIME64_3 = 0x165667B19E3779F9L;
+  private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+  private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+  private static final VarHandle LONG_LE =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final VarHandle INT_LE =
+      MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+  private XxHash64() {
+  }
+
+  /**
+   * Hash {@code length} bytes of {@code input} starting at {@code offset} with seed {@code 0}.
+   */
+  public static long hash(byte[] input, int offset, int length) {
+    return hash(input, offset, length, 0L);
+  }
+
+  /**
+   * Hash {@code length} bytes of {@code input} starting at {@code offset}.
+   *
+   * @param input  source bytes
+   * @param offset index of the first byte to hash
+   * @param length number of bytes to hash
+   * @param seed   hash seed
+   * @return the XXH64 value
+   */
+  public static long hash(byte[] input, int offset, int length, long seed) {
+    int p = offset;
+    int end = offset + length;
+    long h;
+
+    if (length >= 32) {
+      int limit = end - 32;
+      long v1 = seed + PRIME64_1 + PRIME64_2;
+      long v2 = seed + PRIME64_2;
+      long v3 = seed;
+      long v4 = seed - PRIME64_1;
+      do {
+        v1 = round(v1, readLongLE(input, p));
+        v2 = round(v2, readLongLE(input, p + 8));
+        v3 = round(v3, readLongLE(input, p + 16));
+        v4 = round(v4, readLongLE(input, p + 24));
+        p += 32;
+      } while (p <= limit);
+
+      h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+          + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+      h = mergeRound(h, v1);
+      h = mergeRound(h, v2);
+      h = mergeRound(h, v3);
+      h = mergeRound(h, v4);
+    } else {
+      h = seed + PRIME64_5;
+    }
+
+    h += length;
+
+    while (p + 8 <= end) {
+      h ^= round(0, readLongLE(input, p));
+      h = Long.rotateLeft(h, 27) * PRIME64_1 + PRIME64_4;
+      p += 8;
+    }
+    if (p + 4 <= end) {
+      h ^= (readIntLE(input, p) & 0xFFFFFFFFL) * PRIME64_1;
+      h = Long.rotateLeft(h, 23) * PRIME64_2 + PRIME64_3;
+      p += 4;
+    }
+    while (p < end) {
+      h ^= (input[p] & 0xFFL) * PRIME64_5;
+      h = Long.rotateLeft(h, 11) * PRIME64_1;
+      p++;
+    }
+
+    h ^= h >>> 33;
+    h *= PRIME64_2;
+    h ^= h >>> 29;
+    h *= PRIME64_3;
+    h ^= h >>> 32;
+    return h;
+  }
+
+  private static long round(long acc, long lane) {
+    acc += lane * PRIME64_2;
+    acc = Long.rotateLeft(acc, 31);
+    return acc * PRIME64_1;
+  }
+
+  private static long mergeRound(long acc, long value) {
+    acc ^= round(0, value);
+    return acc * PRIME64_1 + PRIME64_4;
+  }
+
+  private static long readLongLE(byte[] b, int i) {
+    return (long) LONG_LE.get(b, i);
+  }
+
+  private static int readIntLE(byte[] b, int i) {
+    return (int) INT_LE.get(b, i);
+  }
+}
@@ -0,0 +1,314 @@
+package com.example.urlshortener.web;
+
+import com.example.urlshortener.bulk.BulkImporter;
+import com.example.urlshortener.bulk.ImportJob;
+import com.example.urlshortener.cache.ResolveCache;
+import com.example.urlshortener.click.ClickEventWriter;
+import com.example.urlshortener.click.ClickTracker;
+import com.example.urlshortener.export.ExportFormat;
+import com.example.urlshortener.export.MappingExporter;
+import com.example.urlshortener.heavyhitter.HeavyHitterTracker;
+import com.example.urlshortener.replica.ReplicaRouter;
+import com.example.urlshortener.service.CodeLengthPolicy;
+import com.example.urlshortener.service.RequestCoalescer;
+import com.example.urlshortener.shard.ShardRebalancer;
+import com.example.urlshortener.shard.ShardRouter;
+import com.example.urlshortener.util.Base62Encoder;
+import com.example.urlshortener.util.SingleFlight;
+import com.example.urlshortener.web.dto.CacheStatsResponse;
+import com.example.urlshortener.web.dto.ClickStatsResponse;
+import com.example.urlshortener.web.dto.CoalescingStatsResponse;
+import com.example.urlshortener.web.dto.HeavyHittersResponse;
+import com.example.urlshortener.web.dto.ImportProgressResponse;
+import com.example.urlshortener.web.dto.KeyspaceReportResponse;
+import com.example.urlshortener.web.dto.ReplicaStatsResponse;
+import com.example.urlshortener.web.dto.ShardStatusResponse;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+  private final ResolveCache resolveCache;
+  private final ClickTracker clickTracker;
+  private final ClickEventWriter clickEventWriter;
+  private final RequestCoalescer requestCoalescer;
+  private final CodeLengthPolicy codeLengthPolicy;
+  private final MappingExporter mappingExporter;
+  private final BulkImporter bulkImporter;
+  private final ShardRouter shardRouter;
+  private final ShardRebalancer shardRebalancer;
+  private final ReplicaRouter replicaRouter;
+  private final HeavyHitterTracker heavyHitterTracker;
+
+  public AdminController(ResolveCache resolveCache, ClickTracker clickTracker,
+      ClickEventWriter clickEventWriter, RequestCoalescer requestCoalescer,
+      CodeLengthPolicy codeLengthPolicy, MappingExporter mappingExporter, BulkImporter bulkImporter,
+      ShardRouter shardRouter, ShardRebalancer shardRebalancer, ReplicaRouter replicaRouter,
+      HeavyHitterTracker heavyHitterTracker) {
+    this.resolveCache = resolveCache;
+    this.clickTracker = clickTracker;
+    this.clickEventWriter = clickEventWriter;
+    this.requestCoalescer = requestCoalescer;
+    this.codeLengthPolicy = codeLengthPolicy;
+    this.mappingExporter = mappingExporter;
+    this.bulkImporter = bulkImporter;
+    this.shardRouter = shardRouter;
+    this.shardRebalancer = shardRebalancer;
+    this.replicaRouter = replicaRouter;
+    this.heavyHitterTracker = heavyHitterTracker;
+  }
+
+  @GetMapping("/cache")
+  public ResponseEntity<CacheStatsResponse> cacheStats() {
+    CacheStats stats = resolveCache.stats();
+    CacheStats missingStats = resolveCache.missingStats();
+    CacheStatsResponse response = new CacheStatsResponse(
+        resolveCache.isEnabled(),
+        resolveCache.estimatedSize(),
+        stats.hitCount(),
+        stats.missCount(),
+        stats.evictionCount(),
+        stats.hitRate(),
+        resolveCache.estimatedMissingSize(),
+        missingStats.hitCount(),
+        resolveCache.pinnedSize(),
+        resolveCache.pinnedHitCount());
+    return ResponseEntity.ok(response);
+  }
+
+  @GetMapping("/clicks")
+  public ResponseEntity<ClickStatsResponse> clickStats() {
+    ClickStatsResponse response = new ClickStatsResponse(
+        clickTracker.isEnabled(),
+        clickTracker.getOverflowPolicy().name(),
+        clickTracker.capacity(),
+        clickTracker.queueDepth(),
+        clickTracker.publishedCount(),
+        clickTracker.droppedCount(),
+        clickEventWriter.writtenCount(),
+        clickEventWriter.failedCount());
+    return ResponseEntity.ok(response);
+  }
+
+  @GetMapping("/coalescing")
+  public ResponseEntity<CoalescingStatsResponse> coalescingStats() {
+    SingleFlight<?, ?> resolves = requestCoalescer.resolves();
+    SingleFlight<?, ?> shortens = requestCoalescer.shortens();
+    CoalescingStatsResponse response = new CoalescingStatsResponse(
+        resolves.executedCount(),
+        resolves.coalescedCount(),
+        resolves.inFlightCount(),
+        shortens.executedCount(),
+        shortens.coalescedCount(),
+        shortens.inFlightCount());
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Lists the codes with the most redirects recently, hottest first, as of the last refresh.
+   */
+  @GetMapping("/heavy-hitters")
+  public ResponseEntity<HeavyHittersResponse> heavyHitters(
+      @RequestParam(defaultValue = "20") int limit
+  ) {
+    List<HeavyHittersResponse.HotCode> codes = heavyHitterTracker.hottest(Math.max(0, limit)).stream()
+        .map(hitter -> new HeavyHittersResponse.HotCode(hitter.shortCode(), hitter.estimatedCount()))
+        .toList();
+    HeavyHittersResponse response = new HeavyHittersResponse(
+        heavyHitterTracker.isEnabled(),
+        heavyHitterTracker.topK(),
+        heavyHitterTracker.sketch().depth(),
+        heavyHitterTracker.sketch().width(),
+        heavyHitterTracker.sketch().memoryBytes(),
+        heavyHitterTracker.bufferSlots(),
+        heavyHitterTracker.countedCount(),
+        heavyHitterTracker.droppedCount(),
+        heavyHitterTracker.prefetchedCount(),
+        resolveCache.pinnedSize(),
+        codes);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Reports, per code length in use, how full the keyspace is and how many retries a new code
+   * of that length is expected to need.
+   */
+  @GetMapping("/keyspace")
+  public ResponseEntity<KeyspaceReportResponse> keyspaceReport() {
+    List<KeyspaceReportResponse.LengthOccupancy> lengths = new ArrayList<>();
+    for (int length = 1; length <= Base62Encoder.MAX_FIXED_LENGTH; length++) {
+      long codes = codeLengthPolicy.codesAtLength(length);
+      if (codes == 0 && length != codeLengthPolicy.currentLength()) {
+        continue;
+      }
+      double occupancy = codeLengthPolicy.expectedCollisionRate(length);
+      double expectedRetries = occupancy < 1.0 ? occupancy / (1.0 - occupancy) : Double.POSITIVE_INFINITY;
+      lengths.add(new KeyspaceReportResponse.LengthOccupancy(
+          length, codes, Base62Encoder.keyspaceSize(length), occupancy, expectedRetries));
+    }
+    KeyspaceReportResponse response = new KeyspaceReportResponse(
+        codeLengthPolicy.isAdaptive(),
+        codeLengthPolicy.currentLength(),
+        codeLengthPolicy.targetCollisionRate(),
+        codeLengthPolicy.insertCount(),
+        codeLengthPolicy.collisionCount(),
+        codeLengthPolicy.measuredCollisionRate(),
+        lengths);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Streams every mapping as NDJSON or CSV, optionally gzip-compressed, without loading the
+   * table into memory.
+   */
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> export(
+      @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+      @RequestParam(defaultValue = "false") boolean gzip) {
+    String fileName = "short-urls." + format.extension() + (gzip ? ".gz" : "");
+    MediaType contentType = gzip
+        ? MediaType.parseMediaType("application/gzip")
+        : MediaType.parseMediaType(format.contentType() + ";charset=UTF-8");
+    StreamingResponseBody body = out -> mappingExporter.export(out, format, gzip);
+    return ResponseEntity.ok()
+        .contentType(contentType)
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(fileName).build().toString())
+        .body(body);
+  }
+
+  /**
+   * Stores the request body as an import file of {@code format} and imports it in the
+   * background. Progress is available from the returned location.
+   */
+  @PostMapping("/imports")
+  public ResponseEntity<ImportProgressResponse> startImport(
+      @RequestParam(defaultValue = "CSV") ExportFormat format, InputStream body) throws IOException {
+    ImportJob job = bulkImporter.submit(body, format);
+    return ResponseEntity.accepted()
+        .location(URI.create("/api/admin/imports/" + job.getId()))
+        .body(toProgress(job));
+  }
+
+  @GetMapping("/imports/{id}")
+  public ResponseEntity<ImportProgressResponse> importProgress(@PathVariable String id) {
+    return ResponseEntity.of(bulkImporter.find(id).map(AdminController::toProgress));
+  }
+
+  /**
+   * Continues an interrupted or failed import after its last checkpoint.
+   */
+  @PostMapping("/imports/{id}/resume")
+  public ResponseEntity<ImportProgressResponse> resumeImport(@PathVariable String id) {
+    return bulkImporter.resume(id)
+        .map(job -> ResponseEntity.accepted().body(toProgress(job)))
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Returns the rejected lines of an import as CSV ({@code line,error}).
+   */
+  @GetMapping("/imports/{id}/errors")
+  public ResponseEntity<Resource> importErrors(@PathVariable String id) {
+    return bulkImporter.find(id)
+        .map(job -> new FileSystemResource(job.getErrorReport()))
+        .filter(Resource::exists)
+        .map(report -> ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("text/csv;charset=UTF-8"))
+            .body((Resource) report))
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Reports where resolves were read from and which read replicas are healthy.
+   */
+  @GetMapping("/replicas")
+  public ResponseEntity<ReplicaStatsResponse> replicaStats() {
+    List<ReplicaStatsResponse.ReplicaHealth> replicas = replicaRouter.replicas().stream()
+        .map(replica -> new ReplicaStatsResponse.ReplicaHealth(replica, replicaRouter.isHealthy(replica)))
+        .toList();
+    ReplicaStatsResponse response = new ReplicaStatsResponse(
+        replicaRouter.isEnabled(),
+        replicaRouter.replicaReadCount(),
+        replicaRouter.primaryReadCount(),
+        replicaRouter.confirmationCount(),
+        replicaRouter.failoverCount(),
+        replicas);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Reports the row counts of every shard and the state of the last rebalance.
+   */
+  @GetMapping("/shards")
+  public ResponseEntity<ShardStatusResponse> shardStatus() {
+    return ResponseEntity.ok(toShardStatus());
+  }
+
+  /**
+   * Moves rows to the shards that own them in the background, after shards were added.
+   */
+  @PostMapping("/shards/rebalance")
+  public ResponseEntity<ShardStatusResponse> rebalanceShards() {
+    HttpStatus status = shardRebalancer.start() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+    return ResponseEntity.status(status).body(toShardStatus());
+  }
+
+  private ShardStatusResponse toShardStatus() {
+    List<ShardStatusResponse.ShardStats> shards = new ArrayList<>();
+    for (String shard : shardRouter.shards()) {
+      shards.add(new ShardStatusResponse.ShardStats(
+          shard, shardRebalancer.countMappings(shard), shardRebalancer.countIndexEntries(shard)));
+    }
+    return new ShardStatusResponse(
+        shardRouter.isSharded(),
+        shardRebalancer.isRunning(),
+        shardRebalancer.movedCount(),
+        shardRebalancer.conflictCount(),
+        shardRebalancer.getStartedAt(),
+        shardRebalancer.getFinishedAt(),
+        shardRebalancer.getFailure(),
+        shards);
+  }
+
+  private static ImportProgressResponse toProgress(ImportJob job) {
+    Instant startedAt = job.getStartedAt();
+    Instant end = job.getFinishedAt() != null ? job.getFinishedAt() : Instant.now();
+    double seconds = startedAt == null ? 0 : Duration.between(startedAt, end).toNanos() / 1e9;
+    long processed = job.getImported() + job.getFailed();
+    return new ImportProgressResponse(
+        job.getId(),
+        job.getFormat().name(),
+        job.getState().name(),
+        job.getLinesRead(),
+        job.getImported(),
+        job.getFailed(),
+        job.getCheckpointLine(),
+        startedAt,
+        job.getFinishedAt(),
+        seconds > 0 ? processed / seconds : 0,
+        job.getFailure());
+  }
+}
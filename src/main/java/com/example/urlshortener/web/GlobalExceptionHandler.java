@@ -1,14 +1,18 @@
 package com.example.urlshortener.web;
 
+import com.example.urlshortener.exception.InvalidExpiryException;
 import com.example.urlshortener.exception.InvalidUrlException;
+import com.example.urlshortener.exception.RateLimitExceededException;
 import com.example.urlshortener.exception.UrlNotFoundException;
 import com.example.urlshortener.web.dto.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -21,12 +25,35 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
   }
 
+  @ExceptionHandler(InvalidExpiryException.class)
+  public ResponseEntity<ErrorResponse> handleInvalidExpiryException(InvalidExpiryException ex) {
+    ErrorResponse body = new ErrorResponse("INVALID_EXPIRY", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+  }
+
   @ExceptionHandler(UrlNotFoundException.class)
   public ResponseEntity<ErrorResponse> handleUrlNotFoundException(UrlNotFoundException ex) {
     ErrorResponse body = new ErrorResponse("NOT_FOUND", ex.getMessage());
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
   }
 
+  @ExceptionHandler(RateLimitExceededException.class)
+  public ResponseEntity<ErrorResponse> handleRateLimitExceeded(RateLimitExceededException ex) {
+    ErrorResponse body = new ErrorResponse("RATE_LIMITED", ex.getMessage());
+    // Whole seconds, rounded up so that a retry at that time is admitted
+    long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+        .body(body);
+  }
+
+  @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+  public ResponseEntity<ErrorResponse> handleArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
+    ErrorResponse body = new ErrorResponse("INVALID_PARAMETER",
+        "Invalid value for parameter '" + ex.getName() + "': " + ex.getValue());
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
     logger.error("Unhandled exception", ex);
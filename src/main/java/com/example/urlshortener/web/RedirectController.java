@@ -1,30 +1,119 @@
 package com.example.urlshortener.web;
 
+import com.example.urlshortener.click.ClickTracker;
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.heavyhitter.HeavyHitterTracker;
+import com.example.urlshortener.model.RedirectType;
+import com.example.urlshortener.repository.LinkTarget;
 import com.example.urlshortener.service.UrlShorteningService;
 import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+/**
+ * Redirects {@code /u/{code}} to the original URL.
+ *
+ * <p>The status is the link's own redirect type, or {@code app.redirect.type}. Redirects are
+ * cacheable for {@code app.redirect.max-age} in browsers and {@code app.redirect.shared-max-age}
+ * in shared caches, but never beyond the link's expiry. A mapping never changes while it exists,
+ * so its creation time is a complete validator: {@code ETag} and {@code Last-Modified} are derived
+ * from it, and a conditional request that still matches gets a {@code 304}. The validator comes
+ * with the resolve, so revalidating a link held in the resolve cache does not touch storage.</p>
+ */
 @RestController
 public class RedirectController {
 
   private final UrlShorteningService urlShorteningService;
+  private final ClickTracker clickTracker;
+  private final HeavyHitterTracker heavyHitterTracker;
+  private final AppProperties.Redirect config;
 
-  public RedirectController(UrlShorteningService urlShorteningService) {
+  public RedirectController(UrlShorteningService urlShorteningService, ClickTracker clickTracker,
+      HeavyHitterTracker heavyHitterTracker, AppProperties appProperties) {
     this.urlShorteningService = urlShorteningService;
+    this.clickTracker = clickTracker;
+    this.heavyHitterTracker = heavyHitterTracker;
+    this.config = appProperties.getRedirect();
   }
 
   @GetMapping("/u/{code}")
-  public ResponseEntity<Void> redirect(@PathVariable String code) {
-    String originalUrl = urlShorteningService.resolveUrl(code);
+  public ResponseEntity<Void> redirect(
+      @PathVariable String code,
+      @RequestHeader(value = HttpHeaders.REFERER, required = false) String referrer,
+      @RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent,
+      @RequestHeader HttpHeaders requestHeaders
+  ) {
+    LinkTarget target = urlShorteningService.resolve(code);
+    // Only enqueues the event; ClickEventWriter persists it in the background
+    clickTracker.record(code, referrer, userAgent);
+    heavyHitterTracker.record(code);
+
     HttpHeaders headers = new HttpHeaders();
-    headers.setLocation(URI.create(originalUrl));
-    return new ResponseEntity<>(headers, HttpStatus.FOUND);
+    headers.setCacheControl(cacheControl(target, Instant.now()));
+    if (config.isConditional() && target.createdAt() != null) {
+      String etag = etag(target.createdAt());
+      headers.setETag(etag);
+      headers.setLastModified(target.createdAt().truncatedTo(ChronoUnit.SECONDS));
+      if (isNotModified(requestHeaders, etag, target.createdAt())) {
+        return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+      }
+    }
+    RedirectType type = target.redirectType() != null ? target.redirectType() : config.getType();
+    headers.setLocation(URI.create(target.originalUrl()));
+    return new ResponseEntity<>(headers, HttpStatus.valueOf(type.status()));
   }
-}
 
+  /** Both lifetimes end no later than the link does. */
+  private CacheControl cacheControl(LinkTarget target, Instant now) {
+    long maxAge = config.getMaxAge().toSeconds();
+    long sharedMaxAge = config.getSharedMaxAge().toSeconds();
+    if (target.expiresAt() != null) {
+      long remaining = Math.max(0, Duration.between(now, target.expiresAt()).toSeconds());
+      maxAge = Math.min(maxAge, remaining);
+      sharedMaxAge = Math.min(sharedMaxAge, remaining);
+    }
+    return CacheControl.maxAge(maxAge, TimeUnit.SECONDS)
+        .sMaxAge(sharedMaxAge, TimeUnit.SECONDS)
+        .cachePublic();
+  }
 
+  /** A strong validator: the creation time in epoch microseconds, base 36. */
+  static String etag(Instant createdAt) {
+    return '"' + Long.toString(ChronoUnit.MICROS.between(Instant.EPOCH, createdAt), 36) + '"';
+  }
+
+  /**
+   * {@code If-None-Match} takes precedence over {@code If-Modified-Since} (RFC 9110, 13.2.2); the
+   * former is compared weakly, as it is for {@code GET}. An unparseable date is ignored.
+   */
+  static boolean isNotModified(HttpHeaders requestHeaders, String etag, Instant createdAt) {
+    List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+    if (!ifNoneMatch.isEmpty()) {
+      for (String candidate : ifNoneMatch) {
+        String tag = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+        if (tag.equals("*") || tag.equals(etag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    long ifModifiedSince;
+    try {
+      ifModifiedSince = requestHeaders.getIfModifiedSince();
+    } catch (IllegalArgumentException ex) {
+      return false;
+    }
+    return ifModifiedSince >= 0 && createdAt.getEpochSecond() <= ifModifiedSince / 1000;
+  }
+}
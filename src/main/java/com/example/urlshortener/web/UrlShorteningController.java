@@ -1,12 +1,16 @@
 package com.example.urlshortener.web;
 
 import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.exception.InvalidExpiryException;
 import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.ratelimit.RateLimiter;
 import com.example.urlshortener.service.UrlShorteningService;
 import com.example.urlshortener.web.dto.ShortenRequest;
 import com.example.urlshortener.web.dto.ShortenResponse;
 import com.example.urlshortener.web.dto.ResolveResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.time.Instant;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -21,26 +25,48 @@ public class UrlShorteningController {
 
   private final UrlShorteningService urlShorteningService;
   private final AppProperties appProperties;
+  private final RateLimiter rateLimiter;
 
-  public UrlShorteningController(UrlShorteningService urlShorteningService, AppProperties appProperties) {
+  public UrlShorteningController(UrlShorteningService urlShorteningService, AppProperties appProperties,
+      RateLimiter rateLimiter) {
     this.urlShorteningService = urlShorteningService;
     this.appProperties = appProperties;
+    this.rateLimiter = rateLimiter;
   }
 
   @PostMapping("/shorten")
   public ResponseEntity<ShortenResponse> shorten(
-      @RequestBody @Valid ShortenRequest request
+      @RequestBody @Valid ShortenRequest request,
+      HttpServletRequest servletRequest
   ) {
-    ShortUrl mapping = urlShorteningService.shortenUrl(request.url());
+    // Before any of the normalizing, hashing and storage work
+    rateLimiter.acquire(servletRequest);
+    ShortUrl mapping = urlShorteningService.shortenUrl(request.url(), expiresAt(request), request.redirectType());
     String shortCode = mapping.getShortCode();
 
     String baseUrl = appProperties.getBaseUrl().replaceAll("/+$", "");
     String shortUrl = baseUrl + "/u/" + shortCode;
 
-    ShortenResponse response = new ShortenResponse(shortUrl, shortCode, mapping.getOriginalUrl());
+    ShortenResponse response = new ShortenResponse(shortUrl, shortCode, mapping.getOriginalUrl(),
+        mapping.getExpiresAt(), mapping.getRedirectType());
     return ResponseEntity.ok(response);
   }
 
+  private static Instant expiresAt(ShortenRequest request) {
+    if (request.ttlSeconds() != null && request.expiresAt() != null) {
+      throw new InvalidExpiryException("Specify either ttlSeconds or expiresAt, not both");
+    }
+    if (request.ttlSeconds() != null) {
+      // Checked here because plusSeconds throws for offsets past Instant.MAX
+      Instant now = Instant.now();
+      if (request.ttlSeconds() > ShortUrl.MAX_EXPIRES_AT.getEpochSecond() - now.getEpochSecond()) {
+        throw new InvalidExpiryException("ttlSeconds must not reach past " + ShortUrl.MAX_EXPIRES_AT);
+      }
+      return now.plusSeconds(request.ttlSeconds());
+    }
+    return request.expiresAt();
+  }
+
   @GetMapping("/resolve/{code}")
   public ResponseEntity<ResolveResponse> resolve(@PathVariable String code) {
     String originalUrl = urlShorteningService.resolveUrl(code);
@@ -0,0 +1,13 @@
+package com.example.urlshortener.web.dto;
+
+public record CacheStatsResponse(
+    boolean enabled,
+    long size,
+    long hits,
+    long misses,
+    long evictions,
+    double hitRate,
+    long missingSize,
+    long missingHits,
+    int pinnedSize,
+    long pinnedHits) {}
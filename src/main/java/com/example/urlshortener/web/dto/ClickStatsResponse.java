@@ -0,0 +1,11 @@
+package com.example.urlshortener.web.dto;
+
+public record ClickStatsResponse(
+    boolean enabled,
+    String overflowPolicy,
+    int capacity,
+    int queueDepth,
+    long published,
+    long dropped,
+    long written,
+    long failed) {}
@@ -0,0 +1,9 @@
+package com.example.urlshortener.web.dto;
+
+public record CoalescingStatsResponse(
+    long resolveLookups,
+    long resolveCoalesced,
+    int resolveInFlight,
+    long shortenStores,
+    long shortenCoalesced,
+    int shortenInFlight) {}
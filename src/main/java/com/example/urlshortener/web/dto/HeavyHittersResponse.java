@@ -0,0 +1,23 @@
+package com.example.urlshortener.web.dto;
+
+import java.util.List;
+
+public record HeavyHittersResponse(
+    boolean enabled,
+    int topK,
+    int sketchDepth,
+    int sketchWidth,
+    long sketchBytes,
+    int bufferSlots,
+    long counted,
+    long dropped,
+    long prefetched,
+    int pinned,
+    List<HotCode> codes) {
+
+  /**
+   * A hot code. {@code estimatedCount} is its count of redirects with older ones decayed by
+   * half per half-life; it may overestimate, never underestimate.
+   */
+  public record HotCode(String shortCode, long estimatedCount) {}
+}
@@ -0,0 +1,16 @@
+package com.example.urlshortener.web.dto;
+
+import java.time.Instant;
+
+public record ImportProgressResponse(
+    String id,
+    String format,
+    String state,
+    long linesRead,
+    long imported,
+    long failed,
+    long checkpointLine,
+    Instant startedAt,
+    Instant finishedAt,
+    double linesPerSecond,
+    String failure) {}
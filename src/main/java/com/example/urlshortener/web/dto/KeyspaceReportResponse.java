@@ -0,0 +1,25 @@
+package com.example.urlshortener.web.dto;
+
+import java.util.List;
+
+public record KeyspaceReportResponse(
+    boolean adaptiveLength,
+    int currentLength,
+    double targetCollisionRate,
+    long inserts,
+    long collisions,
+    double measuredCollisionRate,
+    List<LengthOccupancy> lengths) {
+
+  /**
+   * Occupancy of the keyspace of one code length. {@code expectedRetriesPerInsert} is the mean
+   * number of extra attempts a new code of this length needs, {@code p / (1 - p)} for
+   * occupancy {@code p}.
+   */
+  public record LengthOccupancy(
+      int length,
+      long codes,
+      long keyspaceSize,
+      double occupancy,
+      double expectedRetriesPerInsert) {}
+}
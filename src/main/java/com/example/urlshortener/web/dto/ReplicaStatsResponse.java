@@ -0,0 +1,16 @@
+package com.example.urlshortener.web.dto;
+
+import java.util.List;
+
+public record ReplicaStatsResponse(
+    boolean enabled,
+    long replicaReads,
+    long primaryReads,
+    long confirmedOnPrimary,
+    long failovers,
+    List<ReplicaHealth> replicas) {
+
+  public record ReplicaHealth(
+      String name,
+      boolean healthy) {}
+}
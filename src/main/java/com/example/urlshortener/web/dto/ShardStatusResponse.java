@@ -0,0 +1,24 @@
+package com.example.urlshortener.web.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ShardStatusResponse(
+    boolean sharded,
+    boolean rebalanceRunning,
+    long rebalanceMoved,
+    long rebalanceConflicts,
+    Instant rebalanceStartedAt,
+    Instant rebalanceFinishedAt,
+    String rebalanceFailure,
+    List<ShardStats> shards) {
+
+  /**
+   * Row counts of one shard. Mappings are placed by short code and URL index entries by URL
+   * fingerprint, so both should be spread evenly.
+   */
+  public record ShardStats(
+      String name,
+      long mappings,
+      long indexEntries) {}
+}
@@ -1,7 +1,14 @@
 package com.example.urlshortener.web.dto;
 
+import com.example.urlshortener.model.RedirectType;
 import jakarta.validation.constraints.NotBlank;
-
-public record ShortenRequest(@NotBlank String url) {}
-
-
+import jakarta.validation.constraints.Positive;
+import java.time.Instant;
+
+/**
+ * Body of {@code POST /api/shorten}. At most one of {@code ttlSeconds} (relative) and
+ * {@code expiresAt} (absolute) may be set; without either the link never expires. Without a
+ * {@code redirectType} the link redirects with {@code app.redirect.type}.
+ */
+public record ShortenRequest(@NotBlank String url, @Positive Long ttlSeconds, Instant expiresAt,
+    RedirectType redirectType) {}
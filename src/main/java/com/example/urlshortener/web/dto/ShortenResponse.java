@@ -1,5 +1,7 @@
 package com.example.urlshortener.web.dto;
 
-public record ShortenResponse(String shortUrl, String shortCode, String originalUrl) {}
-
+import com.example.urlshortener.model.RedirectType;
+import java.time.Instant;
 
+public record ShortenResponse(String shortUrl, String shortCode, String originalUrl, Instant expiresAt,
+    RedirectType redirectType) {}
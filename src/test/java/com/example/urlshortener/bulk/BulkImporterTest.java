@@ -0,0 +1,155 @@
+package com.example.urlshortener.bulk;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.export.ExportFormat;
+import com.example.urlshortener.exception.InvalidUrlException;
+import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.service.BulkShortener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkImporterTest {
+
+  @TempDir
+  Path dir;
+
+  @Mock
+  private BulkShortener bulkShortener;
+
+  private BulkImporter importer;
+
+  private final List<List<String>> storedBatches = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getBulkImport().setDirectory(dir.resolve("imports").toString());
+    appProperties.getBulkImport().setBatchSize(2);
+    appProperties.getBulkImport().setParallelism(2);
+    importer = new BulkImporter(bulkShortener, new ObjectMapper(), appProperties);
+
+    when(bulkShortener.prepare(anyString(), any())).thenAnswer(invocation -> {
+      String url = invocation.getArgument(0);
+      if (!url.startsWith("https://")) {
+        throw new InvalidUrlException("Invalid URL: " + url);
+      }
+      return new BulkShortener.Prepared(url, invocation.getArgument(1), url.hashCode(), "c" + url.length());
+    });
+    lenient().when(bulkShortener.store(any())).thenAnswer(invocation -> {
+      List<BulkShortener.Prepared> batch = invocation.getArgument(0);
+      storedBatches.add(batch.stream().map(BulkShortener.Prepared::normalizedUrl).toList());
+      Map<String, BulkShortener.Outcome> outcomes = new HashMap<>();
+      for (BulkShortener.Prepared prepared : batch) {
+        ShortUrl mapping = new ShortUrl();
+        mapping.setOriginalUrl(prepared.normalizedUrl());
+        mapping.setShortCode(prepared.candidateCode());
+        outcomes.put(prepared.normalizedUrl(), new BulkShortener.Outcome(mapping, null));
+      }
+      return outcomes;
+    });
+  }
+
+  @AfterEach
+  void tearDown() {
+    importer.destroy();
+  }
+
+  @Test
+  void importFile_csvWithHeader_storesInBatchesAndReportsRejectedLines() throws Exception {
+    Path file = dir.resolve("urls.csv");
+    Files.writeString(file, """
+        id,original_url,expires_at
+        1,https://example.com/a,
+        2,not-a-url,
+
+        3,https://example.com/b,2099-01-01T00:00:00Z
+        4,"https://example.com/c?x=1,2",
+        5,https://example.com/d,tomorrow
+        """);
+
+    ImportJob job = importer.importFile(file);
+
+    assertEquals(ImportJob.State.COMPLETED, job.getState());
+    assertEquals(3, job.getImported());
+    assertEquals(2, job.getFailed());
+    assertEquals(List.of(
+        List.of("https://example.com/a"),
+        List.of("https://example.com/b", "https://example.com/c?x=1,2")), storedBatches);
+    verify(bulkShortener).prepare("https://example.com/b", Instant.parse("2099-01-01T00:00:00Z"));
+    assertEquals("""
+        line,error\r
+        3,Invalid URL: not-a-url\r
+        7,Invalid expiry: tomorrow\r
+        """, Files.readString(dir.resolve("urls.csv.errors.csv")));
+    assertEquals("7 completed", Files.readString(dir.resolve("urls.csv.checkpoint")));
+  }
+
+  @Test
+  void importFile_resumesAfterCheckpoint() throws Exception {
+    Path file = dir.resolve("urls.txt");
+    Files.writeString(file, "https://example.com/a\nhttps://example.com/b\nhttps://example.com/c\n");
+    Files.writeString(dir.resolve("urls.txt.checkpoint"), "2");
+
+    ImportJob job = importer.importFile(file);
+
+    assertEquals(ImportJob.State.COMPLETED, job.getState());
+    assertEquals(1, job.getImported());
+    assertEquals(List.of(List.of("https://example.com/c")), storedBatches);
+  }
+
+  @Test
+  void importFile_ndjson_readsUrlAndExpiry() throws Exception {
+    Path file = dir.resolve("urls.ndjson");
+    Files.writeString(file, """
+        {"id":1,"shortCode":"abc","originalUrl":"https://example.com/a","expiresAt":null}
+        {"url":"https://example.com/b","expiresAt":"2099-01-01T00:00:00Z"}
+        {"url":
+        """);
+
+    ImportJob job = importer.importFile(file);
+
+    assertEquals(2, job.getImported());
+    assertEquals(1, job.getFailed());
+    verify(bulkShortener).prepare("https://example.com/a", null);
+    verify(bulkShortener).prepare("https://example.com/b", Instant.parse("2099-01-01T00:00:00Z"));
+  }
+
+  @Test
+  void submit_importsUploadInBackgroundAndCanBeFoundAgain() throws Exception {
+    byte[] body = "https://example.com/a\nhttps://example.com/b\n".getBytes(StandardCharsets.UTF_8);
+
+    ImportJob job = importer.submit(new ByteArrayInputStream(body), ExportFormat.CSV);
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (job.isActive() && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(ImportJob.State.COMPLETED, job.getState());
+    assertEquals(2, job.getImported());
+    assertSame(job, importer.find(job.getId()).orElseThrow());
+    assertTrue(importer.find("../etc/passwd").isEmpty());
+  }
+}
@@ -0,0 +1,86 @@
+package com.example.urlshortener.cache;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.model.RedirectType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotSetSnapshotTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void write_thenRead_roundTripsEntries() throws IOException {
+    // Sub-millisecond, as stored in timestamp(6) columns
+    Instant createdAt = Instant.parse("2026-01-01T12:00:00.123456Z");
+    Instant expiresAt = createdAt.plus(1, ChronoUnit.DAYS);
+    List<ResolveCache.Entry> entries = List.of(
+        new ResolveCache.Entry("abc123", "https://example.com/a", null, null, null),
+        new ResolveCache.Entry("def456", "https://example.com/ü?q=1", expiresAt, createdAt, RedirectType.TEMPORARY));
+    Path file = dir.resolve("hot-set.snapshot");
+
+    assertEquals(2, HotSetSnapshot.write(file, entries));
+    List<ResolveCache.Entry> read = new ArrayList<>();
+    assertEquals(2, HotSetSnapshot.read(file, read::add));
+
+    assertEquals(entries, read);
+  }
+
+  @Test
+  void read_corruptOrTruncatedFile_throwsIOException() throws IOException {
+    Path file = dir.resolve("hot-set.snapshot");
+    HotSetSnapshot.write(file, List.of(new ResolveCache.Entry("abc123", "https://example.com/a", null, null, null)));
+    byte[] bytes = Files.readAllBytes(file);
+
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+    assertThrows(IOException.class, () -> HotSetSnapshot.read(file, entry -> { }));
+
+    bytes[0] = 'X';
+    Files.write(file, bytes);
+    assertThrows(IOException.class, () -> HotSetSnapshot.read(file, entry -> { }));
+  }
+
+  @Test
+  void warm_loadsSnapshotOfPreviousRunIntoCache() {
+    AppProperties properties = new AppProperties();
+    properties.getCache().setSnapshotPath(dir.resolve("hot-set.snapshot").toString());
+    ResolveCache previous = new ResolveCache(properties);
+    previous.put("abc123", "https://example.com/a");
+    previous.put("def456", "https://example.com/d", Instant.now().plusSeconds(3600));
+    assertEquals(2, new HotSetSnapshotter(previous, new SimpleMeterRegistry(), properties).writeSnapshot());
+
+    ResolveCache cache = new ResolveCache(properties);
+    HotSetSnapshotter snapshotter = new HotSetSnapshotter(cache, new SimpleMeterRegistry(), properties);
+    snapshotter.afterSingletonsInstantiated();
+
+    assertEquals(2, snapshotter.warmedEntries());
+    assertEquals("https://example.com/a", cache.get("abc123"));
+    assertEquals("https://example.com/d", cache.get("def456"));
+  }
+
+  @Test
+  void warm_missingSnapshot_startsCold() {
+    AppProperties properties = new AppProperties();
+    properties.getCache().setSnapshotPath(dir.resolve("missing.snapshot").toString());
+    ResolveCache cache = new ResolveCache(properties);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    new HotSetSnapshotter(cache, registry, properties).afterSingletonsInstantiated();
+
+    assertEquals(0, cache.estimatedSize());
+    assertNotNull(registry.find("urlshortener.cache.first.minute.hit.ratio").tag("start", "cold").gauge());
+  }
+}
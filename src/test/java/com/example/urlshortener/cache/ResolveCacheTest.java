@@ -0,0 +1,145 @@
+package com.example.urlshortener.cache;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.repository.LinkTarget;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResolveCacheTest {
+
+  @Test
+  void get_afterPut_returnsUrlAndCountsHit() {
+    ResolveCache cache = new ResolveCache(new AppProperties());
+    assertNull(cache.get("abc"));
+
+    cache.put("abc", "https://example.com/a");
+
+    assertEquals("https://example.com/a", cache.get("abc"));
+    assertEquals(1, cache.stats().hitCount());
+    assertEquals(1, cache.stats().missCount());
+  }
+
+  @Test
+  void get_expiredEntry_returnsNullAndDropsIt() {
+    ResolveCache cache = new ResolveCache(new AppProperties());
+    cache.put("old", "https://example.com/old", Instant.now().minusSeconds(1));
+    cache.put("live", "https://example.com/live", Instant.now().plusSeconds(3600));
+
+    assertNull(cache.get("old"));
+    assertEquals(1, cache.estimatedSize());
+    assertEquals("https://example.com/live", cache.get("live"));
+  }
+
+  @Test
+  void hottest_skipsExpiredEntriesAndHonoursLimit() {
+    ResolveCache cache = new ResolveCache(new AppProperties());
+    cache.put("a", "https://example.com/a");
+    cache.put("b", "https://example.com/b", Instant.now().plusSeconds(3600));
+    cache.put("old", "https://example.com/old", Instant.now().minusSeconds(1));
+
+    List<ResolveCache.Entry> hottest = cache.hottest(10);
+
+    assertEquals(2, hottest.size());
+    assertTrue(hottest.stream().noneMatch(entry -> entry.shortCode().equals("old")));
+    assertEquals(1, cache.hottest(1).size());
+  }
+
+  @Test
+  void put_clearsNegativeEntry() {
+    ResolveCache cache = new ResolveCache(new AppProperties());
+    cache.putMissing("abc");
+    assertTrue(cache.isKnownMissing("abc"));
+
+    cache.put("abc", "https://example.com/a");
+
+    assertFalse(cache.isKnownMissing("abc"));
+    assertEquals("https://example.com/a", cache.get("abc"));
+  }
+
+  @Test
+  void invalidate_removesBothEntries() {
+    ResolveCache cache = new ResolveCache(new AppProperties());
+    cache.put("abc", "https://example.com/a");
+    cache.putMissing("def");
+
+    cache.invalidate("abc");
+    cache.invalidate("def");
+
+    assertNull(cache.get("abc"));
+    assertFalse(cache.isKnownMissing("def"));
+  }
+
+  @Test
+  void getTarget_pinnedCodeNotInCache_returnsPinnedTargetAndCountsPinnedHit() {
+    ResolveCache cache = new ResolveCache(new AppProperties());
+    cache.pin(Map.of("hot", new LinkTarget("https://example.com/hot", null, null, null)));
+
+    assertEquals("https://example.com/hot", cache.get("hot"));
+    assertEquals(1, cache.pinnedHitCount());
+    assertEquals(1, cache.stats().missCount());
+    assertEquals(1, cache.pinnedSize());
+  }
+
+  @Test
+  void getTarget_expiredPinnedTarget_returnsNull() {
+    ResolveCache cache = new ResolveCache(new AppProperties());
+    cache.pin(Map.of("old", new LinkTarget("https://example.com/old", Instant.now().minusSeconds(1), null, null)));
+
+    assertNull(cache.get("old"));
+    assertNull(cache.peek("old"));
+    assertEquals(0, cache.pinnedHitCount());
+  }
+
+  @Test
+  void invalidate_removesPinnedTarget() {
+    ResolveCache cache = new ResolveCache(new AppProperties());
+    cache.pin(Map.of(
+        "a", new LinkTarget("https://example.com/a", null, null, null),
+        "b", new LinkTarget("https://example.com/b", null, null, null)));
+
+    cache.invalidate("a");
+
+    assertNull(cache.get("a"));
+    assertEquals("https://example.com/b", cache.get("b"));
+  }
+
+  @Test
+  void peek_doesNotCountHitsOrMisses() {
+    ResolveCache cache = new ResolveCache(new AppProperties());
+    cache.put("abc", "https://example.com/a");
+
+    assertEquals("https://example.com/a", cache.peek("abc").originalUrl());
+    assertNull(cache.peek("missing"));
+    assertEquals(0, cache.stats().requestCount());
+  }
+
+  @Test
+  void disabledCache_neverStoresEntries() {
+    AppProperties properties = new AppProperties();
+    properties.getCache().setEnabled(false);
+    ResolveCache cache = new ResolveCache(properties);
+
+    cache.put("abc", "https://example.com/a");
+    cache.putMissing("def");
+
+    assertNull(cache.get("abc"));
+    assertFalse(cache.isKnownMissing("def"));
+  }
+
+  @Test
+  void disabledCache_ignoresPins() {
+    AppProperties properties = new AppProperties();
+    properties.getCache().setEnabled(false);
+    ResolveCache cache = new ResolveCache(properties);
+
+    cache.pin(Map.of("hot", new LinkTarget("https://example.com/hot", null, null, null)));
+
+    assertNull(cache.get("hot"));
+    assertEquals(0, cache.pinnedSize());
+  }
+}
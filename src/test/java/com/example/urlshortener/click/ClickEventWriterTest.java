@@ -0,0 +1,68 @@
+package com.example.urlshortener.click;
+
+import com.example.urlshortener.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClickEventWriterTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  private ClickTracker tracker;
+  private ClickEventWriter writer;
+
+  @BeforeEach
+  void setUp() {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getClicks().setBatchSize(2);
+    tracker = new ClickTracker(appProperties);
+    writer = new ClickEventWriter(tracker, jdbcTemplate, appProperties);
+  }
+
+  @Test
+  void flush_writesAtMostOneBatch() {
+    tracker.record("a", null, null);
+    tracker.record("b", null, null);
+    tracker.record("c", null, null);
+
+    assertEquals(2, writer.flush());
+    assertEquals(1, writer.flush());
+    assertEquals(0, writer.flush());
+
+    verify(jdbcTemplate).batchUpdate(eq(ClickEventWriter.INSERT_SQL),
+        argThat((Collection<ClickEvent> events) -> events.size() == 2), eq(2),
+        any(ParameterizedPreparedStatementSetter.class));
+    verify(jdbcTemplate).batchUpdate(eq(ClickEventWriter.INSERT_SQL),
+        argThat((Collection<ClickEvent> events) -> events.size() == 1), eq(1),
+        any(ParameterizedPreparedStatementSetter.class));
+    assertEquals(3, writer.writtenCount());
+  }
+
+  @Test
+  void flush_failedBatch_isCountedAndNotRetried() {
+    doThrow(new DataAccessResourceFailureException("down"))
+        .when(jdbcTemplate)
+        .batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    tracker.record("a", null, null);
+
+    assertEquals(1, writer.flush());
+    assertEquals(0, writer.flush());
+
+    assertEquals(1, writer.failedCount());
+    assertEquals(0, writer.writtenCount());
+  }
+}
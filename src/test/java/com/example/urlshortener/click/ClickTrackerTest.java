@@ -0,0 +1,122 @@
+package com.example.urlshortener.click;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.util.XxHash64;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickTrackerTest {
+
+  @Test
+  void record_enqueuesEventWithHashedUserAgent() {
+    ClickTracker tracker = new ClickTracker(new AppProperties());
+
+    tracker.record("abc", "https://ref.example.com/", "Mozilla/5.0");
+
+    List<ClickEvent> events = new ArrayList<>();
+    assertEquals(1, tracker.drainTo(events, 10));
+    ClickEvent event = events.get(0);
+    assertEquals("abc", event.shortCode());
+    assertEquals("https://ref.example.com/", event.referrer());
+    byte[] userAgent = "Mozilla/5.0".getBytes(StandardCharsets.UTF_8);
+    assertEquals(XxHash64.hash(userAgent, 0, userAgent.length), event.userAgentHash());
+    assertTrue(event.clickedAtMillis() > 0);
+    assertEquals(1, tracker.publishedCount());
+  }
+
+  @Test
+  void record_withoutHeaders_storesNullReferrerAndZeroHash() {
+    ClickTracker tracker = new ClickTracker(new AppProperties());
+
+    tracker.record("abc", null, null);
+
+    List<ClickEvent> events = new ArrayList<>();
+    tracker.drainTo(events, 10);
+    assertNull(events.get(0).referrer());
+    assertEquals(0L, events.get(0).userAgentHash());
+  }
+
+  @Test
+  void record_longReferrer_isTruncated() {
+    ClickTracker tracker = new ClickTracker(new AppProperties());
+
+    tracker.record("abc", "https://ref.example.com/" + "x".repeat(5000), null);
+
+    List<ClickEvent> events = new ArrayList<>();
+    tracker.drainTo(events, 10);
+    assertEquals(ClickTracker.MAX_REFERRER_LENGTH, events.get(0).referrer().length());
+  }
+
+  @Test
+  void record_fullBufferWithDropPolicy_countsDroppedEvents() {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getClicks().setBufferCapacity(2);
+    ClickTracker tracker = new ClickTracker(appProperties);
+
+    tracker.record("a", null, null);
+    tracker.record("b", null, null);
+    tracker.record("c", null, null);
+
+    assertEquals(2, tracker.queueDepth());
+    assertEquals(2, tracker.publishedCount());
+    assertEquals(1, tracker.droppedCount());
+  }
+
+  @Test
+  void record_fullBufferWithBlockPolicy_waitsForRoom() throws Exception {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getClicks().setBufferCapacity(2);
+    appProperties.getClicks().setOverflowPolicy(ClickOverflowPolicy.BLOCK);
+    appProperties.getClicks().setBlockTimeout(Duration.ofSeconds(5));
+    ClickTracker tracker = new ClickTracker(appProperties);
+    tracker.record("a", null, null);
+    tracker.record("b", null, null);
+
+    List<ClickEvent> events = new ArrayList<>();
+    Thread drainer = Thread.ofPlatform().start(() -> {
+      while (events.isEmpty()) {
+        tracker.drainTo(events, 1);
+        Thread.yield();
+      }
+    });
+    tracker.record("c", null, null);
+    drainer.join();
+
+    assertEquals("a", events.get(0).shortCode());
+    assertEquals(2, tracker.queueDepth());
+    assertEquals(0, tracker.droppedCount());
+  }
+
+  @Test
+  void record_fullBufferWithBlockPolicy_dropsAfterTimeout() {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getClicks().setBufferCapacity(2);
+    appProperties.getClicks().setOverflowPolicy(ClickOverflowPolicy.BLOCK);
+    appProperties.getClicks().setBlockTimeout(Duration.ofMillis(5));
+    ClickTracker tracker = new ClickTracker(appProperties);
+
+    tracker.record("a", null, null);
+    tracker.record("b", null, null);
+    tracker.record("c", null, null);
+
+    assertEquals(1, tracker.droppedCount());
+  }
+
+  @Test
+  void record_disabled_isNoOp() {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getClicks().setEnabled(false);
+    ClickTracker tracker = new ClickTracker(appProperties);
+
+    tracker.record("a", null, null);
+
+    assertEquals(0, tracker.queueDepth());
+    assertEquals(0, tracker.publishedCount());
+  }
+}
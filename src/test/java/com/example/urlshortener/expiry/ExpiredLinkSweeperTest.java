@@ -0,0 +1,97 @@
+package com.example.urlshortener.expiry;
+
+import com.example.urlshortener.cache.ResolveCache;
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.shard.ShardRouter;
+import com.example.urlshortener.shard.UrlIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiredLinkSweeperTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+  private JdbcTemplate jdbcTemplate;
+  private ResolveCache resolveCache;
+  private ExpiredLinkSweeper sweeper;
+
+  @BeforeEach
+  void setUp() {
+    DriverManagerDataSource dataSource =
+        new DriverManagerDataSource("jdbc:h2:mem:expired-link-sweeper;DB_CLOSE_DELAY=-1", "sa", "");
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("""
+        create table short_urls (
+          id bigint generated by default as identity primary key,
+          original_url varchar(2048) not null,
+          short_code varchar(10) not null unique,
+          created_at timestamp(6) with time zone not null,
+          expires_at timestamp(6) with time zone)
+        """);
+    AppProperties appProperties = new AppProperties();
+    appProperties.getExpiry().setBatchSize(2);
+    appProperties.getExpiry().setBatchPause(Duration.ZERO);
+    resolveCache = new ResolveCache(appProperties);
+    ShardRouter shardRouter = ShardRouter.single();
+    sweeper = new ExpiredLinkSweeper(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+        resolveCache, appProperties, shardRouter, new UrlIndex(jdbcTemplate, shardRouter));
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.execute("drop table short_urls");
+  }
+
+  @Test
+  void sweep_deletesExpiredLinksInBatches() {
+    for (int i = 0; i < 5; i++) {
+      insert("old" + i, NOW.minusSeconds(60 + i));
+    }
+    insert("due", NOW);
+    insert("later", NOW.plusSeconds(60));
+    insert("forever", null);
+
+    assertEquals(6, sweeper.sweep(NOW));
+
+    assertEquals(List.of("forever", "later"), jdbcTemplate.queryForList(
+        "select short_code from short_urls order by short_code", String.class));
+    assertEquals(6, sweeper.deletedCount());
+  }
+
+  @Test
+  void sweep_invalidatesResolveCache() {
+    insert("old", NOW.minusSeconds(1));
+    resolveCache.put("old", "https://example.com/old");
+
+    sweeper.sweep(NOW);
+
+    assertNull(resolveCache.get("old"));
+  }
+
+  @Test
+  void sweep_nothingExpired_deletesNothing() {
+    insert("later", NOW.plusSeconds(60));
+
+    assertEquals(0, sweeper.sweep(NOW));
+    assertEquals(1, jdbcTemplate.queryForObject("select count(*) from short_urls", Integer.class));
+  }
+
+  private void insert(String code, Instant expiresAt) {
+    jdbcTemplate.update(
+        "insert into short_urls (original_url, short_code, created_at, expires_at) values (?, ?, ?, ?)",
+        "https://example.com/" + code, code, OffsetDateTime.ofInstant(NOW, ZoneOffset.UTC),
+        expiresAt == null ? null : OffsetDateTime.ofInstant(expiresAt, ZoneOffset.UTC));
+  }
+}
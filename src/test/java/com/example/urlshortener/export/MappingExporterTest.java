@@ -0,0 +1,175 @@
+package com.example.urlshortener.export;
+
+import com.example.urlshortener.model.RedirectType;
+import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.shard.ShardRouter;
+import com.example.urlshortener.store.log.LogShortUrlStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappingExporterTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+  private JdbcTemplate jdbcTemplate;
+  private MappingExporter exporter;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = new JdbcTemplate(
+        new DriverManagerDataSource("jdbc:h2:mem:mapping-exporter;DB_CLOSE_DELAY=-1", "sa", ""));
+    jdbcTemplate.execute("""
+        create table short_urls (
+          id bigint generated by default as identity primary key,
+          original_url varchar(2048) not null,
+          short_code varchar(10) not null unique,
+          created_at timestamp(6) with time zone not null,
+          expires_at timestamp(6) with time zone,
+          redirect_type varchar(16))
+        """);
+    exporter = new MappingExporter(jdbcTemplate, ShardRouter.single(), Optional.empty());
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.execute("drop table short_urls");
+  }
+
+  @Test
+  void export_ndjson_writesEveryRowAcrossPagesInIdOrder() throws IOException {
+    int rows = MappingExporter.PAGE_SIZE * 2 + 7;
+    List<Object[]> batch = new ArrayList<>();
+    for (int i = 0; i < rows; i++) {
+      batch.add(new Object[] {"https://example.com/" + i, "c" + i, OffsetDateTime.ofInstant(NOW, ZoneOffset.UTC)});
+    }
+    jdbcTemplate.batchUpdate(
+        "insert into short_urls (original_url, short_code, created_at) values (?, ?, ?)", batch);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    assertEquals(rows, exporter.export(out, ExportFormat.NDJSON, false));
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(rows, lines.length);
+    assertEquals("{\"id\":1,\"shortCode\":\"c0\",\"originalUrl\":\"https://example.com/0\","
+        + "\"createdAt\":\"2026-01-01T12:00:00Z\",\"expiresAt\":null,\"redirectType\":null}", lines[0]);
+    assertTrue(lines[rows - 1].startsWith("{\"id\":" + rows + ",\"shortCode\":\"c" + (rows - 1) + "\""));
+  }
+
+  @Test
+  void export_ndjson_escapesJsonStrings() throws IOException {
+    insert("q", "https://example.com/?a=\"b\"&c=\\d", NOW.plusSeconds(60));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    exporter.export(out, ExportFormat.NDJSON, false);
+
+    assertTrue(out.toString(StandardCharsets.UTF_8).contains(
+        "\"originalUrl\":\"https://example.com/?a=\\\"b\\\"&c=\\\\d\",\"createdAt\":\"2026-01-01T12:00:00Z\","
+            + "\"expiresAt\":\"2026-01-01T12:01:00Z\",\"redirectType\":null}"));
+  }
+
+  @Test
+  void export_csv_writesHeaderAndQuotesFields() throws IOException {
+    insert("plain", "https://example.com/a", null);
+    insert("quoted", "https://example.com/?list=a,b&q=\"x\"", NOW.plusSeconds(60));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    assertEquals(2, exporter.export(out, ExportFormat.CSV, false));
+
+    assertEquals("""
+        id,short_code,original_url,created_at,expires_at,redirect_type\r
+        1,plain,https://example.com/a,2026-01-01T12:00:00Z,,\r
+        2,quoted,"https://example.com/?list=a,b&q=""x\""",2026-01-01T12:00:00Z,2026-01-01T12:01:00Z,\r
+        """, out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void export_linkWithOwnRedirectType_writesItInBothFormats() throws IOException {
+    insert("temp", "https://example.com/t", null);
+    jdbcTemplate.update("update short_urls set redirect_type = 'TEMPORARY' where short_code = 'temp'");
+    ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+    ByteArrayOutputStream csv = new ByteArrayOutputStream();
+
+    exporter.export(ndjson, ExportFormat.NDJSON, false);
+    exporter.export(csv, ExportFormat.CSV, false);
+
+    assertTrue(ndjson.toString(StandardCharsets.UTF_8).endsWith(",\"redirectType\":\"TEMPORARY\"}\n"));
+    assertTrue(csv.toString(StandardCharsets.UTF_8).endsWith("2026-01-01T12:00:00Z,,TEMPORARY\r\n"));
+  }
+
+  @Test
+  void export_gzip_producesCompressedStream() throws IOException {
+    insert("abc", "https://example.com/a", null);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    exporter.export(out, ExportFormat.NDJSON, true);
+
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+      assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).startsWith("{\"id\":1,\"shortCode\":\"abc\""));
+    }
+  }
+
+  @Test
+  void export_emptyTable_writesNothing() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    assertEquals(0, exporter.export(out, ExportFormat.NDJSON, false));
+    assertEquals(0, out.size());
+  }
+
+  @Test
+  void export_logStore_readsMappingsFromLogInIdOrder(@TempDir Path dir) throws IOException {
+    insert("db", "https://example.com/db", null);
+    try (LogShortUrlStore logStore = new LogShortUrlStore(dir.resolve("short-urls.log"), false)) {
+      for (String code : List.of("b", "a")) {
+        ShortUrl mapping = new ShortUrl(null, "https://example.com/" + code, code, NOW);
+        mapping.setOriginalUrlHash((long) code.hashCode());
+        mapping.setExpiresAt(code.equals("a") ? NOW.plusSeconds(60) : null);
+        mapping.setRedirectType(code.equals("b") ? RedirectType.FOUND : null);
+        logStore.insert(mapping);
+      }
+      MappingExporter logExporter = new MappingExporter(jdbcTemplate, ShardRouter.single(), Optional.of(logStore));
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+      assertEquals(2, logExporter.export(out, ExportFormat.CSV, false));
+
+      assertEquals("""
+          id,short_code,original_url,created_at,expires_at,redirect_type\r
+          1,b,https://example.com/b,2026-01-01T12:00:00Z,,FOUND\r
+          2,a,https://example.com/a,2026-01-01T12:00:00Z,2026-01-01T12:01:00Z,\r
+          """, out.toString(StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void forFileName_picksFormatFromExtension() {
+    assertEquals(ExportFormat.CSV, ExportFormat.forFileName("backup.csv"));
+    assertEquals(ExportFormat.CSV, ExportFormat.forFileName("backup.csv.gz"));
+    assertEquals(ExportFormat.NDJSON, ExportFormat.forFileName("backup.ndjson.gz"));
+  }
+
+  private void insert(String code, String url, Instant expiresAt) {
+    jdbcTemplate.update(
+        "insert into short_urls (original_url, short_code, created_at, expires_at) values (?, ?, ?, ?)",
+        url, code, OffsetDateTime.ofInstant(NOW, ZoneOffset.UTC),
+        expiresAt == null ? null : OffsetDateTime.ofInstant(expiresAt, ZoneOffset.UTC));
+  }
+}
@@ -0,0 +1,80 @@
+package com.example.urlshortener.heavyhitter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+  @Test
+  void add_returnsRunningEstimate() {
+    CountMinSketch sketch = new CountMinSketch(4, 1024);
+
+    assertEquals(1, sketch.add("abc"));
+    assertEquals(2, sketch.add("abc"));
+    assertEquals(2, sketch.estimate("abc"));
+    assertEquals(0, sketch.estimate("other"));
+  }
+
+  @Test
+  void estimate_narrowSketch_neverUnderestimates() {
+    CountMinSketch sketch = new CountMinSketch(4, 64);
+    Map<String, Integer> actual = new HashMap<>();
+    SplittableRandom random = new SplittableRandom(7);
+    for (int i = 0; i < 20_000; i++) {
+      // Skewed: low codes are far more frequent than high ones
+      String code = "c" + (int) Math.pow(random.nextInt(1_000), 2) / 1_000;
+      actual.merge(code, 1, Integer::sum);
+      sketch.add(code);
+    }
+
+    actual.forEach((code, count) -> assertTrue(sketch.estimate(code) >= count, code));
+    assertEquals(actual.get("c0"), sketch.estimate("c0"), 0.05 * actual.get("c0"));
+  }
+
+  @Test
+  void estimate_keysWithEqualHashCode_areCountedIndependently() {
+    CountMinSketch sketch = new CountMinSketch(4, 1024);
+    assertEquals("AaAa".hashCode(), "BBBB".hashCode());
+    for (int i = 0; i < 100; i++) {
+      sketch.add("AaAa");
+    }
+
+    assertEquals(100, sketch.estimate("AaAa"));
+    assertEquals(0, sketch.estimate("BBBB"));
+    assertEquals(0, sketch.estimate("AaBB"));
+    assertEquals(0, sketch.estimate("BBAa"));
+  }
+
+  @Test
+  void halve_halvesEstimates() {
+    CountMinSketch sketch = new CountMinSketch(4, 1024);
+    for (int i = 0; i < 9; i++) {
+      sketch.add("abc");
+    }
+
+    sketch.halve();
+
+    assertEquals(4, sketch.estimate("abc"));
+  }
+
+  @Test
+  void constructor_roundsWidthUpToPowerOfTwo() {
+    CountMinSketch sketch = new CountMinSketch(3, 1000);
+
+    assertEquals(1024, sketch.width());
+    assertEquals(3, sketch.depth());
+    assertEquals(3L * 1024 * Integer.BYTES, sketch.memoryBytes());
+    assertEquals(1, new CountMinSketch(1, 1).width());
+  }
+
+  @Test
+  void constructor_nonPositiveDimensions_throws() {
+    assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 16));
+    assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(4, 0));
+  }
+}
@@ -0,0 +1,154 @@
+package com.example.urlshortener.heavyhitter;
+
+import com.example.urlshortener.cache.ResolveCache;
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.exception.UrlNotFoundException;
+import com.example.urlshortener.repository.LinkTarget;
+import com.example.urlshortener.service.UrlShorteningService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HeavyHitterTrackerTest {
+
+  @Mock
+  private UrlShorteningService urlShorteningService;
+
+  private final AppProperties appProperties = new AppProperties();
+  private final ResolveCache resolveCache = new ResolveCache(appProperties);
+
+  @Test
+  void refresh_skewedTraffic_ranksHottestFirst() {
+    appProperties.getHeavyHitters().setPinCache(false);
+    HeavyHitterTracker tracker = new HeavyHitterTracker(appProperties, resolveCache, urlShorteningService);
+    record(tracker, "a", 50);
+    record(tracker, "b", 20);
+    record(tracker, "c", 5);
+
+    tracker.refresh(System.nanoTime());
+
+    assertEquals(List.of(new HeavyHitter("a", 50), new HeavyHitter("b", 20)), tracker.hottest(2));
+    assertEquals(75, tracker.countedCount());
+    assertEquals(0, tracker.droppedCount());
+  }
+
+  @Test
+  void refresh_overrunBuffer_countsDroppedRecords() {
+    appProperties.getHeavyHitters().setPinCache(false);
+    appProperties.getHeavyHitters().setBufferSize(4);
+    HeavyHitterTracker tracker = new HeavyHitterTracker(appProperties, resolveCache, urlShorteningService);
+    record(tracker, "a", 10);
+
+    tracker.refresh(System.nanoTime());
+
+    assertEquals(4, tracker.countedCount());
+    assertEquals(6, tracker.droppedCount());
+    assertEquals(List.of(new HeavyHitter("a", 4)), tracker.hottest(10));
+  }
+
+  @Test
+  void refresh_afterHalfLife_halvesCounts() {
+    appProperties.getHeavyHitters().setPinCache(false);
+    HeavyHitterTracker tracker = new HeavyHitterTracker(appProperties, resolveCache, urlShorteningService);
+    record(tracker, "a", 8);
+    tracker.refresh(System.nanoTime());
+
+    tracker.refresh(System.nanoTime() + appProperties.getHeavyHitters().getHalfLife().toNanos());
+
+    assertEquals(List.of(new HeavyHitter("a", 4)), tracker.hottest(10));
+    assertEquals(4, tracker.sketch().estimate("a"));
+  }
+
+  @Test
+  void refresh_withPinCache_pinsCachedCodesAndPrefetchesMissingOnes() {
+    HeavyHitterTracker tracker = new HeavyHitterTracker(appProperties, resolveCache, urlShorteningService);
+    resolveCache.put("a", "https://example.com/a");
+    when(urlShorteningService.resolve("b")).thenReturn(new LinkTarget("https://example.com/b", null, null, null));
+    record(tracker, "a", 3);
+    record(tracker, "b", 2);
+
+    tracker.refresh(System.nanoTime());
+
+    assertEquals(2, resolveCache.pinnedSize());
+    assertEquals(1, tracker.prefetchedCount());
+    assertEquals("https://example.com/b", resolveCache.peek("b").originalUrl());
+    verify(urlShorteningService, never()).resolve("a");
+  }
+
+  @Test
+  void refresh_unknownHotCode_isNotPinned() {
+    HeavyHitterTracker tracker = new HeavyHitterTracker(appProperties, resolveCache, urlShorteningService);
+    when(urlShorteningService.resolve("gone")).thenThrow(new UrlNotFoundException("Unknown short code: gone"));
+    record(tracker, "gone", 3);
+
+    tracker.refresh(System.nanoTime());
+
+    assertEquals(0, resolveCache.pinnedSize());
+    assertEquals(0, tracker.prefetchedCount());
+  }
+
+  @Test
+  void record_disabled_isIgnored() {
+    appProperties.getHeavyHitters().setEnabled(false);
+    HeavyHitterTracker tracker = new HeavyHitterTracker(appProperties, resolveCache, urlShorteningService);
+    record(tracker, "a", 3);
+
+    tracker.refresh(System.nanoTime());
+
+    assertEquals(0, tracker.countedCount());
+    assertTrue(tracker.hottest(10).isEmpty());
+  }
+
+  @Test
+  void record_concurrentlyWithDraining_accountsForEveryRecord() throws Exception {
+    appProperties.getHeavyHitters().setPinCache(false);
+    appProperties.getHeavyHitters().setBufferSize(64);
+    HeavyHitterTracker tracker = new HeavyHitterTracker(appProperties, resolveCache, urlShorteningService);
+    CountDownLatch start = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> writers = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        writers.add(executor.submit(() -> {
+          start.await();
+          record(tracker, "x", 10_000);
+          return null;
+        }));
+      }
+      start.countDown();
+      while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+        tracker.drain();
+      }
+      for (Future<?> writer : writers) {
+        writer.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    tracker.refresh(System.nanoTime());
+
+    assertEquals(80_000, tracker.countedCount() + tracker.droppedCount());
+    assertTrue(tracker.countedCount() > 0);
+    assertEquals(tracker.countedCount(), tracker.sketch().estimate("x"));
+  }
+
+  private static void record(HeavyHitterTracker tracker, String shortCode, int times) {
+    for (int i = 0; i < times; i++) {
+      tracker.record(shortCode);
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.urlshortener.heavyhitter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+  @Test
+  void offer_full_replacesSmallestOnlyWhenLarger() {
+    TopK top = new TopK(2);
+    top.offer("a", 5);
+    top.offer("b", 3);
+
+    top.offer("c", 2);
+    assertEquals(List.of(new HeavyHitter("a", 5), new HeavyHitter("b", 3)), top.sorted(10));
+
+    top.offer("c", 4);
+    assertEquals(List.of(new HeavyHitter("a", 5), new HeavyHitter("c", 4)), top.sorted(10));
+  }
+
+  @Test
+  void offer_heldKey_updatesItsCount() {
+    TopK top = new TopK(2);
+    top.offer("a", 5);
+    top.offer("b", 3);
+
+    top.offer("b", 9);
+    top.offer("c", 4);
+
+    assertEquals(List.of(new HeavyHitter("b", 9), new HeavyHitter("a", 5)), top.sorted(10));
+  }
+
+  @Test
+  void halve_halvesCountsAndDropsZeros() {
+    TopK top = new TopK(3);
+    top.offer("a", 8);
+    top.offer("b", 1);
+
+    top.halve();
+
+    assertEquals(List.of(new HeavyHitter("a", 4)), top.sorted(10));
+    top.offer("c", 2);
+    assertEquals(2, top.size());
+  }
+
+  @Test
+  void sorted_honoursLimit() {
+    TopK top = new TopK(3);
+    top.offer("a", 1);
+    top.offer("b", 3);
+    top.offer("c", 2);
+
+    assertEquals(List.of(new HeavyHitter("b", 3)), top.sorted(1));
+  }
+}
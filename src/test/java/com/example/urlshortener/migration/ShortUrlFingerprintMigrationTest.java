@@ -0,0 +1,96 @@
+package com.example.urlshortener.migration;
+
+import com.example.urlshortener.util.UrlFingerprint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortUrlFingerprintMigrationTest {
+
+  private JdbcTemplate jdbcTemplate;
+  private ShortUrlFingerprintMigration migration;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = new JdbcTemplate(
+        new DriverManagerDataSource("jdbc:h2:mem:fingerprint-migration;DB_CLOSE_DELAY=-1", "sa", ""));
+    // Schema as left by ddl-auto=update on a database created before the fingerprint column
+    jdbcTemplate.execute("""
+        create table short_urls (
+          id bigint generated by default as identity primary key,
+          original_url varchar(2048) not null,
+          short_code varchar(10) not null,
+          created_at timestamp(6) with time zone not null,
+          original_url_hash bigint,
+          constraint uk_short_urls_original_url unique (original_url),
+          constraint uk_short_urls_short_code unique (short_code),
+          constraint uk_short_urls_original_url_hash unique (original_url_hash))
+        """);
+    migration = new ShortUrlFingerprintMigration(jdbcTemplate);
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.execute("drop table short_urls");
+  }
+
+  @Test
+  void migrate_backfillsEveryRowAcrossBatches() {
+    int rows = ShortUrlFingerprintMigration.BATCH_SIZE * 2 + 5;
+    List<Object[]> args = new ArrayList<>();
+    for (int i = 0; i < rows; i++) {
+      args.add(new Object[] { "https://example.com/" + i, "c" + i, Timestamp.from(Instant.now()) });
+    }
+    jdbcTemplate.batchUpdate("insert into short_urls (original_url, short_code, created_at) values (?, ?, ?)", args);
+
+    assertEquals(rows, migration.migrate());
+
+    for (int i : new int[] { 0, ShortUrlFingerprintMigration.BATCH_SIZE, rows - 1 }) {
+      Long hash = jdbcTemplate.queryForObject(
+          "select original_url_hash from short_urls where short_code = ?", Long.class, "c" + i);
+      assertEquals(UrlFingerprint.of("https://example.com/" + i, 0), hash);
+    }
+  }
+
+  @Test
+  void migrate_takenFingerprint_usesNextProbe() {
+    String url = "https://example.com/a";
+    insert(url, "a", null);
+    // A row that already holds the primary fingerprint of the legacy URL
+    insert("https://example.com/b", "b", UrlFingerprint.of(url, 0));
+
+    assertEquals(1, migration.migrate());
+
+    Long hash = jdbcTemplate.queryForObject(
+        "select original_url_hash from short_urls where short_code = 'a'", Long.class);
+    assertEquals(UrlFingerprint.of(url, 1), hash);
+  }
+
+  @Test
+  void migrate_dropsWideConstraintAndRequiresFingerprint() {
+    insert("https://example.com/a", "a", null);
+
+    migration.migrate();
+
+    // The same URL under another fingerprint is no longer rejected by the wide constraint
+    assertDoesNotThrow(() -> insert("https://example.com/a", "a2", 42L));
+    assertThrows(DataIntegrityViolationException.class, () -> insert("https://example.com/c", "c", null));
+    assertEquals(0, migration.migrate());
+  }
+
+  private void insert(String originalUrl, String shortCode, Long hash) {
+    jdbcTemplate.update(
+        "insert into short_urls (original_url, short_code, created_at, original_url_hash) values (?, ?, ?, ?)",
+        originalUrl, shortCode, Timestamp.from(Instant.now()), hash);
+  }
+}
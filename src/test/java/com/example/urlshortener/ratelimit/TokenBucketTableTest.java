@@ -0,0 +1,152 @@
+package com.example.urlshortener.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTableTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final AtomicLong clock = new AtomicLong(123_456_789L);
+
+  @Test
+  void tryAcquire_fullBucket_admitsCapacityThenReportsWait() {
+    TokenBucketTable table = new TokenBucketTable(4, 3, 10, clock::get);
+
+    assertEquals(0, table.tryAcquire("a"));
+    assertEquals(0, table.tryAcquire("a"));
+    assertEquals(0, table.tryAcquire("a"));
+
+    assertEquals(SECOND / 10, table.tryAcquire("a"));
+  }
+
+  @Test
+  void tryAcquire_afterRefillInterval_admitsOneMore() {
+    TokenBucketTable table = new TokenBucketTable(4, 2, 10, clock::get);
+    table.tryAcquire("a");
+    table.tryAcquire("a");
+
+    clock.addAndGet(SECOND / 20);
+    assertEquals(SECOND / 20, table.tryAcquire("a"));
+
+    clock.addAndGet(SECOND / 20);
+    assertEquals(0, table.tryAcquire("a"));
+    assertTrue(table.tryAcquire("a") > 0);
+  }
+
+  @Test
+  void tryAcquire_longIdle_refillsOnlyUpToCapacity() {
+    TokenBucketTable table = new TokenBucketTable(4, 2, 10, clock::get);
+    table.tryAcquire("a");
+
+    clock.addAndGet(60 * SECOND);
+    assertEquals(0, table.tryAcquire("a"));
+    assertEquals(0, table.tryAcquire("a"));
+    assertTrue(table.tryAcquire("a") > 0);
+  }
+
+  @Test
+  void tryAcquire_differentKeys_haveSeparateBuckets() {
+    TokenBucketTable table = new TokenBucketTable(1, 1, 1, clock::get);
+
+    assertEquals(0, table.tryAcquire("a"));
+    assertTrue(table.tryAcquire("a") > 0);
+    assertEquals(0, table.tryAcquire("b"));
+    assertEquals(2, table.size());
+  }
+
+  @Test
+  void tryAcquire_clockNearWrap_stillLimits() {
+    clock.set(Long.MAX_VALUE - SECOND / 20);
+    TokenBucketTable table = new TokenBucketTable(4, 1, 10, clock::get);
+
+    assertEquals(0, table.tryAcquire("a"));
+    assertTrue(table.tryAcquire("a") > 0);
+
+    clock.addAndGet(SECOND / 10);
+    assertEquals(0, table.tryAcquire("a"));
+  }
+
+  @Test
+  void evictIdle_removesOnlyFullBuckets() {
+    TokenBucketTable table = new TokenBucketTable(4, 2, 10, clock::get);
+    table.tryAcquire("idle");
+    clock.addAndGet(SECOND);
+    table.tryAcquire("busy");
+
+    assertEquals(1, table.evictIdle());
+    assertEquals(1, table.size());
+
+    // The busy client keeps its spent token
+    table.tryAcquire("busy");
+    assertTrue(table.tryAcquire("busy") > 0);
+  }
+
+  @Test
+  void tryAcquire_afterEviction_startsWithFullBucket() {
+    TokenBucketTable table = new TokenBucketTable(4, 2, 10, clock::get);
+    table.tryAcquire("a");
+    table.tryAcquire("a");
+    clock.addAndGet(SECOND);
+    table.evictIdle();
+
+    assertEquals(0, table.size());
+    assertEquals(0, table.tryAcquire("a"));
+    assertEquals(0, table.tryAcquire("a"));
+    assertTrue(table.tryAcquire("a") > 0);
+  }
+
+  @Test
+  void constructor_nonPositiveStripes_usesOneStripe() {
+    assertEquals(1, new TokenBucketTable(0, 1, 1, clock::get).stripeCount());
+  }
+
+  @Test
+  void constructor_nonPositiveLimits_throws() {
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucketTable(4, 0, 1, clock::get));
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucketTable(4, 1, 0, clock::get));
+  }
+
+  @Test
+  void tryAcquire_concurrentRequestsWithEviction_neverAdmitMoreThanCapacity() throws Exception {
+    // The clock stands still, so exactly capacity tokens exist per key however the threads race
+    TokenBucketTable table = new TokenBucketTable(2, 100, 1, clock::get);
+    AtomicInteger admitted = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> workers = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        workers.add(executor.submit(() -> {
+          start.await();
+          for (int j = 0; j < 1_000; j++) {
+            if (table.tryAcquire("key-" + (j % 4)) == 0) {
+              admitted.incrementAndGet();
+            }
+            table.evictIdle();
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> worker : workers) {
+        worker.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(4 * 100, admitted.get());
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.urlshortener.replica;
+
+import com.example.urlshortener.service.UrlShorteningService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "app.cache.enabled=false",
+    "app.cache.snapshot-enabled=false",
+    "spring.datasource.url=jdbc:h2:mem:read-replica-primary;DB_CLOSE_DELAY=-1",
+    "app.read-replicas.enabled=true",
+    "app.read-replicas.replicas[0].name=r1",
+    "app.read-replicas.replicas[0].url=jdbc:h2:mem:read-replica-r1;DB_CLOSE_DELAY=-1",
+    "app.read-replicas.replicas[0].username=sa"
+})
+class ReadReplicaIntegrationTest {
+
+  private static JdbcTemplate replica;
+
+  @Autowired
+  private UrlShorteningService shorteningService;
+
+  @Autowired
+  private ReplicaRouter replicaRouter;
+
+  @BeforeAll
+  static void createReplicaSchema() {
+    // Stands in for a replica that replication has not brought up to date
+    replica = new JdbcTemplate(
+        new DriverManagerDataSource("jdbc:h2:mem:read-replica-r1;DB_CLOSE_DELAY=-1", "sa", ""));
+    replica.execute("""
+        create table if not exists short_urls (
+          id bigint generated by default as identity primary key,
+          original_url varchar(2048) not null,
+          original_url_hash bigint,
+          short_code varchar(10) not null unique,
+          created_at timestamp(6) with time zone not null,
+          expires_at timestamp(6) with time zone,
+          redirect_type varchar(16))
+        """);
+  }
+
+  @Test
+  void resolve_linkNotYetOnReplica_isReadFromPrimary() {
+    String code = shorteningService.shortenUrl("https://example.com/fresh", null).getShortCode();
+    long confirmations = replicaRouter.confirmationCount();
+
+    assertEquals("https://example.com/fresh", shorteningService.resolveUrl(code));
+    assertEquals(confirmations + 1, replicaRouter.confirmationCount());
+  }
+
+  @Test
+  void resolve_linkOnReplica_isReadFromReplica() {
+    replica.update("insert into short_urls (original_url, original_url_hash, short_code, created_at)"
+        + " values (?, ?, ?, ?)", "https://example.com/replicated", 1L, "replica1", OffsetDateTime.now(ZoneOffset.UTC));
+    long confirmations = replicaRouter.confirmationCount();
+
+    assertEquals("https://example.com/replicated", shorteningService.resolveUrl("replica1"));
+    assertEquals(confirmations, replicaRouter.confirmationCount());
+  }
+}
@@ -0,0 +1,77 @@
+package com.example.urlshortener.replica;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRouterTest {
+
+  @Test
+  void read_roundRobinsOverHealthyReplicas() {
+    ReplicaRouter router = new ReplicaRouter(List.of("r1", "r2"));
+    router.markDown("r2", new IllegalStateException("down"));
+    router.markUp("r2");
+
+    List<String> targets = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      targets.add(router.read(ReplicaRouter::currentReplica));
+    }
+
+    assertEquals(List.of("r1", "r2", "r1", "r2"), targets);
+    assertNull(ReplicaRouter.currentReplica());
+    assertEquals(4, router.replicaReadCount());
+  }
+
+  @Test
+  void read_skipsReplicasThatAreDown() {
+    ReplicaRouter router = new ReplicaRouter(List.of("r1", "r2"));
+    router.markDown("r1", new IllegalStateException("down"));
+
+    assertEquals("r2", router.read(ReplicaRouter::currentReplica));
+    assertEquals("r2", router.read(ReplicaRouter::currentReplica));
+
+    router.markDown("r2", new IllegalStateException("down"));
+    assertNull(router.read(ReplicaRouter::currentReplica));
+    assertEquals(1, router.primaryReadCount());
+  }
+
+  @Test
+  void read_unconfirmedResult_isReadAgainOnPrimary() {
+    ReplicaRouter router = new ReplicaRouter(List.of("r1"));
+
+    String target = router.read(ReplicaRouter::currentReplica, replica -> replica == null);
+
+    assertNull(target);
+    assertEquals(1, router.replicaReadCount());
+    assertEquals(1, router.confirmationCount());
+    assertEquals(1, router.primaryReadCount());
+  }
+
+  @Test
+  void read_replicaFailure_failsOverToPrimaryAndMarksReplicaDown() {
+    ReplicaRouter router = new ReplicaRouter(List.of("r1"));
+
+    String target = router.read(() -> {
+      if (ReplicaRouter.currentReplica() != null) {
+        throw new DataAccessResourceFailureException("connection refused");
+      }
+      return "primary";
+    });
+
+    assertEquals("primary", target);
+    assertFalse(router.isHealthy("r1"));
+    assertEquals(1, router.failoverCount());
+  }
+
+  @Test
+  void read_withoutReplicas_usesPrimary() {
+    ReplicaRouter router = ReplicaRouter.none();
+
+    assertFalse(router.isEnabled());
+    assertNull(router.read(ReplicaRouter::currentReplica));
+  }
+}
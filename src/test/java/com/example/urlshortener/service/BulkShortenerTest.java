@@ -0,0 +1,158 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.cache.ResolveCache;
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.exception.InvalidExpiryException;
+import com.example.urlshortener.exception.InvalidUrlException;
+import com.example.urlshortener.metrics.UrlShortenerMetrics;
+import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.replica.ReplicaRouter;
+import com.example.urlshortener.repository.ShortUrlRepository;
+import com.example.urlshortener.shard.ShardRouter;
+import com.example.urlshortener.shard.UrlIndex;
+import com.example.urlshortener.store.JpaShortUrlStore;
+import com.example.urlshortener.util.UrlFingerprint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkShortenerTest {
+
+  @Mock
+  private ShortUrlRepository shortUrlRepository;
+
+  @Mock
+  private ShortCodeGenerator shortCodeGenerator;
+
+  @Mock
+  private SequenceCodeAllocator sequenceCodeAllocator;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private BulkShortener bulkShortener;
+
+  @BeforeEach
+  void setUp() {
+    AppProperties appProperties = new AppProperties();
+    ShardRouter shardRouter = ShardRouter.single();
+    JpaShortUrlStore shortUrlStore = new JpaShortUrlStore(shortUrlRepository);
+    CodeLengthPolicy codeLengthPolicy = new CodeLengthPolicy(appProperties, shortUrlStore, shardRouter);
+    UrlShorteningServiceImpl service = new UrlShorteningServiceImpl(shortUrlStore, shortCodeGenerator,
+        sequenceCodeAllocator, new ResolveCache(appProperties), appProperties, transactionManager,
+        new RequestCoalescer(), new UrlShortenerMetrics(new SimpleMeterRegistry()), codeLengthPolicy,
+        shardRouter, new UrlIndex(new JdbcTemplate(), shardRouter), ReplicaRouter.none());
+    bulkShortener = new BulkShortener(shortUrlStore, service, codeLengthPolicy, appProperties,
+        transactionManager, shardRouter);
+  }
+
+  @Test
+  void prepare_normalizesAndDerivesFingerprintAndCode() {
+    when(shortCodeGenerator.generateShortCode("https://example.com/a")).thenReturn("abc123");
+
+    BulkShortener.Prepared prepared = bulkShortener.prepare("  HTTPS://Example.com/a ", null);
+
+    assertEquals("https://example.com/a", prepared.normalizedUrl());
+    assertEquals(UrlFingerprint.of("https://example.com/a", 0), prepared.fingerprint());
+    assertEquals("abc123", prepared.candidateCode());
+  }
+
+  @Test
+  void prepare_invalidInput_throwsLikeShortenUrl() {
+    assertThrows(InvalidUrlException.class, () -> bulkShortener.prepare("ftp://example.com", null));
+    assertThrows(InvalidExpiryException.class,
+        () -> bulkShortener.prepare("https://example.com/a", Instant.now().minusSeconds(1)));
+    assertThrows(InvalidExpiryException.class,
+        () -> bulkShortener.prepare("https://example.com/a", ShortUrl.MAX_EXPIRES_AT.plusSeconds(1)));
+  }
+
+  @Test
+  void store_insertsNewUrlsWithOneBatchAndDedupes() {
+    when(shortCodeGenerator.generateShortCode(anyString())).thenAnswer(invocation ->
+        "c" + invocation.getArgument(0, String.class).length());
+    when(shortUrlRepository.findAllByOriginalUrlHashIn(any())).thenReturn(List.of());
+    when(shortUrlRepository.findTakenShortCodes(any())).thenReturn(List.of());
+    when(shortUrlRepository.insertAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    BulkShortener.Prepared a = bulkShortener.prepare("https://example.com/a", null);
+    BulkShortener.Prepared bb = bulkShortener.prepare("https://example.com/bb", null);
+
+    Map<String, BulkShortener.Outcome> outcomes = bulkShortener.store(List.of(a, bb, a));
+
+    assertEquals(2, outcomes.size());
+    assertEquals("c21", outcomes.get("https://example.com/a").mapping().getShortCode());
+    assertEquals("c22", outcomes.get("https://example.com/bb").mapping().getShortCode());
+    verify(shortUrlRepository, times(1)).insertAll(argThat(mappings -> mappings.size() == 2));
+    verify(shortUrlRepository, never()).save(any(ShortUrl.class));
+  }
+
+  @Test
+  void store_existingUrl_returnsExistingMappingWithoutInsert() {
+    String url = "https://example.com/existing";
+    ShortUrl existing = new ShortUrl();
+    existing.setOriginalUrl(url);
+    existing.setOriginalUrlHash(UrlFingerprint.of(url, 0));
+    existing.setShortCode("old1");
+    when(shortCodeGenerator.generateShortCode(url)).thenReturn("abc123");
+    when(shortUrlRepository.findAllByOriginalUrlHashIn(any())).thenReturn(List.of(existing));
+    when(shortUrlRepository.insertAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    Map<String, BulkShortener.Outcome> outcomes = bulkShortener.store(List.of(bulkShortener.prepare(url, null)));
+
+    assertSame(existing, outcomes.get(url).mapping());
+    verify(shortUrlRepository).insertAll(argThat(List::isEmpty));
+  }
+
+  @Test
+  void store_codeCollisions_moveToNextCandidateInMemory() {
+    // Both URLs hash to the same code; the stored table already holds the second candidate too
+    when(shortCodeGenerator.generateShortCode(anyString())).thenAnswer(invocation -> {
+      String seed = invocation.getArgument(0, String.class);
+      return seed.endsWith("#1") ? "taken" : seed.endsWith("#2") ? "free2" : "same";
+    });
+    when(shortUrlRepository.findAllByOriginalUrlHashIn(any())).thenReturn(List.of());
+    when(shortUrlRepository.findTakenShortCodes(any()))
+        .thenReturn(List.of("taken"))
+        .thenReturn(List.of());
+    when(shortUrlRepository.insertAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    Map<String, BulkShortener.Outcome> outcomes = bulkShortener.store(List.of(
+        bulkShortener.prepare("https://example.com/x", null),
+        bulkShortener.prepare("https://example.com/y", null)));
+
+    assertEquals("same", outcomes.get("https://example.com/x").mapping().getShortCode());
+    assertEquals("free2", outcomes.get("https://example.com/y").mapping().getShortCode());
+    verify(shortUrlRepository, times(2)).findTakenShortCodes(any());
+  }
+
+  @Test
+  void store_batchConflict_fallsBackToShortenUrl() {
+    String url = "https://example.com/raced";
+    when(shortCodeGenerator.generateShortCode(url)).thenReturn("abc123");
+    when(shortUrlRepository.findAllByOriginalUrlHashIn(any())).thenReturn(List.of());
+    when(shortUrlRepository.findTakenShortCodes(any())).thenReturn(List.of());
+    when(shortUrlRepository.insertAll(any()))
+        .thenThrow(new DuplicateKeyException("uk_short_urls_short_code"));
+    when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    Map<String, BulkShortener.Outcome> outcomes = bulkShortener.store(List.of(bulkShortener.prepare(url, null)));
+
+    assertEquals("abc123", outcomes.get(url).mapping().getShortCode());
+    verify(shortUrlRepository, times(1)).save(any(ShortUrl.class));
+  }
+}
@@ -0,0 +1,106 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.repository.ShortUrlRepository;
+import com.example.urlshortener.shard.ShardRouter;
+import com.example.urlshortener.store.JpaShortUrlStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CodeLengthPolicyTest {
+
+  @Mock
+  private ShortUrlRepository shortUrlRepository;
+
+  private CodeLengthPolicy policy(int minLength) {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getCodeGeneration().setAdaptiveLength(true);
+    appProperties.getCodeGeneration().setMinLength(minLength);
+    appProperties.getCodeGeneration().setTargetCollisionRate(0.01);
+    return new CodeLengthPolicy(appProperties, new JpaShortUrlStore(shortUrlRepository), ShardRouter.single());
+  }
+
+  @Test
+  void reload_crowdedShortKeyspace_startsAtLongerLength() {
+    // 62^2 = 3844 codes, so 100 two-character codes are 2.6% occupancy
+    when(shortUrlRepository.countByCodeLength()).thenReturn(List.of(
+        new Object[] {2, 100L},
+        new Object[] {10, 5_000L}));
+    CodeLengthPolicy policy = policy(2);
+
+    policy.reload();
+
+    assertEquals(3, policy.currentLength());
+    assertEquals(100, policy.codesAtLength(2));
+    assertEquals(5_000, policy.codesAtLength(10));
+    assertEquals(100.0 / 3844, policy.expectedCollisionRate(2), 1e-9);
+  }
+
+  @Test
+  void recordInsert_occupancyAboveTarget_movesToNextLength() {
+    when(shortUrlRepository.countByCodeLength()).thenReturn(List.of());
+    CodeLengthPolicy policy = policy(2);
+    policy.reload();
+
+    // The limit for two characters is floor(0.01 * 3844) = 38 codes
+    for (int i = 0; i < 38; i++) {
+      policy.recordInsert("a" + (char) ('0' + i % 10));
+    }
+    assertEquals(2, policy.currentLength());
+
+    policy.recordInsert("zz");
+    assertEquals(3, policy.currentLength());
+  }
+
+  @Test
+  void recordCollision_measuredRateAboveTarget_movesToNextLength() {
+    CodeLengthPolicy policy = policy(6);
+
+    for (int i = 0; i < CodeLengthPolicy.WINDOW - 10; i++) {
+      policy.recordInsert("abcdef");
+    }
+    for (int i = 0; i < 9; i++) {
+      policy.recordCollision("abcdef");
+    }
+    assertEquals(6, policy.currentLength());
+
+    policy.recordCollision("abcdef");
+    assertEquals(7, policy.currentLength());
+    assertEquals(10.0 / CodeLengthPolicy.WINDOW, policy.measuredCollisionRate(), 1e-9);
+  }
+
+  @Test
+  void recordInsert_lowCollisionRate_keepsLength() {
+    CodeLengthPolicy policy = policy(6);
+
+    for (int i = 0; i < CodeLengthPolicy.WINDOW * 3; i++) {
+      policy.recordInsert("abcdef");
+    }
+    policy.recordCollision("abcdef");
+
+    assertEquals(6, policy.currentLength());
+  }
+
+  @Test
+  void recordInsert_notAdaptive_onlyCounts() {
+    CodeLengthPolicy policy = new CodeLengthPolicy(new AppProperties(),
+        new JpaShortUrlStore(shortUrlRepository), ShardRouter.single());
+
+    for (int i = 0; i < 100; i++) {
+      policy.recordInsert("ab");
+    }
+
+    assertFalse(policy.isAdaptive());
+    assertEquals(6, policy.currentLength());
+    assertEquals(100, policy.codesAtLength(2));
+    assertEquals(100, policy.insertCount());
+  }
+}
@@ -0,0 +1,73 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.model.CodeSequence;
+import com.example.urlshortener.repository.CodeSequenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SequenceCodeAllocatorTest {
+
+  @Mock
+  private CodeSequenceRepository codeSequenceRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private SequenceCodeAllocator allocator;
+
+  @BeforeEach
+  void setUp() {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getCodeGeneration().setBlockSize(3);
+    allocator = new SequenceCodeAllocator(codeSequenceRepository, transactionManager, appProperties);
+  }
+
+  @Test
+  void nextId_servesBlockFromMemory_thenReservesNextBlock() {
+    when(codeSequenceRepository.advance(SequenceCodeAllocator.SEQUENCE_NAME, 3)).thenReturn(1);
+    when(codeSequenceRepository.findById(SequenceCodeAllocator.SEQUENCE_NAME))
+        .thenReturn(Optional.of(new CodeSequence(SequenceCodeAllocator.SEQUENCE_NAME, 3)))
+        .thenReturn(Optional.of(new CodeSequence(SequenceCodeAllocator.SEQUENCE_NAME, 9)));
+
+    long[] ids = new long[6];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = allocator.nextId();
+    }
+
+    // First block [0, 3), second block [6, 9) because another node took [3, 6)
+    assertArrayEquals(new long[] { 0, 1, 2, 6, 7, 8 }, ids);
+    verify(codeSequenceRepository, times(2)).advance(SequenceCodeAllocator.SEQUENCE_NAME, 3);
+  }
+
+  @Test
+  void nextCode_missingCounter_createsItAndEncodesBase62() {
+    when(codeSequenceRepository.advance(SequenceCodeAllocator.SEQUENCE_NAME, 3)).thenReturn(0);
+    when(codeSequenceRepository.saveAndFlush(any(CodeSequence.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    assertEquals("0", allocator.nextCode());
+    assertEquals("1", allocator.nextCode());
+    assertEquals("2", allocator.nextCode());
+    verify(codeSequenceRepository, times(1)).saveAndFlush(any(CodeSequence.class));
+  }
+
+  @Test
+  void constructor_nonPositiveBlockSize_throws() {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getCodeGeneration().setBlockSize(0);
+    assertThrows(IllegalArgumentException.class,
+        () -> new SequenceCodeAllocator(codeSequenceRepository, transactionManager, appProperties));
+  }
+}
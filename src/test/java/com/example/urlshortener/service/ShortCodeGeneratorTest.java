@@ -43,6 +43,43 @@ class ShortCodeGeneratorTest {
     assertThrows(IllegalArgumentException.class, () -> generator.generateShortCode(""));
     assertThrows(IllegalArgumentException.class, () -> generator.generateShortCode("   "));
   }
-}
 
+  @Test
+  void generateShortCode_sha256_codesAreStable() {
+    ShortCodeGenerator generator = new ShortCodeGenerator(HashAlgorithm.SHA_256);
+    // Codes produced by the original MessageDigest-per-call implementation
+    assertEquals("1NIm5dudJe", generator.generateShortCode("https://example.com"));
+    assertEquals("3voipHMxsn", generator.generateShortCode("https://example.com/a"));
+    assertEquals("7YO15AHInf", generator.generateShortCode("https://example.com/b"));
+    assertEquals("Ae5I8jCAED", generator.generateShortCode("https://example.com/a#1"));
+    assertEquals("AVDCtCyguj", generator.generateShortCode("https://例え.jp/パス?q=é"));
+  }
 
+  @Test
+  void generateShortCode_defaultConstructor_usesSha256() {
+    assertEquals(new ShortCodeGenerator(HashAlgorithm.SHA_256).generateShortCode("https://example.com/a"),
+        new ShortCodeGenerator().generateShortCode("https://example.com/a"));
+  }
+
+  @Test
+  void generateShortCode_xxHash64_isDeterministicBase62() {
+    ShortCodeGenerator generator = new ShortCodeGenerator(HashAlgorithm.XXHASH_64);
+    String code = generator.generateShortCode("https://example.com/a");
+    assertEquals("70YfussyMR", code);
+    assertEquals(code, generator.generateShortCode("https://example.com/a"));
+    assertTrue(BASE62_PATTERN.matcher(code).matches());
+    assertNotEquals(code, generator.generateShortCode("https://example.com/b"));
+  }
+
+  @Test
+  void generateShortCode_fixedLength_hasExactLength() {
+    ShortCodeGenerator generator = new ShortCodeGenerator();
+    for (int length = 1; length <= 10; length++) {
+      String code = generator.generateShortCode("https://example.com/a", length);
+      assertEquals(length, code.length());
+      assertTrue(BASE62_PATTERN.matcher(code).matches());
+    }
+    assertEquals(generator.generateShortCode("https://example.com/a", 6),
+        generator.generateShortCode("https://example.com/a", 6));
+  }
+}
@@ -0,0 +1,81 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.model.ShortUrl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortenBatcherTest {
+
+  @Test
+  void submit_concurrentCalls_areWrittenTogetherUpToMaxBatchSize() throws Exception {
+    List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    List<CompletableFuture<ShortUrl>> results = new ArrayList<>();
+    try (ShortenBatcher batcher = new ShortenBatcher(4, Duration.ofSeconds(5), batch -> {
+      batchSizes.add(batch.size());
+      batch.forEach(pending -> pending.result().complete(mapping(pending.normalizedUrl())));
+    })) {
+      for (int i = 0; i < 8; i++) {
+        results.add(batcher.submit("https://example.com/" + i, null));
+      }
+      for (int i = 0; i < 8; i++) {
+        assertEquals("https://example.com/" + i, results.get(i).get(5, TimeUnit.SECONDS).getOriginalUrl());
+      }
+    }
+    assertEquals(List.of(4, 4), batchSizes);
+  }
+
+  @Test
+  void submit_singleCall_isWrittenAfterMaxDelay() throws Exception {
+    try (ShortenBatcher batcher = new ShortenBatcher(64, Duration.ofMillis(5), batch ->
+        batch.forEach(pending -> pending.result().complete(mapping(pending.normalizedUrl()))))) {
+      ShortUrl result = batcher.submit("https://example.com/a", null).get(5, TimeUnit.SECONDS);
+      assertEquals("https://example.com/a", result.getOriginalUrl());
+    }
+  }
+
+  @Test
+  void submit_writerThrows_failsEveryCallOfTheBatch() {
+    try (ShortenBatcher batcher = new ShortenBatcher(2, Duration.ofSeconds(5), batch -> {
+      throw new IllegalStateException("database down");
+    })) {
+      CompletableFuture<ShortUrl> first = batcher.submit("https://example.com/a", null);
+      CompletableFuture<ShortUrl> second = batcher.submit("https://example.com/b", null);
+
+      ExecutionException ex = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+      assertEquals("database down", ex.getCause().getMessage());
+      assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void submit_writerLeavesCallOpen_failsIt() {
+    try (ShortenBatcher batcher = new ShortenBatcher(1, Duration.ZERO, batch -> { })) {
+      CompletableFuture<ShortUrl> result = batcher.submit("https://example.com/a", null);
+
+      assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void submit_afterClose_failsImmediately() {
+    ShortenBatcher batcher = new ShortenBatcher(1, Duration.ZERO, batch -> { });
+    batcher.close();
+
+    assertTrue(batcher.submit("https://example.com/a", null).isCompletedExceptionally());
+  }
+
+  private static ShortUrl mapping(String url) {
+    ShortUrl mapping = new ShortUrl();
+    mapping.setOriginalUrl(url);
+    return mapping;
+  }
+}
@@ -0,0 +1,82 @@
+package com.example.urlshortener.service;
+
+import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.repository.ShortUrlRepository;
+import com.example.urlshortener.util.UrlFingerprint;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:shorten-concurrency;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "app.cache.enabled=false",
+    "app.clicks.enabled=false"
+})
+class UrlShorteningServiceConcurrencyTest {
+
+  private static final int THREADS = 16;
+  private static final int ROUNDS = 20;
+
+  @Autowired
+  private UrlShorteningService urlShorteningService;
+
+  @Autowired
+  private ShortUrlRepository shortUrlRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void shortenUrl_sameUrlInParallel_createsExactlyOneRow() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      for (int round = 0; round < ROUNDS; round++) {
+        String url = "https://example.com/race/" + round;
+        // A different expiry per caller keeps identical calls from being coalesced into one, so
+        // the callers race on the unique constraint
+        Instant firstExpiry = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ShortUrl>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+          Instant expiresAt = firstExpiry.plusSeconds(i);
+          results.add(executor.submit(() -> {
+            start.await();
+            return urlShorteningService.shortenUrl(url, expiresAt);
+          }));
+        }
+        start.countDown();
+
+        Set<String> codes = new HashSet<>();
+        for (Future<ShortUrl> result : results) {
+          codes.add(result.get(30, TimeUnit.SECONDS).getShortCode());
+        }
+        assertEquals(1, codes.size(), "every caller gets the same code for " + url);
+
+        Integer rows = jdbcTemplate.queryForObject(
+            "select count(*) from short_urls where original_url = ?", Integer.class, url);
+        assertEquals(1, rows, "rows for " + url);
+        ShortUrl stored = shortUrlRepository.findByOriginalUrlHash(UrlFingerprint.of(url, 0)).orElseThrow();
+        assertEquals(firstExpiry.plusSeconds(THREADS - 1), stored.getExpiresAt(), "latest expiry wins for " + url);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
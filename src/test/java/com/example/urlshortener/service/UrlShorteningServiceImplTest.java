@@ -1,9 +1,21 @@
 package com.example.urlshortener.service;
 
+import com.example.urlshortener.cache.ResolveCache;
+import com.example.urlshortener.config.AppProperties;
+import com.example.urlshortener.exception.InvalidExpiryException;
 import com.example.urlshortener.exception.InvalidUrlException;
 import com.example.urlshortener.exception.UrlNotFoundException;
+import com.example.urlshortener.metrics.UrlShortenerMetrics;
+import com.example.urlshortener.model.RedirectType;
 import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.repository.LinkTarget;
+import com.example.urlshortener.replica.ReplicaRouter;
 import com.example.urlshortener.repository.ShortUrlRepository;
+import com.example.urlshortener.shard.ShardRouter;
+import com.example.urlshortener.shard.UrlIndex;
+import com.example.urlshortener.store.JpaShortUrlStore;
+import com.example.urlshortener.util.UrlFingerprint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,11 +23,26 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -28,24 +55,43 @@ class UrlShorteningServiceImplTest {
   @Mock
   private ShortCodeGenerator shortCodeGenerator;
 
+  @Mock
+  private SequenceCodeAllocator sequenceCodeAllocator;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private JpaShortUrlStore shortUrlStore;
+
   private UrlShorteningServiceImpl service;
 
   @Captor
   private ArgumentCaptor<String> seedCaptor;
 
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final ShardRouter shardRouter = ShardRouter.single();
+
+  // Not consulted without sharding
+  private final UrlIndex urlIndex = new UrlIndex(new JdbcTemplate(), shardRouter);
+
   @BeforeEach
   void setUp() {
-    service = new UrlShorteningServiceImpl(shortUrlRepository, shortCodeGenerator);
+    shortUrlStore = new JpaShortUrlStore(shortUrlRepository);
+    AppProperties appProperties = new AppProperties();
+    service = new UrlShorteningServiceImpl(shortUrlStore, shortCodeGenerator,
+        sequenceCodeAllocator, new ResolveCache(appProperties), appProperties, transactionManager,
+        new RequestCoalescer(), new UrlShortenerMetrics(meterRegistry),
+        new CodeLengthPolicy(appProperties, shortUrlStore, shardRouter), shardRouter, urlIndex,
+        ReplicaRouter.none());
   }
 
   @Test
-  void shortenUrl_newUrl_createsAndSaves() {
+  void shortenUrl_newUrl_createsWithSingleInsert() {
     String normalizedUrl = "https://example.com/new";
     String generatedCode = "abc123";
 
-    when(shortUrlRepository.findByOriginalUrl(normalizedUrl)).thenReturn(Optional.empty());
     when(shortCodeGenerator.generateShortCode(normalizedUrl)).thenReturn(generatedCode);
-    when(shortUrlRepository.findByShortCode(generatedCode)).thenReturn(Optional.empty());
     when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> {
       ShortUrl toSave = invocation.getArgument(0);
       toSave.setId(1L);
@@ -57,23 +103,68 @@ class UrlShorteningServiceImplTest {
     assertNotNull(result);
     assertEquals(normalizedUrl, result.getOriginalUrl());
     assertEquals(generatedCode, result.getShortCode());
+    assertEquals(UrlFingerprint.of(normalizedUrl, 0), result.getOriginalUrlHash());
     verify(shortUrlRepository, times(1)).save(any(ShortUrl.class));
+    verifyNoMoreInteractions(shortUrlRepository);
   }
 
   @Test
-  void shortenUrl_existingUrl_returnsExistingWithoutGeneratingOrSaving() {
+  void shortenUrl_withRedirectType_storesItAndResolvesItFromCache() {
+    String normalizedUrl = "https://example.com/moved-for-now";
+    when(shortCodeGenerator.generateShortCode(normalizedUrl)).thenReturn("tmp123");
+    when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> {
+      ShortUrl toSave = invocation.getArgument(0);
+      toSave.setId(1L);
+      toSave.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+      return toSave;
+    });
+
+    ShortUrl result = service.shortenUrl(normalizedUrl, null, RedirectType.TEMPORARY);
+    LinkTarget target = service.resolve("tmp123");
+
+    assertEquals(RedirectType.TEMPORARY, result.getRedirectType());
+    assertEquals(new LinkTarget(normalizedUrl, null, Instant.parse("2024-01-01T00:00:00Z"), RedirectType.TEMPORARY),
+        target);
+    verify(shortUrlRepository).save(any(ShortUrl.class));
+    verifyNoMoreInteractions(shortUrlRepository);
+  }
+
+  @Test
+  void shortenUrl_existingUrl_returnsMappingHoldingFingerprint() {
     String normalizedUrl = "https://example.com/new";
     ShortUrl existing = new ShortUrl();
     existing.setId(42L);
     existing.setOriginalUrl(normalizedUrl);
     existing.setShortCode("existing");
-    when(shortUrlRepository.findByOriginalUrl(normalizedUrl)).thenReturn(Optional.of(existing));
+    when(shortCodeGenerator.generateShortCode(normalizedUrl)).thenReturn("existing");
+    when(shortUrlRepository.save(any(ShortUrl.class)))
+        .thenThrow(new DuplicateKeyException("uk_short_urls_original_url_hash"));
+    when(shortUrlRepository.findByOriginalUrlHash(UrlFingerprint.of(normalizedUrl, 0))).thenReturn(Optional.of(existing));
 
     ShortUrl result = service.shortenUrl(normalizedUrl);
 
     assertSame(existing, result);
-    verify(shortCodeGenerator, never()).generateShortCode(anyString());
-    verify(shortUrlRepository, never()).save(any(ShortUrl.class));
+    verify(shortUrlRepository, times(1)).save(any(ShortUrl.class));
+    verify(shortUrlRepository, never()).findByShortCode(anyString());
+  }
+
+  @Test
+  void shortenUrl_fingerprintCollision_keepsCodeAndUsesNextProbe() {
+    String normalizedUrl = "https://example.com/new";
+    ShortUrl other = new ShortUrl();
+    other.setOriginalUrl("https://example.com/other");
+    other.setShortCode("other1");
+    when(shortCodeGenerator.generateShortCode(normalizedUrl)).thenReturn("abc123");
+    when(shortUrlRepository.save(any(ShortUrl.class)))
+        .thenThrow(new DuplicateKeyException("uk_short_urls_original_url_hash"))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(shortUrlRepository.findByOriginalUrlHash(UrlFingerprint.of(normalizedUrl, 0))).thenReturn(Optional.of(other));
+
+    ShortUrl result = service.shortenUrl(normalizedUrl);
+
+    assertEquals("abc123", result.getShortCode());
+    assertEquals(UrlFingerprint.of(normalizedUrl, 1), result.getOriginalUrlHash());
+    verify(shortCodeGenerator, times(1)).generateShortCode(anyString());
   }
 
   @Test
@@ -82,65 +173,427 @@ class UrlShorteningServiceImplTest {
     String firstCode = "dupCode";
     String secondCode = "uniqueCode";
 
-    when(shortUrlRepository.findByOriginalUrl(normalizedUrl)).thenReturn(Optional.empty());
-    // First attempt: generated code collides with a different URL
     when(shortCodeGenerator.generateShortCode(anyString())).thenReturn(firstCode, secondCode);
-
+    // First attempt: generated code is taken by a different URL, so the fingerprint is free
+    when(shortUrlRepository.save(any(ShortUrl.class)))
+        .thenThrow(new DuplicateKeyException("uk_short_urls_short_code"))
+        .thenAnswer(invocation -> {
+          ShortUrl toSave = invocation.getArgument(0);
+          toSave.setId(11L);
+          return toSave;
+        });
+    when(shortUrlRepository.findByOriginalUrlHash(UrlFingerprint.of(normalizedUrl, 0))).thenReturn(Optional.empty());
     ShortUrl collisionExisting = new ShortUrl();
     collisionExisting.setId(10L);
     collisionExisting.setOriginalUrl("https://example.com/other");
     collisionExisting.setShortCode(firstCode);
     when(shortUrlRepository.findByShortCode(firstCode)).thenReturn(Optional.of(collisionExisting));
 
-    // Second attempt: code is free
-    when(shortUrlRepository.findByShortCode(secondCode)).thenReturn(Optional.empty());
-    when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> {
-      ShortUrl toSave = invocation.getArgument(0);
-      toSave.setId(11L);
-      return toSave;
-    });
-
     ShortUrl result = service.shortenUrl(normalizedUrl);
 
     assertNotNull(result);
     assertEquals(normalizedUrl, result.getOriginalUrl());
     assertEquals(secondCode, result.getShortCode());
-
-    // Verify both collision check calls occurred
-    verify(shortUrlRepository, times(1)).findByShortCode(firstCode);
-    verify(shortUrlRepository, times(1)).findByShortCode(secondCode);
-    verify(shortUrlRepository, times(1)).save(any(ShortUrl.class));
+    verify(shortUrlRepository, times(2)).save(any(ShortUrl.class));
 
     // Verify seeds used for generator attempts (first is URL as-is, then URL#1)
     verify(shortCodeGenerator, times(2)).generateShortCode(seedCaptor.capture());
     assertEquals(normalizedUrl, seedCaptor.getAllValues().get(0));
     assertEquals(normalizedUrl + "#1", seedCaptor.getAllValues().get(1));
+
+    assertEquals(2.0, meterRegistry.get("urlshortener.shorten.attempts").summary().max());
+    assertEquals(1, meterRegistry.get("urlshortener.shorten").timer().count());
+  }
+
+  @Test
+  void shortenUrl_codeHeldBySameUrlUnderLaterProbe_returnsItWithoutSecondInsert() {
+    // The URL was stored under probe 1 while another URL held probe 0; that one has since expired
+    String normalizedUrl = "https://example.com/probed";
+    ShortUrl existing = new ShortUrl(12L, normalizedUrl, "prb123", Instant.now());
+    existing.setOriginalUrlHash(UrlFingerprint.of(normalizedUrl, 1));
+    when(shortCodeGenerator.generateShortCode(normalizedUrl)).thenReturn("prb123");
+    when(shortUrlRepository.save(any(ShortUrl.class)))
+        .thenThrow(new DuplicateKeyException("uk_short_urls_short_code"));
+    when(shortUrlRepository.findByOriginalUrlHash(UrlFingerprint.of(normalizedUrl, 0))).thenReturn(Optional.empty());
+    when(shortUrlRepository.findByShortCode("prb123")).thenReturn(Optional.of(existing));
+
+    ShortUrl result = service.shortenUrl(normalizedUrl);
+
+    assertSame(existing, result);
+    verify(shortUrlRepository, times(1)).save(any(ShortUrl.class));
+    verify(shortCodeGenerator, times(1)).generateShortCode(anyString());
+  }
+
+  @Test
+  void shortenUrl_concurrentInsertNotYetVisible_retriesSameCandidate() {
+    String normalizedUrl = "https://example.com/race";
+    ShortUrl winner = new ShortUrl();
+    winner.setOriginalUrl(normalizedUrl);
+    winner.setShortCode("race01");
+    when(shortCodeGenerator.generateShortCode(normalizedUrl)).thenReturn("race01");
+    when(shortUrlRepository.save(any(ShortUrl.class)))
+        .thenThrow(new DuplicateKeyException("uk_short_urls_original_url_hash"));
+    when(shortUrlRepository.findByOriginalUrlHash(UrlFingerprint.of(normalizedUrl, 0)))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(winner));
+    when(shortUrlRepository.findByShortCode("race01")).thenReturn(Optional.empty());
+
+    ShortUrl result = service.shortenUrl(normalizedUrl);
+
+    assertSame(winner, result);
+    verify(shortCodeGenerator, times(1)).generateShortCode(anyString());
+    verify(shortUrlRepository, times(2)).save(any(ShortUrl.class));
+  }
+
+  @Test
+  void shortenUrl_everyCandidateTaken_throwsIllegalState() {
+    String normalizedUrl = "https://example.com/crowded";
+    when(shortCodeGenerator.generateShortCode(anyString())).thenReturn("taken");
+    when(shortUrlRepository.save(any(ShortUrl.class)))
+        .thenThrow(new DuplicateKeyException("uk_short_urls_short_code"));
+    when(shortUrlRepository.findByOriginalUrlHash(UrlFingerprint.of(normalizedUrl, 0))).thenReturn(Optional.empty());
+    when(shortUrlRepository.findByShortCode("taken")).thenReturn(Optional.of(new ShortUrl()));
+
+    assertThrows(IllegalStateException.class, () -> service.shortenUrl(normalizedUrl));
+    verify(shortUrlRepository, times(10)).save(any(ShortUrl.class));
+  }
+
+  @Test
+  void shortenUrl_sequenceStrategy_savesWithoutCollisionLookup() {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getCodeGeneration().setStrategy(CodeGenerationStrategy.SEQUENCE);
+    service = new UrlShorteningServiceImpl(shortUrlStore, shortCodeGenerator,
+        sequenceCodeAllocator, new ResolveCache(appProperties), appProperties, transactionManager,
+        new RequestCoalescer(), new UrlShortenerMetrics(meterRegistry),
+        new CodeLengthPolicy(appProperties, shortUrlStore, shardRouter), shardRouter, urlIndex,
+        ReplicaRouter.none());
+
+    String normalizedUrl = "https://example.com/sequenced";
+    when(sequenceCodeAllocator.nextCode()).thenReturn("g8");
+    when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    ShortUrl result = service.shortenUrl(normalizedUrl);
+
+    assertEquals("g8", result.getShortCode());
+    assertEquals(normalizedUrl, result.getOriginalUrl());
+    verify(shortUrlRepository, never()).findByShortCode(anyString());
+    verify(shortCodeGenerator, never()).generateShortCode(anyString());
+  }
+
+  @Test
+  void shortenUrl_sequenceStrategy_codeTaken_movesToNextId() {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getCodeGeneration().setStrategy(CodeGenerationStrategy.SEQUENCE);
+    service = new UrlShorteningServiceImpl(shortUrlStore, shortCodeGenerator,
+        sequenceCodeAllocator, new ResolveCache(appProperties), appProperties, transactionManager,
+        new RequestCoalescer(), new UrlShortenerMetrics(meterRegistry),
+        new CodeLengthPolicy(appProperties, shortUrlStore, shardRouter), shardRouter, urlIndex,
+        ReplicaRouter.none());
+
+    String normalizedUrl = "https://example.com/sequenced";
+    when(sequenceCodeAllocator.nextCode()).thenReturn("g8", "g9");
+    when(shortUrlRepository.save(any(ShortUrl.class)))
+        .thenThrow(new DuplicateKeyException("uk_short_urls_short_code"))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(shortUrlRepository.findByOriginalUrlHash(UrlFingerprint.of(normalizedUrl, 0))).thenReturn(Optional.empty());
+    when(shortUrlRepository.findByShortCode("g8")).thenReturn(Optional.of(new ShortUrl()));
+
+    ShortUrl result = service.shortenUrl(normalizedUrl);
+
+    assertEquals("g9", result.getShortCode());
+    verify(shortUrlRepository, times(2)).save(any(ShortUrl.class));
+  }
+
+  @Test
+  void shortenUrl_batchingEnabled_storesConcurrentCallsWithOneBatchInsert() throws Exception {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getShortenBatching().setEnabled(true);
+    appProperties.getShortenBatching().setMaxBatchSize(3);
+    appProperties.getShortenBatching().setMaxDelay(Duration.ofSeconds(5));
+    service = new UrlShorteningServiceImpl(shortUrlStore, shortCodeGenerator,
+        sequenceCodeAllocator, new ResolveCache(appProperties), appProperties, transactionManager,
+        new RequestCoalescer(), new UrlShortenerMetrics(meterRegistry),
+        new CodeLengthPolicy(appProperties, shortUrlStore, shardRouter), shardRouter, urlIndex,
+        ReplicaRouter.none());
+
+    String existingUrl = "https://example.com/existing";
+    ShortUrl existing = new ShortUrl();
+    existing.setOriginalUrl(existingUrl);
+    existing.setOriginalUrlHash(UrlFingerprint.of(existingUrl, 0));
+    existing.setShortCode("old1");
+    when(shortUrlRepository.findAllByOriginalUrlHashIn(any())).thenReturn(List.of(existing));
+    when(shortCodeGenerator.generateShortCode(anyString())).thenAnswer(invocation ->
+        "c" + invocation.getArgument(0, String.class).length());
+    when(shortUrlRepository.insertAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    try {
+      var first = CompletableFuture.supplyAsync(() -> service.shortenUrl("https://example.com/a"));
+      var second = CompletableFuture.supplyAsync(() -> service.shortenUrl("https://example.com/bb"));
+      var third = CompletableFuture.supplyAsync(() -> service.shortenUrl(existingUrl));
+
+      assertEquals("https://example.com/a", first.get().getOriginalUrl());
+      assertEquals("https://example.com/bb", second.get().getOriginalUrl());
+      assertSame(existing, third.get());
+    } finally {
+      service.destroy();
+    }
+    verify(shortUrlRepository, times(1)).insertAll(argThat(mappings -> mappings.size() == 2));
+    verify(shortUrlRepository, never()).save(any(ShortUrl.class));
+  }
+
+  @Test
+  void shortenUrl_batchingEnabled_conflictFallsBackToSingleInserts() throws Exception {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getShortenBatching().setEnabled(true);
+    appProperties.getShortenBatching().setMaxBatchSize(1);
+    service = new UrlShorteningServiceImpl(shortUrlStore, shortCodeGenerator,
+        sequenceCodeAllocator, new ResolveCache(appProperties), appProperties, transactionManager,
+        new RequestCoalescer(), new UrlShortenerMetrics(meterRegistry),
+        new CodeLengthPolicy(appProperties, shortUrlStore, shardRouter), shardRouter, urlIndex,
+        ReplicaRouter.none());
+
+    String normalizedUrl = "https://example.com/taken";
+    when(shortUrlRepository.findAllByOriginalUrlHashIn(any())).thenReturn(List.of());
+    when(shortCodeGenerator.generateShortCode(anyString())).thenReturn("abc123");
+    when(shortUrlRepository.insertAll(any()))
+        .thenThrow(new DuplicateKeyException("uk_short_urls_short_code"));
+    when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    try {
+      ShortUrl result = service.shortenUrl(normalizedUrl);
+      assertEquals("abc123", result.getShortCode());
+    } finally {
+      service.destroy();
+    }
+    verify(shortUrlRepository, times(1)).save(any(ShortUrl.class));
+  }
+
+  @Test
+  void shortenUrl_adaptiveLength_generatesCodeOfPolicyLength() {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getCodeGeneration().setAdaptiveLength(true);
+    appProperties.getCodeGeneration().setMinLength(7);
+    service = new UrlShorteningServiceImpl(shortUrlStore, shortCodeGenerator,
+        sequenceCodeAllocator, new ResolveCache(appProperties), appProperties, transactionManager,
+        new RequestCoalescer(), new UrlShortenerMetrics(meterRegistry),
+        new CodeLengthPolicy(appProperties, shortUrlStore, shardRouter), shardRouter, urlIndex,
+        ReplicaRouter.none());
+
+    String normalizedUrl = "https://example.com/adaptive";
+    when(shortCodeGenerator.generateShortCode(normalizedUrl, 7)).thenReturn("abcdefg");
+    when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    ShortUrl result = service.shortenUrl(normalizedUrl);
+
+    assertEquals("abcdefg", result.getShortCode());
+    verify(shortCodeGenerator, never()).generateShortCode(anyString());
   }
 
   @Test
   void resolveUrl_existingCode_returnsOriginalUrl() {
     String code = "abc123";
     String original = "https://example.com/foo";
-    ShortUrl mapping = new ShortUrl();
-    mapping.setId(5L);
-    mapping.setOriginalUrl(original);
-    mapping.setShortCode(code);
-    when(shortUrlRepository.findByShortCode(code)).thenReturn(Optional.of(mapping));
+    when(shortUrlRepository.findLinkTargetByShortCode(code)).thenReturn(Optional.of(new LinkTarget(original, null, Instant.now(), null)));
 
     String resolved = service.resolveUrl(code);
     assertEquals(original, resolved);
   }
 
+  @Test
+  void resolveUrl_expiredLink_throwsUrlNotFoundWithoutFurtherQueries() {
+    when(shortUrlRepository.findLinkTargetByShortCode("old")).thenReturn(
+        Optional.of(new LinkTarget("https://example.com/old", Instant.now().minusSeconds(1), Instant.now().minusSeconds(60), null)));
+
+    assertThrows(UrlNotFoundException.class, () -> service.resolveUrl("old"));
+    assertThrows(UrlNotFoundException.class, () -> service.resolveUrl("old"));
+
+    verify(shortUrlRepository, times(1)).findLinkTargetByShortCode("old");
+    verifyNoMoreInteractions(shortUrlRepository);
+  }
+
+  @Test
+  void shortenUrl_pastExpiry_throwsInvalidExpiry() {
+    assertThrows(InvalidExpiryException.class,
+        () -> service.shortenUrl("https://example.com/a", Instant.now().minusSeconds(1)));
+    verifyNoInteractions(shortUrlRepository);
+  }
+
+  @Test
+  void shortenUrl_expiryPastColumnRange_throwsInvalidExpiry() {
+    assertThrows(InvalidExpiryException.class,
+        () -> service.shortenUrl("https://example.com/a", ShortUrl.MAX_EXPIRES_AT.plusSeconds(1)));
+    assertThrows(InvalidExpiryException.class,
+        () -> service.shortenUrl("https://example.com/a", Instant.MAX));
+    verifyNoInteractions(shortUrlRepository);
+  }
+
+  @Test
+  void shortenUrl_existingExpiringUrl_extendsExpiryToLaterRequest() {
+    String normalizedUrl = "https://example.com/expiring";
+    Instant current = Instant.now().plusSeconds(60);
+    Instant requested = Instant.now().plusSeconds(3600);
+    ShortUrl existing = new ShortUrl(7L, normalizedUrl, "exp123", Instant.now());
+    existing.setExpiresAt(current);
+
+    when(shortCodeGenerator.generateShortCode(normalizedUrl)).thenReturn("exp123");
+    when(shortUrlRepository.save(any(ShortUrl.class)))
+        .thenThrow(new DuplicateKeyException("uk_short_urls_original_url_hash"));
+    when(shortUrlRepository.findByOriginalUrlHash(UrlFingerprint.of(normalizedUrl, 0))).thenReturn(Optional.of(existing));
+    when(shortUrlRepository.extendExpiry(7L, requested)).thenReturn(1);
+
+    ShortUrl result = service.shortenUrl(normalizedUrl, requested);
+
+    assertEquals(requested, result.getExpiresAt());
+    verify(shortUrlRepository).extendExpiry(7L, requested);
+  }
+
+  @Test
+  void shortenUrl_existingExpiringUrl_permanentRequestRemovesExpiry() {
+    String normalizedUrl = "https://example.com/expiring";
+    ShortUrl existing = new ShortUrl(7L, normalizedUrl, "exp123", Instant.now());
+    existing.setExpiresAt(Instant.now().plusSeconds(60));
+
+    when(shortCodeGenerator.generateShortCode(normalizedUrl)).thenReturn("exp123");
+    when(shortUrlRepository.save(any(ShortUrl.class)))
+        .thenThrow(new DuplicateKeyException("uk_short_urls_original_url_hash"));
+    when(shortUrlRepository.findByOriginalUrlHash(UrlFingerprint.of(normalizedUrl, 0))).thenReturn(Optional.of(existing));
+    when(shortUrlRepository.makePermanent(7L)).thenReturn(1);
+
+    ShortUrl result = service.shortenUrl(normalizedUrl);
+
+    assertNull(result.getExpiresAt());
+  }
+
+  @Test
+  void shortenUrl_existingPermanentUrl_keepsItPermanent() {
+    String normalizedUrl = "https://example.com/permanent";
+    ShortUrl existing = new ShortUrl(7L, normalizedUrl, "per123", Instant.now());
+
+    when(shortCodeGenerator.generateShortCode(normalizedUrl)).thenReturn("per123");
+    when(shortUrlRepository.save(any(ShortUrl.class)))
+        .thenThrow(new DuplicateKeyException("uk_short_urls_original_url_hash"));
+    when(shortUrlRepository.findByOriginalUrlHash(UrlFingerprint.of(normalizedUrl, 0))).thenReturn(Optional.of(existing));
+
+    ShortUrl result = service.shortenUrl(normalizedUrl, Instant.now().plusSeconds(60));
+
+    assertNull(result.getExpiresAt());
+    verify(shortUrlRepository, never()).extendExpiry(anyLong(), any());
+  }
+
+  @Test
+  void resolveUrl_usesProjectionInsteadOfEntity() {
+    when(shortUrlRepository.findLinkTargetByShortCode("abc123")).thenReturn(Optional.of(new LinkTarget("https://example.com/foo", null, Instant.now(), null)));
+
+    service.resolveUrl("abc123");
+
+    verify(shortUrlRepository, never()).findByShortCode(anyString());
+  }
+
   @Test
   void resolveUrl_unknownCode_throwsUrlNotFound() {
-    when(shortUrlRepository.findByShortCode("unknown")).thenReturn(Optional.empty());
+    when(shortUrlRepository.findLinkTargetByShortCode("unknown")).thenReturn(Optional.empty());
+    assertThrows(UrlNotFoundException.class, () -> service.resolveUrl("unknown"));
+  }
+
+  @Test
+  void resolveUrl_repeatedLookups_hitRepositoryOnce() {
+    String code = "abc123";
+    when(shortUrlRepository.findLinkTargetByShortCode(code)).thenReturn(Optional.of(new LinkTarget("https://example.com/foo", null, Instant.now(), null)));
+
+    assertEquals("https://example.com/foo", service.resolveUrl(code));
+    assertEquals("https://example.com/foo", service.resolveUrl(code));
+
+    verify(shortUrlRepository, times(1)).findLinkTargetByShortCode(code);
+  }
+
+  @Test
+  void resolveUrl_unknownCodeRepeated_isNegativelyCached() {
+    when(shortUrlRepository.findLinkTargetByShortCode("unknown")).thenReturn(Optional.empty());
+
+    assertThrows(UrlNotFoundException.class, () -> service.resolveUrl("unknown"));
     assertThrows(UrlNotFoundException.class, () -> service.resolveUrl("unknown"));
+
+    verify(shortUrlRepository, times(1)).findLinkTargetByShortCode("unknown");
+    assertEquals(2.0, meterRegistry.get("urlshortener.errors").tag("type", "not_found").counter().count());
+    assertEquals(2, meterRegistry.get("urlshortener.resolve").timer().count());
+  }
+
+  @Test
+  void resolveUrl_afterShorten_isServedFromCache() {
+    String normalizedUrl = "https://example.com/hot";
+    when(shortCodeGenerator.generateShortCode(normalizedUrl)).thenReturn("hot123");
+    when(shortUrlRepository.save(any(ShortUrl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    service.shortenUrl(normalizedUrl);
+    String resolved = service.resolveUrl("hot123");
+
+    assertEquals(normalizedUrl, resolved);
+    verify(shortUrlRepository, never()).findLinkTargetByShortCode("hot123");
+  }
+
+  @Test
+  void resolveUrl_concurrentMisses_shareOneLookup() throws Exception {
+    AppProperties appProperties = new AppProperties();
+    appProperties.getCache().setEnabled(false);
+    RequestCoalescer requestCoalescer = new RequestCoalescer();
+    service = new UrlShorteningServiceImpl(shortUrlStore, shortCodeGenerator,
+        sequenceCodeAllocator, new ResolveCache(appProperties), appProperties, transactionManager,
+        requestCoalescer, new UrlShortenerMetrics(meterRegistry),
+        new CodeLengthPolicy(appProperties, shortUrlStore, shardRouter), shardRouter, urlIndex,
+        ReplicaRouter.none());
+
+    CountDownLatch release = new CountDownLatch(1);
+    when(shortUrlRepository.findLinkTargetByShortCode("viral")).thenAnswer(invocation -> {
+      release.await(5, TimeUnit.SECONDS);
+      return Optional.of(new LinkTarget("https://example.com/viral", null, Instant.now(), null));
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        results.add(executor.submit(() -> service.resolveUrl("viral")));
+      }
+      while (requestCoalescer.resolves().coalescedCount() < 3) {
+        Thread.yield();
+      }
+      release.countDown();
+
+      for (Future<String> result : results) {
+        assertEquals("https://example.com/viral", result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(shortUrlRepository, times(1)).findLinkTargetByShortCode("viral");
+    assertEquals(1, requestCoalescer.resolves().executedCount());
   }
 
   @Test
   void validation_shortenUrl_blankOrNull_throwsInvalidUrlException() {
     assertThrows(InvalidUrlException.class, () -> service.shortenUrl(null));
     assertThrows(InvalidUrlException.class, () -> service.shortenUrl("   "));
+    assertEquals(2.0, meterRegistry.get("urlshortener.errors").tag("type", "invalid_url").counter().count());
+  }
+
+  @Test
+  void validation_shortenUrl_longerThanColumn_throwsInvalidUrlWithoutInsert() {
+    String tooLong = "https://example.com/" + "a".repeat(ShortUrl.MAX_URL_LENGTH);
+
+    assertThrows(InvalidUrlException.class, () -> service.shortenUrl(tooLong));
+    verifyNoInteractions(shortUrlRepository);
+  }
+
+  @Test
+  void shortenUrl_nonDuplicateIntegrityViolation_failsWithoutRetrying() {
+    String normalizedUrl = "https://example.com/rejected";
+    when(shortCodeGenerator.generateShortCode(normalizedUrl)).thenReturn("rej123");
+    when(shortUrlRepository.save(any(ShortUrl.class)))
+        .thenThrow(new DataIntegrityViolationException("value too long for column"));
+
+    assertThrows(DataIntegrityViolationException.class, () -> service.shortenUrl(normalizedUrl));
+    verify(shortUrlRepository, times(1)).save(any(ShortUrl.class));
+    verifyNoMoreInteractions(shortUrlRepository);
   }
 
   @Test
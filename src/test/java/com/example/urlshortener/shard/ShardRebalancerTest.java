@@ -0,0 +1,184 @@
+package com.example.urlshortener.shard;
+
+import com.example.urlshortener.config.AppProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRebalancerTest {
+
+  private static final List<String> SHARDS = List.of("a", "b", "c");
+  private static final int ROWS = 300;
+
+  private final Map<String, JdbcTemplate> direct = new LinkedHashMap<>();
+  private ShardRouter shardRouter;
+  private JdbcTemplate jdbcTemplate;
+  private ShardRebalancer rebalancer;
+
+  @BeforeEach
+  void setUp() {
+    Map<String, DataSource> dataSources = new LinkedHashMap<>();
+    for (String shard : SHARDS) {
+      DataSource dataSource = new DriverManagerDataSource(
+          "jdbc:h2:mem:shard-rebalancer-" + shard + ";DB_CLOSE_DELAY=-1", "sa", "");
+      // Hibernate is not running here, so the default shard needs short_urls as well
+      ShardSchema.create(dataSource, false);
+      dataSources.put(shard, dataSource);
+      direct.put(shard, new JdbcTemplate(dataSource));
+    }
+    shardRouter = new ShardRouter(SHARDS, 128, false);
+    jdbcTemplate = new JdbcTemplate(new ShardRoutingDataSource(dataSources, "a"));
+    AppProperties appProperties = new AppProperties();
+    appProperties.getSharding().setRebalanceBatchSize(50);
+    rebalancer = new ShardRebalancer(shardRouter, jdbcTemplate, appProperties);
+  }
+
+  @AfterEach
+  void tearDown() {
+    direct.values().forEach(shard -> shard.execute("drop all objects"));
+  }
+
+  @Test
+  void rebalance_movesEveryMappingToItsOwnerAndIndexesIt() {
+    // As if "b" and "c" were just added: everything is on the former single shard
+    insertOnShard("a", ROWS);
+
+    long moved = rebalancer.rebalance();
+
+    assertTrue(moved > ROWS / 3, "moved " + moved);
+    long total = 0;
+    for (String shard : SHARDS) {
+      List<String> codes = direct.get(shard).queryForList("select short_code from short_urls", String.class);
+      codes.forEach(code -> assertEquals(shard, shardRouter.shardOfCode(code), code));
+      assertFalse(codes.isEmpty(), shard);
+      total += codes.size();
+    }
+    assertEquals(ROWS, total);
+
+    UrlIndex urlIndex = new UrlIndex(jdbcTemplate, shardRouter);
+    for (int i = 0; i < ROWS; i++) {
+      assertEquals("c" + i, urlIndex.find(i).orElseThrow());
+    }
+    assertFalse(shardRouter.isRebalancing());
+  }
+
+  @Test
+  void rebalance_finishesInterruptedMoveWithoutCopyingTwice() {
+    // A move that copied the row to its owner but stopped before deleting the original
+    String code = codeOwnedBy("b");
+    insertMapping("a", code, "https://example.com/moved", 7L);
+    insertMapping("b", code, "https://example.com/moved", 7L);
+
+    rebalancer.rebalance();
+
+    assertEquals(0, countOn("a", code));
+    assertEquals(1, countOn("b", code));
+    assertEquals(0, rebalancer.conflictCount());
+  }
+
+  @Test
+  void rebalance_keepsMappingWhoseCodeIsTakenOnOwner() {
+    String code = codeOwnedBy("b");
+    insertMapping("a", code, "https://example.com/first", 7L);
+    insertMapping("b", code, "https://example.com/second", 8L);
+
+    rebalancer.rebalance();
+
+    assertEquals(1, countOn("a", code));
+    assertEquals(1, countOn("b", code));
+    assertEquals(1, rebalancer.conflictCount());
+    assertNotNull(rebalancer.getFailure());
+  }
+
+  @Test
+  void rebalance_conflictFailsRunAndKeepsLeftoverReachable() {
+    // The owner holds the fingerprint under another code, so the mapping cannot move there
+    String code = codeOwnedBy("b");
+    insertMapping("a", code, "https://example.com/left", 7L);
+    insertMapping("b", "other", "https://example.com/owner", 7L);
+
+    rebalancer.rebalance();
+
+    assertEquals(1, rebalancer.conflictCount());
+    assertNotNull(rebalancer.getFailure());
+    assertTrue(shardRouter.isRebalancing());
+    ShardRouter.Located<String> located = shardRouter.find("b", () -> lookup(code)).orElseThrow();
+    assertEquals("a", located.shard());
+    assertEquals("https://example.com/left", located.value());
+  }
+
+  @Test
+  void find_looksOnOtherShardsOnlyWhileRebalancing() {
+    String code = codeOwnedBy("b");
+    insertMapping("a", code, "https://example.com/x", 1L);
+
+    assertTrue(shardRouter.find("b", () -> lookup(code)).isEmpty());
+
+    shardRouter.setRebalancing(true);
+    ShardRouter.Located<String> located = shardRouter.find("b", () -> lookup(code)).orElseThrow();
+
+    assertEquals("a", located.shard());
+    assertEquals("https://example.com/x", located.value());
+  }
+
+  @Test
+  void claim_rejectsSecondCodeForSameFingerprint() {
+    UrlIndex urlIndex = new UrlIndex(jdbcTemplate, shardRouter);
+
+    assertTrue(urlIndex.claim(42L, "first"));
+    assertFalse(urlIndex.claim(42L, "second"));
+    assertEquals("first", urlIndex.find(42L).orElseThrow());
+
+    urlIndex.release(42L, "second");
+    assertEquals("first", urlIndex.find(42L).orElseThrow());
+    urlIndex.release(42L, "first");
+    assertTrue(urlIndex.find(42L).isEmpty());
+  }
+
+  private Optional<String> lookup(String code) {
+    return jdbcTemplate.queryForList("select original_url from short_urls where short_code = ?", String.class, code)
+        .stream().findFirst();
+  }
+
+  private void insertOnShard(String shard, int rows) {
+    OffsetDateTime createdAt = OffsetDateTime.ofInstant(Instant.parse("2026-01-01T12:00:00Z"), ZoneOffset.UTC);
+    List<Object[]> batch = new ArrayList<>();
+    for (int i = 0; i < rows; i++) {
+      batch.add(new Object[] {"https://example.com/" + i, (long) i, "c" + i, createdAt});
+    }
+    direct.get(shard).batchUpdate("insert into short_urls (original_url, original_url_hash, short_code, created_at)"
+        + " values (?, ?, ?, ?)", batch);
+  }
+
+  private void insertMapping(String shard, String code, String url, long fingerprint) {
+    direct.get(shard).update("insert into short_urls (original_url, original_url_hash, short_code, created_at)"
+        + " values (?, ?, ?, ?)", url, fingerprint, code, OffsetDateTime.now(ZoneOffset.UTC));
+  }
+
+  private String codeOwnedBy(String shard) {
+    for (int i = 0; ; i++) {
+      if (shardRouter.shardOfCode("x" + i).equals(shard)) {
+        return "x" + i;
+      }
+    }
+  }
+
+  private int countOn(String shard, String code) {
+    return direct.get(shard).queryForObject("select count(*) from short_urls where short_code = ?",
+        Integer.class, code);
+  }
+}
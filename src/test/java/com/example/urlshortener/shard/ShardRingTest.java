@@ -0,0 +1,63 @@
+package com.example.urlshortener.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRingTest {
+
+  private static final int KEYS = 30_000;
+
+  @Test
+  void shardFor_isDeterministicAcrossInstances() {
+    ShardRing first = new ShardRing(List.of("a", "b", "c"), 128);
+    ShardRing second = new ShardRing(List.of("a", "b", "c"), 128);
+
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(first.shardFor("code" + i), second.shardFor("code" + i));
+    }
+  }
+
+  @Test
+  void shardFor_spreadsKeysEvenly() {
+    ShardRing ring = new ShardRing(List.of("a", "b", "c"), 128);
+
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < KEYS; i++) {
+      counts.merge(ring.shardFor("code" + i), 1, Integer::sum);
+    }
+
+    assertEquals(3, counts.size());
+    for (int count : counts.values()) {
+      assertEquals(KEYS / 3.0, count, KEYS / 3.0 * 0.2, "counts: " + counts);
+    }
+  }
+
+  @Test
+  void shardFor_addingShardOnlyMovesKeysToIt() {
+    ShardRing before = new ShardRing(List.of("a", "b", "c"), 128);
+    ShardRing after = new ShardRing(List.of("a", "b", "c", "d"), 128);
+
+    int moved = 0;
+    for (int i = 0; i < KEYS; i++) {
+      String owner = after.shardFor("code" + i);
+      if (!owner.equals(before.shardFor("code" + i))) {
+        assertEquals("d", owner);
+        moved++;
+      }
+    }
+
+    // The new shard takes about a quarter of the keys; virtual nodes only even it out roughly
+    assertTrue(moved > KEYS * 0.15 && moved < KEYS * 0.35, "moved " + moved);
+  }
+
+  @Test
+  void constructor_rejectsEmptyRing() {
+    assertThrows(IllegalArgumentException.class, () -> new ShardRing(List.of(), 128));
+    assertThrows(IllegalArgumentException.class, () -> new ShardRing(List.of("a"), 0));
+  }
+}
@@ -0,0 +1,104 @@
+package com.example.urlshortener.shard;
+
+import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.service.ShortCodeGenerator;
+import com.example.urlshortener.service.UrlShorteningService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "app.cache.enabled=false",
+    "app.cache.snapshot-enabled=false",
+    "app.sharding.enabled=true",
+    "app.sharding.shards[0].name=a",
+    "app.sharding.shards[0].url=jdbc:h2:mem:sharded-a;DB_CLOSE_DELAY=-1",
+    "app.sharding.shards[0].username=sa",
+    "app.sharding.shards[1].name=b",
+    "app.sharding.shards[1].url=jdbc:h2:mem:sharded-b;DB_CLOSE_DELAY=-1",
+    "app.sharding.shards[1].username=sa",
+    "app.sharding.shards[2].name=c",
+    "app.sharding.shards[2].url=jdbc:h2:mem:sharded-c;DB_CLOSE_DELAY=-1",
+    "app.sharding.shards[2].username=sa"
+})
+class ShardedStorageIntegrationTest {
+
+  private static final int URLS = 60;
+
+  @Autowired
+  private UrlShorteningService shorteningService;
+
+  @Autowired
+  private ShardRouter shardRouter;
+
+  @Autowired
+  private ShardRebalancer shardRebalancer;
+
+  @Autowired
+  private ShortCodeGenerator shortCodeGenerator;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void shortenAndResolve_spreadMappingsOverShardsAndStayIdempotent() {
+    long mappingsBefore = 0;
+    long indexEntriesBefore = 0;
+    for (String shard : shardRouter.shards()) {
+      mappingsBefore += shardRebalancer.countMappings(shard);
+      indexEntriesBefore += shardRebalancer.countIndexEntries(shard);
+    }
+    Map<String, String> codes = new HashMap<>();
+    for (int i = 0; i < URLS; i++) {
+      String url = "https://example.com/sharded/" + i;
+      codes.put(url, shorteningService.shortenUrl(url, null).getShortCode());
+    }
+
+    codes.forEach((url, code) -> {
+      assertEquals(url, shorteningService.resolveUrl(code));
+      ShortUrl again = shorteningService.shortenUrl(url, null);
+      assertEquals(code, again.getShortCode());
+    });
+    long mappings = 0;
+    long indexEntries = 0;
+    for (String shard : shardRouter.shards()) {
+      assertTrue(shardRebalancer.countMappings(shard) > 0, shard);
+      mappings += shardRebalancer.countMappings(shard);
+      indexEntries += shardRebalancer.countIndexEntries(shard);
+    }
+    assertEquals(mappingsBefore + URLS, mappings);
+    assertEquals(indexEntriesBefore + URLS, indexEntries);
+  }
+
+  @Test
+  void shorten_whileRebalancing_skipsCodeStillHeldOnFormerShard() {
+    String url = "https://example.com/sharded/new";
+    String code = shortCodeGenerator.generateShortCode(url);
+    String owner = shardRouter.shardOfCode(code);
+    String former = shardRouter.shards().stream().filter(shard -> !shard.equals(owner)).findFirst().orElseThrow();
+    // An existing link that a rebalance has not moved to the code's new owner yet
+    shardRouter.runOnShard(former, () -> jdbcTemplate.update(
+        "insert into short_urls (original_url, original_url_hash, short_code, created_at) values (?, ?, ?, ?)",
+        "https://example.com/sharded/old", 1L, code, OffsetDateTime.now(ZoneOffset.UTC)));
+    shardRouter.setRebalancing(true);
+    try {
+      assertNotEquals(code, shorteningService.shortenUrl(url, null).getShortCode());
+      assertEquals("https://example.com/sharded/old", shorteningService.resolveUrl(code));
+
+      shardRebalancer.rebalance();
+
+      assertEquals(0, shardRebalancer.conflictCount());
+      assertEquals("https://example.com/sharded/old", shorteningService.resolveUrl(code));
+    } finally {
+      shardRouter.setRebalancing(false);
+    }
+  }
+}
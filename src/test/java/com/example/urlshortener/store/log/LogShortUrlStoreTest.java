@@ -0,0 +1,281 @@
+package com.example.urlshortener.store.log;
+
+import com.example.urlshortener.model.RedirectType;
+import com.example.urlshortener.model.ShortUrl;
+import com.example.urlshortener.repository.LinkTarget;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogShortUrlStoreTest {
+
+  @TempDir
+  Path dir;
+
+  private Path file;
+  private LogShortUrlStore store;
+
+  @BeforeEach
+  void setUp() {
+    file = dir.resolve("short-urls.log");
+    store = new LogShortUrlStore(file, false);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    store.close();
+  }
+
+  @Test
+  void insert_assignsIdAndIsFoundByCodeAndFingerprint() {
+    ShortUrl stored = store.insert(mapping("abc", "https://example.com/a", 11L, null));
+
+    assertEquals(1L, stored.getId());
+    assertNotNull(stored.getCreatedAt());
+    ShortUrl byCode = store.findByShortCode("abc").orElseThrow();
+    assertEquals("https://example.com/a", byCode.getOriginalUrl());
+    assertEquals(11L, byCode.getOriginalUrlHash());
+    assertEquals(stored.getCreatedAt(), byCode.getCreatedAt());
+    assertEquals("abc", store.findByOriginalUrlHash(11L).orElseThrow().getShortCode());
+    assertEquals(new LinkTarget("https://example.com/a", null, stored.getCreatedAt(), null),
+        store.findLinkTargetByShortCode("abc").orElseThrow());
+    assertTrue(store.findByShortCode("missing").isEmpty());
+  }
+
+  @Test
+  void insert_takenCodeOrFingerprint_throwsDuplicateKey() {
+    store.insert(mapping("abc", "https://example.com/a", 11L, null));
+
+    assertThrows(DuplicateKeyException.class,
+        () -> store.insert(mapping("abc", "https://example.com/b", 12L, null)));
+    assertThrows(DuplicateKeyException.class,
+        () -> store.insert(mapping("xyz", "https://example.com/a", 11L, null)));
+    assertEquals(1, store.mappingCount());
+  }
+
+  @Test
+  void insert_urlLongerThanColumn_failsButNotAsDuplicate() {
+    String url = "https://example.com/" + "a".repeat(ShortUrl.MAX_URL_LENGTH);
+
+    DataIntegrityViolationException ex = assertThrows(DataIntegrityViolationException.class,
+        () -> store.insert(mapping("abc", url, 11L, null)));
+    assertFalse(ex instanceof DuplicateKeyException);
+  }
+
+  @Test
+  void insertAll_anyConflict_storesNothing() {
+    store.insert(mapping("abc", "https://example.com/a", 11L, null));
+
+    assertThrows(DuplicateKeyException.class, () -> store.insertAll(List.of(
+        mapping("new", "https://example.com/new", 20L, null),
+        mapping("abc", "https://example.com/b", 21L, null))));
+
+    assertTrue(store.findByShortCode("new").isEmpty());
+    assertEquals(List.of("abc"), store.findTakenShortCodes(List.of("abc", "new")));
+  }
+
+  @Test
+  void extendExpiry_onlyMovesExpiryLater() {
+    Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MICROS);
+    long id = store.insert(mapping("abc", "https://example.com/a", 11L, expiresAt)).getId();
+
+    assertEquals(0, store.extendExpiry(id, expiresAt.minusSeconds(60)));
+    assertEquals(1, store.extendExpiry(id, expiresAt.plusSeconds(60)));
+    assertEquals(expiresAt.plusSeconds(60), store.findByShortCode("abc").orElseThrow().getExpiresAt());
+    assertEquals(1, store.makePermanent(id));
+    assertEquals(0, store.makePermanent(id));
+    assertNull(store.findByShortCode("abc").orElseThrow().getExpiresAt());
+  }
+
+  @Test
+  void reopen_replaysInsertsExpiryChangesAndDeletes() throws IOException {
+    Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MICROS);
+    long kept = store.insert(mapping("keep", "https://example.com/ü", 11L, expiresAt)).getId();
+    long deleted = store.insert(mapping("gone", "https://example.com/gone", 12L, null)).getId();
+    store.extendExpiry(kept, expiresAt.plusSeconds(60));
+    store.deleteById(deleted);
+
+    store.close();
+    store = new LogShortUrlStore(file, false);
+
+    ShortUrl mapping = store.findByShortCode("keep").orElseThrow();
+    assertEquals(kept, mapping.getId());
+    assertEquals("https://example.com/ü", mapping.getOriginalUrl());
+    assertEquals(expiresAt.plusSeconds(60), mapping.getExpiresAt());
+    assertTrue(store.findByShortCode("gone").isEmpty());
+    assertTrue(store.findByOriginalUrlHash(12L).isEmpty());
+    assertEquals(Map.of(4, 1L), store.countByCodeLength());
+    // Ids are not handed out twice, even the one of the deleted mapping
+    assertEquals(3L, store.insert(mapping("next", "https://example.com/next", 13L, null)).getId());
+  }
+
+  @Test
+  void reopen_keepsRedirectType() throws IOException {
+    ShortUrl temporary = mapping("tmp", "https://example.com/tmp", 11L, null);
+    temporary.setRedirectType(RedirectType.TEMPORARY);
+    store.insert(temporary);
+    store.insert(mapping("dflt", "https://example.com/default", 12L, null));
+
+    store.close();
+    store = new LogShortUrlStore(file, false);
+
+    assertEquals(RedirectType.TEMPORARY, store.findByShortCode("tmp").orElseThrow().getRedirectType());
+    assertEquals(RedirectType.TEMPORARY, store.findLinkTargetByShortCode("tmp").orElseThrow().redirectType());
+    assertNull(store.findByShortCode("dflt").orElseThrow().getRedirectType());
+  }
+
+  @Test
+  void reopen_tornLastRecord_truncatesToLastIntactRecord() throws IOException {
+    store.insert(mapping("one", "https://example.com/1", 1L, null));
+    store.insert(mapping("two", "https://example.com/2", 2L, null));
+    store.close();
+    long intact = Files.size(file);
+    store = new LogShortUrlStore(file, false);
+    store.insert(mapping("three", "https://example.com/3", 3L, null));
+    store.close();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(Files.size(file) - 5);
+    }
+
+    store = new LogShortUrlStore(file, false);
+
+    assertEquals(intact, Files.size(file));
+    assertTrue(store.findByShortCode("two").isPresent());
+    assertTrue(store.findByShortCode("three").isEmpty());
+    store.insert(mapping("four", "https://example.com/4", 4L, null));
+    store.close();
+    store = new LogShortUrlStore(file, false);
+    assertEquals("https://example.com/4", store.findByShortCode("four").orElseThrow().getOriginalUrl());
+  }
+
+  @Test
+  void reopen_corruptedRecord_dropsItAndEverythingAfter() throws IOException {
+    store.insert(mapping("one", "https://example.com/1", 1L, null));
+    long firstEnd = store.sizeBytes();
+    store.insert(mapping("two", "https://example.com/2", 2L, null));
+    store.close();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {'X'}), Files.size(file) - 1);
+    }
+
+    store = new LogShortUrlStore(file, false);
+
+    assertTrue(store.findByShortCode("one").isPresent());
+    assertTrue(store.findByShortCode("two").isEmpty());
+    assertEquals(firstEnd, Files.size(file));
+  }
+
+  @Test
+  void open_notAMappingLog_throws() throws IOException {
+    store.close();
+    Path other = dir.resolve("other.log");
+    Files.writeString(other, "definitely not a mapping log");
+
+    assertThrows(RuntimeException.class, () -> new LogShortUrlStore(other, false));
+    store = new LogShortUrlStore(file, false);
+  }
+
+  @Test
+  void compact_dropsSupersededRecordsAndExpiredMappings() throws Exception {
+    Instant now = Instant.now();
+    for (int i = 0; i < 100; i++) {
+      long id = store.insert(mapping("c" + i, "https://example.com/" + i, i, null)).getId();
+      if (i % 2 == 0) {
+        store.deleteById(id);
+      }
+    }
+    ShortUrl expired = mapping("old", "https://example.com/old", 1000L, now.plusMillis(50));
+    store.insert(expired);
+    long before = store.sizeBytes();
+    assertTrue(store.garbageRatio(now) >= 0.5);
+
+    assertTrue(store.garbageRatio(now.plusSeconds(1)) > store.garbageRatio(now));
+    waitUntilExpired(expired.getExpiresAt());
+    assertTrue(store.compact());
+
+    assertTrue(store.sizeBytes() < before / 2, store.sizeBytes() + " of " + before);
+    assertEquals(50, store.mappingCount());
+    assertTrue(store.findByShortCode("old").isEmpty());
+    assertEquals(0.0, store.garbageRatio(Instant.now()));
+    assertEquals("https://example.com/51", store.findByShortCode("c51").orElseThrow().getOriginalUrl());
+
+    store.close();
+    store = new LogShortUrlStore(file, false);
+    assertEquals(50, store.mappingCount());
+    assertEquals("https://example.com/99", store.findByShortCode("c99").orElseThrow().getOriginalUrl());
+    assertTrue(store.insert(mapping("new", "https://example.com/new", 2000L, null)).getId() > 101);
+  }
+
+  @Test
+  void compact_keepsWritesMadeConcurrently() throws Exception {
+    for (int i = 0; i < 2000; i++) {
+      store.insert(mapping("c" + i, "https://example.com/" + i, i, null));
+    }
+    for (int i = 0; i < 2000; i += 2) {
+      store.deleteById(store.findByShortCode("c" + i).orElseThrow().getId());
+    }
+    List<String> written = new ArrayList<>();
+    Thread writer = Thread.ofPlatform().start(() -> {
+      for (int i = 0; i < 500; i++) {
+        store.insert(mapping("w" + i, "https://example.com/w" + i, 10_000L + i, null));
+        written.add("w" + i);
+      }
+    });
+
+    store.compact();
+    writer.join();
+
+    for (String code : written) {
+      assertTrue(store.findByShortCode(code).isPresent(), code);
+    }
+    store.close();
+    store = new LogShortUrlStore(file, false);
+    assertEquals(1500, store.mappingCount());
+    assertEquals("https://example.com/w499", store.findByShortCode("w499").orElseThrow().getOriginalUrl());
+    assertEquals("https://example.com/1999", store.findByShortCode("c1999").orElseThrow().getOriginalUrl());
+  }
+
+  @Test
+  void forEachInIdOrder_visitsLiveMappingsById() {
+    store.insert(mapping("b", "https://example.com/b", 2L, null));
+    store.insert(mapping("a", "https://example.com/a", 1L, null));
+    store.insert(mapping("c", "https://example.com/c", 3L, null));
+    store.deleteById(2L);
+    List<String> codes = new ArrayList<>();
+
+    assertEquals(2, store.forEachInIdOrder(mapping -> codes.add(mapping.getShortCode())));
+    assertEquals(List.of("b", "c"), codes);
+  }
+
+  private static ShortUrl mapping(String code, String url, long fingerprint, Instant expiresAt) {
+    ShortUrl mapping = new ShortUrl();
+    mapping.setShortCode(code);
+    mapping.setOriginalUrl(url);
+    mapping.setOriginalUrlHash(fingerprint);
+    mapping.setExpiresAt(expiresAt);
+    return mapping;
+  }
+
+  private static void waitUntilExpired(Instant expiresAt) throws InterruptedException {
+    while (!Instant.now().isAfter(expiresAt)) {
+      Thread.sleep(10);
+    }
+  }
+}
@@ -43,6 +43,16 @@ class Base62EncoderTest {
     assertThrows(IllegalArgumentException.class, () -> Base62Encoder.encode(-1L));
   }
 
+  @Test
+  void encode_long_maxLength_keepsMostSignificantDigits() {
+    String full = Base62Encoder.encode(Long.MAX_VALUE);
+    assertEquals("AzL8n0Y58m7", full);
+    assertEquals(full.substring(0, 4), Base62Encoder.encode(Long.MAX_VALUE, 4));
+    assertEquals("z", Base62Encoder.encode(61L, 4));
+    assertEquals("0", Base62Encoder.encode(0L, 1));
+    assertThrows(IllegalArgumentException.class, () -> Base62Encoder.encode(1L, 0));
+  }
+
   @Test
   void encode_bytes_nullOrEmpty_returnsZeroString() {
     assertEquals("0", Base62Encoder.encode((byte[]) null));
@@ -57,6 +67,32 @@ class Base62EncoderTest {
     assertFalse(encoded.isEmpty());
     assertTrue(BASE62_PATTERN.matcher(encoded).matches());
   }
-}
 
+  @Test
+  void encodeFixed_padsToRequestedLength() {
+    assertEquals("000001", Base62Encoder.encodeFixed(1L, 6));
+    assertEquals("00000z", Base62Encoder.encodeFixed(61L, 6));
+    assertEquals("10", Base62Encoder.encodeFixed(62L, 2));
+  }
 
+  @Test
+  void encodeFixed_keepsLowestDigits() {
+    // 62^2 + 5 keeps only its two least significant digits
+    assertEquals("05", Base62Encoder.encodeFixed(62L * 62 + 5, 2));
+    assertEquals(10, Base62Encoder.encodeFixed(Long.MAX_VALUE, 10).length());
+  }
+
+  @Test
+  void encodeFixed_invalidArguments_throw() {
+    assertThrows(IllegalArgumentException.class, () -> Base62Encoder.encodeFixed(-1L, 6));
+    assertThrows(IllegalArgumentException.class, () -> Base62Encoder.encodeFixed(1L, 0));
+    assertThrows(IllegalArgumentException.class, () -> Base62Encoder.encodeFixed(1L, 11));
+  }
+
+  @Test
+  void keyspaceSize_isPowerOfSixtyTwo() {
+    assertEquals(62L, Base62Encoder.keyspaceSize(1));
+    assertEquals(3844L, Base62Encoder.keyspaceSize(2));
+    assertEquals(839299365868340224L, Base62Encoder.keyspaceSize(10));
+  }
+}
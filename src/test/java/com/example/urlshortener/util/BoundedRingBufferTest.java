@@ -0,0 +1,109 @@
+package com.example.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedRingBufferTest {
+
+  @Test
+  void constructor_roundsCapacityUpToPowerOfTwo() {
+    assertEquals(8, new BoundedRingBuffer<String>(5).capacity());
+    assertEquals(8, new BoundedRingBuffer<String>(8).capacity());
+    assertEquals(2, new BoundedRingBuffer<String>(1).capacity());
+  }
+
+  @Test
+  void offer_whenFull_returnsFalse() {
+    BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+    for (int i = 0; i < 4; i++) {
+      assertTrue(buffer.offer(i));
+    }
+
+    assertFalse(buffer.offer(4));
+    assertEquals(4, buffer.size());
+  }
+
+  @Test
+  void offer_minimumCapacity_detectsFullRing() {
+    BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(1);
+    assertTrue(buffer.offer(0));
+    assertTrue(buffer.offer(1));
+
+    assertFalse(buffer.offer(2));
+    assertEquals(0, buffer.poll());
+    assertTrue(buffer.offer(2));
+  }
+
+  @Test
+  void poll_returnsElementsInFifoOrderAcrossWrapAround() {
+    BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+    for (int i = 0; i < 10; i++) {
+      assertTrue(buffer.offer(i));
+      assertEquals(i, buffer.poll());
+    }
+    assertNull(buffer.poll());
+    assertEquals(0, buffer.size());
+  }
+
+  @Test
+  void drainTo_respectsMaxElements() {
+    BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(8);
+    for (int i = 0; i < 5; i++) {
+      buffer.offer(i);
+    }
+    List<Integer> target = new ArrayList<>();
+
+    assertEquals(3, buffer.drainTo(target, 3));
+    assertEquals(List.of(0, 1, 2), target);
+    assertEquals(2, buffer.size());
+  }
+
+  @Test
+  void offer_concurrentProducers_deliversEveryElementOnce() throws Exception {
+    int producers = 4;
+    int perProducer = 10_000;
+    BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(256);
+    ExecutorService executor = Executors.newFixedThreadPool(producers);
+    CountDownLatch start = new CountDownLatch(1);
+    for (int p = 0; p < producers; p++) {
+      int base = p * perProducer;
+      executor.execute(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        for (int i = 0; i < perProducer; i++) {
+          while (!buffer.offer(base + i)) {
+            Thread.yield();
+          }
+        }
+      });
+    }
+
+    start.countDown();
+    Set<Integer> seen = new HashSet<>();
+    while (seen.size() < producers * perProducer) {
+      Integer value = buffer.poll();
+      if (value == null) {
+        Thread.yield();
+      } else {
+        assertTrue(seen.add(value), "duplicate " + value);
+      }
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertNull(buffer.poll());
+  }
+}
@@ -0,0 +1,36 @@
+package com.example.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvUtilsTest {
+
+  @Test
+  void parseLine_quotedAndEmptyFields() {
+    assertEquals(List.of("1", "https://example.com/?a=1,2&q=\"y\"", "", "end", ""),
+        CsvUtils.parseLine("1,\"https://example.com/?a=1,2&q=\"\"y\"\"\",,end,"));
+    assertEquals(List.of(""), CsvUtils.parseLine(""));
+  }
+
+  @Test
+  void parseLine_malformedQuotes_throws() {
+    assertThrows(IllegalArgumentException.class, () -> CsvUtils.parseLine("\"unterminated"));
+    assertThrows(IllegalArgumentException.class, () -> CsvUtils.parseLine("\"quoted\"trailing,x"));
+  }
+
+  @Test
+  void writeField_thenParseLine_roundTrips() throws IOException {
+    StringWriter writer = new StringWriter();
+    CsvUtils.writeField(writer, "plain");
+    writer.write(',');
+    CsvUtils.writeField(writer, "a,\"b\"");
+
+    assertEquals("plain,\"a,\"\"b\"\"\"", writer.toString());
+    assertEquals(List.of("plain", "a,\"b\""), CsvUtils.parseLine(writer.toString()));
+  }
+}
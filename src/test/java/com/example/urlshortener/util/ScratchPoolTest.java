@@ -0,0 +1,59 @@
+package com.example.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScratchPoolTest {
+
+  @Test
+  void acquire_onPlatformThread_returnsSameInstance() {
+    ScratchPool<Object> pool = new ScratchPool<>(Object::new, 4);
+    Object first = pool.acquire();
+    pool.release(first);
+    assertSame(first, pool.acquire());
+  }
+
+  @Test
+  void acquire_onVirtualThreads_reusesReleasedInstance() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    ScratchPool<Object> pool = new ScratchPool<>(() -> {
+      created.incrementAndGet();
+      return new Object();
+    }, 4);
+
+    AtomicReference<Object> first = new AtomicReference<>();
+    Thread.ofVirtual().start(() -> {
+      Object value = pool.acquire();
+      first.set(value);
+      pool.release(value);
+    }).join();
+    AtomicReference<Object> second = new AtomicReference<>();
+    Thread.ofVirtual().start(() -> {
+      Object value = pool.acquire();
+      second.set(value);
+      pool.release(value);
+    }).join();
+
+    assertSame(first.get(), second.get());
+    assertEquals(1, created.get());
+  }
+
+  @Test
+  void acquire_onVirtualThread_whenBorrowed_createsNewInstance() throws Exception {
+    ScratchPool<Object> pool = new ScratchPool<>(Object::new, 1);
+    AtomicReference<Object> outer = new AtomicReference<>();
+    AtomicReference<Object> inner = new AtomicReference<>();
+    Thread.ofVirtual().start(() -> {
+      outer.set(pool.acquire());
+      inner.set(pool.acquire());
+      pool.release(inner.get());
+      pool.release(outer.get());
+    }).join();
+
+    assertNotSame(outer.get(), inner.get());
+  }
+}
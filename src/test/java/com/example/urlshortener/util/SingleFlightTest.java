@@ -0,0 +1,106 @@
+package com.example.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+  @Test
+  void execute_concurrentCallsForSameKey_runWorkOnce() throws Exception {
+    SingleFlight<String, String> flight = new SingleFlight<>();
+    AtomicInteger runs = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> flight.execute("key", () -> {
+          runs.incrementAndGet();
+          awaitQuietly(release);
+          return "value";
+        })));
+      }
+      while (flight.coalescedCount() < 7) {
+        Thread.yield();
+      }
+      release.countDown();
+
+      for (Future<String> result : results) {
+        assertEquals("value", result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, runs.get());
+    assertEquals(1, flight.executedCount());
+    assertEquals(7, flight.coalescedCount());
+    assertEquals(0, flight.inFlightCount());
+  }
+
+  @Test
+  void execute_sequentialCalls_runWorkEachTime() {
+    SingleFlight<String, Integer> flight = new SingleFlight<>();
+    AtomicInteger runs = new AtomicInteger();
+
+    assertEquals(1, flight.execute("key", runs::incrementAndGet));
+    assertEquals(2, flight.execute("key", runs::incrementAndGet));
+    assertEquals(0, flight.coalescedCount());
+  }
+
+  @Test
+  void execute_nullResult_isShared() {
+    SingleFlight<String, String> flight = new SingleFlight<>();
+
+    assertNull(flight.execute("key", () -> null));
+  }
+
+  @Test
+  void execute_workThrows_propagatesToLeaderAndWaiters() throws Exception {
+    SingleFlight<String, String> flight = new SingleFlight<>();
+    CountDownLatch release = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+        awaitQuietly(release);
+        throw new IllegalStateException("storage down");
+      }));
+      while (flight.inFlightCount() == 0) {
+        Thread.yield();
+      }
+      Future<String> waiter = executor.submit(() -> flight.execute("key", () -> "unused"));
+      while (flight.coalescedCount() == 0) {
+        Thread.yield();
+      }
+      release.countDown();
+
+      for (Future<String> result : List.of(leader, waiter)) {
+        Exception ex = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(0, flight.inFlightCount());
+    assertEquals("next", flight.execute("key", () -> "next"));
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.example.urlshortener.util;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+
+/**
+ * The original {@link URI}-based normalizer, kept as the reference for differential tests of
+ * {@link UrlUtils#normalizeUrl(String)}.
+ */
+final class UriReferenceNormalizer {
+
+  private UriReferenceNormalizer() {
+  }
+
+  /**
+   * @return the normalized URL, or {@code null} if the URL is rejected
+   */
+  static String normalizeOrNull(String url) {
+    try {
+      return normalize(url);
+    } catch (IllegalArgumentException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * @return the normalized URL
+   * @throws IllegalArgumentException with the original message if the URL is rejected
+   */
+  static String normalize(String url) {
+    if (url == null) {
+      throw new IllegalArgumentException("URL must not be null");
+    }
+    String trimmed = url.trim();
+    if (trimmed.isEmpty()) {
+      throw new IllegalArgumentException("URL must not be empty");
+    }
+
+    final URI parsedUri;
+    try {
+      parsedUri = new URI(trimmed);
+    } catch (URISyntaxException e) {
+      throw new IllegalArgumentException("Invalid URL syntax", e);
+    }
+
+    String scheme = parsedUri.getScheme();
+    String host = parsedUri.getHost();
+    if (scheme == null || host == null) {
+      throw new IllegalArgumentException("URL must include scheme and host");
+    }
+
+    String lowerScheme = scheme.toLowerCase(Locale.ROOT);
+    if (!"http".equals(lowerScheme) && !"https".equals(lowerScheme)) {
+      throw new IllegalArgumentException("Only http and https schemes are allowed");
+    }
+    String lowerHost = host.toLowerCase(Locale.ROOT);
+
+    try {
+      URI normalized = new URI(lowerScheme, parsedUri.getUserInfo(), lowerHost, parsedUri.getPort(),
+          parsedUri.getPath(), parsedUri.getQuery(), parsedUri.getFragment()).normalize();
+      return normalized.toString();
+    } catch (URISyntaxException e) {
+      throw new IllegalArgumentException("Invalid URL after normalization", e);
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.example.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlFingerprintTest {
+
+  @Test
+  void of_isXxHash64OfUtf8BytesSeededWithProbe() {
+    String url = "https://例え.jp/パス?q=é";
+    byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+
+    assertEquals(XxHash64.hash(bytes, 0, bytes.length, 0), UrlFingerprint.of(url, 0));
+    assertEquals(XxHash64.hash(bytes, 0, bytes.length, 3), UrlFingerprint.of(url, 3));
+  }
+
+  @Test
+  void of_differentProbes_differ() {
+    assertNotEquals(UrlFingerprint.of("https://example.com/a", 0), UrlFingerprint.of("https://example.com/a", 1));
+  }
+
+  @Test
+  void of_probeOutOfRange_throws() {
+    assertThrows(IllegalArgumentException.class, () -> UrlFingerprint.of("https://example.com/a", -1));
+    assertThrows(IllegalArgumentException.class,
+        () -> UrlFingerprint.of("https://example.com/a", UrlFingerprint.MAX_PROBES));
+  }
+}
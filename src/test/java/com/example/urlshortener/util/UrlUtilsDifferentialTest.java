@@ -0,0 +1,134 @@
+package com.example.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares {@link UrlUtils} with the original {@link java.net.URI}-based normalizer on a large,
+ * generated corpus of valid and invalid URLs, including the error messages of rejected URLs.
+ */
+class UrlUtilsDifferentialTest {
+
+  private static final int CORPUS_SIZE = 100_000;
+
+  private static final String[] SCHEMES = {
+      "http", "https", "HTTP", "HtTpS", "ftp", "httpx", "mailto", "h ttp", ""
+  };
+
+  private static final String[] SEPARATORS = { "://", "://", "://", "://", ":/", ":" };
+
+  private static final String[] HOSTS = {
+      "example.com", "EXAMPLE.COM", "a", "a.b.", "1.2.3.4", "1.2.3.256", "01.2.3.4", "1.2.3", "123",
+      "a-b.c", "a-.b", "-a.b", "a..b", "a.1b", "a.b1", "my_host.com", "xn--r8jz45g.jp", "例え.jp",
+      "[::1]", "[fe80::1%25eth0]", "255.255.255.255", "1.2.3.4.5", "1.2.3.4a.com", "", "%41.com",
+      "a.com.", "A-B-C.D"
+  };
+
+  private static final String[] PORTS = { ":", ":80", ":0080", ":65536", ":99999999999", ":8a" };
+
+  private static final String[] PIECES = {
+      "/", "//", "/.", "/..", "/./", "/../", "a", "B", "..", ".", "index.html", "~user",
+      "%2e", "%2E%2e", "%2F", "%25", "%20", "%41", "%c3%a9", "%C3", "%E2%82%AC", "%ff%fe",
+      "%f0%9f%98%80", "%00", "%7F", "%c2%a0", "%e2%80%a8", "%23", "%3F", "%5b%5d", "%3A%2F%2F",
+      "%zz", "%", "%4", "é", "😀", "\uD800", " ", " ", "\"", "<", ">", "{", "|", "^", "`", "\\",
+      ";", "=", "&", "+", "$", ",", ":", "@", "!", "~", "*", "'", "(", ")", "[", "]", "-", "_", "?", "#"
+  };
+
+  @Test
+  void normalizeUrl_matchesUriBasedImplementation() {
+    SplittableRandom random = new SplittableRandom(20240601L);
+    List<String> mismatches = new ArrayList<>();
+    int accepted = 0;
+
+    for (int i = 0; i < CORPUS_SIZE; i++) {
+      String url = randomUrl(random);
+      String expected;
+      String expectedError = null;
+      try {
+        expected = UriReferenceNormalizer.normalize(url);
+      } catch (IllegalArgumentException ex) {
+        expected = null;
+        expectedError = ex.getMessage();
+      }
+      String actual;
+      String actualError = null;
+      try {
+        actual = UrlUtils.normalizeUrl(url);
+      } catch (IllegalArgumentException ex) {
+        actual = null;
+        actualError = ex.getMessage();
+      }
+      boolean valid = UrlUtils.isValidHttpUrl(url);
+
+      if (expected != null) {
+        accepted++;
+      }
+      if (!Objects.equals(expected, actual) || !Objects.equals(expectedError, actualError)
+          || valid != (expected != null)) {
+        mismatches.add(url + " -> expected " + (expected != null ? expected : expectedError)
+            + ", got " + (actual != null ? actual : actualError) + " (valid=" + valid + ")");
+      }
+    }
+
+    assertTrue(mismatches.isEmpty(), () -> mismatches.size() + " mismatches, e.g. "
+        + mismatches.subList(0, Math.min(10, mismatches.size())));
+    // Make sure the corpus exercises both outcomes substantially
+    assertTrue(accepted > CORPUS_SIZE / 5, "accepted " + accepted);
+    assertTrue(accepted < CORPUS_SIZE * 4 / 5, "accepted " + accepted);
+  }
+
+  private static String randomUrl(SplittableRandom random) {
+    StringBuilder url = new StringBuilder();
+    if (random.nextInt(20) == 0) {
+      url.append("  ");
+    }
+    boolean mostlyValid = random.nextBoolean();
+    url.append(mostlyValid ? "https" : pick(random, SCHEMES));
+    url.append(mostlyValid ? "://" : pick(random, SEPARATORS));
+
+    if (random.nextInt(6) == 0) {
+      appendPieces(random, url, random.nextInt(4), mostlyValid);
+      url.append('@');
+    }
+    url.append(mostlyValid ? HOSTS[random.nextInt(4)] : pick(random, HOSTS));
+    if (random.nextInt(5) == 0) {
+      url.append(pick(random, PORTS));
+    }
+
+    int segments = random.nextInt(10);
+    for (int i = 0; i < segments; i++) {
+      url.append('/');
+      appendPieces(random, url, 1 + random.nextInt(2), mostlyValid);
+    }
+    if (random.nextInt(3) == 0) {
+      url.append('?');
+      appendPieces(random, url, random.nextInt(6), mostlyValid);
+    }
+    if (random.nextInt(4) == 0) {
+      url.append('#');
+      appendPieces(random, url, random.nextInt(4), mostlyValid);
+    }
+    if (random.nextInt(30) == 0) {
+      url.insert(random.nextInt(url.length() + 1), (char) random.nextInt(0x3000));
+    }
+    return url.toString();
+  }
+
+  private static void appendPieces(SplittableRandom random, StringBuilder url, int count,
+      boolean mostlyValid) {
+    for (int i = 0; i < count; i++) {
+      // The first 31 pieces are legal in user info, path, query and fragment
+      url.append(mostlyValid ? PIECES[random.nextInt(31)] : pick(random, PIECES));
+    }
+  }
+
+  private static String pick(SplittableRandom random, String[] values) {
+    return values[random.nextInt(values.length)];
+  }
+}
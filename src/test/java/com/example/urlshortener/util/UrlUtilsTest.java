@@ -33,6 +33,33 @@ class UrlUtilsTest {
     assertThrows(IllegalArgumentException.class, () -> UrlUtils.normalizeUrl("ftp://example.com"));
     assertThrows(IllegalArgumentException.class, () -> UrlUtils.normalizeUrl("not-a-url"));
   }
-}
 
+  @Test
+  void normalizeUrl_canonicalizesComponents() {
+    // dot segments and redundant slashes
+    assertEquals("https://example.com/a/c", UrlUtils.normalizeUrl("https://example.com/a/./b/../c"));
+    assertEquals("https://example.com/a/", UrlUtils.normalizeUrl("https://example.com//a//b/.."));
+    assertEquals("https://example.com/../a", UrlUtils.normalizeUrl("https://example.com/../a"));
+    // user info, port and fragment
+    assertEquals("http://user:pw@example.com:80/p#Frag",
+        UrlUtils.normalizeUrl("HTTP://user:pw@Example.COM:080/p#Frag"));
+    assertEquals("http://example.com/p", UrlUtils.normalizeUrl("http://example.com:/p"));
+    // escapes are decoded and re-escaped only where needed
+    assertEquals("https://example.com/a%20b/A?q=https://x/%25",
+        UrlUtils.normalizeUrl("https://example.com/a%20b/%41?q=https%3A%2F%2Fx%2F%25"));
+  }
 
+  @Test
+  void isValidHttpUrl_rejectsWithoutNormalizing() {
+    assertTrue(UrlUtils.isValidHttpUrl("https://example.com/a?b=c#d"));
+    assertTrue(UrlUtils.isValidHttpUrl("http://[::1]:8080/"));
+    assertFalse(UrlUtils.isValidHttpUrl(null));
+    assertFalse(UrlUtils.isValidHttpUrl("mailto:someone@example.com"));
+    assertFalse(UrlUtils.isValidHttpUrl("https:///path-only"));
+    assertFalse(UrlUtils.isValidHttpUrl("https://my_host.example.com/"));
+    assertFalse(UrlUtils.isValidHttpUrl("https://example.com/a b"));
+    assertFalse(UrlUtils.isValidHttpUrl("https://example.com/%zz"));
+    assertFalse(UrlUtils.isValidHttpUrl("https://example.com:8a/"));
+    assertFalse(UrlUtils.isValidHttpUrl("https://example.com/#a#b"));
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Utf8BufferTest {
+
+  @Test
+  void encode_matchesStringGetBytes() {
+    Utf8Buffer buffer = new Utf8Buffer(1);
+    String[] inputs = {
+        "",
+        "https://example.com/a",
+        "https://例え.jp/パス?q=é",
+        "emoji 😀 pair",
+        "lone \uD800 high and \uDC00 low"
+    };
+    for (String input : inputs) {
+      int length = buffer.encode(input);
+      byte[] expected = input.getBytes(StandardCharsets.UTF_8);
+      assertArrayEquals(expected, Arrays.copyOf(buffer.array(), length), input);
+    }
+  }
+
+  @Test
+  void append_concatenatesEncodings() {
+    Utf8Buffer buffer = new Utf8Buffer();
+    buffer.encode("https://example.com/a");
+    int length = buffer.append("#1");
+    assertArrayEquals("https://example.com/a#1".getBytes(StandardCharsets.UTF_8),
+        Arrays.copyOf(buffer.array(), length));
+  }
+}
@@ -0,0 +1,36 @@
+package com.example.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XxHash64Test {
+
+  @Test
+  void hash_referenceVectors_match() {
+    assertEquals(0xEF46DB3751D8E999L, hash(""));
+    assertEquals(0xD24EC4F1A98C6E5BL, hash("a"));
+    assertEquals(0x44BC2CF5AD770999L, hash("abc"));
+    // 39 bytes, exercises the 32-byte stripe loop
+    assertEquals(0xFBCEA83C8A378BF1L, hash("Nobody inspects the spammish repetition"));
+  }
+
+  @Test
+  void hash_respectsOffsetAndLength() {
+    byte[] padded = "xxabcxx".getBytes(StandardCharsets.UTF_8);
+    assertEquals(hash("abc"), XxHash64.hash(padded, 2, 3));
+  }
+
+  @Test
+  void hash_seedChangesResult() {
+    byte[] data = "abc".getBytes(StandardCharsets.UTF_8);
+    assertNotEquals(XxHash64.hash(data, 0, data.length, 0L), XxHash64.hash(data, 0, data.length, 1L));
+  }
+
+  private static long hash(String input) {
+    byte[] data = input.getBytes(StandardCharsets.UTF_8);
+    return XxHash64.hash(data, 0, data.length);
+  }
+}
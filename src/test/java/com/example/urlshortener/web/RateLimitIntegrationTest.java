@@ -0,0 +1,67 @@
+package com.example.urlshortener.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:rate-limit;DB_CLOSE_DELAY=-1",
+    "app.rate-limit.capacity=2",
+    "app.rate-limit.refill-per-second=0.1",
+    "app.rate-limit.api-keys=key-a"
+})
+@AutoConfigureMockMvc
+class RateLimitIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void shorten_overCapacity_returns429WithRetryAfter() throws Exception {
+    mockMvc.perform(shorten("198.51.100.1", null)).andExpect(status().isOk());
+    mockMvc.perform(shorten("198.51.100.1", null)).andExpect(status().isOk());
+
+    mockMvc.perform(shorten("198.51.100.1", null))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string("Retry-After", "10"))
+        .andExpect(jsonPath("$.error").value("RATE_LIMITED"));
+  }
+
+  @Test
+  void shorten_otherClients_haveTheirOwnBudget() throws Exception {
+    mockMvc.perform(shorten("198.51.100.2", null)).andExpect(status().isOk());
+    mockMvc.perform(shorten("198.51.100.2", null)).andExpect(status().isOk());
+    mockMvc.perform(shorten("198.51.100.2", null)).andExpect(status().isTooManyRequests());
+
+    mockMvc.perform(shorten("198.51.100.3", null)).andExpect(status().isOk());
+    mockMvc.perform(shorten("198.51.100.2", "key-a")).andExpect(status().isOk());
+  }
+
+  @Test
+  void shorten_rotatingUnlistedKeys_shareTheAddressBudget() throws Exception {
+    mockMvc.perform(shorten("198.51.100.4", "random-1")).andExpect(status().isOk());
+    mockMvc.perform(shorten("198.51.100.4", "random-2")).andExpect(status().isOk());
+
+    mockMvc.perform(shorten("198.51.100.4", "random-3")).andExpect(status().isTooManyRequests());
+  }
+
+  private static MockHttpServletRequestBuilder shorten(String remoteAddress, String apiKey) {
+    MockHttpServletRequestBuilder request = post("/api/shorten")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"url\":\"https://example.com/limited\"}")
+        .with(r -> {
+          r.setRemoteAddr(remoteAddress);
+          return r;
+        });
+    return apiKey == null ? request : request.header("X-API-Key", apiKey);
+  }
+}
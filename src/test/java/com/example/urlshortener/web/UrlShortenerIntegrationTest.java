@@ -3,6 +3,7 @@ package com.example.urlshortener.web;
 import com.example.urlshortener.config.AppProperties;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,12 +11,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -142,6 +146,93 @@ class UrlShortenerIntegrationTest {
 			.andExpect(header().string("Location", originalUrl));
 	}
 
+	@Test
+	@DisplayName("GET /api/admin/heavy-hitters - reports the tracker and its hottest codes")
+	void heavyHitters_reportsTrackerState() throws Exception {
+		String shortCode = shorten(objectMapper.createObjectNode()
+			.put("url", "https://example.com/hot")).get("shortCode").asText();
+		mockMvc.perform(get("/u/{code}", shortCode)).andExpect(status().isMovedPermanently());
+
+		mockMvc.perform(get("/api/admin/heavy-hitters").param("limit", "5"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.enabled").value(true))
+			.andExpect(jsonPath("$.topK").value(100))
+			.andExpect(jsonPath("$.sketchBytes").value(4 * 8192 * 4))
+			.andExpect(jsonPath("$.codes").isArray());
+	}
+
+	@Test
+	@DisplayName("GET /u/{code} - redirect is cacheable and carries validators derived from createdAt")
+	void redirect_knownCode_carriesCachingHeaders() throws Exception {
+		String shortCode = shorten(objectMapper.createObjectNode()
+			.put("url", "https://example.com/cache-me")).get("shortCode").asText();
+
+		MvcResult result = mockMvc.perform(get("/u/{code}", shortCode))
+			.andExpect(status().isMovedPermanently())
+			.andExpect(header().exists("ETag"))
+			.andExpect(header().exists("Last-Modified"))
+			.andReturn();
+
+		assertThat(result.getResponse().getHeader("Cache-Control"))
+			.contains("max-age=3600")
+			.contains("s-maxage=86400")
+			.contains("public");
+		// A stable validator, not one per response
+		assertThat(result.getResponse().getHeader("ETag"))
+			.isEqualTo(mockMvc.perform(get("/u/{code}", shortCode)).andReturn().getResponse().getHeader("ETag"));
+	}
+
+	@Test
+	@DisplayName("GET /u/{code} - matching If-None-Match or If-Modified-Since yields 304")
+	void redirect_conditionalRequest_returnsNotModified() throws Exception {
+		String shortCode = shorten(objectMapper.createObjectNode()
+			.put("url", "https://example.com/revalidate-me")).get("shortCode").asText();
+		MvcResult first = mockMvc.perform(get("/u/{code}", shortCode)).andReturn();
+		String etag = first.getResponse().getHeader("ETag");
+		String lastModified = first.getResponse().getHeader("Last-Modified");
+
+		mockMvc.perform(get("/u/{code}", shortCode).header("If-None-Match", etag))
+			.andExpect(status().isNotModified())
+			.andExpect(header().string("ETag", etag))
+			.andExpect(header().exists("Cache-Control"))
+			.andExpect(header().doesNotExist("Location"));
+		mockMvc.perform(get("/u/{code}", shortCode).header("If-Modified-Since", lastModified))
+			.andExpect(status().isNotModified());
+		mockMvc.perform(get("/u/{code}", shortCode).header("If-None-Match", "\"stale\""))
+			.andExpect(status().isMovedPermanently());
+	}
+
+	@Test
+	@DisplayName("GET /u/{code} - link created with redirectType TEMPORARY redirects with 307")
+	void redirect_temporaryLink_returnsTemporaryRedirect() throws Exception {
+		String originalUrl = "https://example.com/temporary/" + System.nanoTime();
+		JsonNode created = shorten(objectMapper.createObjectNode()
+			.put("url", originalUrl)
+			.put("redirectType", "TEMPORARY"));
+		assertThat(created.get("redirectType").asText()).isEqualTo("TEMPORARY");
+
+		mockMvc.perform(get("/u/{code}", created.get("shortCode").asText()))
+			.andExpect(status().isTemporaryRedirect())
+			.andExpect(header().string("Location", originalUrl));
+	}
+
+	@Test
+	@DisplayName("GET /u/{code} - cache lifetimes of an expiring link end with the link")
+	void redirect_expiringLink_capsCacheLifetimeAtExpiry() throws Exception {
+		String shortCode = shorten(objectMapper.createObjectNode()
+			.put("url", "https://example.com/short-lived/" + System.nanoTime())
+			.put("ttlSeconds", 60)).get("shortCode").asText();
+
+		String cacheControl = mockMvc.perform(get("/u/{code}", shortCode))
+			.andExpect(status().isMovedPermanently())
+			.andReturn()
+			.getResponse()
+			.getHeader("Cache-Control");
+
+		assertThat(cacheControl).containsPattern("(^|, )max-age=(60|59)(,|$)");
+		assertThat(cacheControl).containsPattern("s-maxage=(60|59)(,|$)");
+	}
+
 	@Test
 	@DisplayName("POST /api/shorten - invalid URL yields 400 with error INVALID_URL")
 	void shorten_invalidUrl_returnsBadRequest() throws Exception {
@@ -159,6 +250,73 @@ class UrlShortenerIntegrationTest {
 			.andExpect(jsonPath("$.message").isNotEmpty());
 	}
 
+	@Test
+	@DisplayName("POST /api/shorten - ttlSeconds yields a link with expiresAt that resolves until then")
+	void shorten_withTtl_returnsExpiresAt() throws Exception {
+		String originalUrl = "https://example.com/expiring/" + System.nanoTime();
+		String requestBody = objectMapper.createObjectNode()
+			.put("url", originalUrl)
+			.put("ttlSeconds", 3600)
+			.toString();
+
+		String response = mockMvc.perform(
+				post("/api/shorten")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(requestBody)
+			)
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.expiresAt").isNotEmpty())
+			.andReturn()
+			.getResponse()
+			.getContentAsString();
+
+		String shortCode = objectMapper.readTree(response).get("shortCode").asText();
+		mockMvc.perform(get("/api/resolve/{code}", shortCode))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.url").value(originalUrl));
+	}
+
+	@Test
+	@DisplayName("POST /api/shorten - both ttlSeconds and expiresAt yield 400 with error INVALID_EXPIRY")
+	void shorten_ttlAndExpiresAt_returnsBadRequest() throws Exception {
+		String requestBody = objectMapper.createObjectNode()
+			.put("url", "https://example.com/both")
+			.put("ttlSeconds", 60)
+			.put("expiresAt", "2999-01-01T00:00:00Z")
+			.toString();
+
+		mockMvc.perform(
+				post("/api/shorten")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(requestBody)
+			)
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.error").value("INVALID_EXPIRY"));
+	}
+
+	@Test
+	@DisplayName("POST /api/shorten - ttlSeconds or expiresAt past the storable range yield 400 with error INVALID_EXPIRY")
+	void shorten_expiryOutOfRange_returnsBadRequest() throws Exception {
+		String hugeTtl = objectMapper.createObjectNode()
+			.put("url", "https://example.com/forever")
+			.put("ttlSeconds", Long.MAX_VALUE)
+			.toString();
+		String farExpiry = objectMapper.createObjectNode()
+			.put("url", "https://example.com/forever")
+			.put("expiresAt", "+100000-01-01T00:00:00Z")
+			.toString();
+
+		for (String requestBody : new String[] { hugeTtl, farExpiry }) {
+			mockMvc.perform(
+					post("/api/shorten")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(requestBody)
+				)
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("INVALID_EXPIRY"));
+		}
+	}
+
 	@Test
 	@DisplayName("GET /api/resolve/{code} - unknown code yields 404 with error NOT_FOUND")
 	void resolve_unknownCode_returnsNotFound() throws Exception {
@@ -174,6 +332,54 @@ class UrlShortenerIntegrationTest {
 			.andExpect(status().isNotFound())
 			.andExpect(jsonPath("$.error").value("NOT_FOUND"));
 	}
-}
 
+	@Test
+	@DisplayName("GET /api/admin/export - streams stored mappings as CSV")
+	void export_csv_containsShortenedUrl() throws Exception {
+		String originalUrl = "https://example.com/export";
+		String requestBody = objectMapper.createObjectNode()
+			.put("url", originalUrl)
+			.toString();
+		String shortCode = objectMapper.readTree(mockMvc.perform(
+				post("/api/shorten")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(requestBody)
+			)
+			.andReturn()
+			.getResponse()
+			.getContentAsString()).get("shortCode").asText();
+
+		MvcResult started = mockMvc.perform(get("/api/admin/export").param("format", "CSV"))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		String csv = mockMvc.perform(asyncDispatch(started))
+			.andExpect(status().isOk())
+			.andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+			.andReturn()
+			.getResponse()
+			.getContentAsString();
+
+		assertThat(csv).startsWith("id,short_code,original_url,created_at,expires_at,redirect_type\r\n");
+		assertThat(csv).contains("," + shortCode + "," + originalUrl + ",");
+	}
+
+	@Test
+	@DisplayName("GET /api/admin/export - unknown format yields 400 with error INVALID_PARAMETER")
+	void export_unknownFormat_returnsBadRequest() throws Exception {
+		mockMvc.perform(get("/api/admin/export").param("format", "xml"))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.error").value("INVALID_PARAMETER"));
+	}
 
+	private JsonNode shorten(ObjectNode body) throws Exception {
+		return objectMapper.readTree(mockMvc.perform(
+				post("/api/shorten")
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(body.toString())
+			)
+			.andExpect(status().isOk())
+			.andReturn()
+			.getResponse()
+			.getContentAsString());
+	}
+}